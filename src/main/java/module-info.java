@@ -4,10 +4,27 @@
  * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
  */
 module org.basinmc.stormdrain {
+  exports org.basinmc.stormdrain;
+  exports org.basinmc.stormdrain.cluster;
+  exports org.basinmc.stormdrain.coalescing;
+  exports org.basinmc.stormdrain.decoder;
+  exports org.basinmc.stormdrain.deployment;
   exports org.basinmc.stormdrain.event;
+  exports org.basinmc.stormdrain.export;
+  exports org.basinmc.stormdrain.index;
+  exports org.basinmc.stormdrain.journal;
+  exports org.basinmc.stormdrain.membership;
+  exports org.basinmc.stormdrain.metrics;
+  exports org.basinmc.stormdrain.release;
   exports org.basinmc.stormdrain.resource;
+  exports org.basinmc.stormdrain.review;
+  exports org.basinmc.stormdrain.wiki;
+
+  opens org.basinmc.stormdrain.event to com.fasterxml.jackson.databind;
+  opens org.basinmc.stormdrain.resource to com.fasterxml.jackson.databind;
 
   requires static com.github.spotbugs.annotations;
   requires com.fasterxml.jackson.annotation;
+  requires com.fasterxml.jackson.core;
   requires com.fasterxml.jackson.databind;
 }
@@ -0,0 +1,336 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * <p>Provides a list of all values which GitHub transmits within the X-GitHub-Event header of a
+ * web hook delivery.</p>
+ *
+ * <p>Values are resolved directly from the raw header bytes through a perfect hash table without
+ * allocating any intermediate objects. Events which are known but not (yet) supported by this
+ * library resolve to a header without an associated payload type which permits receivers to
+ * acknowledge them (for instance with 204 No Content) without reading the request body. This
+ * includes the ping event which GitHub sends once when a new web hook is created.</p>
+ *
+ * <p>Refer to {@link PayloadType} for a description of the individual events.</p>
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public enum EventHeader {
+  COMMIT_COMMENT(PayloadType.COMMIT_COMMENT),
+  CREATE(PayloadType.CREATE),
+  DELETE(PayloadType.DELETE),
+  DEPLOYMENT(PayloadType.DEPLOYMENT),
+  DEPLOYMENT_STATUS(PayloadType.DEPLOYMENT_STATUS),
+  FORK(PayloadType.FORK),
+  GOLLUM(PayloadType.GOLLUM),
+  INSTALLATION(null),
+  INSTALLATION_REPOSITORIES(null),
+  ISSUE_COMMENT(PayloadType.ISSUE_COMMENT),
+  ISSUES(PayloadType.ISSUES),
+  LABEL(PayloadType.LABEL),
+  MARKETPLACE_PURCHASE(null),
+  MEMBER(PayloadType.MEMBER),
+  MEMBERSHIP(PayloadType.MEMBERSHIP),
+  MILESTONE(PayloadType.MILESTONE),
+  ORGANIZATION(PayloadType.ORGANIZATION),
+  ORG_BLOCK(PayloadType.ORG_BLOCK),
+  PAGE_BUILD(PayloadType.PAGE_BUILD),
+  PING(null),
+  PROJECT_CARD(null),
+  PROJECT_COLUMN(null),
+  PROJECT(null),
+  PUBLIC(PayloadType.PUBLIC),
+  PULL_REQUEST_REVIEW_COMMENT(PayloadType.PULL_REQUEST_REVIEW_COMMENT),
+  PULL_REQUEST_REVIEW(PayloadType.PULL_REQUEST_REVIEW),
+  PULL_REQUEST(PayloadType.PULL_REQUEST),
+  PUSH(PayloadType.PUSH),
+  REPOSITORY(PayloadType.REPOSITORY),
+  RELEASE(PayloadType.RELEASE),
+  STATUS(null),
+  TEAM(PayloadType.TEAM),
+  TEAM_ADD(PayloadType.TEAM_ADD),
+  WATCH(PayloadType.WATCH);
+
+  /**
+   * Defines the hash multipliers which are evaluated (in order) when searching for a collision
+   * free table layout.
+   */
+  private static final int[] MULTIPLIERS = {
+      0x9E3779B1, 0x85EBCA77, 0xC2B2AE3D, 0x27D4EB2F, 0x165667B1, 0x01000193
+  };
+
+  private static final EventHeader[] TABLE;
+  private static final int MASK;
+  private static final int MULTIPLIER;
+
+  private final PayloadType payloadType;
+  private final String value;
+  private final byte[] encodedValue;
+
+  static {
+    EventHeader[] values = values();
+
+    int size = Integer.highestOneBit(values.length) << 1;
+    EventHeader[] candidate = null;
+    int selected = 0;
+
+    search:
+    while (true) {
+      for (int current : MULTIPLIERS) {
+        candidate = new EventHeader[size];
+
+        boolean collision = false;
+        for (EventHeader header : values) {
+          int index =
+              hash(header.encodedValue, 0, header.encodedValue.length, current) & (size - 1);
+
+          if (candidate[index] != null) {
+            collision = true;
+            break;
+          }
+
+          candidate[index] = header;
+        }
+
+        if (!collision) {
+          selected = current;
+          break search;
+        }
+      }
+
+      size <<= 1;
+    }
+
+    TABLE = candidate;
+    MASK = size - 1;
+    MULTIPLIER = selected;
+  }
+
+  EventHeader(@Nullable PayloadType payloadType) {
+    this.payloadType = payloadType;
+    this.value = this.name().toLowerCase(Locale.ROOT);
+    this.encodedValue = this.value.getBytes(StandardCharsets.US_ASCII);
+  }
+
+  /**
+   * Computes the hash of an event name while ignoring the case of ASCII letters.
+   *
+   * @param value an encoded value.
+   * @param offset an offset within the array.
+   * @param length the length of the value.
+   * @param multiplier a hash multiplier.
+   * @return a hash.
+   */
+  private static int hash(@NonNull byte[] value, int offset, int length, int multiplier) {
+    int hash = length;
+
+    for (int i = offset; i < offset + length; ++i) {
+      hash = (hash ^ toLowerCase(value[i])) * multiplier;
+    }
+
+    return hash ^ (hash >>> 16);
+  }
+
+  /**
+   * Converts an ASCII letter to its lower case equivalent.
+   *
+   * @param value a byte.
+   * @return the lower case equivalent or the byte itself if it is not an upper case letter.
+   */
+  private static int toLowerCase(byte value) {
+    return value >= 'A' && value <= 'Z' ? value + ('a' - 'A') : value;
+  }
+
+  /**
+   * Evaluates whether the specified whitespace should be stripped from a header value.
+   *
+   * @param value a byte.
+   * @return true if whitespace, false otherwise.
+   */
+  private static boolean isWhitespace(int value) {
+    return value == ' ' || value == '\t';
+  }
+
+  /**
+   * Resolves an event header from its raw (ASCII encoded) value.
+   *
+   * @param value an encoded header value.
+   * @return a header or null if the value is not a known event name.
+   */
+  @Nullable
+  public static EventHeader resolve(@NonNull byte[] value) {
+    return resolve(value, 0, value.length);
+  }
+
+  /**
+   * <p>Resolves an event header from its raw (ASCII encoded) value.</p>
+   *
+   * <p>Leading and trailing whitespace is ignored and letters are compared regardless of their
+   * case.</p>
+   *
+   * @param value an array which contains the encoded header value.
+   * @param offset the offset of the value within the array.
+   * @param length the length of the value.
+   * @return a header or null if the value is not a known event name.
+   */
+  @Nullable
+  public static EventHeader resolve(@NonNull byte[] value, int offset, int length) {
+    while (length != 0 && isWhitespace(value[offset])) {
+      ++offset;
+      --length;
+    }
+    while (length != 0 && isWhitespace(value[offset + length - 1])) {
+      --length;
+    }
+
+    EventHeader header = TABLE[hash(value, offset, length, MULTIPLIER) & MASK];
+    if (header == null || header.encodedValue.length != length) {
+      return null;
+    }
+
+    byte[] expected = header.encodedValue;
+    for (int i = 0; i < length; ++i) {
+      if (toLowerCase(value[offset + i]) != expected[i]) {
+        return null;
+      }
+    }
+
+    return header;
+  }
+
+  /**
+   * Resolves an event header from the remaining bytes within the supplied buffer. The position of
+   * the passed buffer is left untouched.
+   *
+   * @param value a buffer which contains the encoded header value.
+   * @return a header or null if the value is not a known event name.
+   */
+  @Nullable
+  public static EventHeader resolve(@NonNull ByteBuffer value) {
+    if (value.hasArray()) {
+      return resolve(value.array(), value.arrayOffset() + value.position(), value.remaining());
+    }
+
+    int offset = value.position();
+    int length = value.remaining();
+    while (length != 0 && isWhitespace(value.get(offset))) {
+      ++offset;
+      --length;
+    }
+    while (length != 0 && isWhitespace(value.get(offset + length - 1))) {
+      --length;
+    }
+
+    int hash = length;
+    for (int i = offset; i < offset + length; ++i) {
+      hash = (hash ^ toLowerCase(value.get(i))) * MULTIPLIER;
+    }
+
+    EventHeader header = TABLE[(hash ^ (hash >>> 16)) & MASK];
+    if (header == null || header.encodedValue.length != length) {
+      return null;
+    }
+
+    byte[] expected = header.encodedValue;
+    for (int i = 0; i < length; ++i) {
+      if (toLowerCase(value.get(offset + i)) != expected[i]) {
+        return null;
+      }
+    }
+
+    return header;
+  }
+
+  /**
+   * Resolves an event header from its decoded value.
+   *
+   * @param value a header value.
+   * @return a header or null if the value is not a known event name.
+   */
+  @Nullable
+  public static EventHeader resolve(@NonNull CharSequence value) {
+    int offset = 0;
+    int length = value.length();
+    while (length != 0 && isWhitespace(value.charAt(offset))) {
+      ++offset;
+      --length;
+    }
+    while (length != 0 && isWhitespace(value.charAt(offset + length - 1))) {
+      --length;
+    }
+
+    int hash = length;
+    for (int i = offset; i < offset + length; ++i) {
+      char c = value.charAt(i);
+      if (c > 0x7F) {
+        return null;
+      }
+
+      hash = (hash ^ toLowerCase((byte) c)) * MULTIPLIER;
+    }
+
+    EventHeader header = TABLE[(hash ^ (hash >>> 16)) & MASK];
+    if (header == null || header.encodedValue.length != length) {
+      return null;
+    }
+
+    byte[] expected = header.encodedValue;
+    for (int i = 0; i < length; ++i) {
+      if (toLowerCase((byte) value.charAt(offset + i)) != expected[i]) {
+        return null;
+      }
+    }
+
+    return header;
+  }
+
+  /**
+   * Retrieves the payload type which decodes the bodies of deliveries with this header.
+   *
+   * @return a payload type or null if this event is not supported.
+   */
+  @Nullable
+  public PayloadType getPayloadType() {
+    return this.payloadType;
+  }
+
+  /**
+   * Retrieves the value which GitHub transmits for this event.
+   *
+   * @return a header value.
+   */
+  @NonNull
+  public String getValue() {
+    return this.value;
+  }
+
+  /**
+   * Evaluates whether this library is capable of decoding the payloads of this event.
+   *
+   * @return true if supported, false otherwise.
+   */
+  public boolean isSupported() {
+    return this.payloadType != null;
+  }
+}
@@ -17,7 +17,9 @@
 package org.basinmc.stormdrain;
 
 import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
 import org.basinmc.stormdrain.event.Event;
 
@@ -31,11 +33,18 @@ public class Payload<E extends Event> {
   private final UUID deliveryId;
   private final PayloadType type;
   private final E event;
+  private final RawBody rawBody;
 
   public Payload(@NonNull UUID deliveryId, @NonNull PayloadType type, @NonNull E event) {
+    this(deliveryId, type, event, null);
+  }
+
+  public Payload(@NonNull UUID deliveryId, @NonNull PayloadType type, @NonNull E event,
+      @Nullable RawBody rawBody) {
     this.deliveryId = deliveryId;
     this.type = type;
     this.event = event;
+    this.rawBody = rawBody;
 
     if (type.getType() != event.getClass()) {
       throw new IllegalArgumentException(
@@ -75,6 +84,20 @@ public class Payload<E extends Event> {
     return this.event;
   }
 
+  /**
+   * <p>Retrieves the original bytes from which this payload has been decoded.</p>
+   *
+   * <p>Bodies are only retained when explicitly requested from the decoder. The returned body is
+   * owned by this payload (e.g. its holder is expected to release it once the payload has been
+   * processed) and has to be retained separately when it is passed on beyond this scope.</p>
+   *
+   * @return a raw body or an empty optional if the body has not been retained.
+   */
+  @NonNull
+  public Optional<RawBody> getRawBody() {
+    return Optional.ofNullable(this.rawBody);
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -20,10 +20,14 @@ import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.MapperFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.time.Instant;
 import org.basinmc.stormdrain.event.CommitCommentEvent;
 import org.basinmc.stormdrain.event.CreateEvent;
 import org.basinmc.stormdrain.event.DeleteEvent;
@@ -51,6 +55,10 @@ import org.basinmc.stormdrain.event.RepositoryEvent;
 import org.basinmc.stormdrain.event.TeamAddEvent;
 import org.basinmc.stormdrain.event.TeamEvent;
 import org.basinmc.stormdrain.event.WatchEvent;
+import org.basinmc.stormdrain.resource.ObjectId;
+import org.basinmc.stormdrain.utility.CreatorDeserializer;
+import org.basinmc.stormdrain.utility.ObjectIdDeserializer;
+import org.basinmc.stormdrain.utility.TimestampDeserializer;
 
 /**
  * Provides a list of recognized event types which notify the receiver of certain changes to a
@@ -240,12 +248,34 @@ public enum PayloadType {
 
   PayloadType(@NonNull Class<? extends Event> type) {
     this.type = type;
+    this.reader = createMapper().readerFor(type);
+  }
 
+  /**
+   * <p>Creates a new mapper which is configured to decode event payloads. Decoders which require
+   * their own mapper configuration (such as a custom annotation introspector) should derive it
+   * from this instance.</p>
+   *
+   * <p>Timestamps are decoded through a specialized deserializer which parses the fixed shapes
+   * used by GitHub without relying on the general purpose formatter while commit hashes are
+   * decoded into their compact {@link ObjectId} representation directly (payloads which carry
+   * abbreviated or otherwise malformed hashes are rejected). Models which are
+   * constructed through a property based creator are decoded by a deserializer which invokes the
+   * creator directly instead of buffering its arguments.</p>
+   *
+   * @return a mapper.
+   */
+  @NonNull
+  public static ObjectMapper createMapper() {
     ObjectMapper mapper = new ObjectMapper();
     mapper.enable(MapperFeature.ACCEPT_CASE_INSENSITIVE_ENUMS);
     mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
     mapper.findAndRegisterModules();
-    this.reader = mapper.readerFor(type);
+    mapper.registerModule(new SimpleModule("stormdrain")
+        .addDeserializer(Instant.class, new TimestampDeserializer())
+        .addDeserializer(ObjectId.class, new ObjectIdDeserializer())
+        .setDeserializerModifier(new CreatorDeserializer.Specializer()));
+    return mapper;
   }
 
   /**
@@ -258,6 +288,17 @@ public enum PayloadType {
     return this.type;
   }
 
+  /**
+   * Retrieves the reader which is used to decode payloads of this type. Decoders may derive
+   * specialized readers from this instance (for instance to attach additional problem handlers).
+   *
+   * @return a reader.
+   */
+  @NonNull
+  public ObjectReader getReader() {
+    return this.reader;
+  }
+
   /**
    * Deoodes an event payload from the supplied payload string.
    *
@@ -272,6 +313,42 @@ public enum PayloadType {
     return (E) this.reader.readValue(payload);
   }
 
+  /**
+   * Decodes an event payload from the supplied array of UTF-8 encoded bytes.
+   *
+   * @param payload a payload.
+   * @param <E> an event type.
+   * @return an event payload.
+   * @throws IOException when the data is malformed.
+   */
+  @NonNull
+  @SuppressWarnings("unchecked")
+  public <E extends Event> E read(@NonNull byte[] payload) throws IOException {
+    return (E) this.reader.readValue(payload);
+  }
+
+  /**
+   * <p>Decodes an event payload from the remaining bytes within the supplied buffer.</p>
+   *
+   * <p>The position of the passed buffer is left untouched. Heap buffers are decoded directly from
+   * their backing array while direct buffers are streamed.</p>
+   *
+   * @param payload a buffer.
+   * @param <E> an event type.
+   * @return an event payload.
+   * @throws IOException when the data is malformed.
+   */
+  @NonNull
+  @SuppressWarnings("unchecked")
+  public <E extends Event> E read(@NonNull ByteBuffer payload) throws IOException {
+    if (payload.hasArray()) {
+      return (E) this.reader.readValue(payload.array(), payload.arrayOffset() + payload.position(),
+          payload.remaining());
+    }
+
+    return (E) this.reader.readValue(new ByteBufferBackedInputStream(payload.duplicate()));
+  }
+
   /**
    * Decodes an event payload from the supplied input stream.
    *
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.filter.FilteringParserDelegate;
+import com.fasterxml.jackson.core.filter.JsonPointerBasedFilter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>Represents a read-only view of the original bytes of a payload.</p>
+ *
+ * <p>Bodies wrap their backing memory (such as a slice of a pooled receive buffer or a memory
+ * mapped region of a journal segment) without copying it. As the backing memory is typically
+ * recycled once a delivery has been processed, bodies are reference counted: Each party which
+ * holds on to a body beyond the scope in which it has been handed to them is expected to
+ * {@link #retain()} it and {@link #release()} it once done. The release action of a body is
+ * invoked once its last reference has been released after which its contents may no longer be
+ * accessed.</p>
+ *
+ * <p>Individual values may be looked up via {@link #find(JsonPointer)} which streams over the
+ * retained bytes and only materializes the selected value instead of building a tree of the
+ * entire payload.</p>
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public final class RawBody {
+
+  private static final ObjectMapper MAPPER = PayloadType.createMapper();
+
+  /**
+   * Holds the writable slice of the original buffer in order to permit the parser to access the
+   * backing array of heap buffers directly. Callers are only ever handed read-only views.
+   */
+  private final ByteBuffer buffer;
+  private final Runnable releaseAction;
+  private final AtomicInteger referenceCount = new AtomicInteger(1);
+
+  public RawBody(@NonNull ByteBuffer buffer, @Nullable Runnable releaseAction) {
+    this.buffer = buffer.slice();
+    this.releaseAction = releaseAction;
+  }
+
+  /**
+   * Wraps an array of UTF-8 encoded bytes. The array must not be modified while the body is in
+   * use.
+   *
+   * @param body an array of UTF-8 encoded bytes.
+   * @return a body.
+   */
+  @NonNull
+  public static RawBody wrap(@NonNull byte[] body) {
+    return new RawBody(ByteBuffer.wrap(body), null);
+  }
+
+  /**
+   * Maps a region of a file into memory.
+   *
+   * @param channel a file channel.
+   * @param position the position at which the body starts within the file.
+   * @param size the size of the body (in bytes).
+   * @return a body.
+   * @throws IOException when mapping the region fails.
+   */
+  @NonNull
+  public static RawBody map(@NonNull FileChannel channel, long position, int size)
+      throws IOException {
+    return new RawBody(channel.map(MapMode.READ_ONLY, position, size), null);
+  }
+
+  /**
+   * Acquires an additional reference to this body.
+   *
+   * @return this body.
+   * @throws IllegalStateException when the body has already been released.
+   */
+  @NonNull
+  public RawBody retain() {
+    int count;
+    do {
+      count = this.referenceCount.get();
+      if (count == 0) {
+        throw new IllegalStateException("Body has already been released");
+      }
+    } while (!this.referenceCount.compareAndSet(count, count + 1));
+
+    return this;
+  }
+
+  /**
+   * Releases a single reference to this body and invokes its release action when the last
+   * reference has been released.
+   *
+   * @return true if the body has been released entirely, false otherwise.
+   * @throws IllegalStateException when the body has already been released.
+   */
+  public boolean release() {
+    int count;
+    do {
+      count = this.referenceCount.get();
+      if (count == 0) {
+        throw new IllegalStateException("Body has already been released");
+      }
+    } while (!this.referenceCount.compareAndSet(count, count - 1));
+
+    if (count != 1) {
+      return false;
+    }
+
+    if (this.releaseAction != null) {
+      this.releaseAction.run();
+    }
+    return true;
+  }
+
+  /**
+   * Retrieves the amount of references which are currently held to this body.
+   *
+   * @return an amount of references.
+   */
+  public int getReferenceCount() {
+    return this.referenceCount.get();
+  }
+
+  /**
+   * Retrieves a read-only view of the body. Each invocation returns an independent view which
+   * spans the entire body.
+   *
+   * @return a buffer.
+   * @throws IllegalStateException when the body has already been released.
+   */
+  @NonNull
+  public ByteBuffer getBuffer() {
+    this.verifyAccessible();
+    return this.buffer.asReadOnlyBuffer();
+  }
+
+  /**
+   * Retrieves the size of this body.
+   *
+   * @return a size (in bytes).
+   */
+  public int getSize() {
+    return this.buffer.capacity();
+  }
+
+  /**
+   * Decodes the value at the specified location within the body without decoding any of its
+   * siblings.
+   *
+   * @param pointer a pointer.
+   * @return a value or an empty optional if no value exists at the specified location.
+   * @throws IOException when the body is malformed.
+   * @throws IllegalStateException when the body has already been released.
+   */
+  @NonNull
+  public Optional<JsonNode> find(@NonNull JsonPointer pointer) throws IOException {
+    return Optional.ofNullable(this.find(pointer, JsonNode.class));
+  }
+
+  /**
+   * Decodes the value at the specified location within the body into the specified type without
+   * decoding any of its siblings.
+   *
+   * @param pointer a pointer.
+   * @param type a value type.
+   * @param <T> a value type.
+   * @return a value or null if no value exists at the specified location.
+   * @throws IOException when the body is malformed.
+   * @throws IllegalStateException when the body has already been released.
+   */
+  @Nullable
+  public <T> T find(@NonNull JsonPointer pointer, @NonNull Class<T> type) throws IOException {
+    try (JsonParser parser = this.createParser()) {
+      JsonParser filtered = pointer.matches() ? parser
+          : new FilteringParserDelegate(parser, new JsonPointerBasedFilter(pointer), false, false);
+
+      if (filtered.nextToken() == null) {
+        return null;
+      }
+
+      return MAPPER.readValue(filtered, type);
+    }
+  }
+
+  /**
+   * Creates a new parser which streams over the contents of this body.
+   *
+   * @return a parser.
+   * @throws IOException when the parser cannot be created.
+   */
+  @NonNull
+  private JsonParser createParser() throws IOException {
+    this.verifyAccessible();
+    ByteBuffer buffer = this.buffer.duplicate();
+
+    if (buffer.hasArray()) {
+      return MAPPER.getFactory()
+          .createParser(buffer.array(), buffer.arrayOffset() + buffer.position(),
+              buffer.remaining());
+    }
+
+    return MAPPER.getFactory().createParser(new ByteBufferBackedInputStream(buffer));
+  }
+
+  /**
+   * Ensures that this body has not yet been released.
+   *
+   * @throws IllegalStateException when the body has already been released.
+   */
+  private void verifyAccessible() {
+    if (this.referenceCount.get() == 0) {
+      throw new IllegalStateException("Body has already been released");
+    }
+  }
+}
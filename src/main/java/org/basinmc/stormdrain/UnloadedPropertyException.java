@@ -0,0 +1,56 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * Notifies the caller that a property has been accessed on a partially decoded model (e.g. a model
+ * which has been decoded through a projection that does not include the respective property).
+ */
+public class UnloadedPropertyException extends IllegalStateException {
+
+  private final Class<?> model;
+  private final String property;
+
+  public UnloadedPropertyException(@NonNull Class<?> model, @NonNull String property) {
+    super("Property \"" + property + "\" of " + model.getName()
+        + " has not been loaded: Add it to the projection in order to access it");
+    this.model = model;
+    this.property = property;
+  }
+
+  /**
+   * Retrieves the model on which the property has been accessed.
+   *
+   * @return a model type.
+   */
+  @NonNull
+  public Class<?> getModel() {
+    return this.model;
+  }
+
+  /**
+   * Retrieves the name of the property which has been accessed.
+   *
+   * @return a property name.
+   */
+  @NonNull
+  public String getProperty() {
+    return this.property;
+  }
+}
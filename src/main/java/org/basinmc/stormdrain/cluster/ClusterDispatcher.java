@@ -0,0 +1,186 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.cluster;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import org.basinmc.stormdrain.PayloadType;
+import org.basinmc.stormdrain.metrics.MetricSource;
+import org.basinmc.stormdrain.metrics.MetricsReporter;
+
+/**
+ * <p>Routes deliveries to the cluster member which owns their repository.</p>
+ *
+ * <p>Any member may receive any delivery from GitHub. Each received delivery is keyed on the
+ * identifier of its repository (or its organization if it does not refer to a repository) and
+ * passed on to the owner of this key within a consistent hash ring. As all deliveries for a given
+ * repository are processed by the same member, per-repository ordering is retained across the
+ * cluster without a central broker. Deliveries which refer to neither a repository nor an
+ * organization are processed by the receiving member.</p>
+ *
+ * <p>When the cluster membership changes, the ring is rebuilt and only the repositories which were
+ * owned by (or are now owned by) the affected member move to a different member. Deliveries which
+ * have been forwarded by another member are always processed locally (even if the local member no
+ * longer owns them) in order to avoid forwarding loops during membership changes.</p>
+ */
+public class ClusterDispatcher implements MetricSource, AutoCloseable {
+
+  /**
+   * Defines the name of the counter which tracks the amount of dispatched deliveries.
+   */
+  public static final String DELIVERY_METRIC = "stormdrain.cluster.deliveries";
+
+  private final String localMember;
+  private final ClusterTransport transport;
+  private final DeliveryHandler handler;
+  private volatile HashRing ring;
+
+  private final LongAdder localDeliveries = new LongAdder();
+  private final LongAdder forwardedDeliveries = new LongAdder();
+  private final LongAdder receivedDeliveries = new LongAdder();
+
+  public ClusterDispatcher(@NonNull String localMember, int virtualNodes,
+      @NonNull ClusterTransport transport, @NonNull DeliveryHandler handler) {
+    this.localMember = localMember;
+    this.transport = transport;
+    this.handler = handler;
+    this.ring = new HashRing(virtualNodes, Collections.singleton(localMember));
+  }
+
+  /**
+   * Begins accepting deliveries which are forwarded by other members.
+   *
+   * @throws IOException when the transport cannot be bound.
+   */
+  public void start() throws IOException {
+    this.transport.start((delivery) -> {
+      this.receivedDeliveries.increment();
+      this.handler.handle(delivery);
+    });
+  }
+
+  /**
+   * Processes a delivery which has been received from GitHub or passes it on to the member which
+   * owns its repository.
+   *
+   * @param deliveryId a delivery identifier.
+   * @param type a payload type.
+   * @param body a raw payload.
+   * @return the identifier of the member which processed the delivery.
+   * @throws IOException when the payload is malformed, the owning member is unreachable or
+   * processing fails.
+   */
+  @NonNull
+  public String dispatch(@NonNull UUID deliveryId, @NonNull PayloadType type,
+      @NonNull byte[] body) throws IOException {
+    long key = ShardKeys.extract(body);
+    String owner = key == ShardKeys.NONE ? this.localMember : this.ring.getOwner(key);
+    Delivery delivery = new Delivery(deliveryId, type, body);
+
+    if (this.localMember.equals(owner)) {
+      this.localDeliveries.increment();
+      this.handler.handle(delivery);
+    } else {
+      this.transport.send(owner, delivery);
+      this.forwardedDeliveries.increment();
+    }
+
+    return owner;
+  }
+
+  /**
+   * Replaces the set of remote members (the local member always remains part of the cluster).
+   *
+   * @param members a set of member identifiers.
+   */
+  public synchronized void setMembers(@NonNull Collection<String> members) {
+    Set<String> copy = new HashSet<>(members);
+    copy.add(this.localMember);
+
+    this.ring = new HashRing(this.ring.getVirtualNodes(), copy);
+  }
+
+  /**
+   * Adds a member to the cluster.
+   *
+   * @param member a member identifier.
+   */
+  public synchronized void addMember(@NonNull String member) {
+    this.ring = this.ring.with(member);
+  }
+
+  /**
+   * Removes a member from the cluster.
+   *
+   * @param member a member identifier.
+   * @throws IllegalArgumentException when attempting to remove the local member.
+   */
+  public synchronized void removeMember(@NonNull String member) {
+    if (this.localMember.equals(member)) {
+      throw new IllegalArgumentException("Illegal member: Cannot remove local member");
+    }
+
+    this.ring = this.ring.without(member);
+  }
+
+  /**
+   * Retrieves the identifier of the local member.
+   *
+   * @return a member identifier.
+   */
+  @NonNull
+  public String getLocalMember() {
+    return this.localMember;
+  }
+
+  /**
+   * Retrieves the current hash ring.
+   *
+   * @return a ring.
+   */
+  @NonNull
+  public HashRing getRing() {
+    return this.ring;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void report(@NonNull MetricsReporter reporter) {
+    reporter.counter(DELIVERY_METRIC, Collections.singletonMap("route", "local"),
+        this.localDeliveries.sum());
+    reporter.counter(DELIVERY_METRIC, Collections.singletonMap("route", "forwarded"),
+        this.forwardedDeliveries.sum());
+    reporter.counter(DELIVERY_METRIC, Collections.singletonMap("route", "received"),
+        this.receivedDeliveries.sum());
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void close() throws IOException {
+    this.transport.close();
+  }
+}
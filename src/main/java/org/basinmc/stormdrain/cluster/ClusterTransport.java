@@ -0,0 +1,52 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.cluster;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.IOException;
+
+/**
+ * <p>Exchanges deliveries between the members of a cluster.</p>
+ *
+ * <p>Transports deliver all deliveries which are sent from one member to another in the order in
+ * which they were sent and report back once the receiving member has processed them.</p>
+ */
+public interface ClusterTransport extends AutoCloseable {
+
+  /**
+   * Begins accepting deliveries on behalf of the local member.
+   *
+   * @param handler a handler which processes received deliveries.
+   * @throws IOException when the transport cannot be bound.
+   */
+  void start(@NonNull DeliveryHandler handler) throws IOException;
+
+  /**
+   * Passes a delivery to the specified member and waits for it to be processed.
+   *
+   * @param member a member identifier.
+   * @param delivery a delivery.
+   * @throws IOException when the member is unreachable or fails to process the delivery.
+   */
+  void send(@NonNull String member, @NonNull Delivery delivery) throws IOException;
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  void close() throws IOException;
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.cluster;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.UUID;
+import org.basinmc.stormdrain.PayloadType;
+
+/**
+ * <p>Represents an undecoded delivery which is exchanged between the members of a cluster.</p>
+ *
+ * <p>The body is passed on without copying it and must thus not be modified once the delivery has
+ * been created.</p>
+ */
+public final class Delivery {
+
+  private final UUID deliveryId;
+  private final PayloadType type;
+  private final byte[] body;
+
+  public Delivery(@NonNull UUID deliveryId, @NonNull PayloadType type, @NonNull byte[] body) {
+    this.deliveryId = deliveryId;
+    this.type = type;
+    this.body = body;
+  }
+
+  /**
+   * Retrieves the globally unique identifier which GitHub assigned to this delivery.
+   *
+   * @return a delivery identifier.
+   */
+  @NonNull
+  public UUID getDeliveryId() {
+    return this.deliveryId;
+  }
+
+  /**
+   * Retrieves the type of payload contained within this delivery.
+   *
+   * @return a payload type.
+   */
+  @NonNull
+  public PayloadType getType() {
+    return this.type;
+  }
+
+  /**
+   * Retrieves the raw (UTF-8 encoded) body of this delivery.
+   *
+   * @return a body.
+   */
+  @NonNull
+  public byte[] getBody() {
+    return this.body;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || this.getClass() != o.getClass()) {
+      return false;
+    }
+    Delivery delivery = (Delivery) o;
+    return Objects.equals(this.deliveryId, delivery.deliveryId) &&
+        this.type == delivery.type &&
+        Arrays.equals(this.body, delivery.body);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int hashCode() {
+    return Objects.hash(this.deliveryId, this.type);
+  }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.cluster;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.IOException;
+
+/**
+ * Processes deliveries which are owned by the local member of a cluster.
+ */
+@FunctionalInterface
+public interface DeliveryHandler {
+
+  /**
+   * Processes a delivery.
+   *
+   * @param delivery a delivery.
+   * @throws IOException when processing fails (the failure is reported back to the member which
+   * forwarded the delivery).
+   */
+  void handle(@NonNull Delivery delivery) throws IOException;
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.cluster;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * <p>Provides an immutable consistent hash ring which maps shard keys (such as repository
+ * identifiers) to the members of a cluster.</p>
+ *
+ * <p>Each member is placed onto the ring a configurable amount of times (e.g. as virtual nodes) in
+ * order to spread keys evenly. When a member joins or leaves the cluster, only the keys which are
+ * owned by (or were owned by) this member move to a different member.</p>
+ */
+public final class HashRing {
+
+  private final int virtualNodes;
+  private final Set<String> members;
+  private final long[] positions;
+  private final String[] owners;
+
+  public HashRing(int virtualNodes, @NonNull Collection<String> members) {
+    if (virtualNodes < 1) {
+      throw new IllegalArgumentException("Illegal amount of virtual nodes: Must be at least 1");
+    }
+
+    this.virtualNodes = virtualNodes;
+    this.members = Collections.unmodifiableSet(new TreeSet<>(members));
+
+    int count = this.members.size() * virtualNodes;
+    long[][] nodes = new long[count][];
+    String[] index = this.members.toArray(new String[0]);
+
+    int i = 0;
+    for (int m = 0; m < index.length; ++m) {
+      long memberHash = hash(index[m]);
+
+      for (int v = 0; v < virtualNodes; ++v) {
+        nodes[i++] = new long[]{mix(memberHash + v * 0x9E3779B97F4A7C15L), m};
+      }
+    }
+
+    Arrays.sort(nodes, (a, b) -> Long.compare(a[0], b[0]));
+
+    this.positions = new long[count];
+    this.owners = new String[count];
+    for (i = 0; i < count; ++i) {
+      this.positions[i] = nodes[i][0];
+      this.owners[i] = index[(int) nodes[i][1]];
+    }
+  }
+
+  /**
+   * Computes a 64-bit hash of a member identifier (FNV-1a over its UTF-8 representation).
+   *
+   * @param member a member identifier.
+   * @return a hash.
+   */
+  private static long hash(@NonNull String member) {
+    long hash = 0xCBF29CE484222325L;
+
+    for (byte b : member.getBytes(StandardCharsets.UTF_8)) {
+      hash ^= b & 0xFF;
+      hash *= 0x100000001B3L;
+    }
+
+    return mix(hash);
+  }
+
+  /**
+   * Scrambles the bits of a value (using the finalizer of MurmurHash3).
+   *
+   * @param value a value.
+   * @return a scrambled value.
+   */
+  private static long mix(long value) {
+    value ^= value >>> 33;
+    value *= 0xFF51AFD7ED558CCDL;
+    value ^= value >>> 33;
+    value *= 0xC4CEB9FE1A85EC53L;
+    value ^= value >>> 33;
+    return value;
+  }
+
+  /**
+   * Retrieves the member which owns the specified shard key.
+   *
+   * @param key a shard key.
+   * @return a member identifier.
+   * @throws IllegalStateException when the ring contains no members.
+   */
+  @NonNull
+  public String getOwner(long key) {
+    if (this.positions.length == 0) {
+      throw new IllegalStateException("Cannot locate owner: Ring is empty");
+    }
+
+    int index = Arrays.binarySearch(this.positions, mix(key));
+    if (index < 0) {
+      index = -index - 1;
+    }
+
+    return this.owners[index == this.positions.length ? 0 : index];
+  }
+
+  /**
+   * Creates a copy of this ring which additionally contains the specified member.
+   *
+   * @param member a member identifier.
+   * @return a ring.
+   */
+  @NonNull
+  public HashRing with(@NonNull String member) {
+    if (this.members.contains(member)) {
+      return this;
+    }
+
+    Set<String> members = new TreeSet<>(this.members);
+    members.add(member);
+    return new HashRing(this.virtualNodes, members);
+  }
+
+  /**
+   * Creates a copy of this ring which no longer contains the specified member.
+   *
+   * @param member a member identifier.
+   * @return a ring.
+   */
+  @NonNull
+  public HashRing without(@NonNull String member) {
+    if (!this.members.contains(member)) {
+      return this;
+    }
+
+    Set<String> members = new TreeSet<>(this.members);
+    members.remove(member);
+    return new HashRing(this.virtualNodes, members);
+  }
+
+  /**
+   * Retrieves the members which are part of this ring.
+   *
+   * @return a set of member identifiers.
+   */
+  @NonNull
+  public Set<String> getMembers() {
+    return this.members;
+  }
+
+  /**
+   * Retrieves the amount of virtual nodes per member.
+   *
+   * @return an amount of virtual nodes.
+   */
+  public int getVirtualNodes() {
+    return this.virtualNodes;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || this.getClass() != o.getClass()) {
+      return false;
+    }
+    HashRing that = (HashRing) o;
+    return this.virtualNodes == that.virtualNodes &&
+        Objects.equals(this.members, that.members);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int hashCode() {
+    return Objects.hash(this.virtualNodes, this.members);
+  }
+}
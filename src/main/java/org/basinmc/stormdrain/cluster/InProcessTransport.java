@@ -0,0 +1,93 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.cluster;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>Exchanges deliveries between members which reside within the same process (primarily for
+ * testing purposes).</p>
+ *
+ * <p>Deliveries are processed on the sending thread.</p>
+ */
+public class InProcessTransport implements ClusterTransport {
+
+  private final Network network;
+  private final String member;
+  private volatile DeliveryHandler handler;
+
+  private InProcessTransport(@NonNull Network network, @NonNull String member) {
+    this.network = network;
+    this.member = member;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void start(@NonNull DeliveryHandler handler) throws IOException {
+    this.handler = handler;
+
+    if (this.network.transports.putIfAbsent(this.member, this) != null) {
+      throw new IOException("Member " + this.member + " is already bound");
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void send(@NonNull String member, @NonNull Delivery delivery) throws IOException {
+    InProcessTransport transport = this.network.transports.get(member);
+    if (transport == null) {
+      throw new IOException("Member " + member + " is unreachable");
+    }
+
+    transport.handler.handle(delivery);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void close() {
+    this.network.transports.remove(this.member, this);
+  }
+
+  /**
+   * Represents a set of members which may reach each other.
+   */
+  public static final class Network {
+
+    private final Map<String, InProcessTransport> transports = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a transport on behalf of the specified member. The member becomes reachable once
+     * the transport has been started.
+     *
+     * @param member a member identifier.
+     * @return a transport.
+     */
+    @NonNull
+    public InProcessTransport connect(@NonNull String member) {
+      return new InProcessTransport(this, member);
+    }
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.cluster;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.IOException;
+import org.basinmc.stormdrain.utility.ValueUtility;
+
+/**
+ * Extracts shard keys from undecoded payloads without decoding the remainder of the payload.
+ */
+final class ShardKeys {
+
+  /**
+   * Identifies payloads which do not refer to a repository or organization.
+   */
+  static final long NONE = -1;
+
+  private static final JsonFactory FACTORY = new JsonFactory();
+
+  private ShardKeys() {
+  }
+
+  /**
+   * Extracts the identifier of the repository to which a payload refers. Payloads which do not
+   * refer to a repository (such as organization events) are keyed on their organization instead.
+   *
+   * @param body a payload.
+   * @return a shard key or {@link #NONE}.
+   * @throws IOException when the payload is malformed.
+   */
+  static long extract(@NonNull byte[] body) throws IOException {
+    long organization = NONE;
+
+    try (JsonParser parser = FACTORY.createParser(body)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new IOException("Illegal payload: Expected object");
+      }
+
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String name = parser.getCurrentName();
+        JsonToken token = parser.nextToken();
+
+        if (token == JsonToken.START_OBJECT && "repository".equals(name)) {
+          long id = readId(parser);
+          if (id != NONE) {
+            return id;
+          }
+        } else if (token == JsonToken.START_OBJECT && "organization".equals(name)) {
+          organization = readId(parser);
+        } else {
+          parser.skipChildren();
+        }
+      }
+    }
+
+    return organization;
+  }
+
+  /**
+   * Reads the identifier of the object at the current parser position and skips the remainder of
+   * the object.
+   *
+   * @param parser a parser which is positioned at the start of an object.
+   * @return an identifier or {@link #NONE}.
+   * @throws IOException when the payload is malformed.
+   */
+  private static long readId(@NonNull JsonParser parser) throws IOException {
+    long id = NONE;
+
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String name = parser.getCurrentName();
+      JsonToken token = parser.nextToken();
+
+      if ("id".equals(name) && token == JsonToken.VALUE_NUMBER_INT) {
+        id = parser.getLongValue();
+      } else if ("id".equals(name) && token == JsonToken.VALUE_STRING) {
+        id = ValueUtility.toNumericId(parser.getText());
+      } else {
+        parser.skipChildren();
+      }
+    }
+
+    return id;
+  }
+}
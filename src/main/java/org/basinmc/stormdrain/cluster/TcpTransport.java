@@ -0,0 +1,436 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.cluster;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.basinmc.stormdrain.PayloadType;
+
+/**
+ * <p>Exchanges deliveries with other members via TCP.</p>
+ *
+ * <p>Each member keeps a single connection to each of its peers. Deliveries are written as
+ * length-prefixed frames which are acknowledged by the receiving member once they have been
+ * processed. As a result, deliveries which are sent to the same peer are processed in the order in
+ * which they were sent.</p>
+ *
+ * <p>Connections are established lazily and independently of each other. Establishing a
+ * connection as well as awaiting the acknowledgement of a delivery are bounded by configurable
+ * timeouts. An unreachable or unresponsive peer thus only delays deliveries to itself. Connections
+ * which time out are discarded and re-established with the next delivery.</p>
+ */
+public class TcpTransport implements ClusterTransport {
+
+  /**
+   * Defines the largest body which is accepted from a peer (GitHub caps payloads at 25 MiB).
+   */
+  private static final int MAXIMUM_BODY_SIZE = 32 * 1024 * 1024;
+
+  /**
+   * Defines the default amount of time to wait for a connection to be established.
+   */
+  public static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(5);
+
+  /**
+   * Defines the default amount of time to wait for a peer to acknowledge a delivery.
+   */
+  public static final Duration DEFAULT_READ_TIMEOUT = Duration.ofSeconds(30);
+
+  private static final int ACK = 1;
+  private static final int NACK = 0;
+
+  private static final AtomicInteger TRANSPORT_COUNTER = new AtomicInteger();
+
+  private final SocketAddress bindAddress;
+  private final int connectTimeout;
+  private final int readTimeout;
+  private final Map<String, InetSocketAddress> peers = new ConcurrentHashMap<>();
+  private final Map<String, Connection> connections = new HashMap<>();
+  private final Set<Socket> acceptedSockets = ConcurrentHashMap.newKeySet();
+  private final int id = TRANSPORT_COUNTER.incrementAndGet();
+
+  private volatile ServerSocket serverSocket;
+  private volatile boolean closed;
+
+  public TcpTransport(@NonNull SocketAddress bindAddress) {
+    this(bindAddress, DEFAULT_CONNECT_TIMEOUT, DEFAULT_READ_TIMEOUT);
+  }
+
+  public TcpTransport(@NonNull SocketAddress bindAddress, @NonNull Duration connectTimeout,
+      @NonNull Duration readTimeout) {
+    this.bindAddress = bindAddress;
+    this.connectTimeout = toMillis("connect timeout", connectTimeout);
+    this.readTimeout = toMillis("read timeout", readTimeout);
+  }
+
+  /**
+   * Converts a timeout into its socket option representation.
+   *
+   * @param name a human readable timeout name.
+   * @param timeout a timeout.
+   * @return a timeout (in milliseconds).
+   */
+  private static int toMillis(@NonNull String name, @NonNull Duration timeout) {
+    if (timeout.isNegative() || timeout.isZero()) {
+      throw new IllegalArgumentException("Illegal " + name + ": Must be positive");
+    }
+
+    return (int) Math.max(1, Math.min(Integer.MAX_VALUE, timeout.toMillis()));
+  }
+
+  /**
+   * Sets the address at which a peer accepts deliveries.
+   *
+   * @param member a member identifier.
+   * @param address a socket address.
+   */
+  public void setPeer(@NonNull String member, @NonNull InetSocketAddress address) {
+    this.peers.put(member, address);
+    this.disconnect(member);
+  }
+
+  /**
+   * Removes a peer (for instance when it has left the cluster).
+   *
+   * @param member a member identifier.
+   */
+  public void removePeer(@NonNull String member) {
+    this.peers.remove(member);
+    this.disconnect(member);
+  }
+
+  /**
+   * Retrieves the address at which this transport accepts deliveries (for instance in order to
+   * discover the port which has been chosen when binding to port zero).
+   *
+   * @return a socket address.
+   * @throws IllegalStateException when the transport has not been started yet.
+   */
+  @NonNull
+  public InetSocketAddress getLocalAddress() {
+    ServerSocket serverSocket = this.serverSocket;
+    if (serverSocket == null) {
+      throw new IllegalStateException("Transport has not been started");
+    }
+
+    return (InetSocketAddress) serverSocket.getLocalSocketAddress();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void start(@NonNull DeliveryHandler handler) throws IOException {
+    ServerSocket serverSocket = new ServerSocket();
+    serverSocket.bind(this.bindAddress);
+    this.serverSocket = serverSocket;
+
+    Thread thread = new Thread(() -> this.accept(serverSocket, handler),
+        "stormdrain-cluster-" + this.id + "-accept");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Accepts incoming connections until the transport is closed.
+   *
+   * @param serverSocket a server socket.
+   * @param handler a delivery handler.
+   */
+  private void accept(@NonNull ServerSocket serverSocket, @NonNull DeliveryHandler handler) {
+    AtomicInteger connectionCounter = new AtomicInteger();
+
+    while (!this.closed) {
+      Socket socket;
+      try {
+        socket = serverSocket.accept();
+      } catch (IOException ex) {
+        // the server socket is closed along with the transport
+        return;
+      }
+
+      this.acceptedSockets.add(socket);
+      Thread thread = new Thread(() -> this.receive(socket, handler),
+          "stormdrain-cluster-" + this.id + "-" + connectionCounter.incrementAndGet());
+      thread.setDaemon(true);
+      thread.start();
+    }
+  }
+
+  /**
+   * Processes all deliveries which are received via the specified connection.
+   *
+   * @param socket a socket.
+   * @param handler a delivery handler.
+   */
+  private void receive(@NonNull Socket socket, @NonNull DeliveryHandler handler) {
+    try (Socket s = socket) {
+      DataInputStream inputStream = new DataInputStream(
+          new BufferedInputStream(s.getInputStream()));
+      DataOutputStream outputStream = new DataOutputStream(s.getOutputStream());
+
+      while (true) {
+        Delivery delivery;
+        try {
+          delivery = read(inputStream);
+        } catch (IOException ex) {
+          // the peer has closed the connection (or violated the protocol)
+          return;
+        }
+
+        boolean processed;
+        try {
+          handler.handle(delivery);
+          processed = true;
+        } catch (IOException | RuntimeException ex) {
+          processed = false;
+        }
+
+        outputStream.writeByte(processed ? ACK : NACK);
+        outputStream.flush();
+      }
+    } catch (IOException ignore) {
+      // the connection has been lost; the peer will observe the failure when sending
+    } finally {
+      this.acceptedSockets.remove(socket);
+    }
+  }
+
+  /**
+   * Reads a single delivery frame.
+   *
+   * @param inputStream an input stream.
+   * @return a delivery.
+   * @throws IOException when reading fails or the frame is malformed.
+   */
+  @NonNull
+  private static Delivery read(@NonNull DataInputStream inputStream) throws IOException {
+    UUID deliveryId = new UUID(inputStream.readLong(), inputStream.readLong());
+
+    PayloadType type;
+    try {
+      type = PayloadType.valueOf(inputStream.readUTF());
+    } catch (IllegalArgumentException ex) {
+      throw new IOException("Illegal payload type", ex);
+    }
+
+    int length = inputStream.readInt();
+    if (length < 0 || length > MAXIMUM_BODY_SIZE) {
+      throw new IOException("Illegal body length: " + length);
+    }
+
+    byte[] body = new byte[length];
+    inputStream.readFully(body);
+    return new Delivery(deliveryId, type, body);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void send(@NonNull String member, @NonNull Delivery delivery) throws IOException {
+    Connection connection = this.connect(member);
+    int response;
+
+    synchronized (connection) {
+      try {
+        connection.open(this.connectTimeout, this.readTimeout);
+
+        DataOutputStream outputStream = connection.outputStream;
+        outputStream.writeLong(delivery.getDeliveryId().getMostSignificantBits());
+        outputStream.writeLong(delivery.getDeliveryId().getLeastSignificantBits());
+        outputStream.writeUTF(delivery.getType().name());
+        outputStream.writeInt(delivery.getBody().length);
+        outputStream.write(delivery.getBody());
+        outputStream.flush();
+
+        response = connection.inputStream.read();
+      } catch (IOException ex) {
+        // the connection may be out of sync with the peer (e.g. when the acknowledgement timed
+        // out) and is thus discarded
+        this.disconnect(member, connection);
+        throw ex;
+      }
+    }
+
+    if (response == -1) {
+      this.disconnect(member, connection);
+      throw new IOException("Member " + member + " closed the connection");
+    }
+    if (response != ACK) {
+      throw new IOException(
+          "Member " + member + " failed to process delivery " + delivery.getDeliveryId());
+    }
+  }
+
+  /**
+   * Retrieves the connection to a member or creates a new connection if none exists. New
+   * connections are established by their first sender while holding the connection lock rather
+   * than the lock of the connection map.
+   *
+   * @param member a member identifier.
+   * @return a connection.
+   * @throws IOException when the member is unknown or the transport has been closed.
+   */
+  @NonNull
+  private Connection connect(@NonNull String member) throws IOException {
+    if (this.closed) {
+      throw new IOException("Transport has been closed");
+    }
+
+    synchronized (this.connections) {
+      Connection connection = this.connections.get(member);
+      if (connection != null) {
+        return connection;
+      }
+
+      InetSocketAddress address = this.peers.get(member);
+      if (address == null) {
+        throw new IOException("Member " + member + " is unreachable");
+      }
+
+      connection = new Connection(address);
+      this.connections.put(member, connection);
+      return connection;
+    }
+  }
+
+  private void disconnect(@NonNull String member) {
+    Connection connection;
+    synchronized (this.connections) {
+      connection = this.connections.remove(member);
+    }
+
+    if (connection != null) {
+      connection.close();
+    }
+  }
+
+  private void disconnect(@NonNull String member, @NonNull Connection connection) {
+    synchronized (this.connections) {
+      this.connections.remove(member, connection);
+    }
+
+    connection.close();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void close() throws IOException {
+    this.closed = true;
+
+    synchronized (this.connections) {
+      this.connections.values().forEach(Connection::close);
+      this.connections.clear();
+    }
+
+    for (Socket socket : this.acceptedSockets) {
+      socket.close();
+    }
+
+    ServerSocket serverSocket = this.serverSocket;
+    if (serverSocket != null) {
+      serverSocket.close();
+    }
+  }
+
+  /**
+   * Represents an outgoing connection to a peer.
+   */
+  private static final class Connection {
+
+    private final InetSocketAddress address;
+    private volatile Socket socket;
+    private volatile boolean closed;
+    private DataOutputStream outputStream;
+    private BufferedInputStream inputStream;
+
+    private Connection(@NonNull InetSocketAddress address) {
+      this.address = address;
+    }
+
+    /**
+     * Establishes this connection unless it has been established previously. Callers are
+     * expected to hold the connection lock.
+     *
+     * @param connectTimeout a connect timeout (in milliseconds).
+     * @param readTimeout a read timeout (in milliseconds).
+     * @throws IOException when the peer is unreachable or the connection has been closed.
+     */
+    private void open(int connectTimeout, int readTimeout) throws IOException {
+      if (this.socket != null) {
+        return;
+      }
+      if (this.closed) {
+        throw new IOException("Connection has been closed");
+      }
+
+      Socket socket = new Socket();
+      try {
+        socket.setTcpNoDelay(true);
+        socket.setSoTimeout(readTimeout);
+        socket.connect(this.address, connectTimeout);
+
+        this.outputStream = new DataOutputStream(
+            new BufferedOutputStream(socket.getOutputStream()));
+        this.inputStream = new BufferedInputStream(socket.getInputStream());
+      } catch (IOException ex) {
+        socket.close();
+        throw ex;
+      }
+
+      this.socket = socket;
+
+      // the connection may have been closed concurrently while it was being established
+      if (this.closed) {
+        this.close();
+        throw new IOException("Connection has been closed");
+      }
+    }
+
+    private void close() {
+      this.closed = true;
+
+      Socket socket = this.socket;
+      if (socket == null) {
+        return;
+      }
+
+      try {
+        socket.close();
+      } catch (IOException ignore) {
+      }
+    }
+  }
+}
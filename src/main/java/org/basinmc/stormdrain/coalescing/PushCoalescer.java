@@ -0,0 +1,227 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.coalescing;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.net.URL;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import org.basinmc.stormdrain.event.PushEvent;
+import org.basinmc.stormdrain.metrics.MetricSource;
+import org.basinmc.stormdrain.metrics.MetricsReporter;
+import org.basinmc.stormdrain.resource.Commit;
+import org.basinmc.stormdrain.utility.CoalescingWindow;
+import org.basinmc.stormdrain.utility.ValueUtility;
+
+/**
+ * <p>Merges bursts of pushes to the same reference into a single synthetic push.</p>
+ *
+ * <p>Rebases and repeated force pushes typically produce dozens of pushes for the same reference
+ * within seconds. The coalescer holds back each push for a configurable window and merges it with
+ * any further push to the same repository and reference which arrives within this window (the
+ * window is restarted with every merged push). In order to bound the latency of busy references,
+ * a merged push is passed on once the maximum delay since its first push has passed, regardless of
+ * whether further pushes are still arriving.</p>
+ *
+ * <p>Merged pushes span from the previous commit of the first push to the target commit of the
+ * last push (see {@link #merge(PushEvent, PushEvent)} for details).</p>
+ *
+ * <p>Each merged push is passed to the consumer at most once (see {@link CoalescingWindow} for
+ * details on how consumer failures are handled).</p>
+ */
+public class PushCoalescer extends CoalescingWindow<PushCoalescer.Pending, PushEvent> implements
+    MetricSource {
+
+  /**
+   * Defines the name of the counter which tracks the amount of received and emitted pushes.
+   */
+  public static final String PUSH_METRIC = "stormdrain.coalescer.pushes";
+
+  /**
+   * Defines the name of the gauge which tracks the amount of pushes which are currently held
+   * back.
+   */
+  public static final String PENDING_METRIC = "stormdrain.coalescer.pending";
+
+  private static final AtomicInteger COALESCER_COUNTER = new AtomicInteger();
+
+  private final LongAdder receivedPushes = new LongAdder();
+  private final LongAdder emittedPushes = new LongAdder();
+
+  public PushCoalescer(@NonNull Duration window, @NonNull Duration maximumDelay,
+      @NonNull Consumer<PushEvent> consumer) {
+    super("stormdrain-coalescer-" + COALESCER_COUNTER.incrementAndGet(), consumer,
+        validate(window, maximumDelay).toNanos(), maximumDelay.toNanos());
+  }
+
+  @NonNull
+  private static Duration validate(@NonNull Duration window, @NonNull Duration maximumDelay) {
+    if (window.isNegative() || window.isZero() || maximumDelay.compareTo(window) < 0) {
+      throw new IllegalArgumentException(
+          "Illegal window: Must be positive and less or equal to maximum delay");
+    }
+
+    return window;
+  }
+
+  /**
+   * <p>Merges two consecutive pushes to the same reference.</p>
+   *
+   * <p>The merged push retains the previous commit identifier of the first push and the target
+   * commit identifier, head commit, deletion state and sender of the second push. It is considered
+   * forced when either push was forced and lists the commits of both pushes in order (and may thus
+   * exceed the limit of 20 commits per push imposed by GitHub).</p>
+   *
+   * @param first the earlier push.
+   * @param second the later push.
+   * @return a synthetic merged push.
+   * @throws IllegalArgumentException when the pushes refer to different repositories or
+   * references.
+   */
+  @NonNull
+  public static PushEvent merge(@NonNull PushEvent first, @NonNull PushEvent second) {
+    if (first.getRepository().getNumericId() != second.getRepository().getNumericId()
+        || !first.getReference().equals(second.getReference())) {
+      throw new IllegalArgumentException(
+          "Illegal push: Must refer to the same repository and reference");
+    }
+
+    List<Commit> commits = new ArrayList<>(first.getCommits().size() + second.getCommits().size());
+    commits.addAll(first.getCommits());
+    commits.addAll(second.getCommits());
+
+    return merge(first, second, first.isForced() || second.isForced(), commits);
+  }
+
+  /**
+   * Creates a synthetic push which spans from the first to the last push of a burst.
+   *
+   * @param first the first push of the burst.
+   * @param last the last push of the burst.
+   * @param forced true if any push within the burst was forced.
+   * @param commits the commits of all pushes within the burst.
+   * @return a synthetic merged push.
+   */
+  @NonNull
+  private static PushEvent merge(@NonNull PushEvent first, @NonNull PushEvent last, boolean forced,
+      @NonNull List<Commit> commits) {
+    URL compareUrl = last.getCompareUrl();
+    if (!first.isCreated() && !last.isDeleted()) {
+      compareUrl = ValueUtility.toUrl(
+          last.getRepository().getBrowserUrl() + "/compare/"
+              + abbreviate(first.getPreviousCommitId()) + "..."
+              + abbreviate(last.getTargetCommitId()));
+    }
+
+    return new PushEvent(last.getReference(), first.getPreviousCommitObjectId(),
+        last.getTargetCommitObjectId(), compareUrl, first.isCreated(), last.isDeleted(), forced,
+        commits, last.getHeadCommit(), last.getRepository(), last.getSender());
+  }
+
+  @NonNull
+  private static String abbreviate(@NonNull String commitId) {
+    return commitId.length() > 12 ? commitId.substring(0, 12) : commitId;
+  }
+
+  /**
+   * Holds back a push until its window has passed or merges it with a pending push to the same
+   * repository and reference.
+   *
+   * @param event a push.
+   */
+  public void offer(@NonNull PushEvent event) {
+    this.receivedPushes.increment();
+    this.hold(new Key(event.getRepository().getNumericId(), event.getReference()),
+        () -> new Pending(event), (pending) -> pending.add(event));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @NonNull
+  @Override
+  protected PushEvent complete(@NonNull Key key, @NonNull Pending pending) {
+    this.emittedPushes.increment();
+    return pending.toEvent();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void report(@NonNull MetricsReporter reporter) {
+    reporter.counter(PUSH_METRIC, Collections.singletonMap("result", "received"),
+        this.receivedPushes.sum());
+    reporter.counter(PUSH_METRIC, Collections.singletonMap("result", "emitted"),
+        this.emittedPushes.sum());
+    reporter.counter(PUSH_METRIC, Collections.singletonMap("result", "failed"),
+        this.getFailedCount());
+    reporter.gauge(PENDING_METRIC, Collections.emptyMap(), this.getPendingCount());
+  }
+
+  /**
+   * Represents a burst of pushes which is currently held back.
+   */
+  static final class Pending {
+
+    private final PushEvent first;
+    private PushEvent last;
+
+    private boolean forced;
+    private List<Commit> commits;
+
+    private Pending(@NonNull PushEvent event) {
+      this.first = event;
+      this.last = event;
+      this.forced = event.isForced();
+    }
+
+    /**
+     * Appends a push to this burst.
+     *
+     * @param event a push.
+     */
+    private void add(@NonNull PushEvent event) {
+      if (this.commits == null) {
+        this.commits = new ArrayList<>(this.first.getCommits());
+      }
+
+      this.commits.addAll(event.getCommits());
+      this.forced |= event.isForced();
+      this.last = event;
+    }
+
+    /**
+     * Converts this burst into a single push.
+     *
+     * @return a push.
+     */
+    @NonNull
+    private PushEvent toEvent() {
+      if (this.first == this.last) {
+        return this.first;
+      }
+
+      return merge(this.first, this.last, this.forced, this.commits);
+    }
+  }
+}
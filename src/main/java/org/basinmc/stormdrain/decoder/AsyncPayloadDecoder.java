@@ -0,0 +1,244 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.decoder;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.basinmc.stormdrain.Payload;
+import org.basinmc.stormdrain.PayloadType;
+
+/**
+ * <p>Decodes payloads on a dedicated pool of decoder threads in order to keep the receiving
+ * threads (such as network I/O threads) responsive.</p>
+ *
+ * <p>The amount of payloads which may be waiting for a decoder thread is bounded. Once this bound
+ * is reached, further payloads are rejected with a {@link DecoderOverloadException} instead of
+ * being queued. Small payloads may be decoded directly on the calling thread based on the
+ * configured {@link DecodeAffinity} as the handoff typically costs more than the decoding
+ * itself.</p>
+ */
+public class AsyncPayloadDecoder implements AutoCloseable {
+
+  private final ThreadPoolExecutor executor;
+  private final DecodeAffinity affinity;
+  private final int queueCapacity;
+
+  public AsyncPayloadDecoder(int threads, int queueCapacity, @NonNull DecodeAffinity affinity) {
+    this(createExecutor(threads, queueCapacity), affinity);
+  }
+
+  AsyncPayloadDecoder(@NonNull ThreadPoolExecutor executor, @NonNull DecodeAffinity affinity) {
+    this.executor = executor;
+    this.affinity = affinity;
+    this.queueCapacity = executor.getQueue().remainingCapacity();
+  }
+
+  /**
+   * Creates a new bounded executor for the decode pool.
+   *
+   * @param threads an amount of decoder threads.
+   * @param queueCapacity a maximum amount of queued payloads.
+   * @return an executor.
+   */
+  @NonNull
+  private static ThreadPoolExecutor createExecutor(int threads, int queueCapacity) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("Illegal thread count: Must be at least 1");
+    }
+    if (queueCapacity < 1) {
+      throw new IllegalArgumentException("Illegal queue capacity: Must be at least 1");
+    }
+
+    return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity), new DecoderThreadFactory(),
+        new ThreadPoolExecutor.AbortPolicy());
+  }
+
+  /**
+   * Decodes a payload from the supplied array of bytes.
+   *
+   * @param deliveryId a delivery identifier.
+   * @param type a payload type.
+   * @param body an array of UTF-8 encoded bytes.
+   * @return a future which is completed with the decoded payload.
+   * @see #decodeAsync(UUID, PayloadType, ByteBuffer)
+   */
+  @NonNull
+  public CompletableFuture<Payload<?>> decodeAsync(@NonNull UUID deliveryId,
+      @NonNull PayloadType type, @NonNull byte[] body) {
+    return this.decodeAsync(deliveryId, type, ByteBuffer.wrap(body));
+  }
+
+  /**
+   * <p>Decodes a payload from the remaining bytes within the supplied buffer.</p>
+   *
+   * <p>The returned future fails with a {@link DecoderOverloadException} when the decode queue is
+   * at capacity and with an {@link java.io.IOException} when the payload is malformed. Cancelling
+   * the future before a decoder thread picked up the payload removes it from the queue.</p>
+   *
+   * <p>The buffer contents must not be modified until the returned future has completed.</p>
+   *
+   * @param deliveryId a delivery identifier.
+   * @param type a payload type.
+   * @param body a buffer.
+   * @return a future which is completed with the decoded payload.
+   */
+  @NonNull
+  public CompletableFuture<Payload<?>> decodeAsync(@NonNull UUID deliveryId,
+      @NonNull PayloadType type, @NonNull ByteBuffer body) {
+    CompletableFuture<Payload<?>> future = new CompletableFuture<>();
+
+    if (this.affinity.isInline(type, body.remaining())) {
+      decode(future, deliveryId, type, body);
+      return future;
+    }
+
+    DecodeTask task = new DecodeTask(future, deliveryId, type, body);
+
+    try {
+      this.executor.execute(task);
+    } catch (RejectedExecutionException ex) {
+      if (this.executor.isShutdown()) {
+        future.completeExceptionally(
+            new RejectedExecutionException("Cannot decode payload: Decoder has been closed"));
+      } else {
+        future.completeExceptionally(new DecoderOverloadException(type, this.queueCapacity));
+      }
+
+      return future;
+    }
+
+    future.whenComplete((payload, ex) -> {
+      if (future.isCancelled()) {
+        this.executor.remove(task);
+      }
+    });
+    return future;
+  }
+
+  /**
+   * Decodes a payload and passes its result to the supplied future.
+   *
+   * @param future a future.
+   * @param deliveryId a delivery identifier.
+   * @param type a payload type.
+   * @param body a buffer.
+   */
+  private static void decode(@NonNull CompletableFuture<Payload<?>> future,
+      @NonNull UUID deliveryId, @NonNull PayloadType type, @NonNull ByteBuffer body) {
+    try {
+      future.complete(new Payload<>(deliveryId, type, type.read(body)));
+    } catch (Throwable ex) {
+      future.completeExceptionally(ex);
+    }
+  }
+
+  /**
+   * Retrieves the amount of payloads which are currently waiting for a decoder thread.
+   *
+   * @return an amount of payloads.
+   */
+  public int getQueuedPayloadCount() {
+    return this.executor.getQueue().size();
+  }
+
+  /**
+   * Retrieves the maximum amount of payloads which may wait for a decoder thread at any given
+   * time.
+   *
+   * @return a capacity.
+   */
+  public int getQueueCapacity() {
+    return this.queueCapacity;
+  }
+
+  /**
+   * Stops accepting new payloads and cancels all payloads which have not yet been picked up by a
+   * decoder thread. Payloads which are currently being decoded are completed normally.
+   */
+  @Override
+  public void close() {
+    for (Runnable runnable : this.executor.shutdownNow()) {
+      if (runnable instanceof DecodeTask) {
+        ((DecodeTask) runnable).future.cancel(false);
+      }
+    }
+  }
+
+  /**
+   * Represents a single queued payload.
+   */
+  private static final class DecodeTask implements Runnable {
+
+    private final CompletableFuture<Payload<?>> future;
+    private final UUID deliveryId;
+    private final PayloadType type;
+    private final ByteBuffer body;
+
+    private DecodeTask(@NonNull CompletableFuture<Payload<?>> future, @NonNull UUID deliveryId,
+        @NonNull PayloadType type, @NonNull ByteBuffer body) {
+      this.future = future;
+      this.deliveryId = deliveryId;
+      this.type = type;
+      this.body = body;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void run() {
+      // cancelled futures may still reach a worker when they were picked up while cancel was in
+      // progress so we'll skip them here
+      if (this.future.isDone()) {
+        return;
+      }
+
+      decode(this.future, this.deliveryId, this.type, this.body);
+    }
+  }
+
+  /**
+   * Produces named daemon threads for the decode pool.
+   */
+  private static final class DecoderThreadFactory implements ThreadFactory {
+
+    private static final AtomicInteger POOL_COUNTER = new AtomicInteger();
+
+    private final int pool = POOL_COUNTER.incrementAndGet();
+    private final AtomicInteger threadCounter = new AtomicInteger();
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Thread newThread(@NonNull Runnable runnable) {
+      Thread thread = new Thread(runnable,
+          "stormdrain-decoder-" + this.pool + "-" + this.threadCounter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
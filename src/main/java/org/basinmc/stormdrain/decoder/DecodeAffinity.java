@@ -0,0 +1,92 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.decoder;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.EnumSet;
+import java.util.Set;
+import org.basinmc.stormdrain.PayloadType;
+
+/**
+ * Decides whether a given payload is decoded on the calling thread or handed off to the decode
+ * pool of an {@link AsyncPayloadDecoder}.
+ */
+@FunctionalInterface
+public interface DecodeAffinity {
+
+  /**
+   * Retrieves an affinity which hands every payload off to the decode pool.
+   *
+   * @return an affinity.
+   */
+  @NonNull
+  static DecodeAffinity offload() {
+    return (type, size) -> false;
+  }
+
+  /**
+   * Retrieves an affinity which decodes all payloads up to (and including) the specified size on
+   * the calling thread.
+   *
+   * @param maximumSize a maximum body size (in bytes).
+   * @return an affinity.
+   */
+  @NonNull
+  static DecodeAffinity inlineBelow(int maximumSize) {
+    if (maximumSize < 0) {
+      throw new IllegalArgumentException("Illegal maximum size: Must be positive or zero");
+    }
+
+    return (type, size) -> size <= maximumSize;
+  }
+
+  /**
+   * Retrieves an affinity which decodes all payloads of the specified types on the calling thread
+   * regardless of their size.
+   *
+   * @param first a payload type.
+   * @param remaining an arbitrary number of additional payload types.
+   * @return an affinity.
+   */
+  @NonNull
+  static DecodeAffinity inline(@NonNull PayloadType first, @NonNull PayloadType... remaining) {
+    Set<PayloadType> types = EnumSet.of(first, remaining);
+    return (type, size) -> types.contains(type);
+  }
+
+  /**
+   * Evaluates whether a payload of the specified type and size shall be decoded on the calling
+   * thread.
+   *
+   * @param type a payload type.
+   * @param size a body size (in bytes).
+   * @return true if decoded inline, false if offloaded.
+   */
+  boolean isInline(@NonNull PayloadType type, int size);
+
+  /**
+   * Combines this affinity with another affinity (e.g. decodes payloads inline when either of the
+   * two affinities opts to do so).
+   *
+   * @param other an affinity.
+   * @return a combined affinity.
+   */
+  @NonNull
+  default DecodeAffinity or(@NonNull DecodeAffinity other) {
+    return (type, size) -> this.isInline(type, size) || other.isInline(type, size);
+  }
+}
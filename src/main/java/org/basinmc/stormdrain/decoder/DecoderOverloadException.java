@@ -0,0 +1,57 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.decoder;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.concurrent.RejectedExecutionException;
+import org.basinmc.stormdrain.PayloadType;
+
+/**
+ * Notifies the caller that a payload has been rejected as the decode queue has reached its
+ * capacity. Receivers will typically respond with a 503 status code in order to shed load.
+ */
+public class DecoderOverloadException extends RejectedExecutionException {
+
+  private final PayloadType type;
+  private final int queueCapacity;
+
+  public DecoderOverloadException(@NonNull PayloadType type, int queueCapacity) {
+    super("Cannot decode " + type + " payload: Decode queue is at capacity (" + queueCapacity
+        + " payloads)");
+    this.type = type;
+    this.queueCapacity = queueCapacity;
+  }
+
+  /**
+   * Retrieves the type of payload which has been rejected.
+   *
+   * @return a payload type.
+   */
+  @NonNull
+  public PayloadType getType() {
+    return this.type;
+  }
+
+  /**
+   * Retrieves the maximum amount of payloads which may be queued for decoding at any given time.
+   *
+   * @return a capacity.
+   */
+  public int getQueueCapacity() {
+    return this.queueCapacity;
+  }
+}
@@ -0,0 +1,322 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.decoder;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import org.basinmc.stormdrain.EventHeader;
+import org.basinmc.stormdrain.PayloadType;
+import org.basinmc.stormdrain.metrics.MetricSource;
+import org.basinmc.stormdrain.metrics.MetricsReporter;
+
+/**
+ * <p>Decides whether a delivery is worth reading based solely on its headers.</p>
+ *
+ * <p>Receivers consult this filter with the value of the X-GitHub-Event header and the
+ * Content-Length of a delivery before consuming the request body. Deliveries of unknown or
+ * unsupported events as well as events which no local handler subscribes to are discarded while
+ * deliveries which exceed the maximum body size of their payload type are rejected outright.
+ * Bodies of discarded deliveries may be drained through
+ * {@link #discard(EventHeader, Decision, InputStream)} in order to keep the connection alive
+ * without buffering them.</p>
+ *
+ * <p>The amount of skipped deliveries and bytes is tracked per event and decision in order to
+ * make the savings visible.</p>
+ */
+public class DeliveryFilter implements MetricSource {
+
+  /**
+   * Defines the name of the counter which tracks the amount of skipped deliveries.
+   */
+  public static final String SKIPPED_METRIC = "stormdrain.filter.skipped";
+
+  /**
+   * Defines the name of the counter which tracks the amount of skipped bytes (e.g. bytes which
+   * have been drained without buffering or have never been read at all).
+   */
+  public static final String SKIPPED_BYTE_METRIC = "stormdrain.filter.skipped.bytes";
+
+  /**
+   * Defines the size of the scratch buffer into which discarded bodies are drained. Its contents
+   * are never read and it is thus shared between all threads.
+   */
+  private static final int DRAIN_BUFFER_SIZE = 8192;
+  private static final byte[] DRAIN_BUFFER = new byte[DRAIN_BUFFER_SIZE];
+
+  private final Predicate<PayloadType> subscriptions;
+  private final long[] maximumBodySizes = new long[PayloadType.values().length];
+
+  private final LongAdder[] skippedDeliveries;
+  private final LongAdder[] skippedBytes;
+
+  public DeliveryFilter(@NonNull Predicate<PayloadType> subscriptions, long maximumBodySize) {
+    this(subscriptions, maximumBodySize, new EnumMap<>(PayloadType.class));
+  }
+
+  public DeliveryFilter(@NonNull Predicate<PayloadType> subscriptions, long maximumBodySize,
+      @NonNull Map<PayloadType, Long> maximumBodySizes) {
+    if (maximumBodySize < 0) {
+      throw new IllegalArgumentException("Illegal maximum body size: Must be positive or zero");
+    }
+
+    this.subscriptions = subscriptions;
+
+    for (PayloadType type : PayloadType.values()) {
+      long size = maximumBodySizes.getOrDefault(type, maximumBodySize);
+      if (size < 0) {
+        throw new IllegalArgumentException(
+            "Illegal maximum body size for " + type + ": Must be positive or zero");
+      }
+
+      this.maximumBodySizes[type.ordinal()] = size;
+    }
+
+    int slots = (EventHeader.values().length + 1) * Decision.values().length;
+    this.skippedDeliveries = new LongAdder[slots];
+    this.skippedBytes = new LongAdder[slots];
+
+    for (int i = 0; i < slots; ++i) {
+      this.skippedDeliveries[i] = new LongAdder();
+      this.skippedBytes[i] = new LongAdder();
+    }
+  }
+
+  /**
+   * Computes the counter slot for the specified combination of event and decision.
+   *
+   * @param header an event header or null if unknown.
+   * @param decision a decision.
+   * @return a slot index.
+   */
+  private static int slot(@Nullable EventHeader header, @NonNull Decision decision) {
+    int event = header == null ? EventHeader.values().length : header.ordinal();
+    return event * Decision.values().length + decision.ordinal();
+  }
+
+  /**
+   * <p>Decides how a delivery is to be processed.</p>
+   *
+   * <p>Discarded and rejected deliveries are recorded immediately. The declared body size of
+   * rejected deliveries is recorded as skipped as it is expected to never be read while the
+   * bodies of discarded deliveries are recorded when they are drained.</p>
+   *
+   * @param header an event header or null if the transmitted event is unknown.
+   * @param contentLength a declared body size (in bytes) or a negative value if unknown.
+   * @return a decision.
+   */
+  @NonNull
+  public Decision admit(@Nullable EventHeader header, long contentLength) {
+    Decision decision;
+
+    if (header == null) {
+      decision = Decision.UNKNOWN;
+    } else if (!header.isSupported()) {
+      decision = Decision.UNSUPPORTED;
+    } else if (!this.subscriptions.test(header.getPayloadType())) {
+      decision = Decision.UNSUBSCRIBED;
+    } else if (contentLength > this.maximumBodySizes[header.getPayloadType().ordinal()]) {
+      decision = Decision.OVERSIZED;
+    } else {
+      return Decision.ACCEPT;
+    }
+
+    int slot = slot(header, decision);
+    this.skippedDeliveries[slot].increment();
+    if (decision == Decision.OVERSIZED) {
+      this.skippedBytes[slot].add(contentLength);
+    }
+
+    return decision;
+  }
+
+  /**
+   * <p>Drains the remaining body of a discarded delivery without retaining any of its
+   * contents.</p>
+   *
+   * <p>The drained bytes are recorded for the decision which has previously been returned by
+   * {@link #admit(EventHeader, long)}. As the declared size of oversized deliveries has already
+   * been recorded upon admission, their drained bytes are not recorded again.</p>
+   *
+   * @param header an event header or null if the transmitted event is unknown.
+   * @param decision the decision which has been made for the delivery.
+   * @param inputStream a body stream.
+   * @return the amount of drained bytes.
+   * @throws IllegalArgumentException when the delivery has been accepted.
+   * @throws IOException when reading from the stream fails.
+   */
+  public long discard(@Nullable EventHeader header, @NonNull Decision decision,
+      @NonNull InputStream inputStream) throws IOException {
+    if (decision == Decision.ACCEPT) {
+      throw new IllegalArgumentException("Illegal decision: Accepted deliveries are not discarded");
+    }
+
+    long drained = 0;
+
+    // the buffer is shared between all threads as its contents are discarded without ever being
+    // read - concurrent drains may thus freely overwrite each other's data
+    int length;
+    while ((length = inputStream.read(DRAIN_BUFFER, 0, DRAIN_BUFFER_SIZE)) != -1) {
+      drained += length;
+    }
+
+    if (decision != Decision.OVERSIZED) {
+      this.skippedBytes[slot(header, decision)].add(drained);
+    }
+
+    return drained;
+  }
+
+  /**
+   * Retrieves the maximum body size which is accepted for the specified payload type.
+   *
+   * @param type a payload type.
+   * @return a size (in bytes).
+   */
+  public long getMaximumBodySize(@NonNull PayloadType type) {
+    return this.maximumBodySizes[type.ordinal()];
+  }
+
+  /**
+   * Retrieves the amount of deliveries of the specified event which have been skipped for the
+   * specified reason.
+   *
+   * @param header an event header or null for unknown events.
+   * @param decision a decision.
+   * @return an amount of deliveries.
+   */
+  public long getSkippedDeliveryCount(@Nullable EventHeader header, @NonNull Decision decision) {
+    return this.skippedDeliveries[slot(header, decision)].sum();
+  }
+
+  /**
+   * Retrieves the amount of bytes of the specified event which have been skipped for the
+   * specified reason.
+   *
+   * @param header an event header or null for unknown events.
+   * @param decision a decision.
+   * @return an amount of bytes.
+   */
+  public long getSkippedByteCount(@Nullable EventHeader header, @NonNull Decision decision) {
+    return this.skippedBytes[slot(header, decision)].sum();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void report(@NonNull MetricsReporter reporter) {
+    EventHeader[] headers = EventHeader.values();
+
+    for (int i = 0; i <= headers.length; ++i) {
+      EventHeader header = i == headers.length ? null : headers[i];
+
+      for (Decision decision : Decision.values()) {
+        if (decision == Decision.ACCEPT) {
+          continue;
+        }
+
+        int slot = slot(header, decision);
+        long deliveries = this.skippedDeliveries[slot].sum();
+        if (deliveries == 0) {
+          continue;
+        }
+
+        Map<String, String> tags = new HashMap<>();
+        tags.put("type", header == null ? "UNKNOWN" : header.name());
+        tags.put("reason", decision.name().toLowerCase(Locale.ROOT));
+
+        reporter.counter(SKIPPED_METRIC, tags, deliveries);
+        reporter.counter(SKIPPED_BYTE_METRIC, tags, this.skippedBytes[slot].sum());
+      }
+    }
+  }
+
+  /**
+   * Provides a list of possible outcomes for a delivery.
+   */
+  public enum Decision {
+
+    /**
+     * The delivery is to be read and decoded.
+     */
+    ACCEPT(200),
+
+    /**
+     * The transmitted event is not known to this library.
+     */
+    UNKNOWN(204),
+
+    /**
+     * The transmitted event is known but its payload cannot be decoded by this library.
+     */
+    UNSUPPORTED(204),
+
+    /**
+     * No local handler subscribes to the payload type of the delivery.
+     */
+    UNSUBSCRIBED(204),
+
+    /**
+     * The declared body size exceeds the maximum for the payload type of the delivery. Receivers
+     * should respond without reading the body and close the connection.
+     */
+    OVERSIZED(413);
+
+    private final int statusCode;
+
+    Decision(int statusCode) {
+      this.statusCode = statusCode;
+    }
+
+    /**
+     * Retrieves the HTTP status code with which receivers are expected to respond.
+     *
+     * @return a status code.
+     */
+    public int getStatusCode() {
+      return this.statusCode;
+    }
+
+    /**
+     * Evaluates whether the delivery is to be read and decoded.
+     *
+     * @return true if accepted, false otherwise.
+     */
+    public boolean isAccepted() {
+      return this == ACCEPT;
+    }
+
+    /**
+     * Evaluates whether the body of a skipped delivery may be drained through
+     * {@link DeliveryFilter#discard(EventHeader, InputStream)} in order to keep the connection
+     * alive.
+     *
+     * @return true if drainable, false otherwise.
+     */
+    public boolean isDrainable() {
+      return this == UNKNOWN || this == UNSUPPORTED || this == UNSUBSCRIBED;
+    }
+  }
+}
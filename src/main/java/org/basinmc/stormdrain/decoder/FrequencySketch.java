@@ -0,0 +1,135 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.decoder;
+
+/**
+ * <p>Estimates the access frequency of keys within a recent window of accesses.</p>
+ *
+ * <p>The sketch is a count-min sketch of four rows of 4-bit counters which are packed into a
+ * single table of longs (each long holds four counters for each row). Once the amount of
+ * recorded accesses reaches ten times the table width, all counters are halved so that the
+ * estimates follow changes in popularity.</p>
+ *
+ * <p>Sketches are not thread safe.</p>
+ */
+final class FrequencySketch {
+
+  private static final long[] SEEDS = {
+      0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+  private static final long RESET_MASK = 0x7777777777777777L;
+  private static final long ONE_MASK = 0x1111111111111111L;
+
+  private final long[] table;
+  private final int mask;
+  private final int sampleSize;
+  private int size;
+
+  FrequencySketch(int expectedEntries) {
+    int length = Integer.highestOneBit(Math.max(8, Math.min(expectedEntries, 1 << 26)));
+    if (length < expectedEntries) {
+      length <<= 1;
+    }
+
+    this.table = new long[length];
+    this.mask = length - 1;
+    this.sampleSize = 10 * length;
+  }
+
+  /**
+   * Retrieves the estimated amount of accesses of a key.
+   *
+   * @param hash a key hash.
+   * @return an estimate within [0, 15].
+   */
+  int frequency(int hash) {
+    hash = spread(hash);
+    int start = (hash & 3) << 2;
+    int frequency = 15;
+
+    for (int i = 0; i < 4; ++i) {
+      int offset = (start + i) << 2;
+      int count = (int) ((this.table[this.indexOf(hash, i)] >>> offset) & 0xF);
+      frequency = Math.min(frequency, count);
+    }
+
+    return frequency;
+  }
+
+  /**
+   * Records an access of a key.
+   *
+   * @param hash a key hash.
+   */
+  void increment(int hash) {
+    hash = spread(hash);
+    int start = (hash & 3) << 2;
+    boolean added = false;
+
+    for (int i = 0; i < 4; ++i) {
+      int index = this.indexOf(hash, i);
+      int offset = (start + i) << 2;
+
+      if (((this.table[index] >>> offset) & 0xF) != 0xF) {
+        this.table[index] += 1L << offset;
+        added = true;
+      }
+    }
+
+    if (added && ++this.size == this.sampleSize) {
+      this.reset();
+    }
+  }
+
+  /**
+   * Halves all counters.
+   */
+  private void reset() {
+    int odd = 0;
+
+    for (int i = 0; i < this.table.length; ++i) {
+      odd += Long.bitCount(this.table[i] & ONE_MASK);
+      this.table[i] = (this.table[i] >>> 1) & RESET_MASK;
+    }
+
+    this.size = (this.size - (odd >>> 2)) >>> 1;
+  }
+
+  /**
+   * Selects the table slot of a key within the specified row.
+   *
+   * @param hash a spread key hash.
+   * @param row a row.
+   * @return a table index.
+   */
+  private int indexOf(int hash, int row) {
+    long h = (hash + SEEDS[row]) * SEEDS[row];
+    h += h >>> 32;
+    return (int) h & this.mask;
+  }
+
+  /**
+   * Improves the distribution of a key hash.
+   *
+   * @param hash a key hash.
+   * @return a spread hash.
+   */
+  private static int spread(int hash) {
+    hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+    hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+    return (hash >>> 16) ^ hash;
+  }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.decoder;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.nio.ByteBuffer;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import org.basinmc.stormdrain.PayloadType;
+
+/**
+ * <p>Provides a bounded pool of body buffers for each payload type.</p>
+ *
+ * <p>Buffers are sized according to the {@link PayloadSizeStatistics} of their respective payload
+ * type (e.g. pools for small events such as {@link PayloadType#WATCH} will hand out much smaller
+ * buffers than pools for {@link PayloadType#PULL_REQUEST}). Buffers which turn out to be too small
+ * for the current traffic are discarded instead of being returned to the pool.</p>
+ *
+ * <p>Pools are shared between all threads rather than being bound to a specific thread and may
+ * thus be used safely from virtual threads.</p>
+ */
+public class PayloadBufferPool {
+
+  private final boolean direct;
+  private final int maximumBufferSize;
+  private final Map<PayloadType, Slot> slots = new EnumMap<>(PayloadType.class);
+
+  public PayloadBufferPool(boolean direct, int buffersPerType, int minimumBufferSize,
+      int maximumBufferSize) {
+    if (buffersPerType < 1) {
+      throw new IllegalArgumentException("Illegal pool size: Must be at least 1");
+    }
+
+    this.direct = direct;
+    this.maximumBufferSize = maximumBufferSize;
+
+    for (PayloadType type : PayloadType.values()) {
+      this.slots.put(type, new Slot(buffersPerType,
+          new PayloadSizeStatistics(minimumBufferSize, maximumBufferSize)));
+    }
+  }
+
+  /**
+   * Retrieves a cleared buffer which is suitable for the typical body of the specified payload
+   * type.
+   *
+   * @param type a payload type.
+   * @return a buffer.
+   */
+  @NonNull
+  public ByteBuffer acquire(@NonNull PayloadType type) {
+    return this.acquire(type, 0);
+  }
+
+  /**
+   * Retrieves a cleared buffer which is suitable for the typical body of the specified payload
+   * type and provides room for at least the specified amount of bytes.
+   *
+   * @param type a payload type.
+   * @param minimumCapacity a minimum capacity (in bytes; for instance the value of the
+   * Content-Length header).
+   * @return a buffer.
+   */
+  @NonNull
+  public ByteBuffer acquire(@NonNull PayloadType type, int minimumCapacity) {
+    if (minimumCapacity > this.maximumBufferSize) {
+      throw new IllegalArgumentException(
+          "Illegal capacity: Must not exceed " + this.maximumBufferSize + " bytes");
+    }
+
+    Slot slot = this.slots.get(type);
+    int capacity = Math.max(minimumCapacity, slot.statistics.getRecommendedBufferSize());
+
+    ByteBuffer buffer;
+    while ((buffer = slot.buffers.poll()) != null) {
+      if (buffer.capacity() >= capacity) {
+        buffer.clear();
+        return buffer;
+      }
+    }
+
+    return this.allocate(capacity);
+  }
+
+  /**
+   * Allocates a new buffer of the specified capacity.
+   *
+   * @param capacity a capacity (in bytes).
+   * @return a buffer.
+   */
+  @NonNull
+  ByteBuffer allocate(int capacity) {
+    return this.direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+  }
+
+  /**
+   * Returns a buffer to the pool. Buffers which are too large or have been allocated with a
+   * different kind of memory are silently discarded.
+   *
+   * @param type a payload type.
+   * @param buffer a buffer.
+   */
+  public void release(@NonNull PayloadType type, @NonNull ByteBuffer buffer) {
+    if (buffer.isDirect() != this.direct || buffer.isReadOnly()
+        || buffer.capacity() > this.maximumBufferSize) {
+      return;
+    }
+
+    this.slots.get(type).buffers.offer(buffer);
+  }
+
+  /**
+   * Retrieves the size statistics for the specified payload type.
+   *
+   * @param type a payload type.
+   * @return a set of statistics.
+   */
+  @NonNull
+  public PayloadSizeStatistics getStatistics(@NonNull PayloadType type) {
+    return this.slots.get(type).statistics;
+  }
+
+  /**
+   * Retrieves the largest buffer (and thus the largest body) this pool will hand out.
+   *
+   * @return a size (in bytes).
+   */
+  public int getMaximumBufferSize() {
+    return this.maximumBufferSize;
+  }
+
+  /**
+   * Evaluates whether this pool hands out direct (e.g. off-heap) buffers.
+   *
+   * @return true if direct, false otherwise.
+   */
+  public boolean isDirect() {
+    return this.direct;
+  }
+
+  /**
+   * Represents the pooled buffers and statistics of a single payload type.
+   */
+  private static final class Slot {
+
+    private final ArrayBlockingQueue<ByteBuffer> buffers;
+    private final PayloadSizeStatistics statistics;
+
+    private Slot(int capacity, @NonNull PayloadSizeStatistics statistics) {
+      this.buffers = new ArrayBlockingQueue<>(capacity);
+      this.statistics = statistics;
+    }
+  }
+}
@@ -0,0 +1,619 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.decoder;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import org.basinmc.stormdrain.Payload;
+import org.basinmc.stormdrain.PayloadType;
+import org.basinmc.stormdrain.event.Event;
+import org.basinmc.stormdrain.metrics.MetricSource;
+import org.basinmc.stormdrain.metrics.MetricsReporter;
+
+/**
+ * <p>Provides a shared cache of decoded payloads which is keyed by their delivery identifier and
+ * bounded by the estimated amount of memory they retain.</p>
+ *
+ * <p>The cache is split into a fixed number of independently locked stripes, each of which
+ * manages its share of the maximum weight according to the W-TinyLFU policy: New entries are
+ * admitted to a small LRU window (1% of the stripe weight). Entries which overflow the window
+ * compete with the least recently used entry of the main region and are only retained when a
+ * frequency sketch of recent accesses considers them more popular than the entry they would
+ * replace. The main region is split into a probation and a protected (80%) segment so that
+ * entries which have been accessed repeatedly are not displaced by a burst of single accesses.</p>
+ *
+ * <p>Payloads are weighed once when they are inserted. Raw bodies of cached payloads are never
+ * released by the cache.</p>
+ */
+public class PayloadCache implements MetricSource {
+
+  /**
+   * Defines the name of the counter which tracks the amount of lookups per payload type and
+   * result.
+   */
+  public static final String REQUEST_METRIC = "stormdrain.cache.requests";
+
+  /**
+   * Defines the name of the gauge which tracks the ratio of lookups which have been answered from
+   * the cache per payload type.
+   */
+  public static final String HIT_RATIO_METRIC = "stormdrain.cache.hit_ratio";
+
+  /**
+   * Defines the name of the gauge which tracks the estimated amount of bytes retained by cached
+   * payloads.
+   */
+  public static final String WEIGHT_METRIC = "stormdrain.cache.weight";
+
+  /**
+   * Defines the name of the counter which tracks the amount of evicted or rejected payloads.
+   */
+  public static final String EVICTION_METRIC = "stormdrain.cache.evictions";
+
+  /**
+   * Defines the typical weight of a decoded payload which is used to size the frequency sketch.
+   */
+  static final int ESTIMATED_ENTRY_WEIGHT = 4 * 1024;
+
+  private final Segment[] segments;
+  private final int mask;
+  private final long maximumWeight;
+  private final PayloadWeigher weigher;
+
+  private final LongAdder[] hits = new LongAdder[PayloadType.values().length];
+  private final LongAdder[] misses = new LongAdder[PayloadType.values().length];
+  private final LongAdder evictions = new LongAdder();
+
+  public PayloadCache(long maximumWeight, int stripes, @NonNull PayloadWeigher weigher) {
+    if (maximumWeight < 1) {
+      throw new IllegalArgumentException("Illegal maximum weight: Must be at least 1");
+    }
+    if (stripes < 1 || stripes > 1 << 16) {
+      throw new IllegalArgumentException("Illegal stripe count: Must be within [1, 65536]");
+    }
+
+    int count = Integer.highestOneBit(stripes);
+    if (count < stripes) {
+      count <<= 1;
+    }
+
+    this.segments = new Segment[count];
+    this.mask = count - 1;
+    this.maximumWeight = maximumWeight;
+    this.weigher = weigher;
+
+    long segmentWeight = Math.max(1, maximumWeight / count);
+    for (int i = 0; i < count; ++i) {
+      this.segments[i] = new Segment(segmentWeight, this.evictions);
+    }
+
+    for (int i = 0; i < this.hits.length; ++i) {
+      this.hits[i] = new LongAdder();
+      this.misses[i] = new LongAdder();
+    }
+  }
+
+  /**
+   * Selects the segment which is responsible for the specified key.
+   *
+   * @param hash a key hash.
+   * @return a segment.
+   */
+  @NonNull
+  private Segment segment(int hash) {
+    return this.segments[(hash ^ (hash >>> 16)) & this.mask];
+  }
+
+  /**
+   * Retrieves a cached payload.
+   *
+   * @param deliveryId a delivery identifier.
+   * @param type the expected payload type.
+   * @param <E> an event type.
+   * @return a payload or an empty optional if no payload of the specified type is cached for the
+   * delivery.
+   */
+  @NonNull
+  @SuppressWarnings("unchecked")
+  public <E extends Event> Optional<Payload<E>> get(@NonNull UUID deliveryId,
+      @NonNull PayloadType type) {
+    int hash = deliveryId.hashCode();
+    Payload<?> payload = this.segment(hash).get(deliveryId, hash);
+
+    if (payload == null || payload.getType() != type) {
+      this.misses[type.ordinal()].increment();
+      return Optional.empty();
+    }
+
+    this.hits[type.ordinal()].increment();
+    return Optional.of((Payload<E>) payload);
+  }
+
+  /**
+   * <p>Retrieves a cached payload or decodes and caches it if it is not present.</p>
+   *
+   * <p>Payloads are decoded without holding any locks. Concurrent lookups of the same missing
+   * delivery may thus decode it more than once while the last decoded payload is retained.</p>
+   *
+   * @param deliveryId a delivery identifier.
+   * @param type a payload type.
+   * @param loader a loader which decodes the event.
+   * @param <E> an event type.
+   * @return a payload.
+   * @throws IOException when decoding fails.
+   */
+  @NonNull
+  public <E extends Event> Payload<E> get(@NonNull UUID deliveryId, @NonNull PayloadType type,
+      @NonNull Loader<E> loader) throws IOException {
+    Optional<Payload<E>> cached = this.get(deliveryId, type);
+    if (cached.isPresent()) {
+      return cached.get();
+    }
+
+    Payload<E> payload = new Payload<>(deliveryId, type, loader.load());
+    this.put(payload);
+    return payload;
+  }
+
+  /**
+   * Caches a payload (replacing any previously cached payload of the same delivery). Payloads
+   * which exceed the share of a single stripe are not cached.
+   *
+   * @param payload a payload.
+   */
+  public void put(@NonNull Payload<?> payload) {
+    long weight = this.weigher.weigh(payload);
+    if (weight < 0) {
+      throw new IllegalStateException("Illegal weight: Weigher returned " + weight);
+    }
+
+    int hash = payload.getDeliveryId().hashCode();
+    this.segment(hash).put(payload, hash, weight);
+  }
+
+  /**
+   * Removes the payload of a delivery from the cache.
+   *
+   * @param deliveryId a delivery identifier.
+   * @return true if a payload has been removed, false otherwise.
+   */
+  public boolean invalidate(@NonNull UUID deliveryId) {
+    return this.segment(deliveryId.hashCode()).invalidate(deliveryId);
+  }
+
+  /**
+   * Retrieves the maximum total weight of all cached payloads.
+   *
+   * @return a weight (in bytes).
+   */
+  public long getMaximumWeight() {
+    return this.maximumWeight;
+  }
+
+  /**
+   * Retrieves the total weight of all cached payloads.
+   *
+   * @return a weight (in bytes).
+   */
+  public long getWeight() {
+    long weight = 0;
+    for (Segment segment : this.segments) {
+      weight += segment.getWeight();
+    }
+    return weight;
+  }
+
+  /**
+   * Retrieves the amount of cached payloads.
+   *
+   * @return an amount of payloads.
+   */
+  public int getSize() {
+    int size = 0;
+    for (Segment segment : this.segments) {
+      size += segment.getSize();
+    }
+    return size;
+  }
+
+  /**
+   * Retrieves the amount of lookups for a payload type which have been answered from the cache.
+   *
+   * @param type a payload type.
+   * @return an amount of lookups.
+   */
+  public long getHitCount(@NonNull PayloadType type) {
+    return this.hits[type.ordinal()].sum();
+  }
+
+  /**
+   * Retrieves the amount of lookups for a payload type which could not be answered from the
+   * cache.
+   *
+   * @param type a payload type.
+   * @return an amount of lookups.
+   */
+  public long getMissCount(@NonNull PayloadType type) {
+    return this.misses[type.ordinal()].sum();
+  }
+
+  /**
+   * Retrieves the ratio of lookups for a payload type which have been answered from the cache.
+   *
+   * @param type a payload type.
+   * @return a ratio within [0, 1] (or zero if no lookups have been made).
+   */
+  public double getHitRatio(@NonNull PayloadType type) {
+    long hits = this.getHitCount(type);
+    long requests = hits + this.getMissCount(type);
+    return requests == 0 ? 0 : (double) hits / requests;
+  }
+
+  /**
+   * Retrieves the total amount of payloads which have been evicted or rejected by the admission
+   * policy.
+   *
+   * @return an amount of payloads.
+   */
+  public long getEvictionCount() {
+    return this.evictions.sum();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void report(@NonNull MetricsReporter reporter) {
+    for (PayloadType type : PayloadType.values()) {
+      long hits = this.getHitCount(type);
+      long misses = this.getMissCount(type);
+      if (hits + misses == 0) {
+        continue;
+      }
+
+      Map<String, String> tags = new HashMap<>();
+      tags.put("type", type.name());
+      tags.put("result", "hit");
+      reporter.counter(REQUEST_METRIC, tags, hits);
+
+      tags = new HashMap<>(tags);
+      tags.put("result", "miss");
+      reporter.counter(REQUEST_METRIC, tags, misses);
+
+      reporter.gauge(HIT_RATIO_METRIC, Collections.singletonMap("type", type.name()),
+          (double) hits / (hits + misses));
+    }
+
+    reporter.gauge(WEIGHT_METRIC, Collections.emptyMap(), this.getWeight());
+    reporter.counter(EVICTION_METRIC, Collections.emptyMap(), this.evictions.sum());
+  }
+
+  /**
+   * Decodes an event which is not present within the cache.
+   *
+   * @param <E> an event type.
+   */
+  @FunctionalInterface
+  public interface Loader<E extends Event> {
+
+    /**
+     * Decodes the event.
+     *
+     * @return an event.
+     * @throws IOException when decoding fails.
+     */
+    @NonNull
+    E load() throws IOException;
+  }
+
+  /**
+   * Identifies the regions in which a cached payload may reside.
+   */
+  private enum Region {
+    WINDOW,
+    PROBATION,
+    PROTECTED
+  }
+
+  /**
+   * Represents a single independently locked stripe of the cache.
+   */
+  private static final class Segment {
+
+    private final long maximumWeight;
+    private final long windowMaximum;
+    private final long protectedMaximum;
+    private final LongAdder evictions;
+
+    private final Map<UUID, Node> nodes = new HashMap<>();
+    private final FrequencySketch sketch;
+    private final AccessQueue window = new AccessQueue();
+    private final AccessQueue probation = new AccessQueue();
+    private final AccessQueue protectedQueue = new AccessQueue();
+
+    private long weight;
+    private long windowWeight;
+    private long protectedWeight;
+
+    private Segment(long maximumWeight, @NonNull LongAdder evictions) {
+      this.maximumWeight = maximumWeight;
+      this.windowMaximum = Math.max(1, maximumWeight / 100);
+      this.protectedMaximum = (long) ((maximumWeight - this.windowMaximum) * 0.8);
+      this.evictions = evictions;
+      this.sketch = new FrequencySketch(
+          (int) Math.min(1 << 26, Math.max(16, maximumWeight / ESTIMATED_ENTRY_WEIGHT)));
+    }
+
+    @Nullable
+    private synchronized Payload<?> get(@NonNull UUID key, int hash) {
+      this.sketch.increment(hash);
+
+      Node node = this.nodes.get(key);
+      if (node == null) {
+        return null;
+      }
+
+      this.onAccess(node);
+      return node.payload;
+    }
+
+    private synchronized void put(@NonNull Payload<?> payload, int hash, long weight) {
+      UUID key = payload.getDeliveryId();
+      Node node = this.nodes.get(key);
+
+      if (weight > this.maximumWeight) {
+        if (node != null) {
+          this.remove(node);
+        }
+        this.evictions.increment();
+        return;
+      }
+
+      if (node != null) {
+        long delta = weight - node.weight;
+        node.payload = payload;
+        node.weight = weight;
+
+        this.weight += delta;
+        if (node.region == Region.WINDOW) {
+          this.windowWeight += delta;
+        } else if (node.region == Region.PROTECTED) {
+          this.protectedWeight += delta;
+        }
+
+        this.onAccess(node);
+        this.evict();
+        return;
+      }
+
+      this.sketch.increment(hash);
+
+      node = new Node(key, hash, payload, weight);
+      this.nodes.put(key, node);
+      this.window.add(node);
+      this.windowWeight += weight;
+      this.weight += weight;
+      this.evict();
+    }
+
+    private synchronized boolean invalidate(@NonNull UUID key) {
+      Node node = this.nodes.get(key);
+      if (node == null) {
+        return false;
+      }
+
+      this.unlink(node);
+      return true;
+    }
+
+    private synchronized long getWeight() {
+      return this.weight;
+    }
+
+    private synchronized int getSize() {
+      return this.nodes.size();
+    }
+
+    /**
+     * Updates the position of an entry which has been accessed.
+     *
+     * @param node an entry.
+     */
+    private void onAccess(@NonNull Node node) {
+      switch (node.region) {
+        case WINDOW:
+          this.window.moveToBack(node);
+          break;
+        case PROBATION:
+          this.probation.remove(node);
+          node.region = Region.PROTECTED;
+          this.protectedQueue.add(node);
+          this.protectedWeight += node.weight;
+
+          // demote the least recently used protected entries once the segment overflows
+          Node demoted;
+          while (this.protectedWeight > this.protectedMaximum
+              && (demoted = this.protectedQueue.peek()) != node) {
+            this.protectedQueue.remove(demoted);
+            this.protectedWeight -= demoted.weight;
+            demoted.region = Region.PROBATION;
+            this.probation.add(demoted);
+          }
+          break;
+        case PROTECTED:
+          this.protectedQueue.moveToBack(node);
+          break;
+      }
+    }
+
+    /**
+     * Moves entries which overflow the window into the main region and evicts entries until the
+     * segment is within its maximum weight.
+     */
+    private void evict() {
+      int candidates = 0;
+
+      while (this.windowWeight > this.windowMaximum) {
+        Node node = this.window.peek();
+        this.window.remove(node);
+        this.windowWeight -= node.weight;
+
+        node.region = Region.PROBATION;
+        this.probation.add(node);
+        candidates++;
+      }
+
+      while (this.weight > this.maximumWeight) {
+        Node victim = this.probation.peek();
+        if (victim == null) {
+          victim = this.protectedQueue.peek();
+        }
+        if (victim == null) {
+          victim = this.window.peek();
+        }
+
+        // candidates have been appended to the back of the probation segment most recently
+        Node candidate = candidates == 0 ? null : this.probation.peekLast();
+        if (candidate == null || candidate == victim) {
+          if (candidate != null) {
+            candidates--;
+          }
+
+          this.remove(victim);
+          continue;
+        }
+
+        if (this.sketch.frequency(candidate.hash) > this.sketch.frequency(victim.hash)) {
+          this.remove(victim);
+        } else {
+          this.remove(candidate);
+          candidates--;
+        }
+      }
+    }
+
+    /**
+     * Evicts an entry.
+     *
+     * @param node an entry.
+     */
+    private void remove(@NonNull Node node) {
+      this.unlink(node);
+      this.evictions.increment();
+    }
+
+    /**
+     * Removes an entry from the segment.
+     *
+     * @param node an entry.
+     */
+    private void unlink(@NonNull Node node) {
+      this.nodes.remove(node.key);
+      this.weight -= node.weight;
+
+      switch (node.region) {
+        case WINDOW:
+          this.window.remove(node);
+          this.windowWeight -= node.weight;
+          break;
+        case PROBATION:
+          this.probation.remove(node);
+          break;
+        case PROTECTED:
+          this.protectedQueue.remove(node);
+          this.protectedWeight -= node.weight;
+          break;
+      }
+    }
+  }
+
+  /**
+   * Represents a cached payload.
+   */
+  private static final class Node {
+
+    private final UUID key;
+    private final int hash;
+    private Payload<?> payload;
+    private long weight;
+    private Region region = Region.WINDOW;
+
+    private Node previous;
+    private Node next;
+
+    private Node() {
+      this.key = null;
+      this.hash = 0;
+    }
+
+    private Node(@NonNull UUID key, int hash, @NonNull Payload<?> payload, long weight) {
+      this.key = key;
+      this.hash = hash;
+      this.payload = payload;
+      this.weight = weight;
+    }
+  }
+
+  /**
+   * Orders entries from least to most recently used as an intrusive doubly linked list.
+   */
+  private static final class AccessQueue {
+
+    private final Node sentinel = new Node();
+
+    private AccessQueue() {
+      this.sentinel.previous = this.sentinel;
+      this.sentinel.next = this.sentinel;
+    }
+
+    @Nullable
+    private Node peek() {
+      return this.sentinel.next == this.sentinel ? null : this.sentinel.next;
+    }
+
+    @Nullable
+    private Node peekLast() {
+      return this.sentinel.previous == this.sentinel ? null : this.sentinel.previous;
+    }
+
+    private void add(@NonNull Node node) {
+      node.previous = this.sentinel.previous;
+      node.next = this.sentinel;
+      this.sentinel.previous.next = node;
+      this.sentinel.previous = node;
+    }
+
+    private void remove(@NonNull Node node) {
+      node.previous.next = node.next;
+      node.next.previous = node.previous;
+      node.previous = null;
+      node.next = null;
+    }
+
+    private void moveToBack(@NonNull Node node) {
+      this.remove(node);
+      this.add(node);
+    }
+  }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.decoder;
+
+/**
+ * <p>Tracks the body sizes of a single payload type in order to derive a buffer size which fits
+ * the vast majority of deliveries without resizing.</p>
+ *
+ * <p>Sizes are tracked as an exponentially weighted moving average along with its mean deviation
+ * so that the recommendation follows changes in traffic (such as a repository which starts
+ * producing large pushes) without being dominated by a single outlier.</p>
+ */
+public class PayloadSizeStatistics {
+
+  /**
+   * Defines the weight of a new sample within the moving average.
+   */
+  private static final double WEIGHT = 0.05;
+
+  private final int minimumBufferSize;
+  private final int maximumBufferSize;
+
+  private long count;
+  private long maximum;
+  private double average;
+  private double deviation;
+
+  public PayloadSizeStatistics(int minimumBufferSize, int maximumBufferSize) {
+    if (minimumBufferSize < 1 || maximumBufferSize < minimumBufferSize) {
+      throw new IllegalArgumentException(
+          "Illegal buffer bounds: Minimum must be positive and less or equal to maximum");
+    }
+
+    this.minimumBufferSize = minimumBufferSize;
+    this.maximumBufferSize = maximumBufferSize;
+  }
+
+  /**
+   * Records the size of a single delivery.
+   *
+   * @param size a body size (in bytes).
+   */
+  public synchronized void record(int size) {
+    if (this.count++ == 0) {
+      this.average = size;
+    } else {
+      this.deviation += WEIGHT * (Math.abs(size - this.average) - this.deviation);
+      this.average += WEIGHT * (size - this.average);
+    }
+
+    this.maximum = Math.max(this.maximum, size);
+  }
+
+  /**
+   * Retrieves the total amount of deliveries which have been recorded.
+   *
+   * @return an amount of deliveries.
+   */
+  public synchronized long getCount() {
+    return this.count;
+  }
+
+  /**
+   * Retrieves the largest delivery which has been recorded.
+   *
+   * @return a body size (in bytes).
+   */
+  public synchronized long getMaximum() {
+    return this.maximum;
+  }
+
+  /**
+   * Retrieves the moving average of all recorded deliveries.
+   *
+   * @return a body size (in bytes).
+   */
+  public synchronized double getAverage() {
+    return this.average;
+  }
+
+  /**
+   * <p>Retrieves the recommended size for newly allocated buffers.</p>
+   *
+   * <p>The recommendation covers the moving average plus four times its mean deviation and is
+   * rounded up to the next power of two within the configured bounds.</p>
+   *
+   * @return a buffer size (in bytes).
+   */
+  public int getRecommendedBufferSize() {
+    double estimate;
+
+    synchronized (this) {
+      estimate = this.average + 4 * this.deviation;
+    }
+
+    if (estimate <= this.minimumBufferSize) {
+      return this.minimumBufferSize;
+    }
+    if (estimate >= this.maximumBufferSize) {
+      return this.maximumBufferSize;
+    }
+
+    int size = Integer.highestOneBit((int) Math.ceil(estimate));
+    if (size < estimate) {
+      if (size >= 1 << 30) {
+        return this.maximumBufferSize;
+      }
+
+      size <<= 1;
+    }
+
+    return Math.max(this.minimumBufferSize, Math.min(this.maximumBufferSize, size));
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.decoder;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.EnumMap;
+import java.util.Map;
+import org.basinmc.stormdrain.Payload;
+import org.basinmc.stormdrain.PayloadType;
+
+/**
+ * Estimates the amount of memory which is retained by a decoded payload.
+ */
+@FunctionalInterface
+public interface PayloadWeigher {
+
+  /**
+   * Creates a weigher which assigns the same weight to every payload.
+   *
+   * @param weight a weight (in bytes).
+   * @return a weigher.
+   */
+  @NonNull
+  static PayloadWeigher fixed(long weight) {
+    if (weight < 0) {
+      throw new IllegalArgumentException("Illegal weight: Must be positive or zero");
+    }
+
+    return (payload) -> weight;
+  }
+
+  /**
+   * Creates a weigher which delegates to a separate weigher for each payload type.
+   *
+   * @param weighers a map of payload types and their respective weighers.
+   * @param fallback a weigher for all types which are not present within the map.
+   * @return a weigher.
+   */
+  @NonNull
+  static PayloadWeigher byType(@NonNull Map<PayloadType, PayloadWeigher> weighers,
+      @NonNull PayloadWeigher fallback) {
+    Map<PayloadType, PayloadWeigher> copy = new EnumMap<>(PayloadType.class);
+    for (PayloadType type : PayloadType.values()) {
+      copy.put(type, weighers.getOrDefault(type, fallback));
+    }
+
+    return (payload) -> copy.get(payload.getType()).weigh(payload);
+  }
+
+  /**
+   * <p>Creates a weigher which estimates the weight of a payload from the body sizes which have
+   * been recorded for its type.</p>
+   *
+   * <p>Decoded events typically retain a multiple of their body size and are thus weighed at the
+   * specified multiple of the average body size of their type. Payloads which retain their raw
+   * body are charged its size in addition.</p>
+   *
+   * @param pool a buffer pool which records the body sizes of decoded payloads.
+   * @param factor a ratio between retained and body size.
+   * @return a weigher.
+   */
+  @NonNull
+  static PayloadWeigher fromStatistics(@NonNull PayloadBufferPool pool, double factor) {
+    if (factor <= 0) {
+      throw new IllegalArgumentException("Illegal factor: Must be positive");
+    }
+
+    return (payload) -> {
+      PayloadSizeStatistics statistics = pool.getStatistics(payload.getType());
+      double average = statistics.getCount() == 0 ? statistics.getRecommendedBufferSize()
+          : statistics.getAverage();
+
+      long weight = (long) Math.ceil(average * factor);
+      return weight + payload.getRawBody().map((body) -> (long) body.getSize()).orElse(0L);
+    };
+  }
+
+  /**
+   * Estimates the weight of a payload.
+   *
+   * @param payload a payload.
+   * @return a weight (in bytes).
+   */
+  long weigh(@NonNull Payload<?> payload);
+}
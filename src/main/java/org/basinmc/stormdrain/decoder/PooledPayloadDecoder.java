@@ -0,0 +1,256 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.decoder;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.UUID;
+import org.basinmc.stormdrain.Payload;
+import org.basinmc.stormdrain.PayloadType;
+import org.basinmc.stormdrain.RawBody;
+import org.basinmc.stormdrain.event.Event;
+
+/**
+ * <p>Provides an opt-in decode path which reads payload bodies into pooled buffers before
+ * decoding them.</p>
+ *
+ * <p>Heap buffers are handed to the parser as-is and thus spare the parser its own input buffer
+ * and the caller its body sized array. Direct buffers are primarily meant for receivers which
+ * fill buffers from a channel themselves (see {@link PayloadBufferPool#acquire(PayloadType)}) as
+ * they are streamed into the parser.</p>
+ */
+public class PooledPayloadDecoder {
+
+  private final PayloadBufferPool pool;
+
+  public PooledPayloadDecoder(@NonNull PayloadBufferPool pool) {
+    this.pool = pool;
+  }
+
+  /**
+   * Retrieves the pool from which this decoder borrows its buffers.
+   *
+   * @return a buffer pool.
+   */
+  @NonNull
+  public PayloadBufferPool getPool() {
+    return this.pool;
+  }
+
+  /**
+   * Decodes an event payload of unknown length from the supplied input stream.
+   *
+   * @param type a payload type.
+   * @param inputStream an input stream.
+   * @param <E> an event type.
+   * @return an event payload.
+   * @throws IOException when reading from the stream fails, the body exceeds the maximum buffer
+   * size or the data is malformed.
+   */
+  @NonNull
+  public <E extends Event> E read(@NonNull PayloadType type, @NonNull InputStream inputStream)
+      throws IOException {
+    return this.read(type, inputStream, -1);
+  }
+
+  /**
+   * Decodes an event payload from the supplied input stream.
+   *
+   * @param type a payload type.
+   * @param inputStream an input stream.
+   * @param contentLength an expected body length (in bytes) or a negative value if unknown.
+   * @param <E> an event type.
+   * @return an event payload.
+   * @throws IOException when reading from the stream fails, the body exceeds the maximum buffer
+   * size or the data is malformed.
+   */
+  @NonNull
+  public <E extends Event> E read(@NonNull PayloadType type, @NonNull InputStream inputStream,
+      int contentLength) throws IOException {
+    if (contentLength > this.pool.getMaximumBufferSize()) {
+      throw new IOException(
+          "Payload exceeds maximum size of " + this.pool.getMaximumBufferSize() + " bytes");
+    }
+
+    ByteBuffer buffer = this
+        .fill(type, this.pool.acquire(type, Math.max(0, contentLength)), inputStream);
+
+    try {
+      buffer.flip();
+
+      this.pool.getStatistics(type).record(buffer.remaining());
+      return type.read(buffer);
+    } finally {
+      this.pool.release(type, buffer);
+    }
+  }
+
+  /**
+   * <p>Decodes an event payload from the supplied input stream and retains its original bytes
+   * within the returned payload.</p>
+   *
+   * <p>The raw body is a view of the pooled buffer which is returned to the pool once the body
+   * has been released. Callers are expected to release the body once they finished processing
+   * the payload (buffers of bodies which are never released are reclaimed by the garbage
+   * collector instead).</p>
+   *
+   * @param deliveryId a delivery identifier.
+   * @param type a payload type.
+   * @param inputStream an input stream.
+   * @param contentLength an expected body length (in bytes) or a negative value if unknown.
+   * @param <E> an event type.
+   * @return a payload which carries its raw body.
+   * @throws IOException when reading from the stream fails, the body exceeds the maximum buffer
+   * size or the data is malformed.
+   * @see Payload#getRawBody()
+   */
+  @NonNull
+  public <E extends Event> Payload<E> readRetained(@NonNull UUID deliveryId,
+      @NonNull PayloadType type, @NonNull InputStream inputStream, int contentLength)
+      throws IOException {
+    if (contentLength > this.pool.getMaximumBufferSize()) {
+      throw new IOException(
+          "Payload exceeds maximum size of " + this.pool.getMaximumBufferSize() + " bytes");
+    }
+
+    ByteBuffer buffer = this
+        .fill(type, this.pool.acquire(type, Math.max(0, contentLength)), inputStream);
+    boolean retained = false;
+
+    try {
+      buffer.flip();
+
+      this.pool.getStatistics(type).record(buffer.remaining());
+      E event = type.read(buffer);
+
+      ByteBuffer pooled = buffer;
+      RawBody body = new RawBody(buffer, () -> this.pool.release(type, pooled));
+      retained = true;
+      return new Payload<>(deliveryId, type, event, body);
+    } finally {
+      if (!retained) {
+        this.pool.release(type, buffer);
+      }
+    }
+  }
+
+  /**
+   * Decodes an event payload from a buffer which has previously been acquired from the pool and
+   * returns the buffer to the pool afterwards (regardless of whether decoding succeeds).
+   *
+   * @param type a payload type.
+   * @param buffer a buffer (flipped for reading).
+   * @param <E> an event type.
+   * @return an event payload.
+   * @throws IOException when the data is malformed.
+   */
+  @NonNull
+  public <E extends Event> E readAndRelease(@NonNull PayloadType type, @NonNull ByteBuffer buffer)
+      throws IOException {
+    try {
+      this.pool.getStatistics(type).record(buffer.remaining());
+      return type.read(buffer);
+    } finally {
+      this.pool.release(type, buffer);
+    }
+  }
+
+  /**
+   * <p>Reads the entire stream into the supplied pooled buffer and replaces it with a larger
+   * buffer when necessary.</p>
+   *
+   * <p>This method takes ownership of the supplied buffer: Once outgrown, it is returned to the
+   * pool immediately (intermediate buffers which have been outgrown in turn are left to the
+   * garbage collector) and the current buffer is returned to the pool when reading fails. Only the
+   * returned buffer remains in the hands of the caller.</p>
+   *
+   * @param type a payload type.
+   * @param buffer a pooled buffer.
+   * @param inputStream an input stream.
+   * @return a buffer which contains the entire body.
+   * @throws IOException when reading fails or the body exceeds the maximum buffer size.
+   */
+  @NonNull
+  private ByteBuffer fill(@NonNull PayloadType type, @NonNull ByteBuffer buffer,
+      @NonNull InputStream inputStream) throws IOException {
+    ReadableByteChannel channel = buffer.hasArray() ? null : Channels.newChannel(inputStream);
+    ByteBuffer pooled = buffer;
+
+    try {
+      while (true) {
+        if (!buffer.hasRemaining()) {
+          int next = inputStream.read();
+          if (next == -1) {
+            return buffer;
+          }
+
+          ByteBuffer replacement = this.grow(buffer);
+          if (buffer == pooled) {
+            this.pool.release(type, pooled);
+          }
+
+          buffer = replacement;
+          buffer.put((byte) next);
+        }
+
+        int length;
+        if (channel == null) {
+          length = inputStream
+              .read(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+
+          if (length > 0) {
+            buffer.position(buffer.position() + length);
+          }
+        } else {
+          length = channel.read(buffer);
+        }
+
+        if (length == -1) {
+          return buffer;
+        }
+      }
+    } catch (IOException | RuntimeException ex) {
+      this.pool.release(type, buffer);
+      throw ex;
+    }
+  }
+
+  /**
+   * Replaces a full buffer with a buffer of twice its capacity.
+   *
+   * @param buffer a full buffer.
+   * @return a larger buffer which contains all data of the original buffer.
+   * @throws IOException when the maximum buffer size has been reached.
+   */
+  @NonNull
+  private ByteBuffer grow(@NonNull ByteBuffer buffer) throws IOException {
+    int maximum = this.pool.getMaximumBufferSize();
+    if (buffer.capacity() >= maximum) {
+      throw new IOException("Payload exceeds maximum size of " + maximum + " bytes");
+    }
+
+    ByteBuffer replacement = this.pool
+        .allocate((int) Math.min(maximum, (long) buffer.capacity() * 2));
+    buffer.flip();
+    replacement.put(buffer);
+    return replacement;
+  }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.decoder;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.JsonParserDelegate;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.IOException;
+import java.util.Arrays;
+import org.basinmc.stormdrain.decoder.Projection.Node;
+
+/**
+ * Filters the token stream of a parser according to a projection. Properties which have not been
+ * selected are skipped at token level (along with all of their children) and are thus never seen
+ * by the deserializers.
+ */
+class ProjectingParser extends JsonParserDelegate {
+
+  private final Node root;
+
+  /**
+   * Stores the projection node of each open object or array.
+   */
+  private Node[] nodes = new Node[16];
+
+  /**
+   * Stores whether each open container is an array (in which case all elements share the node of
+   * their array).
+   */
+  private boolean[] arrays = new boolean[16];
+  private int depth;
+
+  /**
+   * Stores the node of the most recently encountered property name.
+   */
+  private Node pending;
+
+  ProjectingParser(@NonNull JsonParser delegate, @NonNull Node root) {
+    super(delegate);
+    this.root = root;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public JsonToken nextToken() throws IOException {
+    while (true) {
+      JsonToken token = this.delegate.nextToken();
+      if (token == null) {
+        return null;
+      }
+
+      switch (token) {
+        case FIELD_NAME:
+          Node node = this.depth == 0 ? null : this.nodes[this.depth - 1]
+              .get(this.delegate.getCurrentName());
+
+          if (node == null) {
+            this.delegate.nextToken();
+            this.delegate.skipChildren();
+            continue;
+          }
+
+          this.pending = node;
+          return token;
+        case START_OBJECT:
+        case START_ARRAY:
+          this.push(token == JsonToken.START_ARRAY);
+          return token;
+        case END_OBJECT:
+        case END_ARRAY:
+          --this.depth;
+          return token;
+        default:
+          return token;
+      }
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public JsonToken nextValue() throws IOException {
+    JsonToken token = this.nextToken();
+    if (token == JsonToken.FIELD_NAME) {
+      token = this.nextToken();
+    }
+    return token;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public JsonParser skipChildren() throws IOException {
+    JsonToken token = this.delegate.getCurrentToken();
+
+    if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+      this.delegate.skipChildren();
+      --this.depth;
+    }
+
+    return this;
+  }
+
+  /**
+   * Opens a new container and selects the node which applies to its children.
+   *
+   * @param array true if the container is an array, false otherwise.
+   */
+  private void push(boolean array) {
+    Node node;
+    if (this.depth == 0) {
+      node = this.root;
+    } else if (this.arrays[this.depth - 1]) {
+      node = this.nodes[this.depth - 1];
+    } else {
+      node = this.pending;
+    }
+
+    if (this.depth == this.nodes.length) {
+      this.nodes = Arrays.copyOf(this.nodes, this.depth * 2);
+      this.arrays = Arrays.copyOf(this.arrays, this.depth * 2);
+    }
+
+    this.nodes[this.depth] = node;
+    this.arrays[this.depth++] = array;
+  }
+}
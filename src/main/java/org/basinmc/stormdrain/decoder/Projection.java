@@ -0,0 +1,297 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.decoder;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMember;
+import com.fasterxml.jackson.databind.introspect.JacksonAnnotationIntrospector;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import org.basinmc.stormdrain.PayloadType;
+import org.basinmc.stormdrain.UnloadedPropertyException;
+import org.basinmc.stormdrain.event.Event;
+
+/**
+ * <p>Decodes a selected subset of the properties within payloads of a given type.</p>
+ *
+ * <p>Projections are expressed as a list of dot separated property paths (for instance
+ * {@code sender.login}) which refer to the names within the payload (rather than the model
+ * getters). Elements of arrays share the projection of their array and may optionally be marked
+ * explicitly (for instance {@code commits[].id}). Selecting an object or array selects all of its
+ * children.</p>
+ *
+ * <p>Properties which are not selected are skipped by the parser without being decoded or
+ * buffered. The resulting models are partially populated: Accessing a mandatory property which
+ * has not been loaded results in an {@link UnloadedPropertyException} while optional properties
+ * appear absent and primitive properties assume their respective default value.</p>
+ *
+ * <p>Projections are immutable and may be shared freely between threads (typically each consumer
+ * keeps a projection for each payload type it is interested in).</p>
+ */
+public class Projection {
+
+  private static final ObjectMapper MAPPER = createMapper();
+
+  private final PayloadType type;
+  private final Set<String> paths;
+  private final Node root = new Node();
+  private final ObjectReader reader;
+
+  public Projection(@NonNull PayloadType type, @NonNull String... paths) {
+    if (paths.length == 0) {
+      throw new IllegalArgumentException("Illegal projection: Must select at least one path");
+    }
+
+    this.type = type;
+    this.paths = Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(paths)));
+    this.reader = MAPPER.readerFor(type.getType());
+
+    for (String path : paths) {
+      this.root.add(path);
+    }
+  }
+
+  /**
+   * Parses a comma separated list of paths (for instance {@code "ref, after, sender.login"}).
+   *
+   * @param type a payload type.
+   * @param paths a comma separated list of paths.
+   * @return a projection.
+   */
+  @NonNull
+  public static Projection parse(@NonNull PayloadType type, @NonNull String paths) {
+    return new Projection(type, Arrays.stream(paths.split(","))
+        .map(String::trim)
+        .toArray(String[]::new));
+  }
+
+  /**
+   * Creates the mapper which is shared by all projections. Its introspector ignores the required
+   * markers of creator properties as projections will typically skip some of them.
+   *
+   * @return a mapper.
+   */
+  @NonNull
+  private static ObjectMapper createMapper() {
+    ObjectMapper mapper = PayloadType.createMapper();
+    mapper.setAnnotationIntrospector(new JacksonAnnotationIntrospector() {
+      @Override
+      public Boolean hasRequiredMarker(AnnotatedMember m) {
+        return Boolean.FALSE;
+      }
+    });
+    return mapper;
+  }
+
+  /**
+   * Retrieves the payload type to which this projection applies.
+   *
+   * @return a payload type.
+   */
+  @NonNull
+  public PayloadType getType() {
+    return this.type;
+  }
+
+  /**
+   * Retrieves the paths which are selected by this projection.
+   *
+   * @return a set of paths.
+   */
+  @NonNull
+  public Set<String> getPaths() {
+    return this.paths;
+  }
+
+  /**
+   * Evaluates whether the specified path is (at least partially) selected by this projection.
+   *
+   * @param path a dot separated path.
+   * @return true if selected, false otherwise.
+   */
+  public boolean includes(@NonNull String path) {
+    Node node = this.root;
+
+    for (String segment : split(path)) {
+      if (node.isLeaf()) {
+        return true;
+      }
+
+      node = node.children.get(segment);
+      if (node == null) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * Decodes the selected properties from the supplied array of UTF-8 encoded bytes.
+   *
+   * @param payload a payload.
+   * @param <E> an event type.
+   * @return a partially populated event payload.
+   * @throws IOException when the data is malformed.
+   */
+  @NonNull
+  public <E extends Event> E read(@NonNull byte[] payload) throws IOException {
+    return this.read(this.reader.getFactory().createParser(payload));
+  }
+
+  /**
+   * Decodes the selected properties from the supplied input stream.
+   *
+   * @param inputStream an input stream.
+   * @param <E> an event type.
+   * @return a partially populated event payload.
+   * @throws IOException when reading from the stream fails or the data is malformed.
+   */
+  @NonNull
+  public <E extends Event> E read(@NonNull InputStream inputStream) throws IOException {
+    return this.read(this.reader.getFactory().createParser(inputStream));
+  }
+
+  @NonNull
+  private <E extends Event> E read(@NonNull JsonParser parser) throws IOException {
+    try (JsonParser projected = new ProjectingParser(parser, this.root)) {
+      return this.reader.readValue(projected);
+    }
+  }
+
+  /**
+   * Splits a path into its segments.
+   *
+   * @param path a path.
+   * @return an array of segments.
+   */
+  @NonNull
+  private static String[] split(@NonNull String path) {
+    String[] segments = path.split("\\.", -1);
+
+    for (int i = 0; i < segments.length; ++i) {
+      String segment = segments[i];
+      if (segment.endsWith("[]")) {
+        segment = segment.substring(0, segment.length() - 2);
+      }
+
+      if (segment.isEmpty()) {
+        throw new IllegalArgumentException("Illegal path: \"" + path + "\" contains empty segment");
+      }
+
+      segments[i] = segment;
+    }
+
+    return segments;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || this.getClass() != o.getClass()) {
+      return false;
+    }
+    Projection that = (Projection) o;
+    return this.type == that.type &&
+        Objects.equals(this.paths, that.paths);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public int hashCode() {
+    return Objects.hash(this.type, this.paths);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public String toString() {
+    return this.type + ": " + String.join(", ", this.paths);
+  }
+
+  /**
+   * Represents a single property within a projection along with its selected children.
+   */
+  static final class Node {
+
+    /**
+     * Identifies the selected children of this property or null when all children are selected.
+     */
+    private Map<String, Node> children = new HashMap<>();
+
+    /**
+     * Creates a node which selects all of its children.
+     *
+     * @return a node.
+     */
+    @NonNull
+    static Node all() {
+      Node node = new Node();
+      node.children = null;
+      return node;
+    }
+
+    /**
+     * Adds a path to the tree below this node.
+     *
+     * @param path a path.
+     */
+    private void add(@NonNull String path) {
+      Node node = this;
+      String[] segments = split(path);
+
+      for (int i = 0; i < segments.length && !node.isLeaf(); ++i) {
+        if (i == segments.length - 1) {
+          node.children.put(segments[i], all());
+        } else {
+          node = node.children.computeIfAbsent(segments[i], (k) -> new Node());
+        }
+      }
+    }
+
+    /**
+     * Retrieves the child node for a property of the object which is represented by this node.
+     *
+     * @param name a property name.
+     * @return a node or null if the property has not been selected.
+     */
+    Node get(@NonNull String name) {
+      return this.isLeaf() ? this : this.children.get(name);
+    }
+
+    /**
+     * Evaluates whether this node selects all of its children.
+     *
+     * @return true if leaf, false otherwise.
+     */
+    boolean isLeaf() {
+      return this.children == null;
+    }
+  }
+}
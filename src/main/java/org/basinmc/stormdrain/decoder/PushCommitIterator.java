@@ -0,0 +1,201 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.decoder;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectReader;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import org.basinmc.stormdrain.event.PushEvent;
+import org.basinmc.stormdrain.resource.Commit;
+
+/**
+ * <p>Decodes the commits of a push event one at a time.</p>
+ *
+ * <p>The event (including its reference and head commit) is available as soon as the iterator
+ * has been created. Commits are decoded lazily and are not retained by the iterator. The
+ * underlying parser is released once all commits have been consumed or the iterator is closed.
+ * Iterators are not thread safe.</p>
+ *
+ * @see StreamingPushDecoder
+ */
+public class PushCommitIterator implements Iterator<Commit>, Closeable {
+
+  private final PushEvent event;
+  private final ObjectReader reader;
+  private JsonParser parser;
+  private Commit next;
+  private long count;
+
+  PushCommitIterator(@NonNull PushEvent event, @NonNull JsonParser parser,
+      @NonNull ObjectReader reader) throws IOException {
+    this.event = event;
+    this.parser = parser;
+    this.reader = reader;
+
+    try {
+      if (!this.seek()) {
+        this.close();
+      }
+    } catch (IOException | RuntimeException ex) {
+      this.close();
+      throw ex;
+    }
+  }
+
+  /**
+   * Retrieves the event to which the commits belong. The returned event does not carry its list
+   * of commits.
+   *
+   * @return an event.
+   */
+  @NonNull
+  public PushEvent getEvent() {
+    return this.event;
+  }
+
+  /**
+   * Retrieves the amount of commits which have been returned so far.
+   *
+   * @return an amount of commits.
+   */
+  public long getCount() {
+    return this.count;
+  }
+
+  /**
+   * Positions the parser at the start of the commit array.
+   *
+   * @return true if the payload contains a commit array, false otherwise.
+   * @throws IOException when the data is malformed.
+   */
+  private boolean seek() throws IOException {
+    if (this.parser.nextToken() != JsonToken.START_OBJECT) {
+      throw new IOException("Illegal payload: Expected object");
+    }
+
+    while (this.parser.nextToken() == JsonToken.FIELD_NAME) {
+      String name = this.parser.getCurrentName();
+      JsonToken token = this.parser.nextToken();
+
+      if ("commits".equals(name) && token == JsonToken.START_ARRAY) {
+        return true;
+      }
+
+      this.parser.skipChildren();
+    }
+
+    return false;
+  }
+
+  /**
+   * Evaluates whether another commit is available.
+   *
+   * @return true if available, false otherwise.
+   * @throws IOException when the data is malformed.
+   */
+  public boolean hasNextCommit() throws IOException {
+    if (this.next != null) {
+      return true;
+    }
+    if (this.parser == null) {
+      return false;
+    }
+
+    try {
+      JsonToken token = this.parser.nextToken();
+      if (token == JsonToken.END_ARRAY) {
+        this.close();
+        return false;
+      }
+      if (token != JsonToken.START_OBJECT) {
+        throw new IOException("Illegal payload: Expected commit object but got " + token);
+      }
+
+      this.next = this.reader.readValue(this.parser);
+      return true;
+    } catch (IOException | RuntimeException ex) {
+      this.close();
+      throw ex;
+    }
+  }
+
+  /**
+   * Retrieves the next commit.
+   *
+   * @return a commit.
+   * @throws IOException when the data is malformed.
+   * @throws NoSuchElementException when all commits have been consumed.
+   */
+  @NonNull
+  public Commit nextCommit() throws IOException {
+    if (!this.hasNextCommit()) {
+      throw new NoSuchElementException();
+    }
+
+    Commit commit = this.next;
+    this.next = null;
+    this.count++;
+    return commit;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @throws UncheckedIOException when the data is malformed.
+   */
+  @Override
+  public boolean hasNext() {
+    try {
+      return this.hasNextCommit();
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @throws UncheckedIOException when the data is malformed.
+   */
+  @Override
+  public Commit next() {
+    try {
+      return this.nextCommit();
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void close() throws IOException {
+    JsonParser parser = this.parser;
+    this.parser = null;
+
+    if (parser != null) {
+      parser.close();
+    }
+  }
+}
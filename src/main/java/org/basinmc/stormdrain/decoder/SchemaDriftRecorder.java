@@ -0,0 +1,288 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.decoder;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.deser.DeserializationProblemHandler;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import org.basinmc.stormdrain.PayloadType;
+import org.basinmc.stormdrain.event.Event;
+import org.basinmc.stormdrain.metrics.MetricSource;
+import org.basinmc.stormdrain.metrics.MetricsReporter;
+import org.basinmc.stormdrain.metrics.StripedCounterTable;
+
+/**
+ * <p>Records properties which are present within decoded payloads but are not understood by the
+ * respective event or resource model (e.g. fields which have been added by GitHub after the model
+ * was written).</p>
+ *
+ * <p>Only a configurable fraction of all deliveries is inspected. Unknown properties are reported
+ * by the parser while it skips them and are thus recorded without building a tree of the
+ * payload. Decoding never fails due to unknown properties.</p>
+ */
+public class SchemaDriftRecorder implements MetricSource {
+
+  /**
+   * Defines the name of the counter which tracks the occurrences of each unknown property.
+   */
+  public static final String UNKNOWN_PROPERTY_METRIC = "stormdrain.decoder.unknown_properties";
+
+  /**
+   * Defines the name of the counter which tracks the amount of inspected deliveries.
+   */
+  public static final String SAMPLED_DELIVERY_METRIC = "stormdrain.decoder.sampled_deliveries";
+
+  private final double sampleRate;
+  private final StripedCounterTable<UnknownProperty> counters;
+  private final Map<PayloadType, ObjectReader> readers = new EnumMap<>(PayloadType.class);
+  private final Map<PayloadType, LongAdder> sampledDeliveries = new EnumMap<>(PayloadType.class);
+
+  public SchemaDriftRecorder(double sampleRate, int stripes, int maximumProperties) {
+    if (sampleRate < 0 || sampleRate > 1) {
+      throw new IllegalArgumentException("Illegal sample rate: Must be within [0, 1]");
+    }
+
+    this.sampleRate = sampleRate;
+    this.counters = new StripedCounterTable<>(stripes, maximumProperties);
+
+    for (PayloadType type : PayloadType.values()) {
+      this.readers.put(type, type.getReader().withHandler(new Handler(type)));
+      this.sampledDeliveries.put(type, new LongAdder());
+    }
+  }
+
+  /**
+   * Selects the reader for the next delivery of the specified type.
+   *
+   * @param type a payload type.
+   * @return a reader.
+   */
+  @NonNull
+  private ObjectReader select(@NonNull PayloadType type) {
+    if (this.sampleRate == 0
+        || (this.sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= this.sampleRate)) {
+      return type.getReader();
+    }
+
+    this.sampledDeliveries.get(type).increment();
+    return this.readers.get(type);
+  }
+
+  /**
+   * Decodes an event payload from the supplied array of UTF-8 encoded bytes.
+   *
+   * @param type a payload type.
+   * @param payload a payload.
+   * @param <E> an event type.
+   * @return an event payload.
+   * @throws IOException when the data is malformed.
+   */
+  @NonNull
+  @SuppressWarnings("unchecked")
+  public <E extends Event> E read(@NonNull PayloadType type, @NonNull byte[] payload)
+      throws IOException {
+    return (E) this.select(type).readValue(payload);
+  }
+
+  /**
+   * Decodes an event payload from the supplied input stream.
+   *
+   * @param type a payload type.
+   * @param inputStream an input stream.
+   * @param <E> an event type.
+   * @return an event payload.
+   * @throws IOException when reading from the stream fails or the data is malformed.
+   */
+  @NonNull
+  @SuppressWarnings("unchecked")
+  public <E extends Event> E read(@NonNull PayloadType type, @NonNull InputStream inputStream)
+      throws IOException {
+    return (E) this.select(type).readValue(inputStream);
+  }
+
+  /**
+   * Retrieves the configured fraction of deliveries which are inspected for unknown properties.
+   *
+   * @return a sample rate within [0, 1].
+   */
+  public double getSampleRate() {
+    return this.sampleRate;
+  }
+
+  /**
+   * Retrieves the total amount of deliveries of the specified type which have been inspected.
+   *
+   * @param type a payload type.
+   * @return an amount of deliveries.
+   */
+  public long getSampledDeliveryCount(@NonNull PayloadType type) {
+    return this.sampledDeliveries.get(type).sum();
+  }
+
+  /**
+   * Retrieves a snapshot of all unknown properties which have been encountered so far along with
+   * the amount of times they were encountered within inspected deliveries.
+   *
+   * @return a map of properties and their respective occurrences.
+   */
+  @NonNull
+  public Map<UnknownProperty, Long> getUnknownProperties() {
+    return this.counters.snapshot();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void report(@NonNull MetricsReporter reporter) {
+    this.sampledDeliveries.forEach((type, count) -> {
+      Map<String, String> tags = new HashMap<>();
+      tags.put("type", type.name());
+
+      reporter.counter(SAMPLED_DELIVERY_METRIC, tags, count.sum());
+    });
+
+    this.counters.forEach((property, count) -> {
+      Map<String, String> tags = new HashMap<>();
+      tags.put("type", property.type.name());
+      tags.put("model", property.model.getSimpleName());
+      tags.put("property", property.name);
+
+      reporter.counter(UNKNOWN_PROPERTY_METRIC, tags, count);
+    });
+  }
+
+  /**
+   * Records unknown properties on behalf of a single payload type.
+   */
+  private final class Handler extends DeserializationProblemHandler {
+
+    private final PayloadType type;
+
+    private Handler(@NonNull PayloadType type) {
+      this.type = type;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean handleUnknownProperty(DeserializationContext ctxt, JsonParser p,
+        JsonDeserializer<?> deserializer, Object beanOrClass, String propertyName)
+        throws IOException {
+      // property based creators report their class as no instance exists at this point
+      Class<?> model = beanOrClass instanceof Class ? (Class<?>) beanOrClass
+          : beanOrClass.getClass();
+
+      SchemaDriftRecorder.this.counters
+          .increment(new UnknownProperty(this.type, model, propertyName));
+      p.skipChildren();
+      return true;
+    }
+  }
+
+  /**
+   * Identifies an unknown property within a specific model.
+   */
+  public static final class UnknownProperty {
+
+    private final PayloadType type;
+    private final Class<?> model;
+    private final String name;
+
+    public UnknownProperty(@NonNull PayloadType type, @NonNull Class<?> model,
+        @NonNull String name) {
+      this.type = type;
+      this.model = model;
+      this.name = name;
+    }
+
+    /**
+     * Retrieves the type of payload in which this property has been encountered.
+     *
+     * @return a payload type.
+     */
+    @NonNull
+    public PayloadType getType() {
+      return this.type;
+    }
+
+    /**
+     * Retrieves the event or resource model which does not declare this property.
+     *
+     * @return a model type.
+     */
+    @NonNull
+    public Class<?> getModel() {
+      return this.model;
+    }
+
+    /**
+     * Retrieves the name of the property as transmitted by GitHub.
+     *
+     * @return a property name.
+     */
+    @NonNull
+    public String getName() {
+      return this.name;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof UnknownProperty)) {
+        return false;
+      }
+      UnknownProperty that = (UnknownProperty) o;
+      return this.type == that.type &&
+          Objects.equals(this.model, that.model) &&
+          Objects.equals(this.name, that.name);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+      return Objects.hash(this.type, this.model, this.name);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+      return this.type + ":" + this.model.getSimpleName() + "." + this.name;
+    }
+  }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.decoder;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.filter.FilteringParserDelegate;
+import com.fasterxml.jackson.core.filter.TokenFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMember;
+import com.fasterxml.jackson.databind.introspect.JacksonAnnotationIntrospector;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.function.BiConsumer;
+import org.basinmc.stormdrain.PayloadType;
+import org.basinmc.stormdrain.event.PushEvent;
+import org.basinmc.stormdrain.resource.Commit;
+
+/**
+ * <p>Decodes push events while passing their commits to the caller one at a time rather than
+ * collecting them within the event.</p>
+ *
+ * <p>GitHub places the {@code commits} array in front of {@code head_commit} and the repository.
+ * Bodies are thus read in two passes: The first pass decodes the event while skipping the commit
+ * array at token level and the second pass decodes the commits one by one as they are requested.
+ * Apart from the body itself, at most a single commit is retained at any given time regardless of
+ * the size of the array.</p>
+ *
+ * <p>Events which are returned by this decoder do not carry their commits (e.g. {@link
+ * PushEvent#getCommits()} fails with an {@link org.basinmc.stormdrain.UnloadedPropertyException})
+ * while all other properties are fully populated. Decoders are thread safe.</p>
+ */
+public class StreamingPushDecoder {
+
+  private static final TokenFilter SKIP_COMMITS = new TokenFilter() {
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public TokenFilter includeProperty(String name) {
+      return "commits".equals(name) ? null : TokenFilter.INCLUDE_ALL;
+    }
+  };
+
+  private static final ObjectReader EVENT_READER = createEventReader();
+  private final ObjectReader commitReader = PayloadType.PUSH.getReader().forType(Commit.class);
+
+  /**
+   * Creates a reader which tolerates the absence of the skipped commit array while still rejecting
+   * events which lack any other mandatory property.
+   *
+   * @return a reader.
+   */
+  @NonNull
+  private static ObjectReader createEventReader() {
+    ObjectMapper mapper = PayloadType.createMapper();
+    mapper.setAnnotationIntrospector(new JacksonAnnotationIntrospector() {
+      @Override
+      public Boolean hasRequiredMarker(AnnotatedMember m) {
+        JsonProperty property = m.getAnnotation(JsonProperty.class);
+
+        if (property != null && "commits".equals(property.value())
+            && PushEvent.class.equals(m.getDeclaringClass())) {
+          return Boolean.FALSE;
+        }
+
+        return super.hasRequiredMarker(m);
+      }
+    });
+    return mapper.readerFor(PushEvent.class);
+  }
+
+  /**
+   * Decodes a push event from the supplied array of UTF-8 encoded bytes and provides an iterator
+   * over its commits.
+   *
+   * @param body a payload.
+   * @return an iterator which exposes the event before the first commit is decoded.
+   * @throws IOException when the data is malformed.
+   */
+  @NonNull
+  public PushCommitIterator open(@NonNull byte[] body) throws IOException {
+    return this.open(ByteBuffer.wrap(body));
+  }
+
+  /**
+   * <p>Decodes a push event from the remaining bytes within the supplied buffer and provides an
+   * iterator over its commits.</p>
+   *
+   * <p>The position of the passed buffer is left untouched. The buffer must not be modified or
+   * returned to its pool until the iterator has been closed.</p>
+   *
+   * @param body a buffer.
+   * @return an iterator which exposes the event before the first commit is decoded.
+   * @throws IOException when the data is malformed or lacks a mandatory property.
+   */
+  @NonNull
+  public PushCommitIterator open(@NonNull ByteBuffer body) throws IOException {
+    PushEvent event;
+    try (JsonParser parser = new FilteringParserDelegate(this.createParser(body), SKIP_COMMITS,
+        true, true)) {
+      event = EVENT_READER.readValue(parser);
+    }
+
+    return new PushCommitIterator(event, this.createParser(body), this.commitReader);
+  }
+
+  /**
+   * Decodes a push event from the supplied array of UTF-8 encoded bytes and passes each of its
+   * commits to a consumer along with the event.
+   *
+   * @param body a payload.
+   * @param consumer a consumer.
+   * @return the decoded event (without its commits).
+   * @throws IOException when the data is malformed.
+   */
+  @NonNull
+  public PushEvent read(@NonNull byte[] body, @NonNull BiConsumer<PushEvent, Commit> consumer)
+      throws IOException {
+    return this.read(ByteBuffer.wrap(body), consumer);
+  }
+
+  /**
+   * Decodes a push event from the remaining bytes within the supplied buffer and passes each of
+   * its commits to a consumer along with the event.
+   *
+   * @param body a buffer.
+   * @param consumer a consumer.
+   * @return the decoded event (without its commits).
+   * @throws IOException when the data is malformed.
+   */
+  @NonNull
+  public PushEvent read(@NonNull ByteBuffer body, @NonNull BiConsumer<PushEvent, Commit> consumer)
+      throws IOException {
+    try (PushCommitIterator iterator = this.open(body)) {
+      while (iterator.hasNextCommit()) {
+        consumer.accept(iterator.getEvent(), iterator.nextCommit());
+      }
+
+      return iterator.getEvent();
+    }
+  }
+
+  /**
+   * Creates a parser for the remaining bytes within a buffer.
+   *
+   * @param body a buffer.
+   * @return a parser.
+   * @throws IOException when the parser cannot be created.
+   */
+  @NonNull
+  private JsonParser createParser(@NonNull ByteBuffer body) throws IOException {
+    JsonFactory factory = this.commitReader.getFactory();
+
+    if (body.hasArray()) {
+      return factory.createParser(body.array(), body.arrayOffset() + body.position(),
+          body.remaining());
+    }
+
+    return factory.createParser(new ByteBufferBackedInputStream(body.duplicate()));
+  }
+}
@@ -0,0 +1,639 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.deployment;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import org.basinmc.stormdrain.event.DeploymentEvent;
+import org.basinmc.stormdrain.event.DeploymentStatusEvent;
+import org.basinmc.stormdrain.metrics.LatencyHistogram;
+import org.basinmc.stormdrain.metrics.MetricSource;
+import org.basinmc.stormdrain.metrics.MetricsReporter;
+import org.basinmc.stormdrain.resource.Deployment;
+import org.basinmc.stormdrain.resource.DeploymentStatus;
+import org.basinmc.stormdrain.resource.DeploymentStatus.State;
+import org.basinmc.stormdrain.resource.ObjectId;
+import org.basinmc.stormdrain.resource.Repository;
+import org.basinmc.stormdrain.utility.SnapshotFile;
+
+/**
+ * <p>Folds deployment and deployment status events into the current state of each deployment
+ * environment (e.g. which commit is currently live within the production environment of a given
+ * repository).</p>
+ *
+ * <p>The time spent between consecutive states of a deployment as well as the time each
+ * deployment took to complete (from its first pending status or its creation) are recorded
+ * within {@link LatencyHistogram histograms}. All latencies are derived from the timestamps
+ * reported by GitHub rather than the time of delivery and are thus unaffected by redeliveries or
+ * delayed processing. Statuses which are older than the most recently observed status of their
+ * deployment are ignored.</p>
+ *
+ * <p>The amount of tracked deployments and environments is bounded. Once either bound is reached,
+ * the least recently updated entry is evicted. Evicted deployments are tracked again when a
+ * further status is received as every status event carries its deployment. As the states through
+ * which such deployments have passed are unknown, no latencies are recorded for the status with
+ * which they are tracked again (the same applies to deployments which have been created before
+ * the tracker started).</p>
+ *
+ * <p>The entire state may be written to and restored from a snapshot file in order to survive
+ * restarts.</p>
+ */
+public class DeploymentTracker implements MetricSource {
+
+  /**
+   * Defines the name of the gauge which tracks the amount of tracked deployments.
+   */
+  public static final String DEPLOYMENT_METRIC = "stormdrain.deployments.deployments";
+
+  /**
+   * Defines the name of the gauge which tracks the amount of tracked environments.
+   */
+  public static final String ENVIRONMENT_METRIC = "stormdrain.deployments.environments";
+
+  /**
+   * Defines the name of the counter which tracks the amount of deployments and environments which
+   * have been evicted in order to stay within the configured bounds.
+   */
+  public static final String EVICTION_METRIC = "stormdrain.deployments.evictions";
+
+  /**
+   * Defines the name of the gauge which tracks the quantiles of the time spent between two
+   * states (in milliseconds).
+   */
+  public static final String TRANSITION_METRIC = "stormdrain.deployments.transitions";
+
+  /**
+   * Defines the name of the gauge which tracks the quantiles of the time deployments took to
+   * complete (in milliseconds).
+   */
+  public static final String DURATION_METRIC = "stormdrain.deployments.durations";
+
+  private static final int MAGIC = 0x53444450;
+  private static final int VERSION = 1;
+  private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+  private static final State[] STATES = State.values();
+
+  private final int maximumDeployments;
+  private final int maximumEnvironments;
+  private final Map<Long, TrackedDeployment> deployments;
+  private final Map<EnvironmentKey, EnvironmentState> environments;
+
+  /**
+   * Stores the histograms of each transition indexed by their source state (offset by one as
+   * zero identifies the creation of a deployment) and target state.
+   */
+  private final LatencyHistogram[] transitions = new LatencyHistogram[
+      (STATES.length + 1) * STATES.length];
+  private final LatencyHistogram[] durations = new LatencyHistogram[STATES.length];
+
+  private long evictedDeployments;
+  private long evictedEnvironments;
+
+  public DeploymentTracker(int maximumDeployments, int maximumEnvironments) {
+    if (maximumDeployments < 1 || maximumEnvironments < 1) {
+      throw new IllegalArgumentException("Illegal bounds: Must track at least one entry");
+    }
+
+    this.maximumDeployments = maximumDeployments;
+    this.maximumEnvironments = maximumEnvironments;
+
+    this.deployments = new LinkedHashMap<Long, TrackedDeployment>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Long, TrackedDeployment> eldest) {
+        if (this.size() <= DeploymentTracker.this.maximumDeployments) {
+          return false;
+        }
+
+        DeploymentTracker.this.evictedDeployments++;
+        return true;
+      }
+    };
+    this.environments = new LinkedHashMap<EnvironmentKey, EnvironmentState>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<EnvironmentKey, EnvironmentState> eldest) {
+        if (this.size() <= DeploymentTracker.this.maximumEnvironments) {
+          return false;
+        }
+
+        DeploymentTracker.this.evictedEnvironments++;
+        return true;
+      }
+    };
+  }
+
+  /**
+   * Records the creation of a deployment.
+   *
+   * @param event a deployment event.
+   */
+  public synchronized void record(@NonNull DeploymentEvent event) {
+    this.track(event.getRepository(), event.getDeployment());
+  }
+
+  /**
+   * Records a status change of a deployment.
+   *
+   * @param event a deployment status event.
+   */
+  public synchronized void record(@NonNull DeploymentStatusEvent event) {
+    boolean observed = this.deployments.containsKey(event.getDeployment().getNumericId());
+    TrackedDeployment previous = this.track(event.getRepository(), event.getDeployment());
+
+    DeploymentStatus status = event.getDeploymentStatus();
+    State state = status.getState();
+    Instant timestamp = status.getCreationTimestamp();
+    State previousState = previous.getState().orElse(null);
+
+    if (state == previousState || timestamp.isBefore(previous.getUpdatedAt())) {
+      return;
+    }
+
+    if (observed) {
+      this.transition(previousState, state)
+          .record(Duration.between(previous.getUpdatedAt(), timestamp).toMillis());
+    }
+
+    TrackedDeployment updated = previous.withState(state, timestamp);
+    if (observed && updated.isCompleted() && !previous.isCompleted()) {
+      this.duration(state)
+          .record(Duration.between(updated.getStartedAt(), timestamp).toMillis());
+    }
+
+    this.deployments.put(updated.getId(), updated);
+    this.update(updated);
+  }
+
+  /**
+   * Retrieves the tracked state of a deployment or starts tracking it if it is not known yet.
+   *
+   * @param repository the repository from which the deployment originates.
+   * @param deployment a deployment.
+   * @return a tracked deployment.
+   */
+  @NonNull
+  private TrackedDeployment track(@NonNull Repository repository,
+      @NonNull Deployment deployment) {
+    long id = deployment.getNumericId();
+
+    TrackedDeployment tracked = this.deployments.get(id);
+    if (tracked == null) {
+      Instant createdAt = deployment.getCreationTimestamp();
+      tracked = new TrackedDeployment(id, repository.getNumericId(), repository.getFullName(),
+          deployment.getEnvironment(), deployment.getCommitObjectId().orElse(null), createdAt,
+          null, null, createdAt);
+
+      this.deployments.put(id, tracked);
+      this.update(tracked);
+    }
+
+    return tracked;
+  }
+
+  /**
+   * Updates the state of the environment to which the specified deployment is applied.
+   *
+   * @param deployment an updated deployment.
+   */
+  private void update(@NonNull TrackedDeployment deployment) {
+    EnvironmentKey key = new EnvironmentKey(deployment.getRepositoryId(),
+        deployment.getEnvironment());
+    EnvironmentState state = this.environments.get(key);
+
+    TrackedDeployment latest = deployment;
+    TrackedDeployment active = null;
+
+    if (state != null) {
+      // deployment identifiers increase monotonically and thus reflect their order of creation
+      if (state.getLatestDeployment().getId() > deployment.getId()) {
+        latest = state.getLatestDeployment();
+      }
+
+      active = state.getActiveDeployment().orElse(null);
+    }
+
+    State current = deployment.getState().orElse(null);
+    if (active != null && active.getId() == deployment.getId()) {
+      active = current == State.SUCCESS ? deployment : null;
+    } else if (current == State.SUCCESS
+        && (active == null || active.getId() < deployment.getId())) {
+      active = deployment;
+    }
+
+    this.environments.put(key, new EnvironmentState(key.repositoryId, key.environment, active,
+        latest));
+  }
+
+  /**
+   * Retrieves the histogram for the specified transition.
+   *
+   * @param from a source state or null if the deployment has just been created.
+   * @param to a target state.
+   * @return a histogram.
+   */
+  @NonNull
+  private LatencyHistogram transition(@Nullable State from, @NonNull State to) {
+    int index = transitionIndex(from, to);
+
+    LatencyHistogram histogram = this.transitions[index];
+    if (histogram == null) {
+      histogram = this.transitions[index] = new LatencyHistogram();
+    }
+
+    return histogram;
+  }
+
+  private static int transitionIndex(@Nullable State from, @NonNull State to) {
+    return (from == null ? 0 : from.ordinal() + 1) * STATES.length + to.ordinal();
+  }
+
+  /**
+   * Retrieves the histogram for deployments which completed with the specified state.
+   *
+   * @param state a final state.
+   * @return a histogram.
+   */
+  @NonNull
+  private LatencyHistogram duration(@NonNull State state) {
+    LatencyHistogram histogram = this.durations[state.ordinal()];
+    if (histogram == null) {
+      histogram = this.durations[state.ordinal()] = new LatencyHistogram();
+    }
+
+    return histogram;
+  }
+
+  /**
+   * Retrieves the most recently observed state of a deployment.
+   *
+   * @param id a deployment identifier.
+   * @return a deployment or an empty optional if the deployment is unknown or has been evicted.
+   */
+  @NonNull
+  public synchronized Optional<TrackedDeployment> getDeployment(long id) {
+    return Optional.ofNullable(this.deployments.get(id));
+  }
+
+  /**
+   * Retrieves the current state of a deployment environment.
+   *
+   * @param repositoryId a repository identifier.
+   * @param environment an environment.
+   * @return a state or an empty optional if the environment is unknown or has been evicted.
+   */
+  @NonNull
+  public synchronized Optional<EnvironmentState> getEnvironment(long repositoryId,
+      @NonNull String environment) {
+    return Optional
+        .ofNullable(this.environments.get(new EnvironmentKey(repositoryId, environment)));
+  }
+
+  /**
+   * Retrieves the current state of all known environments of a repository.
+   *
+   * @param repositoryId a repository identifier.
+   * @return a list of states.
+   */
+  @NonNull
+  public synchronized List<EnvironmentState> getEnvironments(long repositoryId) {
+    List<EnvironmentState> states = new ArrayList<>();
+
+    for (EnvironmentState state : this.environments.values()) {
+      if (state.getRepositoryId() == repositoryId) {
+        states.add(state);
+      }
+    }
+
+    return states;
+  }
+
+  /**
+   * Retrieves a copy of the latencies which have been recorded for a transition between two
+   * states.
+   *
+   * @param from a source state or null to select the time between the creation of a deployment
+   * and its first status.
+   * @param to a target state.
+   * @return a histogram (in milliseconds).
+   */
+  @NonNull
+  public synchronized LatencyHistogram getTransitionLatency(@Nullable State from,
+      @NonNull State to) {
+    return copy(this.transitions[transitionIndex(from, to)]);
+  }
+
+  /**
+   * Retrieves a copy of the durations which have been recorded for deployments that completed
+   * with the specified state.
+   *
+   * @param state a final state (such as {@link State#SUCCESS}).
+   * @return a histogram (in milliseconds).
+   */
+  @NonNull
+  public synchronized LatencyHistogram getDuration(@NonNull State state) {
+    return copy(this.durations[state.ordinal()]);
+  }
+
+  @NonNull
+  private static LatencyHistogram copy(@Nullable LatencyHistogram histogram) {
+    LatencyHistogram copy = new LatencyHistogram();
+    if (histogram != null) {
+      copy.add(histogram);
+    }
+
+    return copy;
+  }
+
+  /**
+   * Retrieves the amount of tracked deployments.
+   *
+   * @return an amount of deployments.
+   */
+  public synchronized int getDeploymentCount() {
+    return this.deployments.size();
+  }
+
+  /**
+   * Retrieves the amount of tracked environments.
+   *
+   * @return an amount of environments.
+   */
+  public synchronized int getEnvironmentCount() {
+    return this.environments.size();
+  }
+
+  /**
+   * Writes the entire state of this tracker to the specified file. The file is replaced
+   * atomically and thus never contains a partially written snapshot.
+   *
+   * @param path a file.
+   * @throws IOException when writing fails.
+   */
+  public void writeSnapshot(@NonNull Path path) throws IOException {
+    SnapshotFile.write(path, MAGIC, VERSION, (out) -> {
+      synchronized (this) {
+        out.writeInt(this.deployments.size());
+        for (TrackedDeployment deployment : this.deployments.values()) {
+          writeDeployment(out, deployment);
+        }
+
+        out.writeInt(this.environments.size());
+        for (EnvironmentState state : this.environments.values()) {
+          out.writeLong(state.getRepositoryId());
+          out.writeUTF(state.getEnvironment());
+
+          TrackedDeployment active = state.getActiveDeployment().orElse(null);
+          out.writeBoolean(active != null);
+          if (active != null) {
+            writeDeployment(out, active);
+          }
+
+          writeDeployment(out, state.getLatestDeployment());
+        }
+
+        writeHistograms(out, this.transitions);
+        writeHistograms(out, this.durations);
+      }
+    });
+  }
+
+  /**
+   * Replaces the state of this tracker with a snapshot which has previously been written via
+   * {@link #writeSnapshot(Path)}. Entries which exceed the bounds of this tracker are evicted.
+   *
+   * @param path a file.
+   * @throws IOException when reading fails or the file is not a valid snapshot.
+   */
+  public void readSnapshot(@NonNull Path path) throws IOException {
+    SnapshotFile.read(path, MAGIC, VERSION, (in) -> {
+      List<TrackedDeployment> deployments = new ArrayList<>();
+      for (int i = in.readInt(); i > 0; --i) {
+        deployments.add(readDeployment(in));
+      }
+
+      List<EnvironmentState> environments = new ArrayList<>();
+      for (int i = in.readInt(); i > 0; --i) {
+        long repositoryId = in.readLong();
+        String environment = in.readUTF();
+        TrackedDeployment active = in.readBoolean() ? readDeployment(in) : null;
+        environments.add(
+            new EnvironmentState(repositoryId, environment, active, readDeployment(in)));
+      }
+
+      LatencyHistogram[] transitions = readHistograms(in, this.transitions.length);
+      LatencyHistogram[] durations = readHistograms(in, this.durations.length);
+
+      synchronized (this) {
+        this.deployments.clear();
+        for (TrackedDeployment deployment : deployments) {
+          this.deployments.put(deployment.getId(), deployment);
+        }
+
+        this.environments.clear();
+        for (EnvironmentState state : environments) {
+          this.environments.put(
+              new EnvironmentKey(state.getRepositoryId(), state.getEnvironment()), state);
+        }
+
+        System.arraycopy(transitions, 0, this.transitions, 0, transitions.length);
+        System.arraycopy(durations, 0, this.durations, 0, durations.length);
+      }
+    });
+  }
+
+  private static void writeDeployment(@NonNull DataOutputStream out,
+      @NonNull TrackedDeployment deployment) throws IOException {
+    out.writeLong(deployment.getId());
+    out.writeLong(deployment.getRepositoryId());
+    out.writeUTF(deployment.getRepositoryName());
+    out.writeUTF(deployment.getEnvironment());
+
+    ObjectId commitId = deployment.getCommitId().orElse(null);
+    out.writeBoolean(commitId != null);
+    if (commitId != null) {
+      byte[] encoded = new byte[ObjectId.LENGTH];
+      commitId.copyTo(encoded, 0);
+      out.write(encoded);
+    }
+
+    SnapshotFile.writeInstant(out, deployment.getCreatedAt());
+
+    Instant pendingAt = deployment.getPendingAt().orElse(null);
+    out.writeBoolean(pendingAt != null);
+    if (pendingAt != null) {
+      SnapshotFile.writeInstant(out, pendingAt);
+    }
+
+    out.writeByte(deployment.getState().map(Enum::ordinal).orElse(-1));
+    SnapshotFile.writeInstant(out, deployment.getUpdatedAt());
+  }
+
+  @NonNull
+  private static TrackedDeployment readDeployment(@NonNull DataInputStream in)
+      throws IOException {
+    long id = in.readLong();
+    long repositoryId = in.readLong();
+    String repositoryName = in.readUTF();
+    String environment = in.readUTF();
+
+    ObjectId commitId = null;
+    if (in.readBoolean()) {
+      byte[] encoded = new byte[ObjectId.LENGTH];
+      in.readFully(encoded);
+      commitId = ObjectId.fromBytes(encoded, 0);
+    }
+
+    Instant createdAt = SnapshotFile.readInstant(in);
+    Instant pendingAt = in.readBoolean() ? SnapshotFile.readInstant(in) : null;
+
+    int ordinal = in.readByte();
+    if (ordinal >= STATES.length) {
+      throw new IOException("Illegal snapshot: Unknown deployment state " + ordinal);
+    }
+
+    State state = ordinal < 0 ? null : STATES[ordinal];
+    return new TrackedDeployment(id, repositoryId, repositoryName, environment, commitId,
+        createdAt, pendingAt, state, SnapshotFile.readInstant(in));
+  }
+
+  private static void writeHistograms(@NonNull DataOutputStream out,
+      @NonNull LatencyHistogram[] histograms) throws IOException {
+    out.writeInt(histograms.length);
+
+    for (LatencyHistogram histogram : histograms) {
+      out.writeBoolean(histogram != null);
+      if (histogram != null) {
+        histogram.writeTo(out);
+      }
+    }
+  }
+
+  @NonNull
+  private static LatencyHistogram[] readHistograms(@NonNull DataInputStream in, int length)
+      throws IOException {
+    if (in.readInt() != length) {
+      throw new IOException("Illegal snapshot: Unexpected amount of histograms");
+    }
+
+    LatencyHistogram[] histograms = new LatencyHistogram[length];
+    for (int i = 0; i < length; ++i) {
+      if (in.readBoolean()) {
+        histograms[i] = new LatencyHistogram();
+        histograms[i].readFrom(in);
+      }
+    }
+
+    return histograms;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public synchronized void report(@NonNull MetricsReporter reporter) {
+    reporter.gauge(DEPLOYMENT_METRIC, Collections.emptyMap(), this.deployments.size());
+    reporter.gauge(ENVIRONMENT_METRIC, Collections.emptyMap(), this.environments.size());
+    reporter.counter(EVICTION_METRIC, Collections.singletonMap("type", "deployment"),
+        this.evictedDeployments);
+    reporter.counter(EVICTION_METRIC, Collections.singletonMap("type", "environment"),
+        this.evictedEnvironments);
+
+    for (int i = 0; i < this.transitions.length; ++i) {
+      int from = i / STATES.length;
+
+      Map<String, String> tags = new HashMap<>();
+      tags.put("from", from == 0 ? "created" : name(STATES[from - 1]));
+      tags.put("to", name(STATES[i % STATES.length]));
+      reportQuantiles(reporter, TRANSITION_METRIC, tags, this.transitions[i]);
+    }
+
+    for (State state : STATES) {
+      reportQuantiles(reporter, DURATION_METRIC,
+          Collections.singletonMap("state", name(state)), this.durations[state.ordinal()]);
+    }
+  }
+
+  private static void reportQuantiles(@NonNull MetricsReporter reporter, @NonNull String name,
+      @NonNull Map<String, String> tags, @Nullable LatencyHistogram histogram) {
+    if (histogram == null || histogram.getCount() == 0) {
+      return;
+    }
+
+    for (double quantile : QUANTILES) {
+      Map<String, String> quantileTags = new HashMap<>(tags);
+      quantileTags.put("quantile", String.valueOf(quantile));
+      reporter.gauge(name, quantileTags, histogram.getValueAt(quantile));
+    }
+  }
+
+  @NonNull
+  private static String name(@NonNull State state) {
+    return state.name().toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Identifies a deployment environment within a repository.
+   */
+  private static final class EnvironmentKey {
+
+    private final long repositoryId;
+    private final String environment;
+
+    private EnvironmentKey(long repositoryId, @NonNull String environment) {
+      this.repositoryId = repositoryId;
+      this.environment = environment;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof EnvironmentKey)) {
+        return false;
+      }
+      EnvironmentKey that = (EnvironmentKey) o;
+      return this.repositoryId == that.repositoryId &&
+          Objects.equals(this.environment, that.environment);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+      return Objects.hash(this.repositoryId, this.environment);
+    }
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.deployment;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Represents the current state of a single deployment environment within a repository.
+ */
+public final class EnvironmentState {
+
+  private final long repositoryId;
+  private final String environment;
+  private final TrackedDeployment activeDeployment;
+  private final TrackedDeployment latestDeployment;
+
+  public EnvironmentState(long repositoryId, @NonNull String environment,
+      @Nullable TrackedDeployment activeDeployment, @NonNull TrackedDeployment latestDeployment) {
+    this.repositoryId = repositoryId;
+    this.environment = environment;
+    this.activeDeployment = activeDeployment;
+    this.latestDeployment = latestDeployment;
+  }
+
+  /**
+   * Retrieves the numeric identifier of the repository to which this environment belongs.
+   *
+   * @return a repository identifier.
+   */
+  public long getRepositoryId() {
+    return this.repositoryId;
+  }
+
+  /**
+   * Retrieves the name of this environment.
+   *
+   * @return an environment.
+   */
+  @NonNull
+  public String getEnvironment() {
+    return this.environment;
+  }
+
+  /**
+   * Retrieves the deployment which has most recently succeeded within this environment (e.g. the
+   * deployment which is currently live).
+   *
+   * @return a deployment or an empty optional if no deployment is live.
+   */
+  @NonNull
+  public Optional<TrackedDeployment> getActiveDeployment() {
+    return Optional.ofNullable(this.activeDeployment);
+  }
+
+  /**
+   * Retrieves the most recently created deployment within this environment (which may still be
+   * in progress or may have failed).
+   *
+   * @return a deployment.
+   */
+  @NonNull
+  public TrackedDeployment getLatestDeployment() {
+    return this.latestDeployment;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof EnvironmentState)) {
+      return false;
+    }
+    EnvironmentState that = (EnvironmentState) o;
+    return this.repositoryId == that.repositoryId &&
+        Objects.equals(this.environment, that.environment) &&
+        Objects.equals(this.activeDeployment, that.activeDeployment) &&
+        Objects.equals(this.latestDeployment, that.latestDeployment);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int hashCode() {
+    return Objects.hash(this.repositoryId, this.environment, this.activeDeployment,
+        this.latestDeployment);
+  }
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.deployment;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.Optional;
+import org.basinmc.stormdrain.resource.DeploymentStatus.State;
+import org.basinmc.stormdrain.resource.ObjectId;
+
+/**
+ * Represents the most recently observed state of a single deployment.
+ */
+public final class TrackedDeployment {
+
+  private final long id;
+  private final long repositoryId;
+  private final String repositoryName;
+  private final String environment;
+  private final ObjectId commitId;
+  private final Instant createdAt;
+  private final Instant pendingAt;
+  private final State state;
+  private final Instant updatedAt;
+
+  public TrackedDeployment(long id, long repositoryId, @NonNull String repositoryName,
+      @NonNull String environment, @Nullable ObjectId commitId, @NonNull Instant createdAt,
+      @Nullable Instant pendingAt, @Nullable State state, @NonNull Instant updatedAt) {
+    this.id = id;
+    this.repositoryId = repositoryId;
+    this.repositoryName = repositoryName;
+    this.environment = environment;
+    this.commitId = commitId;
+    this.createdAt = createdAt;
+    this.pendingAt = pendingAt;
+    this.state = state;
+    this.updatedAt = updatedAt;
+  }
+
+  /**
+   * Retrieves the numeric identifier of this deployment.
+   *
+   * @return a deployment identifier.
+   */
+  public long getId() {
+    return this.id;
+  }
+
+  /**
+   * Retrieves the numeric identifier of the repository from which this deployment originates.
+   *
+   * @return a repository identifier.
+   */
+  public long getRepositoryId() {
+    return this.repositoryId;
+  }
+
+  /**
+   * Retrieves the full name of the repository from which this deployment originates.
+   *
+   * @return a repository name.
+   */
+  @NonNull
+  public String getRepositoryName() {
+    return this.repositoryName;
+  }
+
+  /**
+   * Retrieves the environment to which this deployment is applied.
+   *
+   * @return an environment.
+   */
+  @NonNull
+  public String getEnvironment() {
+    return this.environment;
+  }
+
+  /**
+   * Retrieves the hash of the commit which is deployed.
+   *
+   * @return a commit hash or an empty optional if the deployment did not specify a commit.
+   */
+  @NonNull
+  public Optional<ObjectId> getCommitId() {
+    return Optional.ofNullable(this.commitId);
+  }
+
+  /**
+   * Retrieves the time at which this deployment has been created.
+   *
+   * @return a timestamp.
+   */
+  @NonNull
+  public Instant getCreatedAt() {
+    return this.createdAt;
+  }
+
+  /**
+   * Retrieves the time at which this deployment first reported to be pending.
+   *
+   * @return a timestamp or an empty optional if no pending status has been observed.
+   */
+  @NonNull
+  public Optional<Instant> getPendingAt() {
+    return Optional.ofNullable(this.pendingAt);
+  }
+
+  /**
+   * Retrieves the most recently reported state of this deployment.
+   *
+   * @return a state or an empty optional if no status has been observed yet.
+   */
+  @NonNull
+  public Optional<State> getState() {
+    return Optional.ofNullable(this.state);
+  }
+
+  /**
+   * Retrieves the time at which the most recent state has been reported.
+   *
+   * @return a timestamp.
+   */
+  @NonNull
+  public Instant getUpdatedAt() {
+    return this.updatedAt;
+  }
+
+  /**
+   * Evaluates whether this deployment has reached a final state (e.g. succeeded or failed).
+   *
+   * @return true if completed, false otherwise.
+   */
+  public boolean isCompleted() {
+    return this.state == State.SUCCESS || this.state == State.FAILURE
+        || this.state == State.ERROR;
+  }
+
+  /**
+   * Retrieves the time this deployment took to complete (beginning with its first pending status
+   * or its creation if it never reported to be pending).
+   *
+   * @return a duration or an empty optional if the deployment has not completed yet.
+   */
+  @NonNull
+  public Optional<Duration> getDuration() {
+    if (!this.isCompleted()) {
+      return Optional.empty();
+    }
+
+    return Optional.of(Duration.between(this.getStartedAt(), this.updatedAt));
+  }
+
+  /**
+   * Retrieves the time from which the duration of this deployment is measured.
+   *
+   * @return a timestamp.
+   */
+  @NonNull
+  Instant getStartedAt() {
+    return this.pendingAt != null ? this.pendingAt : this.createdAt;
+  }
+
+  /**
+   * Creates a copy of this deployment which reflects a newly reported state.
+   *
+   * @param state a state.
+   * @param timestamp the time at which the state has been reported.
+   * @return an updated deployment.
+   */
+  @NonNull
+  TrackedDeployment withState(@NonNull State state, @NonNull Instant timestamp) {
+    Instant pendingAt = this.pendingAt;
+    if (pendingAt == null && state == State.PENDING) {
+      pendingAt = timestamp;
+    }
+
+    return new TrackedDeployment(this.id, this.repositoryId, this.repositoryName,
+        this.environment, this.commitId, this.createdAt, pendingAt, state, timestamp);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof TrackedDeployment)) {
+      return false;
+    }
+    TrackedDeployment that = (TrackedDeployment) o;
+    return this.id == that.id &&
+        this.repositoryId == that.repositoryId &&
+        Objects.equals(this.repositoryName, that.repositoryName) &&
+        Objects.equals(this.environment, that.environment) &&
+        Objects.equals(this.commitId, that.commitId) &&
+        Objects.equals(this.createdAt, that.createdAt) &&
+        Objects.equals(this.pendingAt, that.pendingAt) &&
+        this.state == that.state &&
+        Objects.equals(this.updatedAt, that.updatedAt);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int hashCode() {
+    return Objects.hash(this.id, this.repositoryId, this.repositoryName, this.environment,
+        this.commitId, this.createdAt, this.pendingAt, this.state, this.updatedAt);
+  }
+}
@@ -19,6 +19,7 @@ package org.basinmc.stormdrain.event;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import org.basinmc.stormdrain.resource.Organization;
 import org.basinmc.stormdrain.resource.User;
+import org.basinmc.stormdrain.utility.ValueUtility;
 
 /**
  * Provides a base for events which regard organizations.
@@ -43,6 +44,6 @@ public abstract class AbstractOrganizationEvent extends AbstractUserTriggeredEve
    */
   @NonNull
   public Organization getOrganization() {
-    return this.organization;
+    return ValueUtility.requireLoaded(this, "organization", this.organization);
   }
 }
@@ -20,6 +20,7 @@ import edu.umd.cs.findbugs.annotations.NonNull;
 import java.util.Objects;
 import org.basinmc.stormdrain.resource.Repository;
 import org.basinmc.stormdrain.resource.User;
+import org.basinmc.stormdrain.utility.ValueUtility;
 
 /**
  * Provides a base for events which regard references.
@@ -45,7 +46,7 @@ public abstract class AbstractReferenceEvent extends AbstractRepositoryEvent {
    */
   @NonNull
   public String getReference() {
-    return this.reference;
+    return ValueUtility.requireLoaded(this, "ref", this.reference);
   }
 
   /**
@@ -55,7 +56,7 @@ public abstract class AbstractReferenceEvent extends AbstractRepositoryEvent {
    */
   @NonNull
   public ReferenceType getReferenceType() {
-    return this.referenceType;
+    return ValueUtility.requireLoaded(this, "ref_type", this.referenceType);
   }
 
   /**
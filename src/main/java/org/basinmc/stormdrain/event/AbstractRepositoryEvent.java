@@ -20,6 +20,7 @@ import edu.umd.cs.findbugs.annotations.NonNull;
 import java.util.Objects;
 import org.basinmc.stormdrain.resource.Repository;
 import org.basinmc.stormdrain.resource.User;
+import org.basinmc.stormdrain.utility.ValueUtility;
 
 /**
  * Provides a base for repository related events.
@@ -37,7 +38,7 @@ public abstract class AbstractRepositoryEvent extends AbstractUserTriggeredEvent
 
   @NonNull
   public Repository getRepository() {
-    return this.repository;
+    return ValueUtility.requireLoaded(this, "repository", this.repository);
   }
 
   /**
@@ -19,6 +19,7 @@ package org.basinmc.stormdrain.event;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import java.util.Objects;
 import org.basinmc.stormdrain.resource.User;
+import org.basinmc.stormdrain.utility.ValueUtility;
 
 /**
  * Provides a base for user triggered events.
@@ -35,7 +36,7 @@ public abstract class AbstractUserTriggeredEvent implements Event {
 
   @NonNull
   public User getSender() {
-    return this.sender;
+    return ValueUtility.requireLoaded(this, "sender", this.sender);
   }
 
   /**
@@ -23,6 +23,7 @@ import java.util.Objects;
 import org.basinmc.stormdrain.resource.CommitComment;
 import org.basinmc.stormdrain.resource.Repository;
 import org.basinmc.stormdrain.resource.User;
+import org.basinmc.stormdrain.utility.ValueUtility;
 
 /**
  * Represents an event which notifies its receiver of a change to an existing commit comment or of
@@ -53,7 +54,7 @@ public class CommitCommentEvent extends AbstractRepositoryEvent {
    */
   @NonNull
   public Action getAction() {
-    return this.action;
+    return ValueUtility.requireLoaded(this, "action", this.action);
   }
 
   /**
@@ -63,7 +64,7 @@ public class CommitCommentEvent extends AbstractRepositoryEvent {
    */
   @NonNull
   public CommitComment getComment() {
-    return this.comment;
+    return ValueUtility.requireLoaded(this, "comment", this.comment);
   }
 
   /**
@@ -22,6 +22,7 @@ import edu.umd.cs.findbugs.annotations.NonNull;
 import java.util.Objects;
 import org.basinmc.stormdrain.resource.Repository;
 import org.basinmc.stormdrain.resource.User;
+import org.basinmc.stormdrain.utility.ValueUtility;
 
 /**
  * Represents an event which notifies its receiver of the creation of a new reference (a branch or
@@ -51,7 +52,7 @@ public class CreateEvent extends AbstractReferenceEvent {
    */
   @NonNull
   public String getDefaultBranch() {
-    return this.defaultBranch;
+    return ValueUtility.requireLoaded(this, "master_branch", this.defaultBranch);
   }
 
   /**
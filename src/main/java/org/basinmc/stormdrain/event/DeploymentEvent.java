@@ -23,6 +23,7 @@ import java.util.Objects;
 import org.basinmc.stormdrain.resource.Deployment;
 import org.basinmc.stormdrain.resource.Repository;
 import org.basinmc.stormdrain.resource.User;
+import org.basinmc.stormdrain.utility.ValueUtility;
 
 /**
  * Represents an event which notifies its receiver of a newly queued deployment.
@@ -49,7 +50,7 @@ public class DeploymentEvent extends AbstractRepositoryEvent {
    */
   @NonNull
   public Deployment getDeployment() {
-    return this.deployment;
+    return ValueUtility.requireLoaded(this, "deployment", this.deployment);
   }
 
   /**
@@ -24,6 +24,7 @@ import org.basinmc.stormdrain.resource.Deployment;
 import org.basinmc.stormdrain.resource.DeploymentStatus;
 import org.basinmc.stormdrain.resource.Repository;
 import org.basinmc.stormdrain.resource.User;
+import org.basinmc.stormdrain.utility.ValueUtility;
 
 /**
  * Represents an event which notifies its receiver of the change of the status of a previously
@@ -54,7 +55,7 @@ public class DeploymentStatusEvent extends AbstractRepositoryEvent {
    */
   @NonNull
   public DeploymentStatus getDeploymentStatus() {
-    return this.deploymentStatus;
+    return ValueUtility.requireLoaded(this, "deployment_status", this.deploymentStatus);
   }
 
   /**
@@ -64,7 +65,7 @@ public class DeploymentStatusEvent extends AbstractRepositoryEvent {
    */
   @NonNull
   public Deployment getDeployment() {
-    return this.deployment;
+    return ValueUtility.requireLoaded(this, "deployment", this.deployment);
   }
 
   /**
@@ -22,6 +22,7 @@ import edu.umd.cs.findbugs.annotations.NonNull;
 import java.util.Objects;
 import org.basinmc.stormdrain.resource.Repository;
 import org.basinmc.stormdrain.resource.User;
+import org.basinmc.stormdrain.utility.ValueUtility;
 
 /**
  * Represents an event which notifies its receiver of a newly created fork of a repository.
@@ -48,7 +49,7 @@ public class ForkEvent extends AbstractRepositoryEvent {
    */
   @NonNull
   public Repository getForkee() {
-    return this.forkee;
+    return ValueUtility.requireLoaded(this, "forkee", this.forkee);
   }
 
   /**
@@ -26,6 +26,7 @@ import java.util.Objects;
 import org.basinmc.stormdrain.resource.GollumPage;
 import org.basinmc.stormdrain.resource.Repository;
 import org.basinmc.stormdrain.resource.User;
+import org.basinmc.stormdrain.utility.ValueUtility;
 
 /**
  * Represents an event which notifies its receivers of a change to a repository's wiki (e.g.
@@ -43,7 +44,7 @@ public class GollumEvent extends AbstractRepositoryEvent {
       @NonNull @JsonProperty(value = "repository", required = true) Repository repository,
       @NonNull @JsonProperty(value = "sender", required = true) User sender) {
     super(repository, sender);
-    this.pages = new ArrayList<>(pages);
+    this.pages = pages == null ? null : new ArrayList<>(pages);
   }
 
   /**
@@ -53,7 +54,7 @@ public class GollumEvent extends AbstractRepositoryEvent {
    */
   @NonNull
   public List<GollumPage> getPages() {
-    return Collections.unmodifiableList(this.pages);
+    return Collections.unmodifiableList(ValueUtility.requireLoaded(this, "pages", this.pages));
   }
 
   /**
@@ -24,6 +24,7 @@ import org.basinmc.stormdrain.resource.Comment;
 import org.basinmc.stormdrain.resource.Issue;
 import org.basinmc.stormdrain.resource.Repository;
 import org.basinmc.stormdrain.resource.User;
+import org.basinmc.stormdrain.utility.ValueUtility;
 
 /**
  * Represents an event which notifies its receivers of the creation of a new issue comment or change
@@ -57,7 +58,7 @@ public class IssueCommentEvent extends AbstractRepositoryEvent {
    */
   @NonNull
   public Action getAction() {
-    return this.action;
+    return ValueUtility.requireLoaded(this, "action", this.action);
   }
 
   /**
@@ -67,7 +68,7 @@ public class IssueCommentEvent extends AbstractRepositoryEvent {
    */
   @NonNull
   public Issue getIssue() {
-    return this.issue;
+    return ValueUtility.requireLoaded(this, "issue", this.issue);
   }
 
   /**
@@ -77,7 +78,7 @@ public class IssueCommentEvent extends AbstractRepositoryEvent {
    */
   @NonNull
   public Comment getComment() {
-    return this.comment;
+    return ValueUtility.requireLoaded(this, "comment", this.comment);
   }
 
   /**
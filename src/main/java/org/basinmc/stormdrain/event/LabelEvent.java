@@ -23,6 +23,7 @@ import java.util.Objects;
 import org.basinmc.stormdrain.resource.Issue.Label;
 import org.basinmc.stormdrain.resource.Repository;
 import org.basinmc.stormdrain.resource.User;
+import org.basinmc.stormdrain.utility.ValueUtility;
 
 /**
  * Represents an event which notifies its receivers of the creation of or a change to an issue or
@@ -53,7 +54,7 @@ public class LabelEvent extends AbstractRepositoryEvent {
    */
   @NonNull
   public Action getAction() {
-    return this.action;
+    return ValueUtility.requireLoaded(this, "action", this.action);
   }
 
   /**
@@ -63,7 +64,7 @@ public class LabelEvent extends AbstractRepositoryEvent {
    */
   @NonNull
   public Label getLabel() {
-    return this.label;
+    return ValueUtility.requireLoaded(this, "label", this.label);
   }
 
   /**
@@ -20,6 +20,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import org.basinmc.stormdrain.resource.Repository;
 import org.basinmc.stormdrain.resource.User;
+import org.basinmc.stormdrain.utility.ValueUtility;
 
 /**
  * Represents an event which notifies its receivers of a change within the contributor list of a
@@ -49,7 +50,7 @@ public class MemberEvent extends AbstractRepositoryEvent {
    */
   @NonNull
   public Action getAction() {
-    return this.action;
+    return ValueUtility.requireLoaded(this, "action", this.action);
   }
 
   /**
@@ -59,7 +60,7 @@ public class MemberEvent extends AbstractRepositoryEvent {
    */
   @NonNull
   public User getMember() {
-    return this.member;
+    return ValueUtility.requireLoaded(this, "member", this.member);
   }
 
   /**
@@ -23,6 +23,7 @@ import java.util.Objects;
 import org.basinmc.stormdrain.resource.Organization;
 import org.basinmc.stormdrain.resource.Team;
 import org.basinmc.stormdrain.resource.User;
+import org.basinmc.stormdrain.utility.ValueUtility;
 
 /**
  * Represents an event which notifies its receivers of a change to a team mebership (such as a newly
@@ -56,7 +57,7 @@ public class MembershipEvent extends AbstractOrganizationEvent {
    */
   @NonNull
   public Action getAction() {
-    return this.action;
+    return ValueUtility.requireLoaded(this, "action", this.action);
   }
 
   /**
@@ -66,7 +67,7 @@ public class MembershipEvent extends AbstractOrganizationEvent {
    */
   @NonNull
   public Team getTeam() {
-    return this.team;
+    return ValueUtility.requireLoaded(this, "team", this.team);
   }
 
   /**
@@ -76,7 +77,7 @@ public class MembershipEvent extends AbstractOrganizationEvent {
    */
   @NonNull
   public User getMember() {
-    return this.member;
+    return ValueUtility.requireLoaded(this, "member", this.member);
   }
 
   /**
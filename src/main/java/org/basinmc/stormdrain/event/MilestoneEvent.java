@@ -23,6 +23,7 @@ import java.util.Objects;
 import org.basinmc.stormdrain.resource.Milestone;
 import org.basinmc.stormdrain.resource.Repository;
 import org.basinmc.stormdrain.resource.User;
+import org.basinmc.stormdrain.utility.ValueUtility;
 
 /**
  * Represents an event which notifies its receivers of a change to milestones (such as their
@@ -53,7 +54,7 @@ public class MilestoneEvent extends AbstractRepositoryEvent {
    */
   @NonNull
   public Action getAction() {
-    return this.action;
+    return ValueUtility.requireLoaded(this, "action", this.action);
   }
 
   /**
@@ -63,7 +64,7 @@ public class MilestoneEvent extends AbstractRepositoryEvent {
    */
   @NonNull
   public Milestone getMilestone() {
-    return this.milestone;
+    return ValueUtility.requireLoaded(this, "milestone", this.milestone);
   }
 
   /**
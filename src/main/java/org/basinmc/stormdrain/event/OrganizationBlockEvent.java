@@ -22,6 +22,7 @@ import edu.umd.cs.findbugs.annotations.NonNull;
 import java.util.Objects;
 import org.basinmc.stormdrain.resource.Organization;
 import org.basinmc.stormdrain.resource.User;
+import org.basinmc.stormdrain.utility.ValueUtility;
 
 /**
  * Represents an event which notifies its receivers of a change to an organization block list.
@@ -51,7 +52,7 @@ public class OrganizationBlockEvent extends AbstractOrganizationEvent {
    */
   @NonNull
   public Action getAction() {
-    return this.action;
+    return ValueUtility.requireLoaded(this, "action", this.action);
   }
 
   /**
@@ -62,7 +63,7 @@ public class OrganizationBlockEvent extends AbstractOrganizationEvent {
    */
   @NonNull
   public User getBlockedUser() {
-    return this.blockedUser;
+    return ValueUtility.requireLoaded(this, "blocked_user", this.blockedUser);
   }
 
   /**
@@ -25,6 +25,7 @@ import org.basinmc.stormdrain.resource.Invitation;
 import org.basinmc.stormdrain.resource.Membership;
 import org.basinmc.stormdrain.resource.Organization;
 import org.basinmc.stormdrain.resource.User;
+import org.basinmc.stormdrain.utility.ValueUtility;
 
 /**
  * Represents an event which notifies its receivers of changes to organization memberships (e.g. new
@@ -58,7 +59,7 @@ public class OrganizationEvent extends AbstractOrganizationEvent {
    */
   @NonNull
   public Action getAction() {
-    return this.action;
+    return ValueUtility.requireLoaded(this, "action", this.action);
   }
 
   /**
@@ -68,7 +69,7 @@ public class OrganizationEvent extends AbstractOrganizationEvent {
    */
   @NonNull
   public Invitation getInvitation() {
-    return this.invitation;
+    return ValueUtility.requireLoaded(this, "invitation", this.invitation);
   }
 
   /**
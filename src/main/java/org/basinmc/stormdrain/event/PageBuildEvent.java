@@ -22,6 +22,7 @@ import java.util.Objects;
 import org.basinmc.stormdrain.resource.PageBuild;
 import org.basinmc.stormdrain.resource.Repository;
 import org.basinmc.stormdrain.resource.User;
+import org.basinmc.stormdrain.utility.ValueUtility;
 
 /**
  * Represents an event which notifies its receivers of a change within the state of an ongoing page
@@ -49,7 +50,7 @@ public class PageBuildEvent extends AbstractRepositoryEvent {
    */
   @NonNull
   public PageBuild getBuild() {
-    return this.build;
+    return ValueUtility.requireLoaded(this, "build", this.build);
   }
 
   /**
@@ -23,6 +23,7 @@ import java.util.Objects;
 import org.basinmc.stormdrain.resource.PullRequest;
 import org.basinmc.stormdrain.resource.Repository;
 import org.basinmc.stormdrain.resource.User;
+import org.basinmc.stormdrain.utility.ValueUtility;
 
 /**
  * Represents an event which notifies all of its receivers of the creation of a new pull request or
@@ -56,7 +57,7 @@ public class PullRequestEvent extends AbstractRepositoryEvent {
    */
   @NonNull
   public Action getAction() {
-    return this.action;
+    return ValueUtility.requireLoaded(this, "action", this.action);
   }
 
   /**
@@ -73,7 +74,7 @@ public class PullRequestEvent extends AbstractRepositoryEvent {
    */
   @NonNull
   public PullRequest getPullRequest() {
-    return this.pullRequest;
+    return ValueUtility.requireLoaded(this, "pull_request", this.pullRequest);
   }
 
   /**
@@ -24,6 +24,7 @@ import org.basinmc.stormdrain.resource.PullRequest;
 import org.basinmc.stormdrain.resource.Repository;
 import org.basinmc.stormdrain.resource.ReviewComment;
 import org.basinmc.stormdrain.resource.User;
+import org.basinmc.stormdrain.utility.ValueUtility;
 
 /**
  * Represents an event which notifies its receivers of comments which have been newly created,
@@ -57,7 +58,7 @@ public class PullRequestReviewCommentEvent extends AbstractRepositoryEvent {
    */
   @NonNull
   public Action getAction() {
-    return this.action;
+    return ValueUtility.requireLoaded(this, "action", this.action);
   }
 
   /**
@@ -67,7 +68,7 @@ public class PullRequestReviewCommentEvent extends AbstractRepositoryEvent {
    */
   @NonNull
   public ReviewComment getComment() {
-    return this.comment;
+    return ValueUtility.requireLoaded(this, "comment", this.comment);
   }
 
   /**
@@ -78,7 +79,7 @@ public class PullRequestReviewCommentEvent extends AbstractRepositoryEvent {
    */
   @NonNull
   public PullRequest getPullRequest() {
-    return this.pullRequest;
+    return ValueUtility.requireLoaded(this, "pull_request", this.pullRequest);
   }
 
   /**
@@ -23,6 +23,7 @@ import org.basinmc.stormdrain.resource.PullRequest;
 import org.basinmc.stormdrain.resource.Repository;
 import org.basinmc.stormdrain.resource.Review;
 import org.basinmc.stormdrain.resource.User;
+import org.basinmc.stormdrain.utility.ValueUtility;
 
 /**
  * Represents an event which notifies its receivers of newly added, changed or dismissed pull
@@ -56,7 +57,7 @@ public class PullRequestReviewEvent extends AbstractRepositoryEvent {
    */
   @NonNull
   public Action getAction() {
-    return this.action;
+    return ValueUtility.requireLoaded(this, "action", this.action);
   }
 
   /**
@@ -66,7 +67,7 @@ public class PullRequestReviewEvent extends AbstractRepositoryEvent {
    */
   @NonNull
   public Review getReview() {
-    return this.review;
+    return ValueUtility.requireLoaded(this, "review", this.review);
   }
 
   /**
@@ -76,7 +77,7 @@ public class PullRequestReviewEvent extends AbstractRepositoryEvent {
    */
   @NonNull
   public PullRequest getPullRequest() {
-    return this.pullRequest;
+    return ValueUtility.requireLoaded(this, "pull_request", this.pullRequest);
   }
 
   /**
@@ -25,8 +25,10 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import org.basinmc.stormdrain.resource.Commit;
+import org.basinmc.stormdrain.resource.ObjectId;
 import org.basinmc.stormdrain.resource.Repository;
 import org.basinmc.stormdrain.resource.User;
+import org.basinmc.stormdrain.utility.ValueUtility;
 
 /**
  * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
@@ -34,8 +36,8 @@ import org.basinmc.stormdrain.resource.User;
 public class PushEvent extends AbstractRepositoryEvent {
 
   private final String reference;
-  private final String previousCommitId;
-  private final String targetCommitId;
+  private final ObjectId previousCommitId;
+  private final ObjectId targetCommitId;
   private final URL compareUrl;
 
   private final boolean created;
@@ -48,8 +50,8 @@ public class PushEvent extends AbstractRepositoryEvent {
   @JsonCreator
   public PushEvent(
       @NonNull @JsonProperty(value = "ref", required = true) String reference,
-      @NonNull @JsonProperty(value = "before", required = true) String previousCommitId,
-      @NonNull @JsonProperty(value = "after", required = true) String targetCommitId,
+      @NonNull @JsonProperty(value = "before", required = true) ObjectId previousCommitId,
+      @NonNull @JsonProperty(value = "after", required = true) ObjectId targetCommitId,
       @NonNull @JsonProperty(value = "compare", required = true) URL compareUrl,
       @JsonProperty(value = "created", required = true) boolean created,
       @JsonProperty(value = "deleted", required = true) boolean deleted,
@@ -66,10 +68,32 @@ public class PushEvent extends AbstractRepositoryEvent {
     this.created = created;
     this.deleted = deleted;
     this.forced = forced;
-    this.commits = new ArrayList<>(commits);
+    this.commits = commits == null ? null
+        : Collections.unmodifiableList(new ArrayList<>(commits));
     this.headCommit = headCommit;
   }
 
+  /**
+   * @deprecated Commit hashes are retained as {@link ObjectId} - use the {@link ObjectId} based
+   * constructor instead.
+   */
+  @Deprecated
+  public PushEvent(
+      @NonNull String reference,
+      @NonNull String previousCommitId,
+      @NonNull String targetCommitId,
+      @NonNull URL compareUrl,
+      boolean created,
+      boolean deleted,
+      boolean forced,
+      @NonNull List<Commit> commits,
+      @NonNull Commit headCommit,
+      @NonNull Repository repository,
+      @NonNull User sender) {
+    this(reference, ObjectId.parse(previousCommitId), ObjectId.parse(targetCommitId), compareUrl,
+        created, deleted, forced, commits, headCommit, repository, sender);
+  }
+
   /**
    * Retrieves the reference to which the sender has pushed.
    *
@@ -77,7 +101,7 @@ public class PushEvent extends AbstractRepositoryEvent {
    */
   @NonNull
   public String getReference() {
-    return this.reference;
+    return ValueUtility.requireLoaded(this, "ref", this.reference);
   }
 
   /**
@@ -87,7 +111,17 @@ public class PushEvent extends AbstractRepositoryEvent {
    */
   @NonNull
   public String getPreviousCommitId() {
-    return this.previousCommitId;
+    return this.getPreviousCommitObjectId().toString();
+  }
+
+  /**
+   * Retrieves the commit identifier of the last change before this push.
+   *
+   * @return a commit identifier.
+   */
+  @NonNull
+  public ObjectId getPreviousCommitObjectId() {
+    return ValueUtility.requireLoaded(this, "before", this.previousCommitId);
   }
 
   /**
@@ -98,7 +132,18 @@ public class PushEvent extends AbstractRepositoryEvent {
    */
   @NonNull
   public String getTargetCommitId() {
-    return this.targetCommitId;
+    return this.getTargetCommitObjectId().toString();
+  }
+
+  /**
+   * Retrieves the commit identifier of the topmost change created by this push (e.g. the new
+   * head).
+   *
+   * @return a commit identifier.
+   */
+  @NonNull
+  public ObjectId getTargetCommitObjectId() {
+    return ValueUtility.requireLoaded(this, "after", this.targetCommitId);
   }
 
   /**
@@ -109,7 +154,7 @@ public class PushEvent extends AbstractRepositoryEvent {
    */
   @NonNull
   public URL getCompareUrl() {
-    return this.compareUrl;
+    return ValueUtility.requireLoaded(this, "compare", this.compareUrl);
   }
 
   // TODO: Document
@@ -134,10 +179,12 @@ public class PushEvent extends AbstractRepositoryEvent {
   /**
    * Retrieves the list of commits within this push (limited to a maximum of 20 commits).
    *
-   * @return a list of commits.
+   * @return an unmodifiable list of commits.
+   * @see org.basinmc.stormdrain.decoder.StreamingPushDecoder
    */
+  @NonNull
   public List<Commit> getCommits() {
-    return Collections.unmodifiableList(this.commits);
+    return ValueUtility.requireLoaded(this, "commits", this.commits);
   }
 
   /**
@@ -23,6 +23,7 @@ import java.util.Objects;
 import org.basinmc.stormdrain.resource.Release;
 import org.basinmc.stormdrain.resource.Repository;
 import org.basinmc.stormdrain.resource.User;
+import org.basinmc.stormdrain.utility.ValueUtility;
 
 /**
  * Represents an event which notifies its receivers of the creation of new releases.
@@ -49,7 +50,7 @@ public class ReleaseEvent extends AbstractRepositoryEvent {
    */
   @NonNull
   public Release getRelease() {
-    return this.release;
+    return ValueUtility.requireLoaded(this, "release", this.release);
   }
 
   /**
@@ -23,6 +23,7 @@ import java.util.Objects;
 import org.basinmc.stormdrain.resource.Repository;
 import org.basinmc.stormdrain.resource.Team;
 import org.basinmc.stormdrain.resource.User;
+import org.basinmc.stormdrain.utility.ValueUtility;
 
 /**
  * Represents an event which notifies its receiver of repository additions to existing teams.
@@ -49,7 +50,7 @@ public class TeamAddEvent extends AbstractRepositoryEvent {
    */
   @NonNull
   public Team getTeam() {
-    return this.team;
+    return ValueUtility.requireLoaded(this, "team", this.team);
   }
 
   /**
@@ -26,6 +26,7 @@ import org.basinmc.stormdrain.resource.Organization;
 import org.basinmc.stormdrain.resource.Repository;
 import org.basinmc.stormdrain.resource.Team;
 import org.basinmc.stormdrain.resource.User;
+import org.basinmc.stormdrain.utility.ValueUtility;
 
 /**
  * Represents an event which notifies its receivers of the creation or modification of teams as well
@@ -59,7 +60,7 @@ public class TeamEvent extends AbstractOrganizationEvent {
    */
   @NonNull
   public Action getAction() {
-    return this.action;
+    return ValueUtility.requireLoaded(this, "action", this.action);
   }
 
   /**
@@ -69,7 +70,7 @@ public class TeamEvent extends AbstractOrganizationEvent {
    */
   @NonNull
   public Team getTeam() {
-    return this.team;
+    return ValueUtility.requireLoaded(this, "team", this.team);
   }
 
   /**
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.export;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.util.Objects;
+import java.util.function.Function;
+import org.basinmc.stormdrain.Payload;
+
+/**
+ * Represents a single column within an export schema.
+ */
+public final class Column {
+
+  private final String name;
+  private final Type type;
+  private final Function<Payload<?>, ?> accessor;
+
+  Column(@NonNull String name, @NonNull Type type, @NonNull Function<Payload<?>, ?> accessor) {
+    this.name = name;
+    this.type = type;
+    this.accessor = accessor;
+  }
+
+  /**
+   * Retrieves the name of this column.
+   *
+   * @return a name.
+   */
+  @NonNull
+  public String getName() {
+    return this.name;
+  }
+
+  /**
+   * Retrieves the type of values within this column.
+   *
+   * @return a type.
+   */
+  @NonNull
+  public Type getType() {
+    return this.type;
+  }
+
+  /**
+   * Extracts the value of this column from a payload.
+   *
+   * @param payload a payload.
+   * @return a value ({@link Long} or {@link String} depending on the column type) or null if the
+   * payload carries no value.
+   */
+  @Nullable
+  Object extract(@NonNull Payload<?> payload) {
+    return this.accessor.apply(payload);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof Column)) {
+      return false;
+    }
+    Column column = (Column) o;
+    return Objects.equals(this.name, column.name) &&
+        this.type == column.type;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int hashCode() {
+    return Objects.hash(this.name, this.type);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String toString() {
+    return this.name + " (" + this.type + ")";
+  }
+
+  /**
+   * Identifies the encodings of column values.
+   */
+  public enum Type {
+
+    /**
+     * Signed 64-bit integers such as identifiers, counts and timestamps (in milliseconds since the
+     * epoch).
+     */
+    LONG,
+
+    /**
+     * Dictionary encoded strings (e.g. each distinct value is stored once per row group while rows
+     * refer to it by its index).
+     */
+    STRING
+  }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.export;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * <p>Receives the values of a single column while it is scanned by a {@link ColumnarReader}.</p>
+ *
+ * <p>Rows are visited in ascending order and are numbered from zero across all row groups of a
+ * file. Only the method which matches the type of the scanned column is invoked for rows which
+ * carry a value.</p>
+ */
+public interface ColumnVisitor {
+
+  /**
+   * Receives a row which carries no value within the scanned column.
+   *
+   * @param row a row number.
+   */
+  default void visitNull(long row) {
+  }
+
+  /**
+   * Receives the value of a row within a {@link Column.Type#LONG} column.
+   *
+   * @param row a row number.
+   * @param value a value.
+   */
+  default void visitLong(long row, long value) {
+  }
+
+  /**
+   * Receives the value of a row within a {@link Column.Type#STRING} column. Repeated values within
+   * the same row group are passed as the same instance.
+   *
+   * @param row a row number.
+   * @param value a value.
+   */
+  default void visitString(long row, @NonNull String value) {
+  }
+}
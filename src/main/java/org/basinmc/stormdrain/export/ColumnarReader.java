@@ -0,0 +1,283 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.export;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import org.basinmc.stormdrain.PayloadType;
+
+/**
+ * <p>Reads files which have been produced by {@link ColumnarWriter}.</p>
+ *
+ * <p>Only the footer is read when a file is opened. Scanning a column reads its chunks within
+ * each row group while the chunks of all other columns are skipped entirely.</p>
+ */
+public class ColumnarReader implements AutoCloseable {
+
+  private final FileChannel channel;
+  private final ExportSchema schema;
+  private final int[] rowGroupSizes;
+  private final long[][] chunks;
+  private final long rowCount;
+
+  public ColumnarReader(@NonNull Path path) throws IOException {
+    this.channel = FileChannel.open(path, StandardOpenOption.READ);
+
+    try {
+      long size = this.channel.size();
+      if (size < ColumnarWriter.HEADER_SIZE + ColumnarWriter.TRAILER_SIZE) {
+        throw new IOException("Illegal file: Truncated");
+      }
+
+      ByteBuffer header = this.read(0, ColumnarWriter.HEADER_SIZE);
+      if (header.getInt() != ColumnarWriter.MAGIC) {
+        throw new IOException("Illegal file: Unknown format");
+      }
+      int version = header.getInt();
+      if (version != ColumnarWriter.VERSION) {
+        throw new IOException("Illegal file: Unsupported version " + version);
+      }
+
+      ByteBuffer trailer = this.read(size - ColumnarWriter.TRAILER_SIZE,
+          ColumnarWriter.TRAILER_SIZE);
+      long footerOffset = trailer.getLong();
+      if (trailer.getInt() != ColumnarWriter.MAGIC || footerOffset < ColumnarWriter.HEADER_SIZE
+          || footerOffset > size - ColumnarWriter.TRAILER_SIZE) {
+        throw new IOException("Illegal file: Missing footer");
+      }
+
+      ByteBuffer footer = this.read(footerOffset,
+          (int) (size - ColumnarWriter.TRAILER_SIZE - footerOffset));
+      String typeName = readString(footer);
+      PayloadType type;
+      try {
+        type = PayloadType.valueOf(typeName);
+      } catch (IllegalArgumentException ex) {
+        throw new IOException("Illegal file: Unknown payload type " + typeName, ex);
+      }
+
+      this.schema = ExportSchema.of(type);
+      List<Column> columns = this.schema.getColumns();
+      int columnCount = footer.getInt();
+      if (columnCount != columns.size()) {
+        throw new IOException("Illegal file: Schema does not match " + type);
+      }
+      for (Column column : columns) {
+        int ordinal = footer.get();
+        String name = readString(footer);
+
+        if (ordinal != column.getType().ordinal() || !name.equals(column.getName())) {
+          throw new IOException("Illegal file: Schema does not match " + type);
+        }
+      }
+
+      int rowGroupCount = footer.getInt();
+      long rowCount = 0;
+      this.rowGroupSizes = new int[rowGroupCount];
+      this.chunks = new long[rowGroupCount][columnCount * 2];
+      for (int i = 0; i < rowGroupCount; ++i) {
+        this.rowGroupSizes[i] = footer.getInt();
+        rowCount += this.rowGroupSizes[i];
+
+        for (int j = 0; j < columnCount; ++j) {
+          this.chunks[i][j * 2] = footer.getLong();
+          this.chunks[i][j * 2 + 1] = footer.getInt();
+        }
+      }
+      this.rowCount = rowCount;
+    } catch (IOException ex) {
+      this.channel.close();
+      throw ex;
+    } catch (RuntimeException ex) {
+      this.channel.close();
+      throw new IOException("Illegal file: Malformed footer", ex);
+    }
+  }
+
+  /**
+   * Retrieves the schema of the file.
+   *
+   * @return a schema.
+   */
+  @NonNull
+  public ExportSchema getSchema() {
+    return this.schema;
+  }
+
+  /**
+   * Retrieves the total amount of rows within the file.
+   *
+   * @return an amount of rows.
+   */
+  public long getRowCount() {
+    return this.rowCount;
+  }
+
+  /**
+   * Retrieves the amount of row groups within the file.
+   *
+   * @return an amount of row groups.
+   */
+  public int getRowGroupCount() {
+    return this.rowGroupSizes.length;
+  }
+
+  /**
+   * Passes every value of the specified column to a visitor.
+   *
+   * @param column a column name.
+   * @param visitor a visitor.
+   * @throws IOException when reading fails or the file is malformed.
+   */
+  public void scan(@NonNull String column, @NonNull ColumnVisitor visitor) throws IOException {
+    int index = this.schema.indexOf(column);
+    if (index == -1) {
+      throw new IllegalArgumentException(
+          "Illegal column: " + this.schema.getType() + " does not define column " + column);
+    }
+
+    Column.Type type = this.schema.getColumns().get(index).getType();
+    long row = 0;
+
+    for (int i = 0; i < this.rowGroupSizes.length; ++i) {
+      ByteBuffer chunk = this.read(this.chunks[i][index * 2], (int) this.chunks[i][index * 2 + 1]);
+      int rows = this.rowGroupSizes[i];
+
+      try {
+        if (type == Column.Type.LONG) {
+          scanLongs(chunk, rows, row, visitor);
+        } else {
+          scanStrings(chunk, rows, row, visitor);
+        }
+      } catch (RuntimeException ex) {
+        throw new IOException("Illegal file: Malformed chunk within row group " + i, ex);
+      }
+
+      row += rows;
+    }
+  }
+
+  /**
+   * Decodes a chunk of long values.
+   *
+   * @param chunk a chunk.
+   * @param rows the amount of rows within the chunk.
+   * @param row the number of the first row within the chunk.
+   * @param visitor a visitor.
+   */
+  private static void scanLongs(@NonNull ByteBuffer chunk, int rows, long row,
+      @NonNull ColumnVisitor visitor) {
+    long[] presence = new long[(rows + 63) >>> 6];
+    chunk.asLongBuffer().get(presence);
+    chunk.position(chunk.position() + presence.length * 8);
+
+    for (int i = 0; i < rows; ++i) {
+      long value = chunk.getLong();
+
+      if ((presence[i >>> 6] & (1L << i)) == 0) {
+        visitor.visitNull(row + i);
+      } else {
+        visitor.visitLong(row + i, value);
+      }
+    }
+  }
+
+  /**
+   * Decodes a chunk of dictionary encoded strings.
+   *
+   * @param chunk a chunk.
+   * @param rows the amount of rows within the chunk.
+   * @param row the number of the first row within the chunk.
+   * @param visitor a visitor.
+   */
+  private static void scanStrings(@NonNull ByteBuffer chunk, int rows, long row,
+      @NonNull ColumnVisitor visitor) {
+    String[] dictionary = new String[chunk.getInt()];
+    for (int i = 0; i < dictionary.length; ++i) {
+      dictionary[i] = readString(chunk);
+    }
+
+    int width = chunk.get();
+    for (int i = 0; i < rows; ++i) {
+      int code;
+
+      if (width == 1) {
+        code = chunk.get() & 0xFF;
+      } else if (width == 2) {
+        code = chunk.getShort() & 0xFFFF;
+      } else {
+        code = chunk.getInt();
+      }
+
+      if (code == 0) {
+        visitor.visitNull(row + i);
+      } else {
+        visitor.visitString(row + i, dictionary[code - 1]);
+      }
+    }
+  }
+
+  /**
+   * Reads a length prefixed UTF-8 string.
+   *
+   * @param buffer a buffer.
+   * @return a string.
+   */
+  @NonNull
+  private static String readString(@NonNull ByteBuffer buffer) {
+    byte[] encoded = new byte[buffer.getInt()];
+    buffer.get(encoded);
+    return new String(encoded, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Reads a region of the file.
+   *
+   * @param offset an offset.
+   * @param length a length (in bytes).
+   * @return a buffer which has been flipped for reading.
+   * @throws IOException when reading fails or the file ends prematurely.
+   */
+  @NonNull
+  private ByteBuffer read(long offset, int length) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(length);
+
+    while (buffer.hasRemaining()) {
+      if (this.channel.read(buffer, offset + buffer.position()) == -1) {
+        throw new EOFException("Illegal file: Unexpected end of file");
+      }
+    }
+
+    buffer.flip();
+    return buffer;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void close() throws IOException {
+    this.channel.close();
+  }
+}
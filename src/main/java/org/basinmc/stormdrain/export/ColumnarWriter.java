@@ -0,0 +1,385 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.export;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.basinmc.stormdrain.Payload;
+import org.basinmc.stormdrain.PayloadType;
+
+/**
+ * <p>Writes payloads of a single type to a local file in a columnar layout.</p>
+ *
+ * <p>Rows are buffered in memory and written as a row group once the configured row group size
+ * has been reached. Within a row group, the values of each column are stored consecutively (as a
+ * column chunk) so that readers may scan a single column without decoding any other column (see
+ * {@link ColumnarReader}). String columns are dictionary encoded: Each distinct value is stored
+ * once per chunk while rows refer to it by an index of the smallest sufficient width. Long columns
+ * are stored as a presence bitmap followed by fixed width values.</p>
+ *
+ * <p>The file ends with a footer which describes the schema along with the location of each
+ * column chunk. Files which have not been closed lack this footer and are rejected by readers.
+ * Writers are not thread safe.</p>
+ */
+public class ColumnarWriter implements AutoCloseable {
+
+  /**
+   * Defines the default maximum amount of rows within a single row group.
+   */
+  public static final int DEFAULT_ROW_GROUP_SIZE = 64 * 1024;
+
+  static final int MAGIC = 0x53444346;
+  static final int VERSION = 1;
+  static final int HEADER_SIZE = 8;
+  static final int TRAILER_SIZE = 12;
+
+  private final ExportSchema schema;
+  private final int rowGroupSize;
+  private final DataOutputStream outputStream;
+  private final ColumnBuffer[] buffers;
+  private final List<long[]> chunks = new ArrayList<>();
+  private final List<Integer> rowGroupSizes = new ArrayList<>();
+  private final ByteArrayOutputStream scratch = new ByteArrayOutputStream();
+  private final DataOutputStream scratchStream = new DataOutputStream(this.scratch);
+
+  private long position;
+  private long rowCount;
+  private int pendingRows;
+  private boolean closed;
+
+  public ColumnarWriter(@NonNull Path path, @NonNull PayloadType type) throws IOException {
+    this(path, type, DEFAULT_ROW_GROUP_SIZE);
+  }
+
+  public ColumnarWriter(@NonNull Path path, @NonNull PayloadType type, int rowGroupSize)
+      throws IOException {
+    if (rowGroupSize < 1) {
+      throw new IllegalArgumentException("Illegal row group size: Must be at least 1");
+    }
+
+    this.schema = ExportSchema.of(type);
+    this.rowGroupSize = rowGroupSize;
+
+    List<Column> columns = this.schema.getColumns();
+    this.buffers = new ColumnBuffer[columns.size()];
+    for (int i = 0; i < this.buffers.length; ++i) {
+      this.buffers[i] = columns.get(i).getType() == Column.Type.LONG ? new LongColumnBuffer()
+          : new StringColumnBuffer();
+    }
+
+    OutputStream outputStream = Files.newOutputStream(path);
+    this.outputStream = new DataOutputStream(new BufferedOutputStream(outputStream, 64 * 1024));
+    this.outputStream.writeInt(MAGIC);
+    this.outputStream.writeInt(VERSION);
+    this.position = HEADER_SIZE;
+  }
+
+  /**
+   * Retrieves the schema according to which payloads are written.
+   *
+   * @return a schema.
+   */
+  @NonNull
+  public ExportSchema getSchema() {
+    return this.schema;
+  }
+
+  /**
+   * Retrieves the total amount of rows which have been passed to this writer.
+   *
+   * @return an amount of rows.
+   */
+  public long getRowCount() {
+    return this.rowCount;
+  }
+
+  /**
+   * Appends a payload to the current row group and writes the row group once it is full. Rows
+   * are only appended once all of their values have been extracted. A payload which fails to
+   * extract (for instance because it has been projected) thus leaves the writer unchanged.
+   *
+   * @param payload a payload.
+   * @throws IOException when writing the row group fails.
+   */
+  public void write(@NonNull Payload<?> payload) throws IOException {
+    if (this.closed) {
+      throw new IllegalStateException("Writer has been closed");
+    }
+    if (payload.getType() != this.schema.getType()) {
+      throw new IllegalArgumentException(
+          "Illegal payload: Expected " + this.schema.getType() + " but got " + payload
+              .getType());
+    }
+
+    List<Column> columns = this.schema.getColumns();
+    Object[] row = new Object[this.buffers.length];
+    for (int i = 0; i < row.length; ++i) {
+      row[i] = columns.get(i).extract(payload);
+    }
+
+    for (int i = 0; i < row.length; ++i) {
+      this.buffers[i].add(row[i]);
+    }
+
+    this.rowCount++;
+    if (++this.pendingRows == this.rowGroupSize) {
+      this.flush();
+    }
+  }
+
+  /**
+   * Writes all buffered rows as a row group (regardless of whether the group is full).
+   *
+   * @throws IOException when writing fails.
+   */
+  public void flush() throws IOException {
+    if (this.pendingRows == 0) {
+      return;
+    }
+
+    long[] chunks = new long[this.buffers.length * 2];
+    for (int i = 0; i < this.buffers.length; ++i) {
+      this.scratch.reset();
+      this.buffers[i].encode(this.scratchStream, this.pendingRows);
+      this.buffers[i].clear();
+
+      chunks[i * 2] = this.position;
+      chunks[i * 2 + 1] = this.scratch.size();
+      this.scratch.writeTo(this.outputStream);
+      this.position += this.scratch.size();
+    }
+
+    this.chunks.add(chunks);
+    this.rowGroupSizes.add(this.pendingRows);
+    this.pendingRows = 0;
+  }
+
+  /**
+   * Writes all remaining rows along with the file footer and closes the file.
+   *
+   * @throws IOException when writing fails.
+   */
+  @Override
+  public void close() throws IOException {
+    if (this.closed) {
+      return;
+    }
+    this.closed = true;
+
+    try {
+      this.flush();
+
+      long footer = this.position;
+      writeString(this.outputStream, this.schema.getType().name());
+
+      List<Column> columns = this.schema.getColumns();
+      this.outputStream.writeInt(columns.size());
+      for (Column column : columns) {
+        this.outputStream.writeByte(column.getType().ordinal());
+        writeString(this.outputStream, column.getName());
+      }
+
+      this.outputStream.writeInt(this.chunks.size());
+      for (int i = 0; i < this.chunks.size(); ++i) {
+        long[] chunks = this.chunks.get(i);
+
+        this.outputStream.writeInt(this.rowGroupSizes.get(i));
+        for (int j = 0; j < chunks.length; j += 2) {
+          this.outputStream.writeLong(chunks[j]);
+          this.outputStream.writeInt((int) chunks[j + 1]);
+        }
+      }
+
+      this.outputStream.writeLong(footer);
+      this.outputStream.writeInt(MAGIC);
+    } finally {
+      this.outputStream.close();
+    }
+  }
+
+  /**
+   * Writes a length prefixed UTF-8 string.
+   *
+   * @param outputStream an output stream.
+   * @param value a string.
+   * @throws IOException when writing fails.
+   */
+  private static void writeString(@NonNull DataOutputStream outputStream, @NonNull String value)
+      throws IOException {
+    byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+    outputStream.writeInt(encoded.length);
+    outputStream.write(encoded);
+  }
+
+  /**
+   * Buffers the values of a single column within the current row group.
+   */
+  private interface ColumnBuffer {
+
+    void add(@Nullable Object value);
+
+    void encode(@NonNull DataOutputStream outputStream, int rows) throws IOException;
+
+    void clear();
+  }
+
+  /**
+   * Buffers nullable long values.
+   */
+  private static final class LongColumnBuffer implements ColumnBuffer {
+
+    private long[] values = new long[64];
+    private long[] presence = new long[1];
+    private int size;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void add(@Nullable Object value) {
+      if (this.size == this.values.length) {
+        this.values = Arrays.copyOf(this.values, this.size * 2);
+        this.presence = Arrays.copyOf(this.presence, this.values.length >>> 6);
+      }
+
+      if (value != null) {
+        this.values[this.size] = (Long) value;
+        this.presence[this.size >>> 6] |= 1L << this.size;
+      }
+      this.size++;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void encode(@NonNull DataOutputStream outputStream, int rows) throws IOException {
+      for (int i = 0; i < (rows + 63) >>> 6; ++i) {
+        outputStream.writeLong(this.presence[i]);
+      }
+      for (int i = 0; i < rows; ++i) {
+        outputStream.writeLong(this.values[i]);
+      }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void clear() {
+      Arrays.fill(this.values, 0, this.size, 0);
+      Arrays.fill(this.presence, 0);
+      this.size = 0;
+    }
+  }
+
+  /**
+   * Buffers nullable strings as indices into a dictionary of distinct values.
+   */
+  private static final class StringColumnBuffer implements ColumnBuffer {
+
+    private final Map<String, Integer> dictionary = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+    private int[] codes = new int[64];
+    private int size;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void add(@Nullable Object value) {
+      if (this.size == this.codes.length) {
+        this.codes = Arrays.copyOf(this.codes, this.size * 2);
+      }
+
+      int code = 0;
+      if (value != null) {
+        code = this.dictionary.computeIfAbsent((String) value, (v) -> {
+          this.values.add(v);
+          return this.values.size();
+        });
+      }
+      this.codes[this.size++] = code;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void encode(@NonNull DataOutputStream outputStream, int rows) throws IOException {
+      outputStream.writeInt(this.values.size());
+      for (String value : this.values) {
+        writeString(outputStream, value);
+      }
+
+      // codes refer to their dictionary entry with an offset of one while zero denotes null
+      int width = codeWidth(this.values.size());
+      outputStream.writeByte(width);
+      for (int i = 0; i < rows; ++i) {
+        int code = this.codes[i];
+
+        if (width == 1) {
+          outputStream.writeByte(code);
+        } else if (width == 2) {
+          outputStream.writeShort(code);
+        } else {
+          outputStream.writeInt(code);
+        }
+      }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void clear() {
+      this.dictionary.clear();
+      this.values.clear();
+      this.size = 0;
+    }
+  }
+
+  /**
+   * Selects the smallest width which is capable of representing all codes of a dictionary.
+   *
+   * @param size a dictionary size.
+   * @return a width (in bytes).
+   */
+  static int codeWidth(int size) {
+    if (size < 0xFF) {
+      return 1;
+    }
+    if (size < 0xFFFF) {
+      return 2;
+    }
+
+    return 4;
+  }
+}
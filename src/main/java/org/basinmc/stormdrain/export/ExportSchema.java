@@ -0,0 +1,281 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.export;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import org.basinmc.stormdrain.Payload;
+import org.basinmc.stormdrain.PayloadType;
+import org.basinmc.stormdrain.event.AbstractOrganizationEvent;
+import org.basinmc.stormdrain.event.AbstractReferenceEvent;
+import org.basinmc.stormdrain.event.AbstractRepositoryEvent;
+import org.basinmc.stormdrain.event.AbstractUserTriggeredEvent;
+import org.basinmc.stormdrain.event.Event;
+import org.basinmc.stormdrain.event.IssueCommentEvent;
+import org.basinmc.stormdrain.event.IssuesEvent;
+import org.basinmc.stormdrain.event.PullRequestEvent;
+import org.basinmc.stormdrain.event.PushEvent;
+import org.basinmc.stormdrain.event.ReleaseEvent;
+import org.basinmc.stormdrain.resource.Issue;
+
+/**
+ * <p>Describes the fixed set of columns which are exported for a given payload type.</p>
+ *
+ * <p>All schemas start with the delivery identifier followed by the columns which apply to the
+ * event hierarchy of the type (action, sender, repository and organization). Selected types
+ * append further columns such as the reference and commit count of pushes or the number, state
+ * and timestamps of issues and pull requests. Timestamps are exported as milliseconds since the
+ * epoch.</p>
+ */
+public final class ExportSchema {
+
+  private static final Map<PayloadType, ExportSchema> SCHEMAS = new EnumMap<>(PayloadType.class);
+
+  static {
+    for (PayloadType type : PayloadType.values()) {
+      SCHEMAS.put(type, new ExportSchema(type, createColumns(type)));
+    }
+  }
+
+  private final PayloadType type;
+  private final List<Column> columns;
+
+  private ExportSchema(@NonNull PayloadType type, @NonNull List<Column> columns) {
+    this.type = type;
+    this.columns = Collections.unmodifiableList(columns);
+  }
+
+  /**
+   * Retrieves the schema for the specified payload type.
+   *
+   * @param type a payload type.
+   * @return a schema.
+   */
+  @NonNull
+  public static ExportSchema of(@NonNull PayloadType type) {
+    return SCHEMAS.get(type);
+  }
+
+  /**
+   * Retrieves the payload type which is described by this schema.
+   *
+   * @return a payload type.
+   */
+  @NonNull
+  public PayloadType getType() {
+    return this.type;
+  }
+
+  /**
+   * Retrieves the columns of this schema in the order they appear within exported files.
+   *
+   * @return a list of columns.
+   */
+  @NonNull
+  public List<Column> getColumns() {
+    return this.columns;
+  }
+
+  /**
+   * Retrieves a column by its name.
+   *
+   * @param name a column name.
+   * @return a column or an empty optional if no such column exists.
+   */
+  @NonNull
+  public Optional<Column> getColumn(@NonNull String name) {
+    int index = this.indexOf(name);
+    return index == -1 ? Optional.empty() : Optional.of(this.columns.get(index));
+  }
+
+  /**
+   * Retrieves the position of a column within this schema.
+   *
+   * @param name a column name.
+   * @return an index or -1 if no such column exists.
+   */
+  public int indexOf(@NonNull String name) {
+    for (int i = 0; i < this.columns.size(); ++i) {
+      if (this.columns.get(i).getName().equals(name)) {
+        return i;
+      }
+    }
+
+    return -1;
+  }
+
+  /**
+   * Creates the columns for the specified payload type.
+   *
+   * @param type a payload type.
+   * @return a list of columns.
+   */
+  @NonNull
+  private static List<Column> createColumns(@NonNull PayloadType type) {
+    Class<? extends Event> eventType = type.getType();
+    List<Column> columns = new ArrayList<>();
+
+    columns.add(new Column("delivery_id", Column.Type.STRING,
+        (payload) -> payload.getDeliveryId().toString()));
+
+    Method action = findAction(eventType);
+    if (action != null) {
+      columns.add(new Column("action", Column.Type.STRING,
+          (payload) -> invokeAction(action, payload.getEvent())));
+    }
+    if (AbstractUserTriggeredEvent.class.isAssignableFrom(eventType)) {
+      columns.add(new Column("sender", Column.Type.STRING,
+          (payload) -> ((AbstractUserTriggeredEvent) payload.getEvent()).getSender().getLogin()));
+    }
+    if (AbstractRepositoryEvent.class.isAssignableFrom(eventType)) {
+      columns.add(new Column("repository_id", Column.Type.LONG,
+          (payload) -> ((AbstractRepositoryEvent) payload.getEvent()).getRepository()
+              .getNumericId()));
+      columns.add(new Column("repository", Column.Type.STRING,
+          (payload) -> ((AbstractRepositoryEvent) payload.getEvent()).getRepository()
+              .getFullName()));
+    }
+    if (AbstractOrganizationEvent.class.isAssignableFrom(eventType)) {
+      columns.add(new Column("organization", Column.Type.STRING,
+          (payload) -> ((AbstractOrganizationEvent) payload.getEvent()).getOrganization()
+              .getLogin()));
+    }
+    if (AbstractReferenceEvent.class.isAssignableFrom(eventType)) {
+      columns.add(new Column("ref", Column.Type.STRING,
+          (payload) -> ((AbstractReferenceEvent) payload.getEvent()).getReference()));
+      columns.add(new Column("ref_type", Column.Type.STRING,
+          (payload) -> ((AbstractReferenceEvent) payload.getEvent()).getReferenceType().name()
+              .toLowerCase(Locale.ROOT)));
+    }
+
+    switch (type) {
+      case PUSH:
+        columns.add(push("ref", PushEvent::getReference));
+        columns.add(push("before", PushEvent::getPreviousCommitId));
+        columns.add(push("after", PushEvent::getTargetCommitId));
+        columns.add(new Column("commits", Column.Type.LONG,
+            (payload) -> (long) ((PushEvent) payload.getEvent()).getCommits().size()));
+        break;
+      case PULL_REQUEST:
+        columns.add(new Column("number", Column.Type.LONG,
+            (payload) -> ((PullRequestEvent) payload.getEvent()).getNumber()));
+        addIssueColumns(columns, (payload) -> ((PullRequestEvent) payload.getEvent())
+            .getPullRequest());
+        columns.add(new Column("merged_at", Column.Type.LONG,
+            (payload) -> ((PullRequestEvent) payload.getEvent()).getPullRequest().getMergedAt()
+                .map(Instant::toEpochMilli).orElse(null)));
+        break;
+      case ISSUES:
+        columns.add(new Column("number", Column.Type.LONG,
+            (payload) -> ((IssuesEvent) payload.getEvent()).getIssue().getNumber()));
+        addIssueColumns(columns, (payload) -> ((IssuesEvent) payload.getEvent()).getIssue());
+        break;
+      case ISSUE_COMMENT:
+        columns.add(new Column("number", Column.Type.LONG,
+            (payload) -> ((IssueCommentEvent) payload.getEvent()).getIssue().getNumber()));
+        columns.add(new Column("created_at", Column.Type.LONG,
+            (payload) -> ((IssueCommentEvent) payload.getEvent()).getComment()
+                .getCreationTimestamp().toEpochMilli()));
+        break;
+      case RELEASE:
+        columns.add(new Column("tag", Column.Type.STRING,
+            (payload) -> ((ReleaseEvent) payload.getEvent()).getRelease().getTagName()));
+        columns.add(new Column("created_at", Column.Type.LONG,
+            (payload) -> ((ReleaseEvent) payload.getEvent()).getRelease().getCreationTimestamp()
+                .toEpochMilli()));
+        columns.add(new Column("published_at", Column.Type.LONG,
+            (payload) -> ((ReleaseEvent) payload.getEvent()).getRelease()
+                .getPublishingTimestamp().map(Instant::toEpochMilli).orElse(null)));
+        break;
+      default:
+        break;
+    }
+
+    return columns;
+  }
+
+  /**
+   * Creates a string column which is extracted from a push event.
+   *
+   * @param name a column name.
+   * @param accessor an accessor.
+   * @return a column.
+   */
+  @NonNull
+  private static Column push(@NonNull String name, @NonNull Function<PushEvent, String> accessor) {
+    return new Column(name, Column.Type.STRING,
+        (payload) -> accessor.apply((PushEvent) payload.getEvent()));
+  }
+
+  /**
+   * Appends the state and timestamps of an issue (or pull request) to a list of columns.
+   *
+   * @param columns a list of columns.
+   * @param accessor an accessor which retrieves the issue from a payload.
+   */
+  private static void addIssueColumns(@NonNull List<Column> columns,
+      @NonNull Function<Payload<?>, Issue> accessor) {
+    columns.add(new Column("state", Column.Type.STRING,
+        (payload) -> accessor.apply(payload).getState().name().toLowerCase(Locale.ROOT)));
+    columns.add(new Column("created_at", Column.Type.LONG,
+        (payload) -> accessor.apply(payload).getCreationTimestamp().toEpochMilli()));
+    columns.add(new Column("updated_at", Column.Type.LONG,
+        (payload) -> accessor.apply(payload).getModificationTimestamp()
+            .map(Instant::toEpochMilli).orElse(null)));
+    columns.add(new Column("closed_at", Column.Type.LONG,
+        (payload) -> accessor.apply(payload).getClosedAt().map(Instant::toEpochMilli)
+            .orElse(null)));
+  }
+
+  /**
+   * Locates the action accessor of an event type. Event actions are declared as a separate enum
+   * for each event and are thus accessed reflectively.
+   *
+   * @param eventType an event type.
+   * @return an accessor or null if the event does not carry an action.
+   */
+  @Nullable
+  private static Method findAction(@NonNull Class<? extends Event> eventType) {
+    try {
+      Method method = eventType.getMethod("getAction");
+      return Enum.class.isAssignableFrom(method.getReturnType()) ? method : null;
+    } catch (NoSuchMethodException ex) {
+      return null;
+    }
+  }
+
+  @NonNull
+  private static String invokeAction(@NonNull Method method, @NonNull Event event) {
+    try {
+      return ((Enum<?>) method.invoke(event)).name().toLowerCase(Locale.ROOT);
+    } catch (IllegalAccessException | InvocationTargetException ex) {
+      throw new IllegalStateException(
+          "Cannot access action of " + event.getClass().getName(), ex);
+    }
+  }
+}
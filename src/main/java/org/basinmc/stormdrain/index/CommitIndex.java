@@ -0,0 +1,490 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.index;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.basinmc.stormdrain.event.PushEvent;
+import org.basinmc.stormdrain.metrics.MetricSource;
+import org.basinmc.stormdrain.metrics.MetricsReporter;
+import org.basinmc.stormdrain.resource.Commit;
+import org.basinmc.stormdrain.resource.Commit.Author;
+import org.basinmc.stormdrain.resource.ObjectId;
+import org.basinmc.stormdrain.resource.Repository;
+
+/**
+ * <p>Indexes the commits of received pushes in order to answer which push introduced a given
+ * commit and which commits touched a given path within a recent time frame.</p>
+ *
+ * <p>Commits are grouped into segments which each cover a fixed span of time (based on the time
+ * at which their push has been received). Each segment stores its commit and tree hashes as
+ * 20 byte binary values within a flat array, locates commits by their hash through an open
+ * addressed table which is keyed by the leading bytes of the hash and maintains a posting list
+ * of commits (in the order they have been received) for every added, modified or removed path.
+ * Segments are evicted as a whole once the configured amount of segments is exceeded or when
+ * explicitly requested via {@link #evictBefore(Instant)}.</p>
+ *
+ * <p>Commits which are contained in multiple pushes (such as when a branch is pushed to a second
+ * reference) are attributed to the first push which has been indexed within a segment.</p>
+ */
+public class CommitIndex implements MetricSource {
+
+  /**
+   * Defines the name of the gauge which tracks the amount of indexed commits.
+   */
+  public static final String COMMIT_METRIC = "stormdrain.index.commits";
+
+  /**
+   * Defines the name of the gauge which tracks the amount of retained segments.
+   */
+  public static final String SEGMENT_METRIC = "stormdrain.index.segments";
+
+  private final long segmentDuration;
+  private final int maximumSegments;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final NavigableMap<Long, Segment> segments = new TreeMap<>();
+
+  public CommitIndex(@NonNull Duration segmentDuration, int maximumSegments) {
+    if (segmentDuration.toMillis() < 1) {
+      throw new IllegalArgumentException("Illegal segment duration: Must be at least 1ms");
+    }
+    if (maximumSegments < 1) {
+      throw new IllegalArgumentException("Illegal maximum segment count: Must be at least 1");
+    }
+
+    this.segmentDuration = segmentDuration.toMillis();
+    this.maximumSegments = maximumSegments;
+  }
+
+  /**
+   * Computes the segment which covers the specified point in time.
+   *
+   * @param timestamp a timestamp.
+   * @return a segment number.
+   */
+  private long segment(@NonNull Instant timestamp) {
+    return Math.floorDiv(timestamp.toEpochMilli(), this.segmentDuration);
+  }
+
+  /**
+   * Indexes all commits of a push. Commit hashes are always well-formed as pushes with malformed
+   * hashes are rejected while decoding (see {@link org.basinmc.stormdrain.resource.ObjectId}).
+   *
+   * @param deliveryId the identifier of the delivery which carried the push.
+   * @param event a push.
+   * @param receivedAt the time at which the push has been received.
+   */
+  public void add(@NonNull UUID deliveryId, @NonNull PushEvent event,
+      @NonNull Instant receivedAt) {
+    List<Commit> commits = event.getCommits();
+    if (commits.isEmpty()) {
+      return;
+    }
+
+    Repository repository = event.getRepository();
+    IndexedPush push = new IndexedPush(deliveryId, repository.getNumericId(),
+        repository.getFullName(), event.getReference(), receivedAt);
+    long number = this.segment(receivedAt);
+
+    this.lock.writeLock().lock();
+
+    try {
+      Segment segment = this.segments.get(number);
+
+      if (segment == null) {
+        if (this.segments.size() >= this.maximumSegments && number < this.segments.firstKey()) {
+          // the push is older than any retained segment and would be evicted right away
+          return;
+        }
+
+        segment = new Segment();
+        this.segments.put(number, segment);
+
+        while (this.segments.size() > this.maximumSegments) {
+          this.segments.pollFirstEntry();
+        }
+      }
+
+      segment.add(push, commits);
+    } finally {
+      this.lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Locates the first push which introduced the specified commit.
+   *
+   * @param id a commit hash.
+   * @return a commit or an empty optional if the commit is unknown or has been evicted.
+   */
+  @NonNull
+  public Optional<IndexedCommit> findCommit(@NonNull String id) {
+    ObjectId objectId = ObjectId.tryParse(id);
+    if (objectId == null) {
+      return Optional.empty();
+    }
+
+    byte[] key = new byte[ObjectId.LENGTH];
+    objectId.copyTo(key, 0);
+
+    this.lock.readLock().lock();
+
+    try {
+      for (Segment segment : this.segments.values()) {
+        int commit = segment.find(key);
+
+        if (commit != -1) {
+          return Optional.of(segment.get(commit));
+        }
+      }
+    } finally {
+      this.lock.readLock().unlock();
+    }
+
+    return Optional.empty();
+  }
+
+  /**
+   * Retrieves all commits which added, modified or removed the specified path and have been
+   * received at or after the specified point in time.
+   *
+   * @param path a path (relative to the repository root).
+   * @param since the earliest time of reception.
+   * @return a list of commits in the order they have been received.
+   */
+  @NonNull
+  public List<IndexedCommit> findCommits(@NonNull String path, @NonNull Instant since) {
+    List<IndexedCommit> commits = new ArrayList<>();
+
+    this.lock.readLock().lock();
+
+    try {
+      for (Segment segment : this.segments.tailMap(this.segment(since), true).values()) {
+        Postings postings = segment.paths.get(path);
+        if (postings == null) {
+          continue;
+        }
+
+        for (int i = 0; i < postings.size; ++i) {
+          int commit = postings.commits[i];
+
+          if (!segment.pushes.get(segment.commitPushes[commit]).getReceivedAt()
+              .isBefore(since)) {
+            commits.add(segment.get(commit));
+          }
+        }
+      }
+    } finally {
+      this.lock.readLock().unlock();
+    }
+
+    return commits;
+  }
+
+  /**
+   * Evicts all segments which exclusively cover time before the specified point in time.
+   *
+   * @param timestamp a timestamp.
+   * @return the amount of evicted commits.
+   */
+  public int evictBefore(@NonNull Instant timestamp) {
+    this.lock.writeLock().lock();
+
+    try {
+      Map<Long, Segment> evicted = this.segments.headMap(this.segment(timestamp), false);
+
+      int commits = 0;
+      for (Segment segment : evicted.values()) {
+        commits += segment.commitCount;
+      }
+
+      evicted.clear();
+      return commits;
+    } finally {
+      this.lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Retrieves the amount of commits which are currently indexed.
+   *
+   * @return an amount of commits.
+   */
+  public int getCommitCount() {
+    this.lock.readLock().lock();
+
+    try {
+      int commits = 0;
+      for (Segment segment : this.segments.values()) {
+        commits += segment.commitCount;
+      }
+      return commits;
+    } finally {
+      this.lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Retrieves the amount of segments which are currently retained.
+   *
+   * @return an amount of segments.
+   */
+  public int getSegmentCount() {
+    this.lock.readLock().lock();
+
+    try {
+      return this.segments.size();
+    } finally {
+      this.lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void report(@NonNull MetricsReporter reporter) {
+    reporter.gauge(COMMIT_METRIC, Collections.emptyMap(), this.getCommitCount());
+    reporter.gauge(SEGMENT_METRIC, Collections.emptyMap(), this.getSegmentCount());
+  }
+
+  /**
+   * Represents the commits which have been received within a single span of time.
+   */
+  private static final class Segment {
+
+    private final List<IndexedPush> pushes = new ArrayList<>();
+
+    private byte[] ids = new byte[16 * ObjectId.LENGTH];
+    private byte[] treeIds = new byte[16 * ObjectId.LENGTH];
+    private Author[] authors = new Author[16];
+    private long[] timestamps = new long[16];
+    private int[] commitPushes = new int[16];
+    private int commitCount;
+
+    /**
+     * Maps the leading bytes of commit hashes to their commit (offset by one as zero marks
+     * unused buckets).
+     */
+    private int[] table = new int[32];
+
+    private final Map<String, Postings> paths = new HashMap<>();
+
+    /**
+     * Reads the leading bytes of a binary hash as a table hash (hashes are uniformly
+     * distributed and thus require no further mixing).
+     *
+     * @param value an array.
+     * @param offset the offset of the hash.
+     * @return a hash.
+     */
+    private static int hash(@NonNull byte[] value, int offset) {
+      return (value[offset] & 0xFF) << 24 | (value[offset + 1] & 0xFF) << 16
+          | (value[offset + 2] & 0xFF) << 8 | (value[offset + 3] & 0xFF);
+    }
+
+    /**
+     * Evaluates whether the hash at the specified offset equals the specified hash.
+     *
+     * @param value an array.
+     * @param offset the offset of the hash.
+     * @param key a hash.
+     * @return true if equal, false otherwise.
+     */
+    private static boolean equals(@NonNull byte[] value, int offset, @NonNull byte[] key) {
+      for (int i = 0; i < ObjectId.LENGTH; ++i) {
+        if (value[offset + i] != key[i]) {
+          return false;
+        }
+      }
+
+      return true;
+    }
+
+    /**
+     * Locates a commit by its hash.
+     *
+     * @param key a binary commit hash.
+     * @return a commit index or -1 if the commit is not part of this segment.
+     */
+    private int find(@NonNull byte[] key) {
+      int mask = this.table.length - 1;
+      int index = hash(key, 0) & mask;
+
+      int entry;
+      while ((entry = this.table[index]) != 0) {
+        if (equals(this.ids, (entry - 1) * ObjectId.LENGTH, key)) {
+          return entry - 1;
+        }
+
+        index = (index + 1) & mask;
+      }
+
+      return -1;
+    }
+
+    /**
+     * Materializes a commit.
+     *
+     * @param commit a commit index.
+     * @return a commit.
+     */
+    @NonNull
+    private IndexedCommit get(int commit) {
+      return new IndexedCommit(
+          ObjectId.fromBytes(this.ids, commit * ObjectId.LENGTH).toString(),
+          ObjectId.fromBytes(this.treeIds, commit * ObjectId.LENGTH).toString(),
+          this.authors[commit],
+          Instant.ofEpochMilli(this.timestamps[commit]),
+          this.pushes.get(this.commitPushes[commit]));
+    }
+
+    /**
+     * Appends the commits of a push to this segment.
+     *
+     * @param push a push.
+     * @param commits a list of commits.
+     */
+    private void add(@NonNull IndexedPush push, @NonNull List<Commit> commits) {
+      int pushIndex = this.pushes.size();
+      byte[] key = new byte[ObjectId.LENGTH];
+      boolean referenced = false;
+
+      for (Commit commit : commits) {
+        commit.getObjectId().copyTo(key, 0);
+        if (this.find(key) != -1) {
+          continue;
+        }
+
+        int index = this.commitCount;
+        this.ensureCapacity(index + 1);
+
+        System.arraycopy(key, 0, this.ids, index * ObjectId.LENGTH, ObjectId.LENGTH);
+        commit.getTreeObjectId().copyTo(this.treeIds, index * ObjectId.LENGTH);
+        this.authors[index] = commit.getAuthor();
+        this.timestamps[index] = commit.getTimestamp().toInstant().toEpochMilli();
+        this.commitPushes[index] = pushIndex;
+        this.commitCount++;
+        referenced = true;
+
+        this.insert(index);
+        this.post(commit.getAddedFiles(), index);
+        this.post(commit.getModifiedFiles(), index);
+        this.post(commit.getRemovedFiles(), index);
+      }
+
+      if (referenced) {
+        this.pushes.add(push);
+      }
+    }
+
+    /**
+     * Appends a commit to the posting lists of the specified paths.
+     *
+     * @param paths a collection of paths.
+     * @param commit a commit index.
+     */
+    private void post(@NonNull Collection<String> paths, int commit) {
+      for (String path : paths) {
+        this.paths.computeIfAbsent(path, (key) -> new Postings()).add(commit);
+      }
+    }
+
+    /**
+     * Inserts a commit into the hash table and doubles the table once it is half full.
+     *
+     * @param commit a commit index.
+     */
+    private void insert(int commit) {
+      if (this.commitCount * 2 > this.table.length) {
+        this.table = new int[this.table.length * 2];
+
+        for (int i = 0; i < this.commitCount - 1; ++i) {
+          this.place(i);
+        }
+      }
+
+      this.place(commit);
+    }
+
+    /**
+     * Places a commit within the first free bucket of its probe sequence.
+     *
+     * @param commit a commit index.
+     */
+    private void place(int commit) {
+      int mask = this.table.length - 1;
+      int index = hash(this.ids, commit * ObjectId.LENGTH) & mask;
+
+      while (this.table[index] != 0) {
+        index = (index + 1) & mask;
+      }
+
+      this.table[index] = commit + 1;
+    }
+
+    /**
+     * Ensures that the commit arrays hold at least the specified amount of commits.
+     *
+     * @param capacity a minimum capacity.
+     */
+    private void ensureCapacity(int capacity) {
+      if (capacity <= this.authors.length) {
+        return;
+      }
+
+      int length = this.authors.length * 2;
+      this.ids = Arrays.copyOf(this.ids, length * ObjectId.LENGTH);
+      this.treeIds = Arrays.copyOf(this.treeIds, length * ObjectId.LENGTH);
+      this.authors = Arrays.copyOf(this.authors, length);
+      this.timestamps = Arrays.copyOf(this.timestamps, length);
+      this.commitPushes = Arrays.copyOf(this.commitPushes, length);
+    }
+  }
+
+  /**
+   * Represents the commits which touched a single path within a segment.
+   */
+  private static final class Postings {
+
+    private int[] commits = new int[4];
+    private int size;
+
+    private void add(int commit) {
+      if (this.size == this.commits.length) {
+        this.commits = Arrays.copyOf(this.commits, this.size * 2);
+      }
+
+      this.commits[this.size++] = commit;
+    }
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.index;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.time.Instant;
+import java.util.Objects;
+import org.basinmc.stormdrain.resource.Commit.Author;
+
+/**
+ * Represents a commit which has been recorded within an index along with the push which
+ * introduced it.
+ */
+public final class IndexedCommit {
+
+  private final String id;
+  private final String treeId;
+  private final Author author;
+  private final Instant timestamp;
+  private final IndexedPush push;
+
+  public IndexedCommit(@NonNull String id, @NonNull String treeId, @NonNull Author author,
+      @NonNull Instant timestamp, @NonNull IndexedPush push) {
+    this.id = id;
+    this.treeId = treeId;
+    this.author = author;
+    this.timestamp = timestamp;
+    this.push = push;
+  }
+
+  /**
+   * Retrieves the commit hash.
+   *
+   * @return a commit hash.
+   */
+  @NonNull
+  public String getId() {
+    return this.id;
+  }
+
+  /**
+   * Retrieves the tree hash.
+   *
+   * @return a tree hash.
+   */
+  @NonNull
+  public String getTreeId() {
+    return this.treeId;
+  }
+
+  /**
+   * Retrieves the author of the commit.
+   *
+   * @return an author.
+   */
+  @NonNull
+  public Author getAuthor() {
+    return this.author;
+  }
+
+  /**
+   * Retrieves the commit timestamp (with millisecond precision).
+   *
+   * @return a timestamp.
+   */
+  @NonNull
+  public Instant getTimestamp() {
+    return this.timestamp;
+  }
+
+  /**
+   * Retrieves the push which introduced the commit.
+   *
+   * @return a push.
+   */
+  @NonNull
+  public IndexedPush getPush() {
+    return this.push;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof IndexedCommit)) {
+      return false;
+    }
+    IndexedCommit that = (IndexedCommit) o;
+    return Objects.equals(this.id, that.id) &&
+        Objects.equals(this.treeId, that.treeId) &&
+        Objects.equals(this.author, that.author) &&
+        Objects.equals(this.timestamp, that.timestamp) &&
+        Objects.equals(this.push, that.push);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int hashCode() {
+    return Objects.hash(this.id, this.treeId, this.author, this.timestamp, this.push);
+  }
+}
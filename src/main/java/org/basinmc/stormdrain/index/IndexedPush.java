@@ -0,0 +1,120 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.index;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Represents a push which has been recorded within an index.
+ */
+public final class IndexedPush {
+
+  private final UUID deliveryId;
+  private final long repositoryId;
+  private final String repositoryName;
+  private final String reference;
+  private final Instant receivedAt;
+
+  public IndexedPush(@NonNull UUID deliveryId, long repositoryId,
+      @NonNull String repositoryName, @NonNull String reference, @NonNull Instant receivedAt) {
+    this.deliveryId = deliveryId;
+    this.repositoryId = repositoryId;
+    this.repositoryName = repositoryName;
+    this.reference = reference;
+    this.receivedAt = receivedAt;
+  }
+
+  /**
+   * Retrieves the identifier of the delivery which carried this push.
+   *
+   * @return a delivery identifier.
+   */
+  @NonNull
+  public UUID getDeliveryId() {
+    return this.deliveryId;
+  }
+
+  /**
+   * Retrieves the numeric identifier of the repository to which the commits have been pushed.
+   *
+   * @return a repository identifier.
+   */
+  public long getRepositoryId() {
+    return this.repositoryId;
+  }
+
+  /**
+   * Retrieves the full name of the repository to which the commits have been pushed.
+   *
+   * @return a repository name.
+   */
+  @NonNull
+  public String getRepositoryName() {
+    return this.repositoryName;
+  }
+
+  /**
+   * Retrieves the reference to which the commits have been pushed.
+   *
+   * @return a reference.
+   */
+  @NonNull
+  public String getReference() {
+    return this.reference;
+  }
+
+  /**
+   * Retrieves the time at which the push has been received.
+   *
+   * @return a timestamp.
+   */
+  @NonNull
+  public Instant getReceivedAt() {
+    return this.receivedAt;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof IndexedPush)) {
+      return false;
+    }
+    IndexedPush that = (IndexedPush) o;
+    return this.repositoryId == that.repositoryId &&
+        Objects.equals(this.deliveryId, that.deliveryId) &&
+        Objects.equals(this.repositoryName, that.repositoryName) &&
+        Objects.equals(this.reference, that.reference) &&
+        Objects.equals(this.receivedAt, that.receivedAt);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int hashCode() {
+    return Objects.hash(this.deliveryId, this.repositoryId, this.repositoryName, this.reference,
+        this.receivedAt);
+  }
+}
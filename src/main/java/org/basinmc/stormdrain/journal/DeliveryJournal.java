@@ -0,0 +1,709 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.journal;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+import org.basinmc.stormdrain.PayloadType;
+import org.basinmc.stormdrain.cluster.Delivery;
+import org.basinmc.stormdrain.metrics.MetricSource;
+import org.basinmc.stormdrain.metrics.MetricsReporter;
+
+/**
+ * <p>Provides a durable append-only log of raw deliveries.</p>
+ *
+ * <p>Deliveries are appended to a sequence of segment files within a directory. Each segment is
+ * named after the offset of its first entry while offsets are the byte positions of entries within
+ * the journal as a whole. Once {@link #append(Delivery)} returns, the delivery has been flushed to
+ * the storage device and it is thus safe to acknowledge the delivery to GitHub.</p>
+ *
+ * <p>Flushes are shared between concurrent appends (group commit): While a flush is in progress,
+ * further deliveries are merely collected in memory. Once the flush completes, one of the waiting
+ * threads writes and flushes the entire batch on behalf of all others. Appends thus never wait for
+ * more than two flushes regardless of the amount of concurrently received deliveries.</p>
+ *
+ * <p>Every entry carries a checksum. When a journal is opened, partially written entries at the
+ * end of the most recent segment (for instance due to a crash during an append) are discarded.</p>
+ *
+ * <p>Segments are reference counted while being read. Segments which are deleted while a read is
+ * in progress thus remain open until the read completes.</p>
+ */
+public class DeliveryJournal implements MetricSource, AutoCloseable {
+
+  /**
+   * Defines the default maximum size of a single segment (in bytes).
+   */
+  public static final long DEFAULT_SEGMENT_SIZE = 64L * 1024 * 1024;
+
+  /**
+   * Defines the name of the counter which tracks the amount of appended deliveries.
+   */
+  public static final String APPEND_METRIC = "stormdrain.journal.appends";
+
+  /**
+   * Defines the name of the counter which tracks the amount of appended bytes.
+   */
+  public static final String BYTE_METRIC = "stormdrain.journal.bytes";
+
+  /**
+   * Defines the name of the counter which tracks the amount of flushes.
+   */
+  public static final String SYNC_METRIC = "stormdrain.journal.syncs";
+
+  private static final String SEGMENT_SUFFIX = ".log";
+  private static final int LENGTH_SIZE = 4;
+  private static final int HEADER_SIZE = 4 + 16 + 1;
+  private static final int INITIAL_BATCH_SIZE = 64 * 1024;
+
+  /**
+   * Defines the largest entry which is accepted (GitHub caps payloads at 25 MiB).
+   */
+  private static final int MAXIMUM_RECORD_SIZE = HEADER_SIZE + 255 + 32 * 1024 * 1024;
+
+  private final Path directory;
+  private final long segmentSize;
+  private final Map<String, String> tags;
+  private final ConcurrentNavigableMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+
+  private final Object appendLock = new Object();
+  private final Object syncLock = new Object();
+  private final CRC32 checksum = new CRC32();
+  private ByteBuffer pending = ByteBuffer.allocate(INITIAL_BATCH_SIZE);
+  private ByteBuffer spare = ByteBuffer.allocate(INITIAL_BATCH_SIZE);
+  private long position;
+  private Segment active;
+  private volatile long durablePosition;
+  private volatile boolean closed;
+  private boolean flushing;
+  private IOException failure;
+
+  private final LongAdder appends = new LongAdder();
+  private final LongAdder bytes = new LongAdder();
+  private final LongAdder syncs = new LongAdder();
+
+  public DeliveryJournal(@NonNull Path directory) throws IOException {
+    this(directory, DEFAULT_SEGMENT_SIZE);
+  }
+
+  public DeliveryJournal(@NonNull Path directory, long segmentSize) throws IOException {
+    if (segmentSize < 1024) {
+      throw new IllegalArgumentException("Illegal segment size: Must be at least 1024 bytes");
+    }
+
+    this.directory = directory;
+    this.segmentSize = segmentSize;
+    this.tags = Collections.singletonMap("journal", String.valueOf(directory.getFileName()));
+
+    Files.createDirectories(directory);
+    try (DirectoryStream<Path> stream = Files
+        .newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+      for (Path path : stream) {
+        String name = path.getFileName().toString();
+
+        try {
+          long base = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+          this.segments.put(base, new Segment(base, path));
+        } catch (NumberFormatException ignore) {
+        }
+      }
+    }
+
+    if (this.segments.isEmpty()) {
+      this.segments.put(0L, this.openSegment(0));
+    }
+
+    this.active = this.segments.lastEntry().getValue();
+    this.recover(this.active);
+    this.position = this.active.base + this.active.size;
+    this.durablePosition = this.position;
+  }
+
+  /**
+   * Retrieves the directory in which this journal stores its segments.
+   *
+   * @return a directory.
+   */
+  @NonNull
+  public Path getDirectory() {
+    return this.directory;
+  }
+
+  /**
+   * Retrieves the offset of the oldest retained entry.
+   *
+   * @return an offset.
+   */
+  public long getStartOffset() {
+    return this.segments.firstKey();
+  }
+
+  /**
+   * Retrieves the offset directly following the most recent durable entry.
+   *
+   * @return an offset.
+   */
+  public long getEndOffset() {
+    return this.durablePosition;
+  }
+
+  /**
+   * Appends a delivery to the journal and blocks until it has been flushed to the storage device.
+   *
+   * @param delivery a delivery.
+   * @return the offset of the new entry.
+   * @throws IOException when writing or flushing fails or the journal has been closed.
+   */
+  public long append(@NonNull Delivery delivery) throws IOException {
+    byte[] type = delivery.getType().name().getBytes(StandardCharsets.US_ASCII);
+    byte[] body = delivery.getBody();
+    if ((long) HEADER_SIZE + type.length + body.length > MAXIMUM_RECORD_SIZE) {
+      throw new IllegalArgumentException(
+          "Illegal delivery: Exceeds maximum entry size of " + MAXIMUM_RECORD_SIZE + " bytes");
+    }
+
+    int length = HEADER_SIZE + type.length + body.length;
+    long offset;
+
+    synchronized (this.appendLock) {
+      this.ensureOpen();
+
+      if (this.pending.remaining() < LENGTH_SIZE + length) {
+        ByteBuffer replacement = ByteBuffer.allocate(Math.max(this.pending.capacity() * 2,
+            this.pending.position() + LENGTH_SIZE + length));
+        this.pending.flip();
+        this.pending = replacement.put(this.pending);
+      }
+
+      int start = this.pending.position();
+      UUID deliveryId = delivery.getDeliveryId();
+      this.pending.putInt(length)
+          .putInt(0)
+          .putLong(deliveryId.getMostSignificantBits())
+          .putLong(deliveryId.getLeastSignificantBits())
+          .put((byte) type.length)
+          .put(type)
+          .put(body);
+
+      this.checksum.reset();
+      this.checksum.update(this.pending.array(), start + LENGTH_SIZE + 4,
+          LENGTH_SIZE + length - LENGTH_SIZE - 4);
+      this.pending.putInt(start + LENGTH_SIZE, (int) this.checksum.getValue());
+
+      offset = this.position;
+      this.position += LENGTH_SIZE + length;
+    }
+
+    this.sync(offset + LENGTH_SIZE + length);
+    return offset;
+  }
+
+  /**
+   * Reads a batch of durable entries beginning at the specified offset.
+   *
+   * @param offset an entry offset (as returned by {@link #append(Delivery)} or {@link
+   * JournalEntry#getNextOffset()}).
+   * @param maximum the maximum amount of entries to return.
+   * @return a list of entries (empty if no further entries are available).
+   * @throws IOException when reading fails, the offset does not refer to an entry or the entry is
+   * corrupted.
+   */
+  @NonNull
+  public List<JournalEntry> read(long offset, int maximum) throws IOException {
+    this.ensureOpen();
+
+    long end = this.durablePosition;
+    if (offset < this.getStartOffset() || offset > end) {
+      throw new IllegalArgumentException(
+          "Illegal offset: Must be within " + this.getStartOffset() + " and " + end);
+    }
+
+    List<JournalEntry> entries = new ArrayList<>();
+    ByteBuffer length = ByteBuffer.allocate(LENGTH_SIZE);
+
+    while (offset < end && entries.size() < maximum) {
+      Segment segment = this.acquire(offset);
+
+      try {
+        long position = offset - segment.base;
+
+        if (position >= segment.size) {
+          Long next = this.segments.higherKey(segment.base);
+          if (next == null) {
+            break;
+          }
+
+          offset = next;
+          continue;
+        }
+
+        length.clear();
+        readFully(segment.channel, length, position);
+
+        int recordLength = length.getInt(0);
+        if (recordLength < HEADER_SIZE || recordLength > MAXIMUM_RECORD_SIZE
+            || position + LENGTH_SIZE + recordLength > segment.size) {
+          throw new IOException("Corrupted entry at offset " + offset + ": Illegal length "
+              + recordLength);
+        }
+
+        byte[] record = new byte[recordLength];
+        readFully(segment.channel, ByteBuffer.wrap(record), position + LENGTH_SIZE);
+
+        Delivery delivery = decode(record);
+        if (delivery == null) {
+          throw new IOException("Corrupted entry at offset " + offset);
+        }
+
+        long next = offset + LENGTH_SIZE + record.length;
+        entries.add(new JournalEntry(offset, next, delivery));
+        offset = next;
+      } finally {
+        segment.release();
+      }
+    }
+
+    return entries;
+  }
+
+  /**
+   * Retrieves the segment which contains the specified offset and retains it until it is
+   * released by the caller.
+   *
+   * @param offset an offset.
+   * @return a segment.
+   */
+  @NonNull
+  private Segment acquire(long offset) {
+    Map.Entry<Long, Segment> entry = this.segments.floorEntry(offset);
+    if (entry == null || !entry.getValue().retain()) {
+      // the segment has been deleted since the offset was validated
+      throw new IllegalArgumentException(
+          "Illegal offset: Entries before " + this.getStartOffset() + " have been deleted");
+    }
+
+    return entry.getValue();
+  }
+
+  /**
+   * Deletes all segments which exclusively contain entries before the specified offset (for
+   * instance once all consumer groups have processed them). Segments which are being read
+   * concurrently are closed once their reads complete.
+   *
+   * @param offset an offset.
+   * @return the amount of deleted segments.
+   * @throws IOException when deleting a segment fails.
+   */
+  public synchronized int deleteBefore(long offset) throws IOException {
+    int deleted = 0;
+
+    while (true) {
+      Map.Entry<Long, Segment> first = this.segments.firstEntry();
+      Long next = this.segments.higherKey(first.getKey());
+
+      if (next == null || next > offset) {
+        return deleted;
+      }
+
+      this.segments.remove(first.getKey());
+      try {
+        Files.deleteIfExists(first.getValue().path);
+      } finally {
+        first.getValue().release();
+      }
+      ++deleted;
+    }
+  }
+
+  /**
+   * Writes and flushes all pending entries up to the specified position unless a concurrent flush
+   * has already done so.
+   *
+   * @param end a position.
+   * @throws IOException when writing or flushing fails.
+   */
+  private void sync(long end) throws IOException {
+    synchronized (this.syncLock) {
+      while (true) {
+        if (this.failure != null) {
+          throw new IOException("Journal has failed", this.failure);
+        }
+        if (this.durablePosition >= end) {
+          return;
+        }
+        if (!this.flushing) {
+          break;
+        }
+
+        try {
+          this.syncLock.wait();
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+          throw new InterruptedIOException("Interrupted while awaiting flush");
+        }
+      }
+
+      this.flushing = true;
+    }
+
+    this.flush();
+  }
+
+  /**
+   * Writes and flushes all pending entries on behalf of all waiting threads.
+   *
+   * @throws IOException when writing or flushing fails.
+   */
+  private void flush() throws IOException {
+    ByteBuffer batch;
+    long target;
+    synchronized (this.appendLock) {
+      batch = this.pending;
+      target = this.position;
+
+      this.pending = this.spare;
+      this.spare = batch;
+    }
+
+    IOException failure = null;
+    try {
+      batch.flip();
+      this.write(batch);
+      this.active.channel.force(false);
+    } catch (IOException ex) {
+      // entries of the failed batch are lost and thus any further entry would be misplaced
+      failure = ex;
+      throw ex;
+    } finally {
+      batch.clear();
+
+      synchronized (this.syncLock) {
+        if (failure == null) {
+          this.durablePosition = target;
+          this.syncs.increment();
+        } else {
+          this.failure = failure;
+        }
+
+        this.flushing = false;
+        this.syncLock.notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Writes a batch of encoded entries to the active segment and begins new segments as necessary.
+   *
+   * @param batch a batch of entries.
+   * @throws IOException when writing fails.
+   */
+  private void write(@NonNull ByteBuffer batch) throws IOException {
+    while (batch.hasRemaining()) {
+      int start = batch.position();
+      int end = start;
+      long size = this.active.size;
+
+      while (end < batch.limit()) {
+        int length = LENGTH_SIZE + batch.getInt(end);
+        if (size != 0 && size + length > this.segmentSize) {
+          break;
+        }
+
+        size += length;
+        end += length;
+        this.appends.increment();
+        this.bytes.add(length);
+      }
+
+      if (end == start) {
+        this.roll();
+        continue;
+      }
+
+      ByteBuffer slice = batch.duplicate();
+      slice.limit(end);
+      while (slice.hasRemaining()) {
+        this.active.channel.write(slice);
+      }
+
+      this.active.size = size;
+      batch.position(end);
+    }
+  }
+
+  /**
+   * Flushes the active segment and begins a new segment at its end.
+   *
+   * @throws IOException when flushing or creating the segment fails.
+   */
+  private void roll() throws IOException {
+    this.active.channel.force(false);
+
+    Segment segment = this.openSegment(this.active.base + this.active.size);
+    this.segments.put(segment.base, segment);
+    this.active = segment;
+  }
+
+  /**
+   * Discards partially written entries at the end of the specified segment.
+   *
+   * @param segment a segment.
+   * @throws IOException when reading or truncating the segment fails.
+   */
+  private void recover(@NonNull Segment segment) throws IOException {
+    FileChannel channel = segment.channel;
+    ByteBuffer length = ByteBuffer.allocate(LENGTH_SIZE);
+    long size = channel.size();
+    long position = 0;
+
+    while (position + LENGTH_SIZE <= size) {
+      length.clear();
+      readFully(channel, length, position);
+
+      int recordLength = length.getInt(0);
+      if (recordLength < HEADER_SIZE || recordLength > MAXIMUM_RECORD_SIZE
+          || position + LENGTH_SIZE + recordLength > size) {
+        break;
+      }
+
+      byte[] record = new byte[recordLength];
+      readFully(channel, ByteBuffer.wrap(record), position + LENGTH_SIZE);
+      if (decode(record) == null) {
+        break;
+      }
+
+      position += LENGTH_SIZE + recordLength;
+    }
+
+    if (position != size) {
+      channel.truncate(position);
+      channel.force(true);
+    }
+
+    channel.position(position);
+    segment.size = position;
+  }
+
+  /**
+   * Creates a new segment and flushes the directory entry of its file to the storage device so
+   * that the segment survives a crash along with the entries which are written to it.
+   *
+   * @param base the offset of the first entry within the segment.
+   * @return a segment.
+   * @throws IOException when creating the segment fails.
+   */
+  @NonNull
+  private Segment openSegment(long base) throws IOException {
+    Segment segment = new Segment(base,
+        this.directory.resolve(String.format("%020d%s", base, SEGMENT_SUFFIX)));
+
+    try {
+      this.syncDirectory();
+    } catch (IOException ex) {
+      segment.channel.close();
+      throw ex;
+    }
+
+    return segment;
+  }
+
+  /**
+   * Flushes the journal directory to the storage device.
+   *
+   * @throws IOException when flushing fails.
+   */
+  private void syncDirectory() throws IOException {
+    syncDirectory(this.directory);
+  }
+
+  /**
+   * Flushes the specified directory to the storage device. Directories cannot be opened on
+   * non-POSIX file systems (e.g. on Windows) where this method has no effect.
+   *
+   * @param directory a directory.
+   * @throws IOException when flushing fails.
+   */
+  static void syncDirectory(@NonNull Path directory) throws IOException {
+    if (!directory.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+      return;
+    }
+
+    try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+      channel.force(true);
+    }
+  }
+
+  private void ensureOpen() throws IOException {
+    if (this.closed) {
+      throw new IOException("Journal has been closed");
+    }
+  }
+
+  /**
+   * Decodes a single entry (excluding its length prefix).
+   *
+   * @param record an encoded entry.
+   * @return a delivery or null if the entry is corrupted.
+   */
+  private static Delivery decode(@NonNull byte[] record) {
+    if (record.length < HEADER_SIZE) {
+      return null;
+    }
+
+    ByteBuffer buffer = ByteBuffer.wrap(record);
+    int expected = buffer.getInt();
+
+    CRC32 checksum = new CRC32();
+    checksum.update(record, 4, record.length - 4);
+    if ((int) checksum.getValue() != expected) {
+      return null;
+    }
+
+    UUID deliveryId = new UUID(buffer.getLong(), buffer.getLong());
+    int typeLength = buffer.get();
+    if (typeLength < 0 || typeLength > buffer.remaining()) {
+      return null;
+    }
+
+    PayloadType type;
+    try {
+      type = PayloadType.valueOf(
+          new String(record, buffer.position(), typeLength, StandardCharsets.US_ASCII));
+    } catch (IllegalArgumentException ex) {
+      return null;
+    }
+
+    int bodyOffset = HEADER_SIZE + typeLength;
+    byte[] body = new byte[record.length - bodyOffset];
+    System.arraycopy(record, bodyOffset, body, 0, body.length);
+    return new Delivery(deliveryId, type, body);
+  }
+
+  private static void readFully(@NonNull FileChannel channel, @NonNull ByteBuffer buffer,
+      long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      int length = channel.read(buffer, position);
+      if (length == -1) {
+        throw new EOFException("Unexpected end of segment");
+      }
+
+      position += length;
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void report(@NonNull MetricsReporter reporter) {
+    reporter.counter(APPEND_METRIC, this.tags, this.appends.sum());
+    reporter.counter(BYTE_METRIC, this.tags, this.bytes.sum());
+    reporter.counter(SYNC_METRIC, this.tags, this.syncs.sum());
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void close() throws IOException {
+    synchronized (this.syncLock) {
+      synchronized (this.appendLock) {
+        if (this.closed) {
+          return;
+        }
+
+        this.closed = true;
+      }
+    }
+
+    try {
+      // complete appends which are still waiting for their flush
+      this.sync(Long.MAX_VALUE);
+    } finally {
+      for (Segment segment : this.segments.values()) {
+        segment.release();
+      }
+    }
+  }
+
+  /**
+   * Represents a single segment file.
+   */
+  private static final class Segment {
+
+    private final long base;
+    private final Path path;
+    private final FileChannel channel;
+    private final AtomicInteger references = new AtomicInteger(1);
+    private volatile long size;
+
+    private Segment(long base, @NonNull Path path) throws IOException {
+      this.base = base;
+      this.path = path;
+      this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+          StandardOpenOption.WRITE);
+      this.size = this.channel.size();
+    }
+
+    /**
+     * Retains this segment unless it has already been released by all of its holders.
+     *
+     * @return true if the segment has been retained, false otherwise.
+     */
+    private boolean retain() {
+      int current;
+
+      do {
+        current = this.references.get();
+        if (current == 0) {
+          return false;
+        }
+      } while (!this.references.compareAndSet(current, current + 1));
+
+      return true;
+    }
+
+    /**
+     * Releases this segment and closes its channel once no holder remains.
+     *
+     * @throws IOException when closing the channel fails.
+     */
+    private void release() throws IOException {
+      if (this.references.decrementAndGet() == 0) {
+        this.channel.close();
+      }
+    }
+  }
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.journal;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import org.basinmc.stormdrain.cluster.DeliveryHandler;
+import org.basinmc.stormdrain.metrics.MetricSource;
+import org.basinmc.stormdrain.metrics.MetricsReporter;
+
+/**
+ * <p>Passes the entries of a journal to a handler with at-least-once semantics.</p>
+ *
+ * <p>Each consumer belongs to a named group which tracks its own offset within the journal. The
+ * offset is checkpointed to the journal directory after every batch and is thus retained across
+ * restarts. Entries which have been processed but not yet checkpointed when the process dies will
+ * be passed to the handler again.</p>
+ *
+ * <p>When the handler fails, the same entry is retried with an exponentially growing delay as
+ * defined by the {@link RetryPolicy}. Entries are processed in order and thus a failing entry holds
+ * back the remaining entries of its group until it either succeeds or exhausts its attempts, at
+ * which point it is moved to the dead letter journal.</p>
+ *
+ * <p>Consumers do not spawn threads on their own. Instead, {@link #poll(int)} is expected to be
+ * invoked periodically (for instance by a scheduled executor).</p>
+ */
+public class JournalConsumer implements MetricSource {
+
+  /**
+   * Defines the name of the counter which tracks the amount of consumed deliveries.
+   */
+  public static final String DELIVERY_METRIC = "stormdrain.journal.consumer.deliveries";
+
+  /**
+   * Defines the name of the gauge which tracks the amount of unprocessed bytes.
+   */
+  public static final String LAG_METRIC = "stormdrain.journal.consumer.lag";
+
+  private static final Pattern GROUP_PATTERN = Pattern.compile("[A-Za-z0-9._-]+");
+
+  private final DeliveryJournal journal;
+  private final String group;
+  private final DeliveryHandler handler;
+  private final RetryPolicy retryPolicy;
+  private final DeliveryJournal deadLetters;
+  private final Path offsetFile;
+
+  private long offset;
+  private int failedAttempts;
+  private long retryDeadline;
+
+  private final LongAdder processedDeliveries = new LongAdder();
+  private final LongAdder retriedDeliveries = new LongAdder();
+  private final LongAdder deadLetteredDeliveries = new LongAdder();
+
+  public JournalConsumer(@NonNull DeliveryJournal journal, @NonNull String group,
+      @NonNull DeliveryHandler handler, @NonNull RetryPolicy retryPolicy,
+      @NonNull DeliveryJournal deadLetters) throws IOException {
+    if (!GROUP_PATTERN.matcher(group).matches()) {
+      throw new IllegalArgumentException(
+          "Illegal group: Must consist of alphanumeric characters, dots, dashes or underscores");
+    }
+    if (journal == deadLetters) {
+      throw new IllegalArgumentException(
+          "Illegal dead letter journal: Must differ from consumed journal");
+    }
+
+    this.journal = journal;
+    this.group = group;
+    this.handler = handler;
+    this.retryPolicy = retryPolicy;
+    this.deadLetters = deadLetters;
+    this.offsetFile = journal.getDirectory().resolve("groups").resolve(group + ".offset");
+
+    long offset = journal.getStartOffset();
+    if (Files.exists(this.offsetFile)) {
+      offset = Math.max(offset, ByteBuffer.wrap(Files.readAllBytes(this.offsetFile)).getLong());
+    }
+    this.offset = offset;
+  }
+
+  /**
+   * Retrieves the name of the group to which this consumer belongs.
+   *
+   * @return a group name.
+   */
+  @NonNull
+  public String getGroup() {
+    return this.group;
+  }
+
+  /**
+   * Retrieves the offset of the next entry to be processed.
+   *
+   * @return an offset.
+   */
+  public synchronized long getOffset() {
+    return this.offset;
+  }
+
+  /**
+   * Retrieves the amount of durable bytes which have yet to be processed by this group.
+   *
+   * @return an amount of bytes.
+   */
+  public synchronized long getLag() {
+    return Math.max(0, this.journal.getEndOffset() - this.offset);
+  }
+
+  /**
+   * Passes up to the specified amount of pending entries to the handler and checkpoints the new
+   * offset.
+   *
+   * @param maximum the maximum amount of entries to process.
+   * @return the amount of entries which have been processed or moved to the dead letter journal
+   * (zero when no entries are pending or a failed entry is awaiting its retry).
+   * @throws IOException when reading the journal or writing the checkpoint fails.
+   */
+  public synchronized int poll(int maximum) throws IOException {
+    if (this.failedAttempts != 0 && System.nanoTime() - this.retryDeadline < 0) {
+      return 0;
+    }
+
+    List<JournalEntry> entries = this.journal.read(this.offset, maximum);
+    int completed = 0;
+
+    try {
+      for (JournalEntry entry : entries) {
+        try {
+          this.handler.handle(entry.getDelivery());
+          this.processedDeliveries.increment();
+        } catch (IOException | RuntimeException ex) {
+          if (++this.failedAttempts < this.retryPolicy.getMaximumAttempts()) {
+            this.retryDeadline = System.nanoTime()
+                + this.retryPolicy.getDelay(this.failedAttempts).toNanos();
+            this.retriedDeliveries.increment();
+            break;
+          }
+
+          this.deadLetters.append(entry.getDelivery());
+          this.deadLetteredDeliveries.increment();
+        }
+
+        this.failedAttempts = 0;
+        this.offset = entry.getNextOffset();
+        ++completed;
+      }
+    } finally {
+      if (completed != 0) {
+        this.checkpoint();
+      }
+    }
+
+    return completed;
+  }
+
+  /**
+   * Durably replaces the stored offset of this group.
+   *
+   * @throws IOException when writing the checkpoint fails.
+   */
+  private void checkpoint() throws IOException {
+    Path directory = this.offsetFile.getParent();
+    Path temporaryFile = directory.resolve(this.group + ".offset.tmp");
+    Files.createDirectories(directory);
+
+    try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      ByteBuffer buffer = ByteBuffer.allocate(8).putLong(0, this.offset);
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      channel.force(false);
+    }
+
+    Files.move(temporaryFile, this.offsetFile, StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+
+    // the rename itself is only durable once the directory entry has been flushed
+    DeliveryJournal.syncDirectory(directory);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void report(@NonNull MetricsReporter reporter) {
+    reporter.counter(DELIVERY_METRIC, this.tags("processed"), this.processedDeliveries.sum());
+    reporter.counter(DELIVERY_METRIC, this.tags("retried"), this.retriedDeliveries.sum());
+    reporter.counter(DELIVERY_METRIC, this.tags("dead_lettered"),
+        this.deadLetteredDeliveries.sum());
+    reporter.gauge(LAG_METRIC, this.tags(null), this.getLag());
+  }
+
+  @NonNull
+  private Map<String, String> tags(@Nullable String result) {
+    Map<String, String> tags = new HashMap<>();
+    tags.put("group", this.group);
+    if (result != null) {
+      tags.put("result", result);
+    }
+    return tags;
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.journal;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.Objects;
+import org.basinmc.stormdrain.cluster.Delivery;
+
+/**
+ * Represents a single delivery which has been read back from a journal along with its position.
+ */
+public final class JournalEntry {
+
+  private final long offset;
+  private final long nextOffset;
+  private final Delivery delivery;
+
+  public JournalEntry(long offset, long nextOffset, @NonNull Delivery delivery) {
+    this.offset = offset;
+    this.nextOffset = nextOffset;
+    this.delivery = delivery;
+  }
+
+  /**
+   * Retrieves the offset at which this entry has been stored.
+   *
+   * @return an offset.
+   */
+  public long getOffset() {
+    return this.offset;
+  }
+
+  /**
+   * Retrieves the offset of the entry which directly follows this entry.
+   *
+   * @return an offset.
+   */
+  public long getNextOffset() {
+    return this.nextOffset;
+  }
+
+  /**
+   * Retrieves the stored delivery.
+   *
+   * @return a delivery.
+   */
+  @NonNull
+  public Delivery getDelivery() {
+    return this.delivery;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || this.getClass() != o.getClass()) {
+      return false;
+    }
+    JournalEntry that = (JournalEntry) o;
+    return this.offset == that.offset &&
+        this.nextOffset == that.nextOffset &&
+        Objects.equals(this.delivery, that.delivery);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int hashCode() {
+    return Objects.hash(this.offset, this.nextOffset, this.delivery);
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.journal;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Defines how often and at which intervals a failed delivery is retried before it is considered a
+ * poison payload and moved to the dead letter journal.
+ */
+public final class RetryPolicy {
+
+  private final int maximumAttempts;
+  private final Duration initialDelay;
+  private final Duration maximumDelay;
+
+  public RetryPolicy(int maximumAttempts, @NonNull Duration initialDelay,
+      @NonNull Duration maximumDelay) {
+    if (maximumAttempts < 1) {
+      throw new IllegalArgumentException("Illegal amount of attempts: Must be at least 1");
+    }
+    if (initialDelay.isNegative() || maximumDelay.compareTo(initialDelay) < 0) {
+      throw new IllegalArgumentException(
+          "Illegal delay: Initial delay must be positive and less or equal to maximum delay");
+    }
+
+    this.maximumAttempts = maximumAttempts;
+    this.initialDelay = initialDelay;
+    this.maximumDelay = maximumDelay;
+  }
+
+  /**
+   * Retrieves the total amount of attempts (including the initial attempt) per delivery.
+   *
+   * @return an amount of attempts.
+   */
+  public int getMaximumAttempts() {
+    return this.maximumAttempts;
+  }
+
+  /**
+   * Retrieves the delay which is applied after the specified amount of failed attempts.
+   *
+   * @param failedAttempts an amount of failed attempts (at least 1).
+   * @return a delay.
+   */
+  @NonNull
+  public Duration getDelay(int failedAttempts) {
+    long delay = this.initialDelay.toNanos();
+    long maximum = this.maximumDelay.toNanos();
+
+    for (int i = 1; i < failedAttempts && delay < maximum; ++i) {
+      delay <<= 1;
+    }
+
+    return Duration.ofNanos(Math.min(delay, maximum));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || this.getClass() != o.getClass()) {
+      return false;
+    }
+    RetryPolicy that = (RetryPolicy) o;
+    return this.maximumAttempts == that.maximumAttempts &&
+        Objects.equals(this.initialDelay, that.initialDelay) &&
+        Objects.equals(this.maximumDelay, that.maximumDelay);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int hashCode() {
+    return Objects.hash(this.maximumAttempts, this.initialDelay, this.maximumDelay);
+  }
+}
@@ -0,0 +1,634 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.membership;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import org.basinmc.stormdrain.event.MemberEvent;
+import org.basinmc.stormdrain.event.MembershipEvent;
+import org.basinmc.stormdrain.event.OrganizationBlockEvent;
+import org.basinmc.stormdrain.event.OrganizationEvent;
+import org.basinmc.stormdrain.event.TeamAddEvent;
+import org.basinmc.stormdrain.event.TeamEvent;
+import org.basinmc.stormdrain.metrics.MetricSource;
+import org.basinmc.stormdrain.metrics.MetricsReporter;
+import org.basinmc.stormdrain.resource.Membership;
+import org.basinmc.stormdrain.resource.ResourceOwner;
+import org.basinmc.stormdrain.resource.ResourceOwner.Type;
+import org.basinmc.stormdrain.utility.PersistentLong2ObjectMap;
+
+/**
+ * <p>Maintains the graph of organizations, teams, users and repositories from membership related
+ * events.</p>
+ *
+ * <p>Every relation is stored as a pair of adjacency tables (one per direction) which map the
+ * numeric identifier of a node to a sorted array of the numeric identifiers of its neighbours.
+ * The graph as a whole is an immutable {@link Snapshot}: Adjacency tables are persistent hash
+ * tries which share all unmodified nodes (and adjacency arrays) with their previous version. An
+ * update thus only copies the paths to the nodes it modifies and publishes the result as the new
+ * current snapshot. Readers never acquire a lock and are never blocked by writers while writers
+ * are serialized among each other.</p>
+ *
+ * <p>Team memberships imply a membership within the organization of the team. Removing a member
+ * from an organization also removes it from all teams of the organization. Teams which are added
+ * to repositories via {@link TeamAddEvent} are attributed to the organization which owns the
+ * repository.</p>
+ */
+public class MembershipGraph implements MetricSource {
+
+  /**
+   * Defines the name of the gauge which tracks the amount of edges per relation.
+   */
+  public static final String EDGE_METRIC = "stormdrain.membership.edges";
+
+  /**
+   * Defines the name of the counter which tracks the amount of applied updates.
+   */
+  public static final String UPDATE_METRIC = "stormdrain.membership.updates";
+
+  private volatile Snapshot snapshot = new Snapshot(0, emptyRelations());
+  private final LongAdder updates = new LongAdder();
+
+  @NonNull
+  private static Map<RelationType, Relation> emptyRelations() {
+    Map<RelationType, Relation> relations = new EnumMap<>(RelationType.class);
+    for (RelationType type : RelationType.values()) {
+      relations.put(type, new Relation());
+    }
+
+    return relations;
+  }
+
+  /**
+   * Retrieves the current state of the graph. Snapshots are immutable and thus permit consistent
+   * evaluation of multiple queries.
+   *
+   * @return a snapshot.
+   */
+  @NonNull
+  public Snapshot getSnapshot() {
+    return this.snapshot;
+  }
+
+  /**
+   * Records the addition or removal of a repository collaborator.
+   *
+   * @param event a member event.
+   */
+  public synchronized void record(@NonNull MemberEvent event) {
+    long repositoryId = event.getRepository().getNumericId();
+    long userId = event.getMember().getNumericId();
+
+    Transaction transaction = new Transaction();
+    switch (event.getAction()) {
+      case ADDED:
+        transaction.edit(RelationType.COLLABORATOR).add(repositoryId, userId);
+        break;
+      case DELETED:
+        transaction.edit(RelationType.COLLABORATOR).remove(repositoryId, userId);
+        break;
+      default:
+        return;
+    }
+    transaction.commit();
+  }
+
+  /**
+   * Records the addition or removal of a team member.
+   *
+   * @param event a membership event.
+   */
+  public synchronized void record(@NonNull MembershipEvent event) {
+    long organizationId = event.getOrganization().getNumericId();
+    long teamId = event.getTeam().getNumericId();
+    long userId = event.getMember().getNumericId();
+
+    Transaction transaction = new Transaction();
+    if (event.getAction() == MembershipEvent.Action.ADDED) {
+      transaction.edit(RelationType.ORGANIZATION_TEAM).add(organizationId, teamId);
+      transaction.edit(RelationType.ORGANIZATION_MEMBER).add(organizationId, userId);
+      transaction.edit(RelationType.TEAM_MEMBER).add(teamId, userId);
+    } else {
+      transaction.edit(RelationType.TEAM_MEMBER).remove(teamId, userId);
+    }
+    transaction.commit();
+  }
+
+  /**
+   * Records the addition or removal of an organization member.
+   *
+   * @param event an organization event.
+   */
+  public synchronized void record(@NonNull OrganizationEvent event) {
+    Membership membership = event.getMembership().orElse(null);
+    if (membership == null) {
+      return;
+    }
+
+    long organizationId = event.getOrganization().getNumericId();
+    long userId = membership.getUser().getNumericId();
+
+    Transaction transaction = new Transaction();
+    switch (event.getAction()) {
+      case MEMBER_ADDED:
+        transaction.edit(RelationType.ORGANIZATION_MEMBER).add(organizationId, userId);
+        break;
+      case MEMBER_REMOVED:
+        transaction.edit(RelationType.ORGANIZATION_MEMBER).remove(organizationId, userId);
+
+        Relation teamMembers = transaction.edit(RelationType.TEAM_MEMBER);
+        for (long teamId : this.snapshot.get(RelationType.ORGANIZATION_TEAM)
+            .getTargets(organizationId)) {
+          teamMembers.remove(teamId, userId);
+        }
+        break;
+      default:
+        return;
+    }
+    transaction.commit();
+  }
+
+  /**
+   * Records the creation or deletion of a team or a change to its repositories.
+   *
+   * @param event a team event.
+   */
+  public synchronized void record(@NonNull TeamEvent event) {
+    long organizationId = event.getOrganization().getNumericId();
+    long teamId = event.getTeam().getNumericId();
+
+    Transaction transaction = new Transaction();
+    switch (event.getAction()) {
+      case CREATED:
+      case EDITED:
+        transaction.edit(RelationType.ORGANIZATION_TEAM).add(organizationId, teamId);
+        break;
+      case DELETED:
+        transaction.edit(RelationType.ORGANIZATION_TEAM).removeTarget(teamId);
+        transaction.edit(RelationType.TEAM_MEMBER).removeSource(teamId);
+        transaction.edit(RelationType.TEAM_REPOSITORY).removeSource(teamId);
+        break;
+      case ADDED_TO_REPOSITORY:
+      case REMOVED_FROM_REPOSITORY:
+        if (!event.getRepository().isPresent()) {
+          return;
+        }
+
+        long repositoryId = event.getRepository().get().getNumericId();
+        transaction.edit(RelationType.ORGANIZATION_TEAM).add(organizationId, teamId);
+        if (event.getAction() == TeamEvent.Action.ADDED_TO_REPOSITORY) {
+          transaction.edit(RelationType.TEAM_REPOSITORY).add(teamId, repositoryId);
+        } else {
+          transaction.edit(RelationType.TEAM_REPOSITORY).remove(teamId, repositoryId);
+        }
+        break;
+      default:
+        return;
+    }
+    transaction.commit();
+  }
+
+  /**
+   * Records the addition of a team to a repository.
+   *
+   * @param event a team add event.
+   */
+  public synchronized void record(@NonNull TeamAddEvent event) {
+    long teamId = event.getTeam().getNumericId();
+    long repositoryId = event.getRepository().getNumericId();
+
+    Transaction transaction = new Transaction();
+    transaction.edit(RelationType.TEAM_REPOSITORY).add(teamId, repositoryId);
+
+    ResourceOwner owner = event.getRepository().getOwner();
+    if (owner.getType() == Type.ORGANIZATION) {
+      transaction.edit(RelationType.ORGANIZATION_TEAM).add(owner.getNumericId(), teamId);
+    }
+    transaction.commit();
+  }
+
+  /**
+   * Records the blocking or unblocking of a user by an organization.
+   *
+   * @param event an organization block event.
+   */
+  public synchronized void record(@NonNull OrganizationBlockEvent event) {
+    long organizationId = event.getOrganization().getNumericId();
+    long userId = event.getBlockedUser().getNumericId();
+
+    Transaction transaction = new Transaction();
+    if (event.getAction() == OrganizationBlockEvent.Action.BLOCKED) {
+      transaction.edit(RelationType.BLOCKED_USER).add(organizationId, userId);
+    } else {
+      transaction.edit(RelationType.BLOCKED_USER).remove(organizationId, userId);
+    }
+    transaction.commit();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void report(@NonNull MetricsReporter reporter) {
+    Snapshot snapshot = this.snapshot;
+
+    for (RelationType type : RelationType.values()) {
+      reporter.gauge(EDGE_METRIC,
+          Collections.singletonMap("relation", type.name().toLowerCase(Locale.ROOT)),
+          snapshot.get(type).edgeCount);
+    }
+
+    reporter.counter(UPDATE_METRIC, Collections.emptyMap(), this.updates.sum());
+  }
+
+  /**
+   * Collects the modifications of a single update and publishes them as a new snapshot.
+   */
+  private final class Transaction {
+
+    private final Snapshot base = MembershipGraph.this.snapshot;
+    private final Map<RelationType, Relation> relations = new EnumMap<>(RelationType.class);
+
+    /**
+     * Retrieves a private copy of the specified relation which may be modified freely.
+     *
+     * @param type a relation type.
+     * @return a relation.
+     */
+    @NonNull
+    private Relation edit(@NonNull RelationType type) {
+      return this.relations.computeIfAbsent(type, (t) -> new Relation(this.base.get(t)));
+    }
+
+    /**
+     * Publishes all modifications as the new current snapshot.
+     */
+    private void commit() {
+      Map<RelationType, Relation> relations = new EnumMap<>(this.base.relations);
+      relations.putAll(this.relations);
+
+      MembershipGraph.this.snapshot = new Snapshot(this.base.version + 1, relations);
+      MembershipGraph.this.updates.increment();
+    }
+  }
+
+  /**
+   * Identifies the relations which are tracked by the graph.
+   */
+  private enum RelationType {
+    ORGANIZATION_MEMBER,
+    ORGANIZATION_TEAM,
+    TEAM_MEMBER,
+    TEAM_REPOSITORY,
+    COLLABORATOR,
+    BLOCKED_USER
+  }
+
+  /**
+   * Represents an immutable state of the graph.
+   */
+  public static final class Snapshot {
+
+    private final long version;
+    private final Map<RelationType, Relation> relations;
+
+    private Snapshot(long version, @NonNull Map<RelationType, Relation> relations) {
+      this.version = version;
+      this.relations = relations;
+    }
+
+    @NonNull
+    private Relation get(@NonNull RelationType type) {
+      return this.relations.get(type);
+    }
+
+    /**
+     * Retrieves the version of this snapshot. Versions increase with every update.
+     *
+     * @return a version.
+     */
+    public long getVersion() {
+      return this.version;
+    }
+
+    /**
+     * Retrieves the members of an organization.
+     *
+     * @param organizationId an organization identifier.
+     * @return a sorted array of user identifiers.
+     */
+    @NonNull
+    public long[] getOrganizationMembers(long organizationId) {
+      return this.get(RelationType.ORGANIZATION_MEMBER).getTargets(organizationId).clone();
+    }
+
+    /**
+     * Retrieves the organizations of which a user is a member.
+     *
+     * @param userId a user identifier.
+     * @return a sorted array of organization identifiers.
+     */
+    @NonNull
+    public long[] getOrganizations(long userId) {
+      return this.get(RelationType.ORGANIZATION_MEMBER).getSources(userId).clone();
+    }
+
+    /**
+     * Retrieves the teams of an organization.
+     *
+     * @param organizationId an organization identifier.
+     * @return a sorted array of team identifiers.
+     */
+    @NonNull
+    public long[] getOrganizationTeams(long organizationId) {
+      return this.get(RelationType.ORGANIZATION_TEAM).getTargets(organizationId).clone();
+    }
+
+    /**
+     * Retrieves the members of a team.
+     *
+     * @param teamId a team identifier.
+     * @return a sorted array of user identifiers.
+     */
+    @NonNull
+    public long[] getTeamMembers(long teamId) {
+      return this.get(RelationType.TEAM_MEMBER).getTargets(teamId).clone();
+    }
+
+    /**
+     * Retrieves the teams of which a user is a member.
+     *
+     * @param userId a user identifier.
+     * @return a sorted array of team identifiers.
+     */
+    @NonNull
+    public long[] getTeams(long userId) {
+      return this.get(RelationType.TEAM_MEMBER).getSources(userId).clone();
+    }
+
+    /**
+     * Retrieves the repositories to which a team has been granted access.
+     *
+     * @param teamId a team identifier.
+     * @return a sorted array of repository identifiers.
+     */
+    @NonNull
+    public long[] getTeamRepositories(long teamId) {
+      return this.get(RelationType.TEAM_REPOSITORY).getTargets(teamId).clone();
+    }
+
+    /**
+     * Retrieves the teams which have been granted access to a repository.
+     *
+     * @param repositoryId a repository identifier.
+     * @return a sorted array of team identifiers.
+     */
+    @NonNull
+    public long[] getRepositoryTeams(long repositoryId) {
+      return this.get(RelationType.TEAM_REPOSITORY).getSources(repositoryId).clone();
+    }
+
+    /**
+     * Retrieves the users which have been granted access to a repository as collaborators.
+     *
+     * @param repositoryId a repository identifier.
+     * @return a sorted array of user identifiers.
+     */
+    @NonNull
+    public long[] getCollaborators(long repositoryId) {
+      return this.get(RelationType.COLLABORATOR).getTargets(repositoryId).clone();
+    }
+
+    /**
+     * Retrieves all repositories which a user may reach either as a collaborator or through any
+     * of their teams.
+     *
+     * @param userId a user identifier.
+     * @return a sorted array of repository identifiers.
+     */
+    @NonNull
+    public long[] getReachableRepositories(long userId) {
+      Relation teamRepositories = this.get(RelationType.TEAM_REPOSITORY);
+      long[] repositories = this.get(RelationType.COLLABORATOR).getSources(userId);
+
+      for (long teamId : this.get(RelationType.TEAM_MEMBER).getSources(userId)) {
+        repositories = union(repositories, teamRepositories.getTargets(teamId));
+      }
+
+      return repositories.clone();
+    }
+
+    /**
+     * Evaluates whether a user has been blocked by an organization.
+     *
+     * @param organizationId an organization identifier.
+     * @param userId a user identifier.
+     * @return true if blocked, false otherwise.
+     */
+    public boolean isBlocked(long organizationId, long userId) {
+      return this.get(RelationType.BLOCKED_USER).contains(organizationId, userId);
+    }
+
+    /**
+     * Merges two sorted arrays of distinct values.
+     *
+     * @param a a sorted array.
+     * @param b a sorted array.
+     * @return a sorted array of all distinct values or one of the arrays if the other is empty or
+     * a subset.
+     */
+    @NonNull
+    private static long[] union(@NonNull long[] a, @NonNull long[] b) {
+      long[] merged = new long[a.length + b.length];
+      int i = 0;
+      int j = 0;
+      int length = 0;
+
+      while (i < a.length && j < b.length) {
+        if (a[i] < b[j]) {
+          merged[length++] = a[i++];
+        } else if (a[i] > b[j]) {
+          merged[length++] = b[j++];
+        } else {
+          merged[length++] = a[i++];
+          j++;
+        }
+      }
+      while (i < a.length) {
+        merged[length++] = a[i++];
+      }
+      while (j < b.length) {
+        merged[length++] = b[j++];
+      }
+
+      if (length == a.length) {
+        return a;
+      }
+
+      return length == merged.length ? merged : Arrays.copyOf(merged, length);
+    }
+  }
+
+  /**
+   * <p>Represents a directed relation between two kinds of nodes.</p>
+   *
+   * <p>Relations are modified only while they are private to a transaction. Copying a relation
+   * merely copies the references to its (immutable) adjacency tables. Adjacency arrays are never
+   * modified once stored and are instead replaced as a whole.</p>
+   */
+  private static final class Relation {
+
+    private static final long[] EMPTY = new long[0];
+
+    private PersistentLong2ObjectMap<long[]> forward;
+    private PersistentLong2ObjectMap<long[]> reverse;
+    private long edgeCount;
+
+    private Relation() {
+      this.forward = PersistentLong2ObjectMap.empty();
+      this.reverse = PersistentLong2ObjectMap.empty();
+    }
+
+    private Relation(@NonNull Relation other) {
+      this.forward = other.forward;
+      this.reverse = other.reverse;
+      this.edgeCount = other.edgeCount;
+    }
+
+    @NonNull
+    private long[] getTargets(long source) {
+      long[] targets = this.forward.get(source);
+      return targets == null ? EMPTY : targets;
+    }
+
+    @NonNull
+    private long[] getSources(long target) {
+      long[] sources = this.reverse.get(target);
+      return sources == null ? EMPTY : sources;
+    }
+
+    private boolean contains(long source, long target) {
+      return Arrays.binarySearch(this.getTargets(source), target) >= 0;
+    }
+
+    private void add(long source, long target) {
+      PersistentLong2ObjectMap<long[]> forward = insert(this.forward, source, target);
+      if (forward != this.forward) {
+        this.forward = forward;
+        this.reverse = insert(this.reverse, target, source);
+        this.edgeCount++;
+      }
+    }
+
+    private void remove(long source, long target) {
+      PersistentLong2ObjectMap<long[]> forward = delete(this.forward, source, target);
+      if (forward != this.forward) {
+        this.forward = forward;
+        this.reverse = delete(this.reverse, target, source);
+        this.edgeCount--;
+      }
+    }
+
+    private void removeSource(long source) {
+      long[] targets = this.forward.get(source);
+      if (targets == null) {
+        return;
+      }
+
+      this.forward = this.forward.remove(source);
+      for (long target : targets) {
+        this.reverse = delete(this.reverse, target, source);
+      }
+      this.edgeCount -= targets.length;
+    }
+
+    private void removeTarget(long target) {
+      long[] sources = this.reverse.get(target);
+      if (sources == null) {
+        return;
+      }
+
+      this.reverse = this.reverse.remove(target);
+      for (long source : sources) {
+        this.forward = delete(this.forward, source, target);
+      }
+      this.edgeCount -= sources.length;
+    }
+
+    /**
+     * Adds a value to the adjacency array of a key.
+     *
+     * @param table an adjacency table.
+     * @param key a key.
+     * @param value a value.
+     * @return an updated table or the same table if the value is already present.
+     */
+    @NonNull
+    private static PersistentLong2ObjectMap<long[]> insert(
+        @NonNull PersistentLong2ObjectMap<long[]> table, long key, long value) {
+      long[] values = table.get(key);
+      if (values == null) {
+        return table.put(key, new long[]{value});
+      }
+
+      int index = Arrays.binarySearch(values, value);
+      if (index >= 0) {
+        return table;
+      }
+
+      index = -index - 1;
+      long[] updated = new long[values.length + 1];
+      System.arraycopy(values, 0, updated, 0, index);
+      updated[index] = value;
+      System.arraycopy(values, index, updated, index + 1, values.length - index);
+      return table.put(key, updated);
+    }
+
+    /**
+     * Removes a value from the adjacency array of a key.
+     *
+     * @param table an adjacency table.
+     * @param key a key.
+     * @param value a value.
+     * @return an updated table or the same table if the value is absent.
+     */
+    @NonNull
+    private static PersistentLong2ObjectMap<long[]> delete(
+        @NonNull PersistentLong2ObjectMap<long[]> table, long key, long value) {
+      long[] values = table.get(key);
+      int index = values == null ? -1 : Arrays.binarySearch(values, value);
+      if (index < 0) {
+        return table;
+      }
+
+      if (values.length == 1) {
+        return table.remove(key);
+      }
+
+      long[] updated = new long[values.length - 1];
+      System.arraycopy(values, 0, updated, 0, index);
+      System.arraycopy(values, index + 1, updated, index, updated.length - index);
+      return table.put(key, updated);
+    }
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.metrics;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Represents a single frequent key along with its estimated weight.
+ */
+public final class HeavyHitter {
+
+  private final long key;
+  private final String name;
+  private final long estimate;
+  private final long error;
+
+  public HeavyHitter(long key, @Nullable String name, long estimate, long error) {
+    this.key = key;
+    this.name = name;
+    this.estimate = estimate;
+    this.error = error;
+  }
+
+  /**
+   * Retrieves the key which identifies this hitter (such as the numeric identifier of a
+   * repository).
+   *
+   * @return a key.
+   */
+  public long getKey() {
+    return this.key;
+  }
+
+  /**
+   * Retrieves the human readable name of this hitter (such as the full name of a repository).
+   *
+   * @return a name or an empty optional if no name is known.
+   */
+  @NonNull
+  public Optional<String> getName() {
+    return Optional.ofNullable(this.name);
+  }
+
+  /**
+   * Retrieves the estimated weight of this hitter. Estimates never fall below the actual weight.
+   *
+   * @return an estimated weight.
+   */
+  public long getEstimate() {
+    return this.estimate;
+  }
+
+  /**
+   * Retrieves the maximum amount by which the estimate may exceed the actual weight.
+   *
+   * @return a maximum error.
+   */
+  public long getError() {
+    return this.error;
+  }
+
+  /**
+   * Retrieves the weight which is guaranteed to have been recorded for this hitter.
+   *
+   * @return a minimum weight.
+   */
+  public long getGuaranteedWeight() {
+    return this.estimate - this.error;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof HeavyHitter)) {
+      return false;
+    }
+    HeavyHitter that = (HeavyHitter) o;
+    return this.key == that.key &&
+        this.estimate == that.estimate &&
+        this.error == that.error &&
+        Objects.equals(this.name, that.name);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int hashCode() {
+    return Objects.hash(this.key, this.name, this.estimate, this.error);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String toString() {
+    return "HeavyHitter{" +
+        "key=" + this.key +
+        ", name='" + this.name + '\'' +
+        ", estimate=" + this.estimate +
+        ", error=" + this.error +
+        '}';
+  }
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.metrics;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * <p>Provides a histogram of latencies (or any other non-negative values) with a fixed relative
+ * error.</p>
+ *
+ * <p>Values are grouped into log-linear buckets: Each power of two is split into eight buckets of
+ * equal width and reported values thus overestimate the recorded values by at most 12.5%. The
+ * histogram spans the entire range of non-negative longs within 488 counters regardless of the
+ * amount of recorded values.</p>
+ *
+ * <p>Histograms are not thread safe. Callers are expected to synchronize access externally.</p>
+ */
+public class LatencyHistogram {
+
+  /**
+   * Defines the amount of bits which select the bucket within a power of two.
+   */
+  private static final int SUB_BUCKET_BITS = 3;
+  private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKET_COUNT = SUB_BUCKET_COUNT * (64 - SUB_BUCKET_BITS);
+
+  private final long[] counts = new long[BUCKET_COUNT];
+  private long count;
+  private long sum;
+  private long minimum = Long.MAX_VALUE;
+  private long maximum;
+
+  /**
+   * Calculates the bucket for the specified value.
+   *
+   * @param value a non-negative value.
+   * @return a bucket index.
+   */
+  static int bucketOf(long value) {
+    if (value < SUB_BUCKET_COUNT) {
+      return (int) value;
+    }
+
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    int shift = exponent - SUB_BUCKET_BITS;
+    return SUB_BUCKET_COUNT * (shift + 1) + (int) ((value >>> shift) & (SUB_BUCKET_COUNT - 1));
+  }
+
+  /**
+   * Calculates the largest value which falls into the specified bucket.
+   *
+   * @param bucket a bucket index.
+   * @return an upper bound.
+   */
+  static long upperBoundOf(int bucket) {
+    if (bucket < SUB_BUCKET_COUNT) {
+      return bucket;
+    }
+
+    int shift = bucket / SUB_BUCKET_COUNT - 1;
+    long base = (long) (SUB_BUCKET_COUNT + bucket % SUB_BUCKET_COUNT) << shift;
+    return base + (1L << shift) - 1;
+  }
+
+  /**
+   * Records a single value. Negative values (for instance due to clock skew) are recorded as
+   * zero.
+   *
+   * @param value a value.
+   */
+  public void record(long value) {
+    value = Math.max(0, value);
+
+    this.counts[bucketOf(value)]++;
+    this.count++;
+    this.sum += value;
+    this.minimum = Math.min(this.minimum, value);
+    this.maximum = Math.max(this.maximum, value);
+  }
+
+  /**
+   * Adds all values of the specified histogram to this histogram.
+   *
+   * @param other a histogram.
+   */
+  public void add(@NonNull LatencyHistogram other) {
+    for (int i = 0; i < BUCKET_COUNT; ++i) {
+      this.counts[i] += other.counts[i];
+    }
+
+    this.count += other.count;
+    this.sum += other.sum;
+    this.minimum = Math.min(this.minimum, other.minimum);
+    this.maximum = Math.max(this.maximum, other.maximum);
+  }
+
+  /**
+   * Removes all recorded values.
+   */
+  public void clear() {
+    Arrays.fill(this.counts, 0);
+    this.count = 0;
+    this.sum = 0;
+    this.minimum = Long.MAX_VALUE;
+    this.maximum = 0;
+  }
+
+  /**
+   * Retrieves the amount of recorded values.
+   *
+   * @return an amount of values.
+   */
+  public long getCount() {
+    return this.count;
+  }
+
+  /**
+   * Retrieves the smallest recorded value.
+   *
+   * @return a value or zero if no values have been recorded.
+   */
+  public long getMinimum() {
+    return this.count == 0 ? 0 : this.minimum;
+  }
+
+  /**
+   * Retrieves the largest recorded value.
+   *
+   * @return a value or zero if no values have been recorded.
+   */
+  public long getMaximum() {
+    return this.maximum;
+  }
+
+  /**
+   * Retrieves the arithmetic mean of all recorded values.
+   *
+   * @return a mean or zero if no values have been recorded.
+   */
+  public double getMean() {
+    return this.count == 0 ? 0 : (double) this.sum / this.count;
+  }
+
+  /**
+   * Retrieves the value below or at which the specified fraction of all recorded values fall.
+   *
+   * @param quantile a quantile within [0, 1].
+   * @return an estimated value or zero if no values have been recorded.
+   */
+  public long getValueAt(double quantile) {
+    if (quantile < 0 || quantile > 1) {
+      throw new IllegalArgumentException("Illegal quantile: Must be within [0, 1]");
+    }
+    if (this.count == 0) {
+      return 0;
+    }
+
+    long rank = Math.max(1, (long) Math.ceil(quantile * this.count));
+    long seen = 0;
+
+    for (int i = 0; i < BUCKET_COUNT; ++i) {
+      seen += this.counts[i];
+
+      if (seen >= rank) {
+        return Math.max(this.getMinimum(), Math.min(this.maximum, upperBoundOf(i)));
+      }
+    }
+
+    return this.maximum;
+  }
+
+  /**
+   * Writes the contents of this histogram to the specified output. Only populated buckets are
+   * written.
+   *
+   * @param output an output.
+   * @throws IOException when writing fails.
+   */
+  public void writeTo(@NonNull DataOutput output) throws IOException {
+    int populated = 0;
+    for (long bucket : this.counts) {
+      if (bucket != 0) {
+        populated++;
+      }
+    }
+
+    output.writeLong(this.count);
+    output.writeLong(this.sum);
+    output.writeLong(this.minimum);
+    output.writeLong(this.maximum);
+    output.writeShort(populated);
+
+    for (int i = 0; i < BUCKET_COUNT; ++i) {
+      if (this.counts[i] != 0) {
+        output.writeShort(i);
+        output.writeLong(this.counts[i]);
+      }
+    }
+  }
+
+  /**
+   * Replaces the contents of this histogram with the contents which have previously been written
+   * via {@link #writeTo(DataOutput)}.
+   *
+   * @param input an input.
+   * @throws IOException when reading fails or the data is malformed.
+   */
+  public void readFrom(@NonNull DataInput input) throws IOException {
+    this.clear();
+
+    this.count = input.readLong();
+    this.sum = input.readLong();
+    this.minimum = input.readLong();
+    this.maximum = input.readLong();
+
+    int populated = input.readUnsignedShort();
+    for (int i = 0; i < populated; ++i) {
+      int bucket = input.readUnsignedShort();
+      if (bucket >= BUCKET_COUNT) {
+        throw new IOException("Illegal histogram: Bucket " + bucket + " is out of bounds");
+      }
+
+      this.counts[bucket] = input.readLong();
+    }
+  }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.metrics;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * Represents a component which exposes one or more metrics.
+ */
+@FunctionalInterface
+public interface MetricSource {
+
+  /**
+   * Passes the current value of all metrics which are exposed by this component to the supplied
+   * reporter.
+   *
+   * @param reporter a reporter.
+   */
+  void report(@NonNull MetricsReporter reporter);
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.metrics;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.Map;
+
+/**
+ * <p>Receives the values of metrics which are exposed by the components of this library.</p>
+ *
+ * <p>Implementations typically bridge values into a metrics system of choice (such as Micrometer
+ * or Prometheus). Components never push values on their own; instead the integrator periodically
+ * passes a reporter to {@link MetricSource#report(MetricsReporter)} so that the decode path never
+ * waits for a metrics backend.</p>
+ */
+public interface MetricsReporter {
+
+  /**
+   * Reports the current value of a monotonically increasing counter.
+   *
+   * @param name a metric name (such as {@code stormdrain.decoder.unknown_properties}).
+   * @param tags a map of tags which identify the specific series.
+   * @param value a total.
+   */
+  void counter(@NonNull String name, @NonNull Map<String, String> tags, long value);
+
+  /**
+   * Reports the current value of a gauge (e.g. a value which may increase and decrease).
+   *
+   * @param name a metric name.
+   * @param tags a map of tags which identify the specific series.
+   * @param value a value.
+   */
+  void gauge(@NonNull String name, @NonNull Map<String, String> tags, double value);
+}
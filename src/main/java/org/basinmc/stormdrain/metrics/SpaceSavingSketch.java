@@ -0,0 +1,300 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.metrics;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>Tracks the most frequent keys of a stream within a fixed amount of memory using the
+ * Space-Saving algorithm.</p>
+ *
+ * <p>The sketch monitors up to a fixed amount of keys. When a key which is not monitored is
+ * added while the sketch is at capacity, it replaces the key with the smallest weight and
+ * inherits its weight as an error bound. Every key whose actual weight exceeds the total weight
+ * divided by the capacity is thus guaranteed to be monitored and estimates never undercount.</p>
+ *
+ * <p>Monitored keys are located through an open addressed table while their weights are ordered
+ * within a binary min-heap. As weights only ever grow, each update costs at most a single
+ * logarithmic sift.</p>
+ *
+ * <p>This implementation is not thread safe.</p>
+ */
+public class SpaceSavingSketch {
+
+  private final int capacity;
+  private final long[] keys;
+  private final long[] weights;
+  private final long[] errors;
+  private final String[] names;
+
+  /**
+   * Holds the indices of all occupied slots ordered as a binary min-heap by their weight.
+   */
+  private final int[] heap;
+  private final int[] heapPositions;
+
+  /**
+   * Maps keys to their respective slot (offset by one as zero marks unused buckets).
+   */
+  private final int[] table;
+  private final int mask;
+
+  private int size;
+  private long total;
+
+  public SpaceSavingSketch(int capacity) {
+    if (capacity < 1 || capacity > 1 << 24) {
+      throw new IllegalArgumentException("Illegal capacity: Must be within [1, 16777216]");
+    }
+
+    this.capacity = capacity;
+    this.keys = new long[capacity];
+    this.weights = new long[capacity];
+    this.errors = new long[capacity];
+    this.names = new String[capacity];
+    this.heap = new int[capacity];
+    this.heapPositions = new int[capacity];
+
+    int tableSize = Integer.highestOneBit(capacity) << 2;
+    this.table = new int[tableSize];
+    this.mask = tableSize - 1;
+  }
+
+  /**
+   * Computes the bucket hash of a key.
+   *
+   * @param key a key.
+   * @return a hash.
+   */
+  private static int hash(long key) {
+    long hash = key * 0x9E3779B97F4A7C15L;
+    return (int) (hash ^ (hash >>> 32));
+  }
+
+  /**
+   * Adds the specified weight to a key.
+   *
+   * @param key a key.
+   * @param name a human readable name of the key (retained only while the key is monitored).
+   * @param weight a weight.
+   */
+  public void add(long key, @Nullable String name, long weight) {
+    if (weight < 0) {
+      throw new IllegalArgumentException("Illegal weight: Must be positive or zero");
+    }
+
+    this.total += weight;
+
+    int index = hash(key) & this.mask;
+    int entry;
+    while ((entry = this.table[index]) != 0) {
+      int slot = entry - 1;
+
+      if (this.keys[slot] == key) {
+        this.weights[slot] += weight;
+        this.siftDown(this.heapPositions[slot]);
+        return;
+      }
+
+      index = (index + 1) & this.mask;
+    }
+
+    if (this.size < this.capacity) {
+      int slot = this.size++;
+      this.keys[slot] = key;
+      this.weights[slot] = weight;
+      this.errors[slot] = 0;
+      this.names[slot] = name;
+      this.table[index] = slot + 1;
+
+      this.heap[slot] = slot;
+      this.heapPositions[slot] = slot;
+      this.siftUp(slot);
+      return;
+    }
+
+    int slot = this.heap[0];
+    long minimum = this.weights[slot];
+    this.removeFromTable(this.keys[slot]);
+
+    index = hash(key) & this.mask;
+    while (this.table[index] != 0) {
+      index = (index + 1) & this.mask;
+    }
+
+    this.keys[slot] = key;
+    this.weights[slot] = minimum + weight;
+    this.errors[slot] = minimum;
+    this.names[slot] = name;
+    this.table[index] = slot + 1;
+    this.siftDown(0);
+  }
+
+  /**
+   * Removes a key from the lookup table while shifting back all subsequent entries of its probe
+   * sequence.
+   *
+   * @param key a monitored key.
+   */
+  private void removeFromTable(long key) {
+    int index = hash(key) & this.mask;
+    while (this.keys[this.table[index] - 1] != key) {
+      index = (index + 1) & this.mask;
+    }
+
+    int next = (index + 1) & this.mask;
+    while (this.table[next] != 0) {
+      int home = hash(this.keys[this.table[next] - 1]) & this.mask;
+
+      if (((next - home) & this.mask) >= ((next - index) & this.mask)) {
+        this.table[index] = this.table[next];
+        index = next;
+      }
+
+      next = (next + 1) & this.mask;
+    }
+
+    this.table[index] = 0;
+  }
+
+  /**
+   * Moves a heap entry towards the root until its parent weighs less or equal.
+   *
+   * @param position a heap position.
+   */
+  private void siftUp(int position) {
+    int slot = this.heap[position];
+    long weight = this.weights[slot];
+
+    while (position > 0) {
+      int parent = (position - 1) >>> 1;
+      int parentSlot = this.heap[parent];
+      if (this.weights[parentSlot] <= weight) {
+        break;
+      }
+
+      this.heap[position] = parentSlot;
+      this.heapPositions[parentSlot] = position;
+      position = parent;
+    }
+
+    this.heap[position] = slot;
+    this.heapPositions[slot] = position;
+  }
+
+  /**
+   * Moves a heap entry towards the leaves until its children weigh more or equal.
+   *
+   * @param position a heap position.
+   */
+  private void siftDown(int position) {
+    int slot = this.heap[position];
+    long weight = this.weights[slot];
+
+    while (true) {
+      int child = (position << 1) + 1;
+      if (child >= this.size) {
+        break;
+      }
+
+      int childSlot = this.heap[child];
+      if (child + 1 < this.size && this.weights[this.heap[child + 1]] < this.weights[childSlot]) {
+        childSlot = this.heap[++child];
+      }
+      if (weight <= this.weights[childSlot]) {
+        break;
+      }
+
+      this.heap[position] = childSlot;
+      this.heapPositions[childSlot] = position;
+      position = child;
+    }
+
+    this.heap[position] = slot;
+    this.heapPositions[slot] = position;
+  }
+
+  /**
+   * Removes all monitored keys.
+   */
+  public void clear() {
+    Arrays.fill(this.table, 0);
+    Arrays.fill(this.names, 0, this.size, null);
+    this.size = 0;
+    this.total = 0;
+  }
+
+  /**
+   * Retrieves the maximum amount of keys which are monitored at any given time.
+   *
+   * @return a capacity.
+   */
+  public int getCapacity() {
+    return this.capacity;
+  }
+
+  /**
+   * Retrieves the smallest weight among all monitored keys. Keys which are not monitored weigh
+   * at most this much.
+   *
+   * @return a weight or zero if the sketch is not at capacity.
+   */
+  public long getMinimum() {
+    return this.size < this.capacity ? 0 : this.weights[this.heap[0]];
+  }
+
+  /**
+   * Retrieves the amount of keys which are currently monitored.
+   *
+   * @return an amount of keys.
+   */
+  public int getSize() {
+    return this.size;
+  }
+
+  /**
+   * Retrieves the total weight which has been added to this sketch.
+   *
+   * @return a weight.
+   */
+  public long getTotal() {
+    return this.total;
+  }
+
+  /**
+   * Retrieves the monitored keys with the highest estimated weights.
+   *
+   * @param limit a maximum amount of keys.
+   * @return a list of keys ordered by their descending estimated weight.
+   */
+  @NonNull
+  public List<HeavyHitter> getTop(int limit) {
+    List<HeavyHitter> hitters = new ArrayList<>(this.size);
+    for (int slot = 0; slot < this.size; ++slot) {
+      hitters.add(
+          new HeavyHitter(this.keys[slot], this.names[slot], this.weights[slot],
+              this.errors[slot]));
+    }
+
+    hitters.sort((a, b) -> Long.compare(b.getEstimate(), a.getEstimate()));
+    return hitters.size() > limit ? new ArrayList<>(hitters.subList(0, limit)) : hitters;
+  }
+}
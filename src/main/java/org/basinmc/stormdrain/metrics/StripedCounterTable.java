@@ -0,0 +1,176 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.metrics;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * <p>Provides a concurrent table of counters which is split into a fixed number of independently
+ * locked stripes.</p>
+ *
+ * <p>Threads which increment counters within different stripes never contend with each other.
+ * The table is bounded: once a stripe holds its share of the maximum amount of keys, increments
+ * for further keys are only tracked as a total (see {@link #getOverflowCount()}) in order to
+ * protect against unbounded key cardinality.</p>
+ *
+ * @param <K> a key type.
+ */
+public class StripedCounterTable<K> {
+
+  private final Stripe<K>[] stripes;
+  private final int mask;
+  private final int maximumKeysPerStripe;
+  private final LongAdder overflow = new LongAdder();
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  public StripedCounterTable(int stripes, int maximumKeys) {
+    if (stripes < 1 || stripes > 1 << 16) {
+      throw new IllegalArgumentException("Illegal stripe count: Must be within [1, 65536]");
+    }
+    if (maximumKeys < 1) {
+      throw new IllegalArgumentException("Illegal maximum key count: Must be at least 1");
+    }
+
+    int count = Integer.highestOneBit(stripes);
+    if (count < stripes) {
+      count <<= 1;
+    }
+
+    this.stripes = new Stripe[count];
+    this.mask = count - 1;
+    this.maximumKeysPerStripe = Math.max(1, (maximumKeys + count - 1) / count);
+
+    for (int i = 0; i < count; ++i) {
+      this.stripes[i] = new Stripe<>();
+    }
+  }
+
+  /**
+   * Selects the stripe which is responsible for the specified key.
+   *
+   * @param key a key.
+   * @return a stripe.
+   */
+  @NonNull
+  private Stripe<K> stripe(@NonNull K key) {
+    int hash = key.hashCode();
+    return this.stripes[(hash ^ (hash >>> 16)) & this.mask];
+  }
+
+  /**
+   * Increments the counter for the specified key by one.
+   *
+   * @param key a key.
+   */
+  public void increment(@NonNull K key) {
+    this.add(key, 1);
+  }
+
+  /**
+   * Increments the counter for the specified key by the specified amount.
+   *
+   * @param key a key.
+   * @param delta an amount.
+   */
+  public void add(@NonNull K key, long delta) {
+    Stripe<K> stripe = this.stripe(key);
+
+    synchronized (stripe) {
+      long[] cell = stripe.counters.get(key);
+
+      if (cell == null) {
+        if (stripe.counters.size() >= this.maximumKeysPerStripe) {
+          this.overflow.add(delta);
+          return;
+        }
+
+        cell = new long[1];
+        stripe.counters.put(key, cell);
+      }
+
+      cell[0] += delta;
+    }
+  }
+
+  /**
+   * Retrieves the current value of the counter for the specified key.
+   *
+   * @param key a key.
+   * @return a value or zero if the key is unknown.
+   */
+  public long get(@NonNull K key) {
+    Stripe<K> stripe = this.stripe(key);
+
+    synchronized (stripe) {
+      long[] cell = stripe.counters.get(key);
+      return cell == null ? 0 : cell[0];
+    }
+  }
+
+  /**
+   * Retrieves the total of all increments which have been discarded as the table was full.
+   *
+   * @return a total.
+   */
+  public long getOverflowCount() {
+    return this.overflow.sum();
+  }
+
+  /**
+   * Passes every key along with its current value to the supplied consumer. Each stripe is
+   * copied while holding its lock and the consumer is invoked outside of it.
+   *
+   * @param consumer a consumer.
+   */
+  public void forEach(@NonNull ObjLongConsumer<K> consumer) {
+    for (Stripe<K> stripe : this.stripes) {
+      Map<K, Long> copy = new HashMap<>();
+
+      synchronized (stripe) {
+        stripe.counters.forEach((key, cell) -> copy.put(key, cell[0]));
+      }
+
+      copy.forEach(consumer::accept);
+    }
+  }
+
+  /**
+   * Creates a point in time copy of all counters within this table.
+   *
+   * @return a map of keys and their respective values.
+   */
+  @NonNull
+  public Map<K, Long> snapshot() {
+    Map<K, Long> snapshot = new HashMap<>();
+    this.forEach(snapshot::put);
+    return snapshot;
+  }
+
+  /**
+   * Represents a single independently locked portion of the table.
+   *
+   * @param <K> a key type.
+   */
+  private static final class Stripe<K> {
+
+    private final Map<K, long[]> counters = new HashMap<>();
+  }
+}
@@ -0,0 +1,469 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.metrics;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import org.basinmc.stormdrain.UnloadedPropertyException;
+import org.basinmc.stormdrain.event.AbstractOrganizationEvent;
+import org.basinmc.stormdrain.event.AbstractRepositoryEvent;
+import org.basinmc.stormdrain.event.AbstractUserTriggeredEvent;
+import org.basinmc.stormdrain.event.Event;
+import org.basinmc.stormdrain.resource.Repository;
+import org.basinmc.stormdrain.resource.ResourceOwner;
+import org.basinmc.stormdrain.resource.ResourceOwner.Type;
+
+/**
+ * <p>Tracks the repositories, organizations and senders which cause the majority of deliveries
+ * and bytes within a sliding window.</p>
+ *
+ * <p>The window is split into a fixed amount of panes, each of which holds one
+ * {@link SpaceSavingSketch} per dimension and measure. Panes are cleared and reused once they
+ * fall out of the window and the memory footprint is thus fixed regardless of the amount of
+ * distinct repositories, organizations or senders. Queries merge the sketches of all panes; the
+ * reported window thus spans between the configured duration minus a single pane and the
+ * configured duration.</p>
+ *
+ * <p>Within each pane, every sketch is split into a configurable amount of independently locked
+ * stripes which partition the key space (and share the configured capacity). Threads which record
+ * deliveries for keys within different stripes thus never contend with each other while keys are
+ * still tracked by exactly one sketch per pane.</p>
+ *
+ * <p>Organizations are derived from organization events as well as from repositories which are
+ * owned by an organization. Resources which have been decoded without their identifier (for
+ * instance through a projection) are not tracked.</p>
+ */
+public class TrafficTracker implements MetricSource {
+
+  /**
+   * Defines the name of the gauge which tracks the estimated amount of deliveries of the most
+   * frequent keys within the current window.
+   */
+  public static final String DELIVERY_METRIC = "stormdrain.traffic.deliveries";
+
+  /**
+   * Defines the name of the gauge which tracks the estimated amount of bytes of the most
+   * frequent keys within the current window.
+   */
+  public static final String BYTE_METRIC = "stormdrain.traffic.bytes";
+
+  private final int reportLimit;
+  private final long paneDuration;
+  private final LongSupplier clock;
+  private final Pane[] panes;
+  private final int stripeMask;
+
+  private volatile int currentPane;
+  private volatile long paneEnd;
+
+  public TrafficTracker(int capacity, int reportLimit, @NonNull Duration window, int paneCount) {
+    this(capacity, reportLimit, window, paneCount, 1);
+  }
+
+  public TrafficTracker(int capacity, int reportLimit, @NonNull Duration window, int paneCount,
+      int stripes) {
+    this(capacity, reportLimit, window, paneCount, stripes, System::nanoTime);
+  }
+
+  TrafficTracker(int capacity, int reportLimit, @NonNull Duration window, int paneCount,
+      int stripes, @NonNull LongSupplier clock) {
+    if (reportLimit < 0 || reportLimit > capacity) {
+      throw new IllegalArgumentException("Illegal report limit: Must be within [0, capacity]");
+    }
+    if (paneCount < 1) {
+      throw new IllegalArgumentException("Illegal pane count: Must be at least 1");
+    }
+    if (stripes < 1 || stripes > capacity) {
+      throw new IllegalArgumentException("Illegal stripe count: Must be within [1, capacity]");
+    }
+    if (window.isNegative() || window.toNanos() < paneCount) {
+      throw new IllegalArgumentException(
+          "Illegal window: Must span at least a nanosecond per pane");
+    }
+
+    int count = Integer.highestOneBit(stripes);
+    if (count < stripes) {
+      count <<= 1;
+    }
+
+    this.reportLimit = reportLimit;
+    this.paneDuration = window.toNanos() / paneCount;
+    this.clock = clock;
+    this.panes = new Pane[paneCount];
+    this.stripeMask = count - 1;
+
+    int stripeCapacity = Math.max(1, (capacity + count - 1) / count);
+    for (int i = 0; i < paneCount; ++i) {
+      this.panes[i] = new Pane(count, stripeCapacity);
+    }
+
+    this.paneEnd = clock.getAsLong() + this.paneDuration;
+  }
+
+  /**
+   * Selects the stripe which is responsible for the specified key.
+   *
+   * @param key a key.
+   * @return a stripe index.
+   */
+  private int stripe(long key) {
+    int hash = Long.hashCode(key);
+    return (hash ^ (hash >>> 16)) & this.stripeMask;
+  }
+
+  /**
+   * Records a single delivery.
+   *
+   * @param event a decoded event.
+   * @param bytes the size of the delivery body (in bytes).
+   */
+  public void record(@NonNull Event event, long bytes) {
+    Repository repository = null;
+    ResourceOwner organization = null;
+    ResourceOwner sender = null;
+
+    if (event instanceof AbstractRepositoryEvent) {
+      repository = loaded(((AbstractRepositoryEvent) event)::getRepository);
+
+      // projections may omit the owner in which case the organization remains unknown
+      ResourceOwner owner = repository == null ? null : loaded(repository::getOwner);
+      if (owner != null && owner.getType() == Type.ORGANIZATION) {
+        organization = owner;
+      }
+    } else if (event instanceof AbstractOrganizationEvent) {
+      organization = loaded(((AbstractOrganizationEvent) event)::getOrganization);
+    }
+
+    if (event instanceof AbstractUserTriggeredEvent) {
+      sender = loaded(((AbstractUserTriggeredEvent) event)::getSender);
+    }
+
+    long now = this.clock.getAsLong();
+    Pane pane = now - this.paneEnd >= 0 ? this.rotate(now) : this.panes[this.currentPane];
+
+    if (repository != null && repository.hasNumericId()) {
+      this.record(pane, Dimension.REPOSITORY, repository.getNumericId(), name(repository), bytes);
+    }
+    if (organization != null && organization.hasNumericId()) {
+      this.record(pane, Dimension.ORGANIZATION, organization.getNumericId(), name(organization),
+          bytes);
+    }
+    if (sender != null && sender.hasNumericId()) {
+      this.record(pane, Dimension.SENDER, sender.getNumericId(), name(sender), bytes);
+    }
+  }
+
+  /**
+   * Records a single delivery for a key while holding the lock of its stripe only.
+   *
+   * @param pane a pane.
+   * @param dimension a dimension.
+   * @param key a key.
+   * @param name a human readable name or null if unknown.
+   * @param bytes the size of the delivery body (in bytes).
+   */
+  private void record(@NonNull Pane pane, @NonNull Dimension dimension, long key,
+      @Nullable String name, long bytes) {
+    Stripe stripe = pane.get(dimension, this.stripe(key));
+
+    synchronized (stripe) {
+      stripe.deliveries.add(key, name, 1);
+      stripe.bytes.add(key, name, bytes);
+    }
+  }
+
+  /**
+   * Retrieves a property which may have been omitted by a projection.
+   *
+   * @param getter a property getter.
+   * @param <T> a property type.
+   * @return a value or null if the property has not been loaded.
+   */
+  @Nullable
+  private static <T> T loaded(@NonNull Supplier<T> getter) {
+    try {
+      return getter.get();
+    } catch (UnloadedPropertyException ex) {
+      return null;
+    }
+  }
+
+  /**
+   * Retrieves the full name of a repository.
+   *
+   * @param repository a repository.
+   * @return a name or null if the name has not been loaded.
+   */
+  @Nullable
+  private static String name(@NonNull Repository repository) {
+    return loaded(repository::getFullName);
+  }
+
+  /**
+   * Retrieves the login of a user or organization.
+   *
+   * @param owner a user or organization.
+   * @return a login or null if the login has not been loaded.
+   */
+  @Nullable
+  private static String name(@NonNull ResourceOwner owner) {
+    return loaded(owner::getLogin);
+  }
+
+  /**
+   * Rotates all panes which have fallen out of the window while excluding concurrent rotations
+   * and queries.
+   *
+   * @param now the current time (in nanoseconds).
+   * @return the current pane.
+   */
+  @NonNull
+  private synchronized Pane rotate(long now) {
+    return this.advance(now);
+  }
+
+  /**
+   * Rotates all panes which have fallen out of the window. Callers are expected to hold the lock
+   * of this tracker. Deliveries which are recorded concurrently may still be attributed to the
+   * previous pane.
+   *
+   * @param now the current time (in nanoseconds).
+   * @return the current pane.
+   */
+  @NonNull
+  private Pane advance(long now) {
+    if (now - this.paneEnd >= 0) {
+      long elapsed = (now - this.paneEnd) / this.paneDuration + 1;
+
+      if (elapsed >= this.panes.length) {
+        for (Pane pane : this.panes) {
+          pane.clear();
+        }
+
+        this.paneEnd = now + this.paneDuration;
+      } else {
+        for (long i = 0; i < elapsed; ++i) {
+          this.currentPane = (this.currentPane + 1) % this.panes.length;
+          this.panes[this.currentPane].clear();
+        }
+
+        this.paneEnd += elapsed * this.paneDuration;
+      }
+    }
+
+    return this.panes[this.currentPane];
+  }
+
+  /**
+   * Retrieves the keys which caused the most deliveries within the current window.
+   *
+   * @param dimension a dimension.
+   * @param limit a maximum amount of keys.
+   * @return a list of keys ordered by their descending estimated amount of deliveries.
+   */
+  @NonNull
+  public List<HeavyHitter> getTopByDeliveries(@NonNull Dimension dimension, int limit) {
+    return this.getTop(dimension, false, limit);
+  }
+
+  /**
+   * Retrieves the keys which caused the most bytes within the current window.
+   *
+   * @param dimension a dimension.
+   * @param limit a maximum amount of keys.
+   * @return a list of keys ordered by their descending estimated amount of bytes.
+   */
+  @NonNull
+  public List<HeavyHitter> getTopByBytes(@NonNull Dimension dimension, int limit) {
+    return this.getTop(dimension, true, limit);
+  }
+
+  /**
+   * <p>Merges the sketches of all panes within the window.</p>
+   *
+   * <p>Keys which are absent from a pane that is at capacity may have been evicted from that
+   * pane. Their estimates and errors are thus increased by the minimum of the respective pane in
+   * order to retain the guarantee that estimates never undercount.</p>
+   *
+   * @param dimension a dimension.
+   * @param bytes true if ranked by bytes, false if ranked by deliveries.
+   * @param limit a maximum amount of keys.
+   * @return a list of keys ordered by their descending estimate.
+   */
+  @NonNull
+  private List<HeavyHitter> getTop(@NonNull Dimension dimension, boolean bytes, int limit) {
+    Map<Long, long[]> estimates = new HashMap<>();
+    Map<Long, String> names = new HashMap<>();
+    long[] minimums = new long[this.stripeMask + 1];
+
+    synchronized (this) {
+      this.advance(this.clock.getAsLong());
+
+      for (Pane pane : this.panes) {
+        for (int i = 0; i < minimums.length; ++i) {
+          Stripe stripe = pane.get(dimension, i);
+          long paneMinimum;
+          List<HeavyHitter> top;
+
+          synchronized (stripe) {
+            SpaceSavingSketch sketch = bytes ? stripe.bytes : stripe.deliveries;
+            paneMinimum = sketch.getMinimum();
+            top = sketch.getTop(sketch.getSize());
+          }
+
+          minimums[i] += paneMinimum;
+          for (HeavyHitter hitter : top) {
+            long[] estimate = estimates.computeIfAbsent(hitter.getKey(), (key) -> new long[3]);
+            estimate[0] += hitter.getEstimate();
+            estimate[1] += hitter.getError();
+            estimate[2] += paneMinimum;
+
+            hitter.getName().ifPresent((name) -> names.putIfAbsent(hitter.getKey(), name));
+          }
+        }
+      }
+    }
+
+    List<HeavyHitter> hitters = new ArrayList<>(estimates.size());
+    for (Map.Entry<Long, long[]> entry : estimates.entrySet()) {
+      long[] estimate = entry.getValue();
+
+      // panes which did not monitor the key contribute the minimum of its stripe as error
+      long absent = minimums[this.stripe(entry.getKey())] - estimate[2];
+      hitters.add(new HeavyHitter(entry.getKey(), names.get(entry.getKey()),
+          estimate[0] + absent, estimate[1] + absent));
+    }
+
+    hitters.sort((a, b) -> Long.compare(b.getEstimate(), a.getEstimate()));
+    return hitters.size() > limit ? new ArrayList<>(hitters.subList(0, limit)) : hitters;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void report(@NonNull MetricsReporter reporter) {
+    for (Dimension dimension : Dimension.values()) {
+      this.report(reporter, DELIVERY_METRIC, dimension,
+          this.getTopByDeliveries(dimension, this.reportLimit));
+      this.report(reporter, BYTE_METRIC, dimension,
+          this.getTopByBytes(dimension, this.reportLimit));
+    }
+  }
+
+  /**
+   * Reports a single ranking.
+   *
+   * @param reporter a reporter.
+   * @param metric a metric name.
+   * @param dimension a dimension.
+   * @param hitters a ranked list of keys.
+   */
+  private void report(@NonNull MetricsReporter reporter, @NonNull String metric,
+      @NonNull Dimension dimension, @NonNull List<HeavyHitter> hitters) {
+    for (int i = 0; i < hitters.size(); ++i) {
+      HeavyHitter hitter = hitters.get(i);
+
+      Map<String, String> tags = new HashMap<>();
+      tags.put("dimension", dimension.name().toLowerCase(Locale.ROOT));
+      tags.put("rank", Integer.toString(i + 1));
+      tags.put("id", Long.toString(hitter.getKey()));
+      tags.put("name", hitter.getName().orElse(""));
+
+      reporter.gauge(metric, tags, hitter.getEstimate());
+    }
+  }
+
+  /**
+   * Provides a list of dimensions by which traffic is tracked.
+   */
+  public enum Dimension {
+
+    /**
+     * Tracks the repository on which an event occurred.
+     */
+    REPOSITORY,
+
+    /**
+     * Tracks the organization on which an event occurred (or which owns the repository on which
+     * an event occurred).
+     */
+    ORGANIZATION,
+
+    /**
+     * Tracks the user who triggered an event.
+     */
+    SENDER
+  }
+
+  /**
+   * Represents the sketches of a single fraction of the window.
+   */
+  private static final class Pane {
+
+    private final Stripe[][] stripes = new Stripe[Dimension.values().length][];
+
+    private Pane(int stripes, int capacity) {
+      for (int i = 0; i < this.stripes.length; ++i) {
+        this.stripes[i] = new Stripe[stripes];
+
+        for (int j = 0; j < stripes; ++j) {
+          this.stripes[i][j] = new Stripe(capacity);
+        }
+      }
+    }
+
+    @NonNull
+    private Stripe get(@NonNull Dimension dimension, int stripe) {
+      return this.stripes[dimension.ordinal()][stripe];
+    }
+
+    private void clear() {
+      for (Stripe[] dimension : this.stripes) {
+        for (Stripe stripe : dimension) {
+          synchronized (stripe) {
+            stripe.deliveries.clear();
+            stripe.bytes.clear();
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Represents the sketches of a fraction of the key space within a single pane. Sketches are
+   * guarded by the monitor of their stripe.
+   */
+  private static final class Stripe {
+
+    private final SpaceSavingSketch deliveries;
+    private final SpaceSavingSketch bytes;
+
+    private Stripe(int capacity) {
+      this.deliveries = new SpaceSavingSketch(capacity);
+      this.bytes = new SpaceSavingSketch(capacity);
+    }
+  }
+}
@@ -0,0 +1,528 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.release;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * <p>Provides an immutable catalog of release assets along with their sizes and download
+ * counts.</p>
+ *
+ * <p>Catalogs are stored within a single buffer which uses the same layout in memory and on disk:
+ * a fixed size record per asset (sorted by repository, tag and asset name), an array of record
+ * indices which is sorted by download count and a table of deduplicated strings. A catalog which
+ * has been written via {@link #write(Path)} may thus be {@link #map(Path) mapped} into memory by
+ * another process and queried without reading or copying the file first.</p>
+ *
+ * <p>Files are replaced atomically when written. Catalogs which have been mapped from a previous
+ * version of the file remain valid and may be compared to the new version via
+ * {@link #diff(AssetCatalog)}.</p>
+ */
+public final class AssetCatalog {
+
+  private static final int MAGIC = 0x53444143;
+  private static final int VERSION = 1;
+
+  private static final int HEADER_SIZE = 16;
+  private static final int RECORD_SIZE = 32;
+  private static final Comparator<CatalogedAsset> ORDER = Comparator
+      .comparingLong(CatalogedAsset::getRepositoryId)
+      .thenComparing(CatalogedAsset::getTagName)
+      .thenComparing(CatalogedAsset::getName);
+
+  private final ByteBuffer buffer;
+  private final int assetCount;
+  private final int rankingOffset;
+  private final int stringOffset;
+
+  private AssetCatalog(@NonNull ByteBuffer buffer) {
+    this.buffer = buffer;
+    this.assetCount = buffer.getInt(8);
+    this.rankingOffset = HEADER_SIZE + this.assetCount * RECORD_SIZE;
+    this.stringOffset = this.rankingOffset + this.assetCount * 4;
+  }
+
+  /**
+   * Creates a new in-memory catalog which contains the specified assets.
+   *
+   * @param assets a list of assets.
+   * @return a catalog.
+   */
+  @NonNull
+  static AssetCatalog of(@NonNull List<CatalogedAsset> assets) {
+    CatalogedAsset[] sorted = assets.toArray(new CatalogedAsset[0]);
+    Arrays.sort(sorted, ORDER);
+
+    StringTable strings = new StringTable();
+    int[] tags = new int[sorted.length];
+    int[] names = new int[sorted.length];
+    for (int i = 0; i < sorted.length; ++i) {
+      tags[i] = strings.add(sorted[i].getTagName());
+      names[i] = strings.add(sorted[i].getName());
+    }
+
+    long size = HEADER_SIZE + (long) sorted.length * (RECORD_SIZE + 4) + strings.size;
+    if (size > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Illegal catalog: Exceeds maximum size of 2 GiB");
+    }
+
+    ByteBuffer buffer = ByteBuffer.allocate((int) size);
+    buffer.putInt(MAGIC);
+    buffer.putInt(VERSION);
+    buffer.putInt(sorted.length);
+    buffer.putInt((int) strings.size);
+
+    for (int i = 0; i < sorted.length; ++i) {
+      buffer.putLong(sorted[i].getRepositoryId());
+      buffer.putInt(tags[i]);
+      buffer.putInt(names[i]);
+      buffer.putLong(sorted[i].getSize());
+      buffer.putLong(sorted[i].getDownloadCount());
+    }
+
+    Integer[] ranking = new Integer[sorted.length];
+    for (int i = 0; i < ranking.length; ++i) {
+      ranking[i] = i;
+    }
+    Arrays.sort(ranking, (a, b) -> {
+      int result = Long.compare(sorted[b].getDownloadCount(), sorted[a].getDownloadCount());
+      return result != 0 ? result : Integer.compare(a, b);
+    });
+    for (Integer index : ranking) {
+      buffer.putInt(index);
+    }
+
+    for (byte[] encoded : strings.values) {
+      buffer.putInt(encoded.length);
+      buffer.put(encoded);
+    }
+
+    buffer.flip();
+    return new AssetCatalog(buffer);
+  }
+
+  /**
+   * Maps a catalog which has previously been written via {@link #write(Path)} into memory.
+   *
+   * @param path a file.
+   * @return a catalog.
+   * @throws IOException when mapping fails or the file is not a valid catalog.
+   */
+  @NonNull
+  public static AssetCatalog map(@NonNull Path path) throws IOException {
+    ByteBuffer buffer;
+
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+        throw new IOException("Illegal catalog: Unexpected size of " + size + " bytes");
+      }
+
+      buffer = channel.map(MapMode.READ_ONLY, 0, size);
+    }
+
+    if (buffer.getInt(0) != MAGIC) {
+      throw new IOException("Illegal catalog: " + path + " is not of the expected format");
+    }
+    int version = buffer.getInt(4);
+    if (version != VERSION) {
+      throw new IOException("Illegal catalog: Unsupported version " + version);
+    }
+
+    int assetCount = buffer.getInt(8);
+    int stringSize = buffer.getInt(12);
+    if (assetCount < 0 || stringSize < 0
+        || HEADER_SIZE + (long) assetCount * (RECORD_SIZE + 4) + stringSize != buffer.limit()) {
+      throw new IOException("Illegal catalog: Truncated or malformed");
+    }
+
+    AssetCatalog catalog = new AssetCatalog(buffer);
+    catalog.verify(stringSize);
+    return catalog;
+  }
+
+  /**
+   * Evaluates whether all string offsets, string lengths and record indices within this catalog
+   * are within bounds.
+   *
+   * @param stringSize the size of the string table (in bytes).
+   * @throws IOException when an offset, length or index is out of bounds.
+   */
+  private void verify(int stringSize) throws IOException {
+    for (int i = 0; i < this.assetCount; ++i) {
+      int record = HEADER_SIZE + i * RECORD_SIZE;
+
+      int[] offsets = {this.buffer.getInt(record + 8), this.buffer.getInt(record + 12)};
+
+      for (int offset : offsets) {
+        if (offset < 0 || offset > stringSize - 4) {
+          throw new IOException("Illegal catalog: String offset of asset " + i + " out of bounds");
+        }
+
+        int length = this.buffer.getInt(this.stringOffset + offset);
+        if (length < 0 || length > stringSize - offset - 4) {
+          throw new IOException("Illegal catalog: String length of asset " + i + " out of bounds");
+        }
+      }
+
+      int index = this.rank(i);
+      if (index < 0 || index >= this.assetCount) {
+        throw new IOException("Illegal catalog: Ranking entry " + i + " out of bounds");
+      }
+    }
+  }
+
+  /**
+   * Writes this catalog to the specified file. The file is replaced atomically.
+   *
+   * @param path a file.
+   * @throws IOException when writing fails (in which case the previous file remains in place).
+   */
+  public void write(@NonNull Path path) throws IOException {
+    Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+
+    try {
+      try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+          StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+        ByteBuffer view = this.buffer.duplicate();
+        view.clear();
+
+        while (view.hasRemaining()) {
+          channel.write(view);
+        }
+        channel.force(false);
+      }
+
+      Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException | RuntimeException ex) {
+      try {
+        Files.deleteIfExists(temporary);
+      } catch (IOException suppressed) {
+        ex.addSuppressed(suppressed);
+      }
+
+      throw ex;
+    }
+  }
+
+  /**
+   * Retrieves the total amount of assets within this catalog.
+   *
+   * @return an amount of assets.
+   */
+  public int getAssetCount() {
+    return this.assetCount;
+  }
+
+  /**
+   * Retrieves all assets of the specified repository.
+   *
+   * @param repositoryId a repository identifier.
+   * @return a list of assets (sorted by tag and name).
+   */
+  @NonNull
+  public List<CatalogedAsset> getAssets(long repositoryId) {
+    List<CatalogedAsset> assets = new ArrayList<>();
+
+    for (int i = this.lowerBound(repositoryId);
+        i < this.assetCount && this.repositoryId(i) == repositoryId; ++i) {
+      assets.add(this.asset(i));
+    }
+
+    return Collections.unmodifiableList(assets);
+  }
+
+  /**
+   * Retrieves all assets of the specified release.
+   *
+   * @param repositoryId a repository identifier.
+   * @param tagName a release tag.
+   * @return a list of assets (sorted by name).
+   */
+  @NonNull
+  public List<CatalogedAsset> getAssets(long repositoryId, @NonNull String tagName) {
+    List<CatalogedAsset> assets = new ArrayList<>();
+
+    for (int i = this.lowerBound(repositoryId);
+        i < this.assetCount && this.repositoryId(i) == repositoryId; ++i) {
+      int result = this.tagName(i).compareTo(tagName);
+
+      if (result == 0) {
+        assets.add(this.asset(i));
+      } else if (result > 0) {
+        break;
+      }
+    }
+
+    return Collections.unmodifiableList(assets);
+  }
+
+  /**
+   * Retrieves a single asset.
+   *
+   * @param repositoryId a repository identifier.
+   * @param tagName a release tag.
+   * @param name an asset name.
+   * @return an asset or an empty optional if no such asset exists.
+   */
+  @NonNull
+  public Optional<CatalogedAsset> getAsset(long repositoryId, @NonNull String tagName,
+      @NonNull String name) {
+    int low = 0;
+    int high = this.assetCount - 1;
+
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      int result = this.compare(middle, repositoryId, tagName, name);
+
+      if (result < 0) {
+        low = middle + 1;
+      } else if (result > 0) {
+        high = middle - 1;
+      } else {
+        return Optional.of(this.asset(middle));
+      }
+    }
+
+    return Optional.empty();
+  }
+
+  /**
+   * Retrieves the most downloaded assets within this catalog.
+   *
+   * @param limit the maximum amount of assets.
+   * @return a list of assets (sorted by download count in descending order).
+   */
+  @NonNull
+  public List<CatalogedAsset> getTopAssets(int limit) {
+    if (limit < 0) {
+      throw new IllegalArgumentException("Illegal limit: Must be positive or zero");
+    }
+
+    int count = Math.min(limit, this.assetCount);
+    List<CatalogedAsset> assets = new ArrayList<>(count);
+    for (int i = 0; i < count; ++i) {
+      assets.add(this.asset(this.rank(i)));
+    }
+
+    return Collections.unmodifiableList(assets);
+  }
+
+  /**
+   * Retrieves the most downloaded assets of the specified repository.
+   *
+   * @param repositoryId a repository identifier.
+   * @param limit the maximum amount of assets.
+   * @return a list of assets (sorted by download count in descending order).
+   */
+  @NonNull
+  public List<CatalogedAsset> getTopAssets(long repositoryId, int limit) {
+    if (limit < 0) {
+      throw new IllegalArgumentException("Illegal limit: Must be positive or zero");
+    }
+
+    List<CatalogedAsset> assets = new ArrayList<>();
+    for (int i = 0; i < this.assetCount && assets.size() < limit; ++i) {
+      int index = this.rank(i);
+
+      if (this.repositoryId(index) == repositoryId) {
+        assets.add(this.asset(index));
+      }
+    }
+
+    return Collections.unmodifiableList(assets);
+  }
+
+  /**
+   * <p>Computes the changes in download counts between a previous catalog and this catalog.</p>
+   *
+   * <p>Deltas are reported for assets which have been added since or whose download count has
+   * changed. Assets which have been removed since are not reported.</p>
+   *
+   * @param previous a previous catalog.
+   * @return a list of deltas (sorted by repository, tag and asset name).
+   */
+  @NonNull
+  public List<AssetDelta> diff(@NonNull AssetCatalog previous) {
+    List<AssetDelta> deltas = new ArrayList<>();
+    int j = 0;
+
+    for (int i = 0; i < this.assetCount; ++i) {
+      CatalogedAsset asset = this.asset(i);
+      int result = 1;
+
+      while (j < previous.assetCount && (result = previous
+          .compare(j, asset.getRepositoryId(), asset.getTagName(), asset.getName())) < 0) {
+        ++j;
+      }
+
+      if (j < previous.assetCount && result == 0) {
+        long previousDownloadCount = previous.downloadCount(j++);
+
+        if (previousDownloadCount != asset.getDownloadCount()) {
+          deltas.add(new AssetDelta(asset, previousDownloadCount, false));
+        }
+      } else {
+        deltas.add(new AssetDelta(asset, 0, true));
+      }
+    }
+
+    return Collections.unmodifiableList(deltas);
+  }
+
+  /**
+   * Locates the first record which belongs to the specified repository or a repository with a
+   * greater identifier.
+   *
+   * @param repositoryId a repository identifier.
+   * @return a record index.
+   */
+  private int lowerBound(long repositoryId) {
+    int low = 0;
+    int high = this.assetCount;
+
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+
+      if (this.repositoryId(middle) < repositoryId) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+
+    return low;
+  }
+
+  /**
+   * Compares a record to the specified asset key.
+   *
+   * @param index a record index.
+   * @param repositoryId a repository identifier.
+   * @param tagName a release tag.
+   * @param name an asset name.
+   * @return a negative value, zero or a positive value if the record is ordered before, equal to
+   * or after the key respectively.
+   */
+  private int compare(int index, long repositoryId, @NonNull String tagName,
+      @NonNull String name) {
+    int result = Long.compare(this.repositoryId(index), repositoryId);
+    if (result != 0) {
+      return result;
+    }
+
+    result = this.tagName(index).compareTo(tagName);
+    if (result != 0) {
+      return result;
+    }
+
+    return this.string(this.buffer.getInt(HEADER_SIZE + index * RECORD_SIZE + 12))
+        .compareTo(name);
+  }
+
+  @NonNull
+  private CatalogedAsset asset(int index) {
+    int record = HEADER_SIZE + index * RECORD_SIZE;
+
+    return new CatalogedAsset(this.buffer.getLong(record), this.tagName(index),
+        this.string(this.buffer.getInt(record + 12)), this.buffer.getLong(record + 16),
+        this.buffer.getLong(record + 24));
+  }
+
+  private long repositoryId(int index) {
+    return this.buffer.getLong(HEADER_SIZE + index * RECORD_SIZE);
+  }
+
+  @NonNull
+  private String tagName(int index) {
+    return this.string(this.buffer.getInt(HEADER_SIZE + index * RECORD_SIZE + 8));
+  }
+
+  private long downloadCount(int index) {
+    return this.buffer.getLong(HEADER_SIZE + index * RECORD_SIZE + 24);
+  }
+
+  private int rank(int position) {
+    return this.buffer.getInt(this.rankingOffset + position * 4);
+  }
+
+  /**
+   * Decodes a string from the string table.
+   *
+   * @param offset an offset relative to the start of the string table.
+   * @return a string.
+   */
+  @NonNull
+  private String string(int offset) {
+    int position = this.stringOffset + offset;
+    byte[] encoded = new byte[this.buffer.getInt(position)];
+
+    ByteBuffer view = this.buffer.duplicate();
+    view.position(position + 4);
+    view.get(encoded);
+    return new String(encoded, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Collects the deduplicated strings of a catalog while it is being built.
+   */
+  private static final class StringTable {
+
+    private final Map<String, Integer> offsets = new HashMap<>();
+    private final List<byte[]> values = new ArrayList<>();
+    private long size;
+
+    /**
+     * Retrieves the offset of a string and appends it to the table if necessary.
+     *
+     * @param value a string.
+     * @return an offset relative to the start of the string table.
+     */
+    private int add(@NonNull String value) {
+      Integer offset = this.offsets.get(value);
+
+      if (offset == null) {
+        byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+        offset = (int) Math.min(this.size, Integer.MAX_VALUE);
+
+        this.offsets.put(value, offset);
+        this.values.add(encoded);
+        this.size += 4 + encoded.length;
+      }
+
+      return offset;
+    }
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.release;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.Objects;
+
+/**
+ * Represents the change of the download count of a single asset between two catalogs.
+ *
+ * @see AssetCatalog#diff(AssetCatalog)
+ */
+public final class AssetDelta {
+
+  private final CatalogedAsset asset;
+  private final long previousDownloadCount;
+  private final boolean added;
+
+  AssetDelta(@NonNull CatalogedAsset asset, long previousDownloadCount, boolean added) {
+    this.asset = asset;
+    this.previousDownloadCount = previousDownloadCount;
+    this.added = added;
+  }
+
+  /**
+   * Retrieves the asset as recorded within the more recent catalog.
+   *
+   * @return an asset.
+   */
+  @NonNull
+  public CatalogedAsset getAsset() {
+    return this.asset;
+  }
+
+  /**
+   * Retrieves the download count of the asset as recorded within the previous catalog.
+   *
+   * @return a download count or zero if the asset has been added since.
+   */
+  public long getPreviousDownloadCount() {
+    return this.previousDownloadCount;
+  }
+
+  /**
+   * Retrieves the amount of downloads which have been recorded between both catalogs.
+   *
+   * @return an amount of downloads.
+   */
+  public long getDownloadDelta() {
+    return this.asset.getDownloadCount() - this.previousDownloadCount;
+  }
+
+  /**
+   * Evaluates whether the asset was not part of the previous catalog.
+   *
+   * @return true if added, false otherwise.
+   */
+  public boolean isAdded() {
+    return this.added;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof AssetDelta)) {
+      return false;
+    }
+    AssetDelta that = (AssetDelta) o;
+    return this.previousDownloadCount == that.previousDownloadCount &&
+        this.added == that.added &&
+        Objects.equals(this.asset, that.asset);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int hashCode() {
+    return Objects.hash(this.asset, this.previousDownloadCount, this.added);
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.release;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.Objects;
+
+/**
+ * Represents a single release asset as recorded within an {@link AssetCatalog}.
+ */
+public final class CatalogedAsset {
+
+  private final long repositoryId;
+  private final String tagName;
+  private final String name;
+  private final long size;
+  private final long downloadCount;
+
+  CatalogedAsset(long repositoryId, @NonNull String tagName, @NonNull String name, long size,
+      long downloadCount) {
+    this.repositoryId = repositoryId;
+    this.tagName = tagName;
+    this.name = name;
+    this.size = size;
+    this.downloadCount = downloadCount;
+  }
+
+  /**
+   * Retrieves the identifier of the repository to which the release belongs.
+   *
+   * @return a repository identifier.
+   */
+  public long getRepositoryId() {
+    return this.repositoryId;
+  }
+
+  /**
+   * Retrieves the tag of the release to which the asset belongs.
+   *
+   * @return a tag name.
+   */
+  @NonNull
+  public String getTagName() {
+    return this.tagName;
+  }
+
+  /**
+   * Retrieves the name of the asset (typically a filename).
+   *
+   * @return a name.
+   */
+  @NonNull
+  public String getName() {
+    return this.name;
+  }
+
+  /**
+   * Retrieves the total size of the asset.
+   *
+   * @return a size (in bytes).
+   */
+  public long getSize() {
+    return this.size;
+  }
+
+  /**
+   * Retrieves the total amount of times the asset has been downloaded.
+   *
+   * @return a download count.
+   */
+  public long getDownloadCount() {
+    return this.downloadCount;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof CatalogedAsset)) {
+      return false;
+    }
+    CatalogedAsset that = (CatalogedAsset) o;
+    return this.repositoryId == that.repositoryId &&
+        this.size == that.size &&
+        this.downloadCount == that.downloadCount &&
+        Objects.equals(this.tagName, that.tagName) &&
+        Objects.equals(this.name, that.name);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int hashCode() {
+    return Objects.hash(this.repositoryId, this.tagName, this.name, this.size,
+        this.downloadCount);
+  }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.release;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.basinmc.stormdrain.event.ReleaseEvent;
+import org.basinmc.stormdrain.metrics.MetricSource;
+import org.basinmc.stormdrain.metrics.MetricsReporter;
+import org.basinmc.stormdrain.resource.Release;
+import org.basinmc.stormdrain.resource.Release.Asset;
+import org.basinmc.stormdrain.resource.Release.State;
+
+/**
+ * <p>Tracks the most recently observed assets of every release in order to produce
+ * {@link AssetCatalog catalogs} of their sizes and download counts.</p>
+ *
+ * <p>Every recorded release replaces the previously recorded assets of its tag entirely (e.g.
+ * assets which are no longer part of the release are dropped). Assets which are still being
+ * uploaded are ignored.</p>
+ */
+public class ReleaseAssetTracker implements MetricSource {
+
+  /**
+   * Defines the name of the gauge which tracks the amount of tracked assets.
+   */
+  public static final String ASSET_METRIC = "stormdrain.releases.assets";
+
+  /**
+   * Defines the name of the gauge which tracks the amount of tracked releases.
+   */
+  public static final String RELEASE_METRIC = "stormdrain.releases.releases";
+
+  /**
+   * Defines the name of the counter which tracks the amount of recorded release events.
+   */
+  public static final String UPDATE_METRIC = "stormdrain.releases.updates";
+
+  private final Map<Long, Map<String, CatalogedAsset[]>> releases = new HashMap<>();
+  private int assetCount;
+  private int releaseCount;
+  private long updates;
+
+  /**
+   * Records the current assets of a release.
+   *
+   * @param event a release event.
+   */
+  public synchronized void record(@NonNull ReleaseEvent event) {
+    long repositoryId = event.getRepository().getNumericId();
+    Release release = event.getRelease();
+    List<CatalogedAsset> assets = new ArrayList<>();
+
+    for (Asset asset : release.getAssets()) {
+      if (asset.getState() != State.UPLOADED) {
+        continue;
+      }
+
+      assets.add(new CatalogedAsset(repositoryId, release.getTagName(), asset.getName(),
+          asset.getSize(), asset.getDownloadCount()));
+    }
+
+    CatalogedAsset[] previous = this.releases
+        .computeIfAbsent(repositoryId, (id) -> new HashMap<>())
+        .put(release.getTagName(), assets.toArray(new CatalogedAsset[0]));
+
+    if (previous == null) {
+      this.releaseCount++;
+    } else {
+      this.assetCount -= previous.length;
+    }
+
+    this.assetCount += assets.size();
+    this.updates++;
+  }
+
+  /**
+   * Creates a catalog of all currently tracked assets.
+   *
+   * @return a catalog.
+   */
+  @NonNull
+  public synchronized AssetCatalog snapshot() {
+    List<CatalogedAsset> assets = new ArrayList<>(this.assetCount);
+
+    for (Map<String, CatalogedAsset[]> releases : this.releases.values()) {
+      for (CatalogedAsset[] release : releases.values()) {
+        Collections.addAll(assets, release);
+      }
+    }
+
+    return AssetCatalog.of(assets);
+  }
+
+  /**
+   * Retrieves the amount of tracked assets.
+   *
+   * @return an amount of assets.
+   */
+  public synchronized int getAssetCount() {
+    return this.assetCount;
+  }
+
+  /**
+   * Retrieves the amount of tracked releases.
+   *
+   * @return an amount of releases.
+   */
+  public synchronized int getReleaseCount() {
+    return this.releaseCount;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void report(@NonNull MetricsReporter reporter) {
+    int assetCount;
+    int releaseCount;
+    long updates;
+
+    synchronized (this) {
+      assetCount = this.assetCount;
+      releaseCount = this.releaseCount;
+      updates = this.updates;
+    }
+
+    reporter.gauge(ASSET_METRIC, Collections.emptyMap(), assetCount);
+    reporter.gauge(RELEASE_METRIC, Collections.emptyMap(), releaseCount);
+    reporter.counter(UPDATE_METRIC, Collections.emptyMap(), updates);
+  }
+}
@@ -17,9 +17,11 @@
 package org.basinmc.stormdrain.resource;
 
 import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
 import java.net.URL;
 import java.util.Objects;
 import org.basinmc.stormdrain.resource.Resource.BrowserAccessible;
+import org.basinmc.stormdrain.utility.ValueUtility;
 
 /**
  * Provides an abstract browser accessible resource.
@@ -31,18 +33,38 @@ public abstract class AbstractBrowserAccessibleResource extends AbstractResource
 
   private final URL browserUrl;
 
-  protected AbstractBrowserAccessibleResource(@NonNull String id, @NonNull URL browserUrl) {
+  protected AbstractBrowserAccessibleResource(@NonNull String id, @Nullable URL browserUrl) {
     super(id);
     this.browserUrl = browserUrl;
   }
 
+  protected AbstractBrowserAccessibleResource(@Nullable URL browserUrl) {
+    this.browserUrl = browserUrl;
+  }
+
   /**
    * {@inheritDoc}
    */
   @NonNull
   @Override
   public URL getBrowserUrl() {
-    return this.browserUrl;
+    if (this.browserUrl != null) {
+      return this.browserUrl;
+    }
+
+    return ValueUtility.requireLoaded(this, "html_url", this.deriveBrowserUrl());
+  }
+
+  /**
+   * Derives the browser URL from the other properties of this resource when it has been omitted
+   * by its implementation (e.g. because it matches the URL which GitHub generates for this type of
+   * resource).
+   *
+   * @return a URL or null if it cannot be derived.
+   */
+  @Nullable
+  protected URL deriveBrowserUrl() {
+    return null;
   }
 
   /**
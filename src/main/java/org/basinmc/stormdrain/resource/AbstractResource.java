@@ -18,6 +18,7 @@ package org.basinmc.stormdrain.resource;
 
 import edu.umd.cs.findbugs.annotations.NonNull;
 import java.util.Objects;
+import org.basinmc.stormdrain.utility.ValueUtility;
 
 /**
  * Provides an abstract resource implementation.
@@ -26,10 +27,31 @@ import java.util.Objects;
  */
 public abstract class AbstractResource implements Resource {
 
+  /**
+   * Identifies resources which are not identified through a numeric identifier (or which have not
+   * been loaded).
+   */
+  private static final long NO_NUMERIC_ID = -1;
+
+  // GitHub identifies almost all resources through 64-bit integers which are retained as such
+  // (sparing a string per resource) while all other identifiers (such as commit hashes) are
+  // retained as-is
+  private final long numericId;
   private final String id;
 
   protected AbstractResource(@NonNull String id) {
-    this.id = id;
+    this.numericId = ValueUtility.toNumericId(id);
+    this.id = this.numericId == NO_NUMERIC_ID ? id : null;
+  }
+
+  /**
+   * Constructs a resource which retains its identifier in a representation of its own (such as
+   * commits which retain their hash as an {@link ObjectId}). Implementations are expected to
+   * override {@link #getId()} as well as {@link #equals(Object)} and {@link #hashCode()}.
+   */
+  protected AbstractResource() {
+    this.numericId = NO_NUMERIC_ID;
+    this.id = null;
   }
 
   /**
@@ -38,7 +60,38 @@ public abstract class AbstractResource implements Resource {
   @NonNull
   @Override
   public String getId() {
-    return this.id;
+    if (this.numericId != NO_NUMERIC_ID) {
+      return Long.toString(this.numericId);
+    }
+
+    return ValueUtility.requireLoaded(this, "id", this.id);
+  }
+
+  /**
+   * Retrieves the numeric representation of the identifier of this resource.
+   *
+   * @return a numeric identifier.
+   * @throws IllegalStateException when this resource is not identified by a numeric identifier
+   * (for instance when it is a commit) or its identifier has not been loaded.
+   * @see #hasNumericId()
+   */
+  public long getNumericId() {
+    if (this.numericId == NO_NUMERIC_ID) {
+      throw new IllegalStateException(
+          "Illegal identifier: \"" + this.getId() + "\" is not numeric");
+    }
+
+    return this.numericId;
+  }
+
+  /**
+   * Evaluates whether this resource is identified through a numeric identifier (which is the case
+   * for all resources except for commits).
+   *
+   * @return true if numeric, false otherwise.
+   */
+  public boolean hasNumericId() {
+    return this.numericId != NO_NUMERIC_ID;
   }
 
   /**
@@ -53,7 +106,8 @@ public abstract class AbstractResource implements Resource {
       return false;
     }
     AbstractResource that = (AbstractResource) o;
-    return Objects.equals(this.id, that.id);
+    return this.numericId == that.numericId &&
+        Objects.equals(this.id, that.id);
   }
 
   /**
@@ -61,6 +115,6 @@ public abstract class AbstractResource implements Resource {
    */
   @Override
   public int hashCode() {
-    return Objects.hash(this.id);
+    return Objects.hash(this.numericId, this.id);
   }
 }
@@ -22,6 +22,7 @@ import java.net.URL;
 import java.time.Instant;
 import java.util.Objects;
 import org.basinmc.stormdrain.resource.Resource.BrowserAccessible;
+import org.basinmc.stormdrain.utility.ValueUtility;
 
 /**
  * Provides an abstract base for timestamped, browser accessible resources.
@@ -35,7 +36,7 @@ public abstract class AbstractTimestampedBrowserAccessibleResource extends
 
   protected AbstractTimestampedBrowserAccessibleResource(
       @NonNull String id,
-      @NonNull URL browserUrl,
+      @Nullable URL browserUrl,
       @NonNull Instant creationTimestamp,
       @Nullable Instant modificationTimestamp) {
     super(id, creationTimestamp, modificationTimestamp);
@@ -48,7 +49,23 @@ public abstract class AbstractTimestampedBrowserAccessibleResource extends
   @NonNull
   @Override
   public URL getBrowserUrl() {
-    return this.browserUrl;
+    if (this.browserUrl != null) {
+      return this.browserUrl;
+    }
+
+    return ValueUtility.requireLoaded(this, "html_url", this.deriveBrowserUrl());
+  }
+
+  /**
+   * Derives the browser URL from the other properties of this resource when it has been omitted
+   * by its implementation (e.g. because it matches the URL which GitHub generates for this type of
+   * resource).
+   *
+   * @return a URL or null if it cannot be derived.
+   */
+  @Nullable
+  protected URL deriveBrowserUrl() {
+    return null;
   }
 
   /**
@@ -32,17 +32,18 @@ import org.basinmc.stormdrain.utility.ValueUtility;
 public abstract class AbstractTimestampedResource extends AbstractResource implements Timestamped {
 
 
-  private final Instant creationTimestamp;
-  private final Instant modificationTimestamp;
+  // timestamps are retained as epoch seconds in order to spare an object per timestamp
+  private final long creationTimestamp;
+  private final long modificationTimestamp;
 
   protected AbstractTimestampedResource(
       @NonNull String id,
       @NonNull Instant creationTimestamp,
       @Nullable Instant modificationTimestamp) {
     super(id);
-    this.creationTimestamp = creationTimestamp;
-    this.modificationTimestamp = ValueUtility
-        .toOptionalModificationTimestamp(creationTimestamp, modificationTimestamp);
+    this.creationTimestamp = ValueUtility.toEpochSecond(creationTimestamp);
+    this.modificationTimestamp = ValueUtility.toEpochSecond(ValueUtility
+        .toOptionalModificationTimestamp(creationTimestamp, modificationTimestamp));
   }
 
   /**
@@ -51,7 +52,8 @@ public abstract class AbstractTimestampedResource extends AbstractResource imple
   @NonNull
   @Override
   public Instant getCreationTimestamp() {
-    return this.creationTimestamp;
+    return ValueUtility
+        .requireLoaded(this, "created_at", ValueUtility.toInstant(this.creationTimestamp));
   }
 
   /**
@@ -60,7 +62,7 @@ public abstract class AbstractTimestampedResource extends AbstractResource imple
   @NonNull
   @Override
   public Optional<Instant> getModificationTimestamp() {
-    return Optional.ofNullable(this.modificationTimestamp);
+    return Optional.ofNullable(ValueUtility.toInstant(this.modificationTimestamp));
   }
 
   /**
@@ -78,8 +80,8 @@ public abstract class AbstractTimestampedResource extends AbstractResource imple
       return false;
     }
     AbstractTimestampedResource that = (AbstractTimestampedResource) o;
-    return Objects.equals(this.creationTimestamp, that.creationTimestamp) &&
-        Objects.equals(this.modificationTimestamp, that.modificationTimestamp);
+    return this.creationTimestamp == that.creationTimestamp &&
+        this.modificationTimestamp == that.modificationTimestamp;
   }
 
   /**
@@ -66,7 +66,7 @@ public class Comment extends AbstractTimestampedBrowserAccessibleResource {
    */
   @NonNull
   public User getUser() {
-    return this.user;
+    return ValueUtility.requireLoaded(this, "user", this.user);
   }
 
   /**
@@ -36,7 +36,8 @@ import org.basinmc.stormdrain.utility.ValueUtility;
  */
 public class Commit extends AbstractBrowserAccessibleResource {
 
-  private final String treeId;
+  private final ObjectId id;
+  private final ObjectId treeId;
   private final boolean distinct;
   private final String message;
 
@@ -50,8 +51,8 @@ public class Commit extends AbstractBrowserAccessibleResource {
 
   @JsonCreator
   public Commit(
-      @NonNull @JsonProperty(value = "id", required = true) String id,
-      @NonNull @JsonProperty(value = "tree_id", required = true) String treeId,
+      @NonNull @JsonProperty(value = "id", required = true) ObjectId id,
+      @NonNull @JsonProperty(value = "tree_id", required = true) ObjectId treeId,
       @JsonProperty("distinct") boolean distinct,
       @NonNull @JsonProperty(value = "message", required = true) String message,
       @NonNull @JsonProperty(value = "author", required = true) Author author,
@@ -61,16 +62,57 @@ public class Commit extends AbstractBrowserAccessibleResource {
       @NonNull @JsonProperty(value = "removed", required = true) Set<String> removedFiles,
       @NonNull @JsonProperty(value = "modified", required = true) Set<String> modifiedFiles,
       @NonNull @JsonProperty(value = "url", required = true) URL browserUrl) {
-    super(id, browserUrl);
+    super(browserUrl);
+    this.id = id;
     this.treeId = treeId;
     this.distinct = distinct;
     this.message = message;
     this.author = author;
-    this.committer = !author.equals(committer) ? committer : null;
+    this.committer = author == null || !author.equals(committer) ? committer : null;
     this.timestamp = timestamp;
-    this.addedFiles = new HashSet<>(addedFiles);
-    this.removedFiles = new HashSet<>(removedFiles);
-    this.modifiedFiles = new HashSet<>(modifiedFiles);
+    this.addedFiles = addedFiles == null ? null : new HashSet<>(addedFiles);
+    this.removedFiles = removedFiles == null ? null : new HashSet<>(removedFiles);
+    this.modifiedFiles = modifiedFiles == null ? null : new HashSet<>(modifiedFiles);
+  }
+
+  /**
+   * @deprecated Commit hashes are retained as {@link ObjectId} - use the {@link ObjectId} based
+   * constructor instead.
+   */
+  @Deprecated
+  public Commit(
+      @NonNull String id,
+      @NonNull String treeId,
+      boolean distinct,
+      @NonNull String message,
+      @NonNull Author author,
+      @NonNull Author committer,
+      @NonNull OffsetDateTime timestamp,
+      @NonNull Set<String> addedFiles,
+      @NonNull Set<String> removedFiles,
+      @NonNull Set<String> modifiedFiles,
+      @NonNull URL browserUrl) {
+    this(ObjectId.parse(id), ObjectId.parse(treeId), distinct, message, author, committer,
+        timestamp, addedFiles, removedFiles, modifiedFiles, browserUrl);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @NonNull
+  @Override
+  public String getId() {
+    return this.getObjectId().toString();
+  }
+
+  /**
+   * Retrieves the commit hash.
+   *
+   * @return a commit hash.
+   */
+  @NonNull
+  public ObjectId getObjectId() {
+    return ValueUtility.requireLoaded(this, "id", this.id);
   }
 
   /**
@@ -80,7 +122,17 @@ public class Commit extends AbstractBrowserAccessibleResource {
    */
   @NonNull
   public String getTreeId() {
-    return this.treeId;
+    return this.getTreeObjectId().toString();
+  }
+
+  /**
+   * Retrieves the git tree identifier.
+   *
+   * @return a tree hash.
+   */
+  @NonNull
+  public ObjectId getTreeObjectId() {
+    return ValueUtility.requireLoaded(this, "tree_id", this.treeId);
   }
 
   public boolean isDistinct() {
@@ -94,7 +146,7 @@ public class Commit extends AbstractBrowserAccessibleResource {
    */
   @NonNull
   public String getMessage() {
-    return this.message;
+    return ValueUtility.requireLoaded(this, "message", this.message);
   }
 
   /**
@@ -104,7 +156,7 @@ public class Commit extends AbstractBrowserAccessibleResource {
    */
   @NonNull
   public Author getAuthor() {
-    return this.author;
+    return ValueUtility.requireLoaded(this, "author", this.author);
   }
 
   /**
@@ -125,7 +177,7 @@ public class Commit extends AbstractBrowserAccessibleResource {
    */
   @NonNull
   public OffsetDateTime getTimestamp() {
-    return this.timestamp;
+    return ValueUtility.requireLoaded(this, "timestamp", this.timestamp);
   }
 
   /**
@@ -135,7 +187,7 @@ public class Commit extends AbstractBrowserAccessibleResource {
    */
   @NonNull
   public Set<String> getAddedFiles() {
-    return Collections.unmodifiableSet(this.addedFiles);
+    return Collections.unmodifiableSet(ValueUtility.requireLoaded(this, "added", this.addedFiles));
   }
 
   /**
@@ -145,7 +197,8 @@ public class Commit extends AbstractBrowserAccessibleResource {
    */
   @NonNull
   public Set<String> getRemovedFiles() {
-    return Collections.unmodifiableSet(this.removedFiles);
+    return Collections.unmodifiableSet(
+        ValueUtility.requireLoaded(this, "removed", this.removedFiles));
   }
 
   /**
@@ -155,7 +208,8 @@ public class Commit extends AbstractBrowserAccessibleResource {
    */
   @NonNull
   public Set<String> getModifiedFiles() {
-    return Collections.unmodifiableSet(this.modifiedFiles);
+    return Collections.unmodifiableSet(
+        ValueUtility.requireLoaded(this, "modified", this.modifiedFiles));
   }
 
   /**
@@ -174,6 +228,7 @@ public class Commit extends AbstractBrowserAccessibleResource {
     }
     Commit commit = (Commit) o;
     return this.distinct == commit.distinct &&
+        Objects.equals(this.id, commit.id) &&
         Objects.equals(this.treeId, commit.treeId) &&
         Objects.equals(this.message, commit.message) &&
         Objects.equals(this.author, commit.author) &&
@@ -190,7 +245,7 @@ public class Commit extends AbstractBrowserAccessibleResource {
   @Override
   public int hashCode() {
     return Objects
-        .hash(super.hashCode(), this.treeId, this.distinct, this.message, this.author,
+        .hash(super.hashCode(), this.id, this.treeId, this.distinct, this.message, this.author,
             this.committer, this.timestamp,
             this.addedFiles,
             this.removedFiles, this.modifiedFiles);
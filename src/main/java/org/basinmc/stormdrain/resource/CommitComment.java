@@ -16,6 +16,7 @@
  */
 package org.basinmc.stormdrain.resource;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.Nullable;
@@ -23,6 +24,7 @@ import java.net.URL;
 import java.time.Instant;
 import java.util.Objects;
 import java.util.Optional;
+import org.basinmc.stormdrain.utility.ValueUtility;
 
 /**
  * Represents a comment which has been placed on a particular file within a commit.
@@ -31,12 +33,13 @@ import java.util.Optional;
  */
 public class CommitComment extends Comment {
 
-  private final String commitId;
+  private final ObjectId commitId;
   private final Location location;
 
+  @JsonCreator
   public CommitComment(
       @NonNull @JsonProperty(value = "id", required = true) String id,
-      @NonNull @JsonProperty(value = "commit_id", required = true) String commitId,
+      @NonNull @JsonProperty(value = "commit_id", required = true) ObjectId commitId,
       @Nullable @JsonProperty(value = "line", required = true) Integer line,
       @Nullable @JsonProperty("path") String path,
       @NonNull @JsonProperty(value = "user", required = true) User user,
@@ -55,6 +58,24 @@ public class CommitComment extends Comment {
     this.location = path != null ? new Location(path, line) : null;
   }
 
+  /**
+   * @deprecated Commit hashes are retained as {@link ObjectId} - use the {@link ObjectId} based
+   * constructor instead.
+   */
+  @Deprecated
+  public CommitComment(
+      @NonNull String id,
+      @NonNull String commitId,
+      @Nullable Integer line,
+      @Nullable String path,
+      @NonNull User user,
+      @Nullable String body,
+      @NonNull URL browserUrl,
+      @NonNull Instant createdAt,
+      @NonNull Instant updatedAt) {
+    this(id, ObjectId.parse(commitId), line, path, user, body, browserUrl, createdAt, updatedAt);
+  }
+
   /**
    * Retrieves the sha hash for the commit this comment has been attached to.
    *
@@ -62,7 +83,17 @@ public class CommitComment extends Comment {
    */
   @NonNull
   public String getCommitId() {
-    return this.commitId;
+    return this.getCommitObjectId().toString();
+  }
+
+  /**
+   * Retrieves the sha hash for the commit this comment has been attached to.
+   *
+   * @return a commit hash.
+   */
+  @NonNull
+  public ObjectId getCommitObjectId() {
+    return ValueUtility.requireLoaded(this, "commit_id", this.commitId);
   }
 
   /**
@@ -32,6 +32,7 @@ import org.basinmc.stormdrain.utility.ValueUtility;
  */
 public class Deployment extends AbstractTimestampedResource {
 
+  private final ObjectId commitId;
   private final String environment;
   private final String description;
   private final User creator;
@@ -39,17 +40,53 @@ public class Deployment extends AbstractTimestampedResource {
   @JsonCreator
   public Deployment(
       @NonNull @JsonProperty(value = "id", required = true) String id,
+      @Nullable @JsonProperty("sha") ObjectId commitId,
       @NonNull @JsonProperty(value = "environment", required = true) String environment,
       @Nullable @JsonProperty("description") String description,
       @NonNull @JsonProperty(value = "creator", required = true) User creator,
       @NonNull @JsonProperty(value = "created_at", required = true) Instant createdAt,
       @NonNull @JsonProperty(value = "updated_at", required = true) Instant updatedAt) {
     super(id, createdAt, updatedAt);
+    this.commitId = commitId;
     this.environment = environment;
     this.description = ValueUtility.toOptionalString(description);
     this.creator = creator;
   }
 
+  /**
+   * @deprecated use the constructor which accepts the deployed commit hash instead.
+   */
+  @Deprecated
+  public Deployment(
+      @NonNull String id,
+      @NonNull String environment,
+      @Nullable String description,
+      @NonNull User creator,
+      @NonNull Instant createdAt,
+      @NonNull Instant updatedAt) {
+    this(id, null, environment, description, creator, createdAt, updatedAt);
+  }
+
+  /**
+   * Retrieves the hash of the commit which has been deployed.
+   *
+   * @return a commit hash.
+   */
+  @NonNull
+  public Optional<String> getCommitId() {
+    return this.getCommitObjectId().map(ObjectId::toString);
+  }
+
+  /**
+   * Retrieves the hash of the commit which has been deployed.
+   *
+   * @return a commit hash.
+   */
+  @NonNull
+  public Optional<ObjectId> getCommitObjectId() {
+    return Optional.ofNullable(this.commitId);
+  }
+
   /**
    * Retrieves an arbitrarily defined deployment environment on which this deployment took place.
    *
@@ -57,7 +94,7 @@ public class Deployment extends AbstractTimestampedResource {
    */
   @NonNull
   public String getEnvironment() {
-    return this.environment;
+    return ValueUtility.requireLoaded(this, "environment", this.environment);
   }
 
   /**
@@ -77,7 +114,7 @@ public class Deployment extends AbstractTimestampedResource {
    */
   @NonNull
   public User getCreator() {
-    return this.creator;
+    return ValueUtility.requireLoaded(this, "creator", this.creator);
   }
 
   /**
@@ -95,7 +132,8 @@ public class Deployment extends AbstractTimestampedResource {
       return false;
     }
     Deployment that = (Deployment) o;
-    return Objects.equals(this.environment, that.environment) &&
+    return Objects.equals(this.commitId, that.commitId) &&
+        Objects.equals(this.environment, that.environment) &&
         Objects.equals(this.description, that.description) &&
         Objects.equals(this.creator, that.creator);
   }
@@ -105,6 +143,7 @@ public class Deployment extends AbstractTimestampedResource {
    */
   @Override
   public int hashCode() {
-    return Objects.hash(super.hashCode(), this.environment, this.description, this.creator);
+    return Objects
+        .hash(super.hashCode(), this.commitId, this.environment, this.description, this.creator);
   }
 }
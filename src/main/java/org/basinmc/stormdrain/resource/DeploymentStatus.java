@@ -24,6 +24,7 @@ import java.net.URL;
 import java.time.Instant;
 import java.util.Objects;
 import java.util.Optional;
+import org.basinmc.stormdrain.utility.ValueUtility;
 
 /**
  * Represents the current status of a deployment.
@@ -57,7 +58,7 @@ public class DeploymentStatus extends AbstractTimestampedResource {
    */
   @NonNull
   public State getState() {
-    return this.state;
+    return ValueUtility.requireLoaded(this, "state", this.state);
   }
 
   /**
@@ -24,6 +24,7 @@ import java.net.URL;
 import java.util.Objects;
 import java.util.Optional;
 import org.basinmc.stormdrain.resource.Resource.BrowserAccessible;
+import org.basinmc.stormdrain.utility.ValueUtility;
 
 /**
  * Represents a Gollum wiki page and its respective changes.
@@ -36,7 +37,7 @@ public class GollumPage implements BrowserAccessible {
   private final String title;
   private final String summary;
   private final Action action;
-  private final String commitId;
+  private final ObjectId commitId;
   private final URL browserUrl;
 
   @JsonCreator
@@ -45,7 +46,7 @@ public class GollumPage implements BrowserAccessible {
       @NonNull @JsonProperty(value = "title", required = true) String title,
       @Nullable @JsonProperty("summary") String summary,
       @NonNull @JsonProperty(value = "action", required = true) Action action,
-      @NonNull @JsonProperty(value = "sha", required = true) String commitId,
+      @NonNull @JsonProperty(value = "sha", required = true) ObjectId commitId,
       @NonNull @JsonProperty(value = "html_url", required = true) URL browserUrl) {
     this.pageName = pageName;
     this.title = title;
@@ -55,6 +56,21 @@ public class GollumPage implements BrowserAccessible {
     this.browserUrl = browserUrl;
   }
 
+  /**
+   * @deprecated Commit hashes are retained as {@link ObjectId} - use the {@link ObjectId} based
+   * constructor instead.
+   */
+  @Deprecated
+  public GollumPage(
+      @NonNull String pageName,
+      @NonNull String title,
+      @Nullable String summary,
+      @NonNull Action action,
+      @NonNull String commitId,
+      @NonNull URL browserUrl) {
+    this(pageName, title, summary, action, ObjectId.parse(commitId), browserUrl);
+  }
+
   /**
    * Retrieves a URL friendly name for this page.
    *
@@ -62,7 +78,7 @@ public class GollumPage implements BrowserAccessible {
    */
   @NonNull
   public String getPageName() {
-    return this.pageName;
+    return ValueUtility.requireLoaded(this, "page_name", this.pageName);
   }
 
   /**
@@ -72,7 +88,7 @@ public class GollumPage implements BrowserAccessible {
    */
   @NonNull
   public String getTitle() {
-    return this.title;
+    return ValueUtility.requireLoaded(this, "title", this.title);
   }
 
   /**
@@ -92,7 +108,7 @@ public class GollumPage implements BrowserAccessible {
    */
   @NonNull
   public Action getAction() {
-    return this.action;
+    return ValueUtility.requireLoaded(this, "action", this.action);
   }
 
   /**
@@ -102,7 +118,17 @@ public class GollumPage implements BrowserAccessible {
    */
   @NonNull
   public String getCommitId() {
-    return this.commitId;
+    return this.getCommitObjectId().toString();
+  }
+
+  /**
+   * Retrieves the commit hash from which this page change originated.
+   *
+   * @return a commit hash.
+   */
+  @NonNull
+  public ObjectId getCommitObjectId() {
+    return ValueUtility.requireLoaded(this, "sha", this.commitId);
   }
 
   /**
@@ -111,7 +137,7 @@ public class GollumPage implements BrowserAccessible {
   @NonNull
   @Override
   public URL getBrowserUrl() {
-    return this.browserUrl;
+    return ValueUtility.requireLoaded(this, "html_url", this.browserUrl);
   }
 
   /**
@@ -22,6 +22,7 @@ import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.Nullable;
 import java.util.Objects;
 import java.util.Optional;
+import org.basinmc.stormdrain.utility.ValueUtility;
 
 /**
  * Represents an invitation to an organization or repository.
@@ -78,7 +79,7 @@ public class Invitation extends AbstractResource {
    */
   @NonNull
   public Role getRole() {
-    return this.role;
+    return ValueUtility.requireLoaded(this, "role", this.role);
   }
 
   /**
@@ -49,7 +49,7 @@ public class Issue extends AbstractTimestampedBrowserAccessibleResource {
   private final User assignee;
   private final Milestone milestone;
   private final Set<Label> labels;
-  private final Instant closedAt;
+  private final long closedAt;
 
   @JsonCreator
   public Issue(
@@ -79,7 +79,7 @@ public class Issue extends AbstractTimestampedBrowserAccessibleResource {
     this.assignee = assignee;
     this.milestone = milestone;
     this.labels = labels == null ? null : new HashSet<>(labels);
-    this.closedAt = closedAt;
+    this.closedAt = ValueUtility.toEpochSecond(closedAt);
   }
 
   /**
@@ -98,7 +98,7 @@ public class Issue extends AbstractTimestampedBrowserAccessibleResource {
    */
   @NonNull
   public String getTitle() {
-    return this.title;
+    return ValueUtility.requireLoaded(this, "title", this.title);
   }
 
   /**
@@ -119,7 +119,7 @@ public class Issue extends AbstractTimestampedBrowserAccessibleResource {
    */
   @NonNull
   public User getUser() {
-    return this.user;
+    return ValueUtility.requireLoaded(this, "user", this.user);
   }
 
   /**
@@ -129,7 +129,7 @@ public class Issue extends AbstractTimestampedBrowserAccessibleResource {
    */
   @NonNull
   public State getState() {
-    return this.state;
+    return ValueUtility.requireLoaded(this, "state", this.state);
   }
 
   /**
@@ -178,7 +178,7 @@ public class Issue extends AbstractTimestampedBrowserAccessibleResource {
    */
   @NonNull
   public Set<Label> getLabels() {
-    return Collections.unmodifiableSet(this.labels);
+    return Collections.unmodifiableSet(ValueUtility.requireLoaded(this, "labels", this.labels));
   }
 
   /**
@@ -189,7 +189,7 @@ public class Issue extends AbstractTimestampedBrowserAccessibleResource {
    */
   @NonNull
   public Optional<Instant> getClosedAt() {
-    return Optional.ofNullable(this.closedAt);
+    return Optional.ofNullable(ValueUtility.toInstant(this.closedAt));
   }
 
   /**
@@ -217,7 +217,7 @@ public class Issue extends AbstractTimestampedBrowserAccessibleResource {
         Objects.equals(this.assignee, issue.assignee) &&
         Objects.equals(this.milestone, issue.milestone) &&
         Objects.equals(this.labels, issue.labels) &&
-        Objects.equals(this.closedAt, issue.closedAt);
+        this.closedAt == issue.closedAt;
   }
 
   /**
@@ -256,7 +256,8 @@ public class Issue extends AbstractTimestampedBrowserAccessibleResource {
     public Label(
         @NonNull @JsonProperty(value = "name", required = true) String name,
         @NonNull @JsonProperty(value = "color", required = true) String color) {
-      this(name, (int) (Long.parseUnsignedLong(color, 16) & 0xFFFFFFFFL));
+      this(name,
+          color == null ? 0 : (int) (Long.parseUnsignedLong(color, 16) & 0xFFFFFFFFL));
     }
 
     @NonNull
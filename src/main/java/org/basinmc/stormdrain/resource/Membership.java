@@ -20,6 +20,7 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import java.util.Objects;
+import org.basinmc.stormdrain.utility.ValueUtility;
 
 /**
  * Represent's a user's membership within a team.
@@ -46,7 +47,7 @@ public class Membership {
    */
   @NonNull
   public Role getRole() {
-    return this.role;
+    return ValueUtility.requireLoaded(this, "role", this.role);
   }
 
   /**
@@ -56,7 +57,7 @@ public class Membership {
    */
   @NonNull
   public User getUser() {
-    return this.user;
+    return ValueUtility.requireLoaded(this, "user", this.user);
   }
 
   /**
@@ -88,7 +88,7 @@ public class Milestone extends AbstractTimestampedBrowserAccessibleResource {
    */
   @NonNull
   public State getState() {
-    return this.state;
+    return ValueUtility.requireLoaded(this, "state", this.state);
   }
 
   /**
@@ -98,7 +98,7 @@ public class Milestone extends AbstractTimestampedBrowserAccessibleResource {
    */
   @NonNull
   public String getTitle() {
-    return this.title;
+    return ValueUtility.requireLoaded(this, "title", this.title);
   }
 
   /**
@@ -118,7 +118,7 @@ public class Milestone extends AbstractTimestampedBrowserAccessibleResource {
    */
   @NonNull
   public User getCreator() {
-    return this.creator;
+    return ValueUtility.requireLoaded(this, "creator", this.creator);
   }
 
   /**
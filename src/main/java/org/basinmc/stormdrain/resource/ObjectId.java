@@ -0,0 +1,290 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.resource;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonCreator.Mode;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+/**
+ * <p>Represents a git object identifier (e.g. the SHA-1 hash of a commit or tree).</p>
+ *
+ * <p>Identifiers are retained as two longs and an int (rather than a 40 character string) and
+ * are only converted to their hexadecimal representation on demand. Mappers created through
+ * {@code PayloadType#createMapper()} decode identifiers straight from the parser's text buffer
+ * while any other mapper falls back to {@link #parse(CharSequence)}.</p>
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public final class ObjectId implements Comparable<ObjectId> {
+
+  /**
+   * Defines the length of the binary representation of an identifier (in bytes).
+   */
+  public static final int LENGTH = 20;
+
+  /**
+   * Defines the length of the hexadecimal representation of an identifier (in characters).
+   */
+  public static final int HEX_LENGTH = LENGTH * 2;
+
+  /**
+   * Identifies the absence of an object (for instance the previous commit of a newly created
+   * branch).
+   */
+  public static final ObjectId ZERO = new ObjectId(0, 0, 0);
+
+  private static final char[] DIGITS = "0123456789abcdef".toCharArray();
+
+  private final long high;
+  private final long middle;
+  private final int low;
+
+  private ObjectId(long high, long middle, int low) {
+    this.high = high;
+    this.middle = middle;
+    this.low = low;
+  }
+
+  /**
+   * Decodes a single hexadecimal digit.
+   *
+   * @param c a character.
+   * @return the value of the digit or -1 if the character is not a hexadecimal digit.
+   */
+  private static int digit(char c) {
+    if (c >= '0' && c <= '9') {
+      return c - '0';
+    }
+    if (c >= 'a' && c <= 'f') {
+      return c - 'a' + 10;
+    }
+    if (c >= 'A' && c <= 'F') {
+      return c - 'A' + 10;
+    }
+
+    return -1;
+  }
+
+  /**
+   * Decodes an identifier from its hexadecimal representation.
+   *
+   * @param value a hexadecimal identifier.
+   * @return an identifier.
+   * @throws IllegalArgumentException when the value is not a valid identifier.
+   */
+  @NonNull
+  @JsonCreator(mode = Mode.DELEGATING)
+  public static ObjectId parse(@NonNull CharSequence value) {
+    ObjectId id = tryParse(value);
+    if (id == null) {
+      throw new IllegalArgumentException(
+          "Illegal object id: \"" + value + "\" is not a " + HEX_LENGTH
+              + " digit hexadecimal hash");
+    }
+
+    return id;
+  }
+
+  /**
+   * Decodes an identifier from its hexadecimal representation.
+   *
+   * @param value a hexadecimal identifier.
+   * @return an identifier or null if the value is not a valid identifier.
+   */
+  @Nullable
+  public static ObjectId tryParse(@NonNull CharSequence value) {
+    if (value.length() != HEX_LENGTH) {
+      return null;
+    }
+
+    long high = 0;
+    long middle = 0;
+    int low = 0;
+    int invalid = 0;
+
+    for (int i = 0; i < 16; ++i) {
+      int digit = digit(value.charAt(i));
+      invalid |= digit;
+      high = high << 4 | (digit & 0xF);
+    }
+    for (int i = 16; i < 32; ++i) {
+      int digit = digit(value.charAt(i));
+      invalid |= digit;
+      middle = middle << 4 | (digit & 0xF);
+    }
+    for (int i = 32; i < HEX_LENGTH; ++i) {
+      int digit = digit(value.charAt(i));
+      invalid |= digit;
+      low = low << 4 | (digit & 0xF);
+    }
+
+    return invalid < 0 ? null : new ObjectId(high, middle, low);
+  }
+
+  /**
+   * Decodes an identifier from its hexadecimal representation within a character buffer (such
+   * as the text buffer of a parser).
+   *
+   * @param buffer a character buffer.
+   * @param offset the offset of the identifier within the buffer.
+   * @param length the length of the identifier.
+   * @return an identifier or null if the value is not a valid identifier.
+   */
+  @Nullable
+  public static ObjectId tryParse(@NonNull char[] buffer, int offset, int length) {
+    if (length != HEX_LENGTH) {
+      return null;
+    }
+
+    long high = 0;
+    long middle = 0;
+    int low = 0;
+    int invalid = 0;
+
+    for (int i = offset; i < offset + 16; ++i) {
+      int digit = digit(buffer[i]);
+      invalid |= digit;
+      high = high << 4 | (digit & 0xF);
+    }
+    for (int i = offset + 16; i < offset + 32; ++i) {
+      int digit = digit(buffer[i]);
+      invalid |= digit;
+      middle = middle << 4 | (digit & 0xF);
+    }
+    for (int i = offset + 32; i < offset + HEX_LENGTH; ++i) {
+      int digit = digit(buffer[i]);
+      invalid |= digit;
+      low = low << 4 | (digit & 0xF);
+    }
+
+    return invalid < 0 ? null : new ObjectId(high, middle, low);
+  }
+
+  /**
+   * Reads an identifier from its binary representation.
+   *
+   * @param value an array.
+   * @param offset the offset of the identifier within the array.
+   * @return an identifier.
+   */
+  @NonNull
+  public static ObjectId fromBytes(@NonNull byte[] value, int offset) {
+    long high = 0;
+    long middle = 0;
+    int low = 0;
+
+    for (int i = 0; i < 8; ++i) {
+      high = high << 8 | (value[offset + i] & 0xFF);
+      middle = middle << 8 | (value[offset + 8 + i] & 0xFF);
+    }
+    for (int i = 16; i < LENGTH; ++i) {
+      low = low << 8 | (value[offset + i] & 0xFF);
+    }
+
+    return new ObjectId(high, middle, low);
+  }
+
+  /**
+   * Writes the binary representation of this identifier to the specified array.
+   *
+   * @param target an array.
+   * @param offset the offset at which the identifier is written.
+   */
+  public void copyTo(@NonNull byte[] target, int offset) {
+    for (int i = 0; i < 8; ++i) {
+      target[offset + i] = (byte) (this.high >>> (56 - i * 8));
+      target[offset + 8 + i] = (byte) (this.middle >>> (56 - i * 8));
+    }
+    for (int i = 0; i < 4; ++i) {
+      target[offset + 16 + i] = (byte) (this.low >>> (24 - i * 8));
+    }
+  }
+
+  /**
+   * Evaluates whether this identifier consists of zeros only (e.g. references the absence of an
+   * object).
+   *
+   * @return true if zero, false otherwise.
+   */
+  public boolean isZero() {
+    return (this.high | this.middle | this.low) == 0;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int compareTo(@NonNull ObjectId o) {
+    int result = Long.compareUnsigned(this.high, o.high);
+    if (result == 0) {
+      result = Long.compareUnsigned(this.middle, o.middle);
+    }
+    if (result == 0) {
+      result = Integer.compareUnsigned(this.low, o.low);
+    }
+
+    return result;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof ObjectId)) {
+      return false;
+    }
+    ObjectId objectId = (ObjectId) o;
+    return this.high == objectId.high &&
+        this.middle == objectId.middle &&
+        this.low == objectId.low;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int hashCode() {
+    // hashes are uniformly distributed and thus require no further mixing
+    return (int) (this.high >>> 32);
+  }
+
+  /**
+   * Retrieves the hexadecimal representation of this identifier.
+   *
+   * @return a hexadecimal hash.
+   */
+  @Override
+  public String toString() {
+    char[] encoded = new char[HEX_LENGTH];
+
+    for (int i = 0; i < 16; ++i) {
+      encoded[i] = DIGITS[(int) (this.high >>> (60 - i * 4)) & 0xF];
+      encoded[16 + i] = DIGITS[(int) (this.middle >>> (60 - i * 4)) & 0xF];
+    }
+    for (int i = 0; i < 8; ++i) {
+      encoded[32 + i] = DIGITS[(this.low >>> (28 - i * 4)) & 0xF];
+    }
+
+    return new String(encoded);
+  }
+}
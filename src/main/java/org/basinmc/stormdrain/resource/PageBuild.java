@@ -38,7 +38,7 @@ public class PageBuild implements Timestamped {
   private final Status status;
   private final String errorMessage;
   private final Duration duration;
-  private final String commitId;
+  private final ObjectId commitId;
   private final User pusher;
   private final Instant creationTimestamp;
   private final Instant modificationTimestamp;
@@ -47,7 +47,7 @@ public class PageBuild implements Timestamped {
       @Nullable Status status,
       @Nullable String errorMessage,
       @Nullable Duration duration,
-      @NonNull String commitId,
+      @NonNull ObjectId commitId,
       @NonNull User pusher,
       @NonNull Instant creationTimestamp,
       @Nullable Instant modificationTimestamp) {
@@ -60,12 +60,29 @@ public class PageBuild implements Timestamped {
     this.modificationTimestamp = modificationTimestamp;
   }
 
+  /**
+   * @deprecated Commit hashes are retained as {@link ObjectId} - use the {@link ObjectId} based
+   * constructor instead.
+   */
+  @Deprecated
+  public PageBuild(
+      @Nullable Status status,
+      @Nullable String errorMessage,
+      @Nullable Duration duration,
+      @NonNull String commitId,
+      @NonNull User pusher,
+      @NonNull Instant creationTimestamp,
+      @Nullable Instant modificationTimestamp) {
+    this(status, errorMessage, duration, ObjectId.parse(commitId), pusher, creationTimestamp,
+        modificationTimestamp);
+  }
+
   @JsonCreator
   protected PageBuild(
       @JsonProperty("status") Status status,
       @Nullable @JsonProperty("error") Map<String, String> error,
       @Nullable @JsonProperty("duration") Duration duration,
-      @NonNull @JsonProperty(value = "commit", required = true) String commitId,
+      @NonNull @JsonProperty(value = "commit", required = true) ObjectId commitId,
       @NonNull @JsonProperty(value = "pusher", required = true) User pusher,
       @NonNull @JsonProperty(value = "created_at", required = true) Instant creationTimestamp,
       @Nullable @JsonProperty("updated_at") Instant modificationTimestamp) {
@@ -79,6 +96,23 @@ public class PageBuild implements Timestamped {
         .toOptionalModificationTimestamp(creationTimestamp, modificationTimestamp);
   }
 
+  /**
+   * @deprecated Commit hashes are retained as {@link ObjectId} - use the {@link ObjectId} based
+   * constructor instead.
+   */
+  @Deprecated
+  protected PageBuild(
+      Status status,
+      @Nullable Map<String, String> error,
+      @Nullable Duration duration,
+      @NonNull String commitId,
+      @NonNull User pusher,
+      @NonNull Instant creationTimestamp,
+      @Nullable Instant modificationTimestamp) {
+    this(status, error, duration, ObjectId.parse(commitId), pusher, creationTimestamp,
+        modificationTimestamp);
+  }
+
   /**
    * Retrieves the current state of this page build (or null if none has been assigned yet).
    *
@@ -86,7 +120,7 @@ public class PageBuild implements Timestamped {
    */
   @NonNull
   public Status getStatus() {
-    return this.status;
+    return ValueUtility.requireLoaded(this, "status", this.status);
   }
 
   /**
@@ -118,7 +152,17 @@ public class PageBuild implements Timestamped {
    */
   @NonNull
   public String getCommitId() {
-    return this.commitId;
+    return this.getCommitObjectId().toString();
+  }
+
+  /**
+   * Retrieves the hash of the commit which triggered this page build.
+   *
+   * @return a commit hash.
+   */
+  @NonNull
+  public ObjectId getCommitObjectId() {
+    return ValueUtility.requireLoaded(this, "commit", this.commitId);
   }
 
   /**
@@ -128,7 +172,7 @@ public class PageBuild implements Timestamped {
    */
   @NonNull
   public User getPusher() {
-    return this.pusher;
+    return ValueUtility.requireLoaded(this, "pusher", this.pusher);
   }
 
   /**
@@ -137,7 +181,7 @@ public class PageBuild implements Timestamped {
   @NonNull
   @Override
   public Instant getCreationTimestamp() {
-    return this.creationTimestamp;
+    return ValueUtility.requireLoaded(this, "created_at", this.creationTimestamp);
   }
 
   /**
@@ -25,6 +25,8 @@ import java.time.Instant;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import org.basinmc.stormdrain.UnloadedPropertyException;
+import org.basinmc.stormdrain.utility.ValueUtility;
 
 /**
  * Represents a pull request.
@@ -36,9 +38,11 @@ public class PullRequest extends Issue {
   private final String mergeCommitId;
   private final Reference head;
   private final Reference base;
+  // diff and patch URLs are only retained when they differ from the URLs which GitHub derives
+  // from the browser URL of a pull request (and are thus typically null)
   private final URL diffUrl;
   private final URL patchUrl;
-  private final Instant mergedAt;
+  private final long mergedAt;
 
   @JsonCreator
   public PullRequest(
@@ -68,9 +72,9 @@ public class PullRequest extends Issue {
     this.mergeCommitId = mergeCommitId;
     this.head = head;
     this.base = base;
-    this.diffUrl = diffUrl;
-    this.patchUrl = patchUrl;
-    this.mergedAt = mergedAt;
+    this.diffUrl = ValueUtility.toOptionalDerivedValue(diffUrl, htmlUrl + ".diff");
+    this.patchUrl = ValueUtility.toOptionalDerivedValue(patchUrl, htmlUrl + ".patch");
+    this.mergedAt = ValueUtility.toEpochSecond(mergedAt);
   }
 
   /**
@@ -90,7 +94,7 @@ public class PullRequest extends Issue {
    */
   @NonNull
   public Reference getHead() {
-    return this.head;
+    return ValueUtility.requireLoaded(this, "head", this.head);
   }
 
   /**
@@ -100,7 +104,7 @@ public class PullRequest extends Issue {
    */
   @NonNull
   public Reference getBase() {
-    return this.base;
+    return ValueUtility.requireLoaded(this, "base", this.base);
   }
 
   /**
@@ -110,7 +114,7 @@ public class PullRequest extends Issue {
    */
   @NonNull
   public Optional<Instant> getMergedAt() {
-    return Optional.ofNullable(this.mergedAt);
+    return Optional.ofNullable(ValueUtility.toInstant(this.mergedAt));
   }
 
   /**
@@ -120,7 +124,7 @@ public class PullRequest extends Issue {
    */
   @NonNull
   public URL getDiffUrl() {
-    return this.diffUrl;
+    return this.getUrl("diff_url", this.diffUrl, ".diff");
   }
 
   /**
@@ -130,7 +134,29 @@ public class PullRequest extends Issue {
    */
   @NonNull
   public URL getPatchUrl() {
-    return this.patchUrl;
+    return this.getUrl("patch_url", this.patchUrl, ".patch");
+  }
+
+  /**
+   * Retrieves a URL which has either been retained or is derived from the browser URL of this pull
+   * request.
+   *
+   * @param property a property name.
+   * @param value a retained value.
+   * @param suffix a suffix for derived values.
+   * @return a URL.
+   */
+  @NonNull
+  private URL getUrl(@NonNull String property, @Nullable URL value, @NonNull String suffix) {
+    if (value != null) {
+      return value;
+    }
+
+    try {
+      return ValueUtility.toUrl(this.getBrowserUrl() + suffix);
+    } catch (UnloadedPropertyException ex) {
+      throw new UnloadedPropertyException(this.getClass(), property);
+    }
   }
 
   /**
@@ -148,7 +174,7 @@ public class PullRequest extends Issue {
       return false;
     }
     PullRequest that = (PullRequest) o;
-    return Objects.equals(this.mergedAt, that.mergedAt) &&
+    return this.mergedAt == that.mergedAt &&
         Objects.equals(this.mergeCommitId, that.mergeCommitId) &&
         Objects.equals(this.head, that.head) &&
         Objects.equals(this.base, that.base);
@@ -20,6 +20,7 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import java.util.Objects;
+import org.basinmc.stormdrain.utility.ValueUtility;
 
 /**
  * Represents a reference to a repository branch.
@@ -30,7 +31,7 @@ public class Reference {
 
   private final String label;
   private final String reference;
-  private final String commitId;
+  private final ObjectId commitId;
   private final User user;
   private final Repository repository;
 
@@ -38,7 +39,7 @@ public class Reference {
   public Reference(
       @NonNull @JsonProperty(value = "label", required = true) String label,
       @NonNull @JsonProperty(value = "ref", required = true) String reference,
-      @NonNull @JsonProperty(value = "sha", required = true) String commitId,
+      @NonNull @JsonProperty(value = "sha", required = true) ObjectId commitId,
       @NonNull @JsonProperty(value = "user", required = true) User user,
       @NonNull @JsonProperty(value = "repo", required = true) Repository repository) {
     this.label = label;
@@ -48,6 +49,20 @@ public class Reference {
     this.repository = repository;
   }
 
+  /**
+   * @deprecated Commit hashes are retained as {@link ObjectId} - use the {@link ObjectId} based
+   * constructor instead.
+   */
+  @Deprecated
+  public Reference(
+      @NonNull String label,
+      @NonNull String reference,
+      @NonNull String commitId,
+      @NonNull User user,
+      @NonNull Repository repository) {
+    this(label, reference, ObjectId.parse(commitId), user, repository);
+  }
+
   /**
    * Retrieves a human readable label for this reference.
    *
@@ -55,7 +70,7 @@ public class Reference {
    */
   @NonNull
   public String getLabel() {
-    return this.label;
+    return ValueUtility.requireLoaded(this, "label", this.label);
   }
 
   /**
@@ -65,7 +80,7 @@ public class Reference {
    */
   @NonNull
   public String getReference() {
-    return this.reference;
+    return ValueUtility.requireLoaded(this, "ref", this.reference);
   }
 
   /**
@@ -75,7 +90,17 @@ public class Reference {
    */
   @NonNull
   public String getCommitId() {
-    return this.commitId;
+    return this.getCommitObjectId().toString();
+  }
+
+  /**
+   * Retrieves the commit identifier.
+   *
+   * @return a commit hash.
+   */
+  @NonNull
+  public ObjectId getCommitObjectId() {
+    return ValueUtility.requireLoaded(this, "sha", this.commitId);
   }
 
   /**
@@ -85,7 +110,7 @@ public class Reference {
    */
   @NonNull
   public User getUser() {
-    return this.user;
+    return ValueUtility.requireLoaded(this, "user", this.user);
   }
 
   /**
@@ -95,7 +120,7 @@ public class Reference {
    */
   @NonNull
   public Repository getRepository() {
-    return this.repository;
+    return ValueUtility.requireLoaded(this, "repo", this.repository);
   }
 
   /**
@@ -69,7 +69,7 @@ public class Release extends AbstractBrowserAccessibleResource {
     this.body = body;
     this.draft = draft;
     this.prerelease = prerelease;
-    this.assets = new HashSet<>(assets);
+    this.assets = assets == null ? null : new HashSet<>(assets);
     this.author = author;
     this.tarballUrl = tarballUrl;
     this.zipballUrl = zipballUrl;
@@ -84,7 +84,7 @@ public class Release extends AbstractBrowserAccessibleResource {
    */
   @NonNull
   public String getTagName() {
-    return this.tagName;
+    return ValueUtility.requireLoaded(this, "tag_name", this.tagName);
   }
 
   /**
@@ -132,7 +132,7 @@ public class Release extends AbstractBrowserAccessibleResource {
    */
   @NonNull
   public Set<Asset> getAssets() {
-    return Collections.unmodifiableSet(this.assets);
+    return Collections.unmodifiableSet(ValueUtility.requireLoaded(this, "assets", this.assets));
   }
 
   /**
@@ -142,7 +142,7 @@ public class Release extends AbstractBrowserAccessibleResource {
    */
   @NonNull
   public User getAuthor() {
-    return this.author;
+    return ValueUtility.requireLoaded(this, "author", this.author);
   }
 
   /**
@@ -153,7 +153,7 @@ public class Release extends AbstractBrowserAccessibleResource {
    */
   @NonNull
   public URL getTarballUrl() {
-    return this.tarballUrl;
+    return ValueUtility.requireLoaded(this, "tarball_url", this.tarballUrl);
   }
 
   /**
@@ -164,7 +164,7 @@ public class Release extends AbstractBrowserAccessibleResource {
    */
   @NonNull
   public URL getZipballUrl() {
-    return this.zipballUrl;
+    return ValueUtility.requireLoaded(this, "zipball_url", this.zipballUrl);
   }
 
   /**
@@ -174,7 +174,7 @@ public class Release extends AbstractBrowserAccessibleResource {
    */
   @NonNull
   public Instant getCreationTimestamp() {
-    return this.creationTimestamp;
+    return ValueUtility.requireLoaded(this, "created_at", this.creationTimestamp);
   }
 
   /**
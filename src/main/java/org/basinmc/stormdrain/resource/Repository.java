@@ -23,6 +23,7 @@ import java.net.URL;
 import java.time.Instant;
 import java.util.Objects;
 import java.util.Optional;
+import org.basinmc.stormdrain.UnloadedPropertyException;
 import org.basinmc.stormdrain.utility.ValueUtility;
 
 /**
@@ -32,13 +33,22 @@ import org.basinmc.stormdrain.utility.ValueUtility;
  */
 public class Repository extends AbstractTimestampedBrowserAccessibleResource {
 
+  private static final String BASE_URL = "https://github.com/";
+
+  private static final int FLAG_PRIVATE = 0x01;
+  private static final int FLAG_FORK = 0x02;
+  private static final int FLAG_ISSUES = 0x04;
+  private static final int FLAG_DOWNLOADS = 0x08;
+  private static final int FLAG_WIKI = 0x10;
+  private static final int FLAG_PAGES = 0x20;
+
   private final String name;
   private final String fullName;
   private final ResourceOwner owner;
   private final String description;
-  private final boolean privateAccess;
-  private final boolean fork;
 
+  // clone URLs are only retained when they differ from the URLs which GitHub derives from the
+  // full name of a repository (and are thus typically null)
   private final String gitUrl;
   private final String sshUrl;
   private final String cloneUrl;
@@ -47,7 +57,7 @@ public class Repository extends AbstractTimestampedBrowserAccessibleResource {
   private final URL homepageUrl;
   private final String defaultBranch;
 
-  private final Instant pushedAt;
+  private final long pushedAt;
   private final long size;
   private final String primaryLanguage;
 
@@ -56,10 +66,7 @@ public class Repository extends AbstractTimestampedBrowserAccessibleResource {
   private final int forksCount;
   private final int openIssuesCount;
 
-  private final boolean hasIssues;
-  private final boolean hasDownloads;
-  private final boolean hasWiki;
-  private final boolean hasPages;
+  private final byte flags;
 
   public Repository(
       @NonNull @JsonProperty(value = "id", required = true) String id,
@@ -90,31 +97,75 @@ public class Repository extends AbstractTimestampedBrowserAccessibleResource {
       @NonNull @JsonProperty(value = "created_at", required = true) Instant createdAt,
       @NonNull @JsonProperty(value = "updated_at", required = true) Instant updatedAt,
       @Nullable @JsonProperty("pushed_at") Instant pushedAt) {
-    super(id, browserUrl, createdAt, updatedAt);
+    super(id, ValueUtility.toOptionalDerivedValue(browserUrl, BASE_URL + fullName), createdAt,
+        updatedAt);
     this.name = name;
     this.fullName = fullName;
     this.owner = owner;
-    this.privateAccess = privateAccess;
     this.description = ValueUtility.toOptionalString(description);
-    this.fork = fork;
-    this.gitUrl = gitUrl;
-    this.sshUrl = sshUrl;
-    this.cloneUrl = cloneUrl;
-    this.svnUrl = svnUrl;
+    this.gitUrl = ValueUtility
+        .toOptionalDerivedValue(gitUrl, "git://github.com/" + fullName + ".git");
+    this.sshUrl = ValueUtility.toOptionalDerivedValue(sshUrl, "git@github.com:" + fullName + ".git");
+    this.cloneUrl = ValueUtility.toOptionalDerivedValue(cloneUrl, BASE_URL + fullName + ".git");
+    this.svnUrl = ValueUtility.toOptionalDerivedValue(svnUrl, BASE_URL + fullName);
     this.mirrorUrl = mirrorUrl;
     this.homepageUrl = homepageUrl;
     this.defaultBranch = defaultBranch;
-    this.pushedAt = pushedAt;
+    this.pushedAt = ValueUtility.toEpochSecond(pushedAt);
     this.size = size;
     this.primaryLanguage = primaryLanguage;
     this.stargazersCount = stargazersCount;
     this.watchersCount = watchersCount;
     this.forksCount = forksCount;
     this.openIssuesCount = openIssuesCount;
-    this.hasIssues = hasIssues;
-    this.hasDownloads = hasDownloads;
-    this.hasWiki = hasWiki;
-    this.hasPages = hasPages;
+    this.flags = (byte) ((privateAccess ? FLAG_PRIVATE : 0)
+        | (fork ? FLAG_FORK : 0)
+        | (hasIssues ? FLAG_ISSUES : 0)
+        | (hasDownloads ? FLAG_DOWNLOADS : 0)
+        | (hasWiki ? FLAG_WIKI : 0)
+        | (hasPages ? FLAG_PAGES : 0));
+  }
+
+  /**
+   * Retrieves a URL which has either been retained or is derived from the full name of this
+   * repository.
+   *
+   * @param property a property name.
+   * @param value a retained value.
+   * @param prefix a prefix for derived values.
+   * @param suffix a suffix for derived values.
+   * @return a URL.
+   */
+  @NonNull
+  private String getUrl(@NonNull String property, @Nullable String value, @NonNull String prefix,
+      @NonNull String suffix) {
+    if (value != null) {
+      return value;
+    }
+    if (this.fullName == null) {
+      throw new UnloadedPropertyException(this.getClass(), property);
+    }
+
+    return prefix + this.fullName + suffix;
+  }
+
+  /**
+   * Evaluates whether the specified flag has been set for this repository.
+   *
+   * @param flag a flag.
+   * @return true if set, false otherwise.
+   */
+  private boolean hasFlag(int flag) {
+    return (this.flags & flag) != 0;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Nullable
+  @Override
+  protected URL deriveBrowserUrl() {
+    return this.fullName == null ? null : ValueUtility.toUrl(BASE_URL + this.fullName);
   }
 
   /**
@@ -124,7 +175,7 @@ public class Repository extends AbstractTimestampedBrowserAccessibleResource {
    */
   @NonNull
   public String getName() {
-    return this.name;
+    return ValueUtility.requireLoaded(this, "name", this.name);
   }
 
   /**
@@ -135,7 +186,7 @@ public class Repository extends AbstractTimestampedBrowserAccessibleResource {
    */
   @NonNull
   public String getFullName() {
-    return this.fullName;
+    return ValueUtility.requireLoaded(this, "full_name", this.fullName);
   }
 
   /**
@@ -145,7 +196,7 @@ public class Repository extends AbstractTimestampedBrowserAccessibleResource {
    */
   @NonNull
   public ResourceOwner getOwner() {
-    return this.owner;
+    return ValueUtility.requireLoaded(this, "owner", this.owner);
   }
 
   /**
@@ -165,7 +216,7 @@ public class Repository extends AbstractTimestampedBrowserAccessibleResource {
    * @return true if private, false otherwise.
    */
   public boolean isPrivateAccess() {
-    return this.privateAccess;
+    return this.hasFlag(FLAG_PRIVATE);
   }
 
   /**
@@ -174,7 +225,7 @@ public class Repository extends AbstractTimestampedBrowserAccessibleResource {
    * @return true if forked, false otherwise.
    */
   public boolean isFork() {
-    return this.fork;
+    return this.hasFlag(FLAG_FORK);
   }
 
   /**
@@ -184,7 +235,7 @@ public class Repository extends AbstractTimestampedBrowserAccessibleResource {
    */
   @NonNull
   public String getGitUrl() {
-    return this.gitUrl;
+    return this.getUrl("git_url", this.gitUrl, "git://github.com/", ".git");
   }
 
   /**
@@ -194,7 +245,7 @@ public class Repository extends AbstractTimestampedBrowserAccessibleResource {
    */
   @NonNull
   public String getSshUrl() {
-    return this.sshUrl;
+    return this.getUrl("ssh_url", this.sshUrl, "git@github.com:", ".git");
   }
 
   /**
@@ -204,7 +255,7 @@ public class Repository extends AbstractTimestampedBrowserAccessibleResource {
    */
   @NonNull
   public String getCloneUrl() {
-    return this.cloneUrl;
+    return this.getUrl("clone_url", this.cloneUrl, BASE_URL, ".git");
   }
 
   /**
@@ -214,7 +265,7 @@ public class Repository extends AbstractTimestampedBrowserAccessibleResource {
    */
   @NonNull
   public String getSvnUrl() {
-    return this.svnUrl;
+    return this.getUrl("svn_url", this.svnUrl, BASE_URL, "");
   }
 
   /**
@@ -244,7 +295,7 @@ public class Repository extends AbstractTimestampedBrowserAccessibleResource {
    */
   @NonNull
   public String getDefaultBranch() {
-    return this.defaultBranch;
+    return ValueUtility.requireLoaded(this, "default_branch", this.defaultBranch);
   }
 
   /**
@@ -256,7 +307,7 @@ public class Repository extends AbstractTimestampedBrowserAccessibleResource {
    */
   @NonNull
   public Optional<Instant> getPushedAt() {
-    return Optional.ofNullable(this.pushedAt);
+    return Optional.ofNullable(ValueUtility.toInstant(this.pushedAt));
   }
 
   /**
@@ -321,7 +372,7 @@ public class Repository extends AbstractTimestampedBrowserAccessibleResource {
    * @return true if enabled, false otherwise.
    */
   public boolean hasIssues() {
-    return this.hasIssues;
+    return this.hasFlag(FLAG_ISSUES);
   }
 
   /**
@@ -330,7 +381,7 @@ public class Repository extends AbstractTimestampedBrowserAccessibleResource {
    * @return true if downloads exist, false otherwise.
    */
   public boolean hasDownloads() {
-    return this.hasDownloads;
+    return this.hasFlag(FLAG_DOWNLOADS);
   }
 
   /**
@@ -339,7 +390,7 @@ public class Repository extends AbstractTimestampedBrowserAccessibleResource {
    * @return true if enabled, false otherwise.
    */
   public boolean hasWiki() {
-    return this.hasWiki;
+    return this.hasFlag(FLAG_WIKI);
   }
 
   /**
@@ -348,7 +399,7 @@ public class Repository extends AbstractTimestampedBrowserAccessibleResource {
    * @return true if enabled, false otherwise.
    */
   public boolean hasPages() {
-    return this.hasPages;
+    return this.hasFlag(FLAG_PAGES);
   }
 
   /**
@@ -366,17 +417,13 @@ public class Repository extends AbstractTimestampedBrowserAccessibleResource {
       return false;
     }
     Repository that = (Repository) o;
-    return this.privateAccess == that.privateAccess &&
-        this.fork == that.fork &&
+    return this.flags == that.flags &&
+        this.pushedAt == that.pushedAt &&
         this.size == that.size &&
         this.stargazersCount == that.stargazersCount &&
         this.watchersCount == that.watchersCount &&
         this.forksCount == that.forksCount &&
         this.openIssuesCount == that.openIssuesCount &&
-        this.hasIssues == that.hasIssues &&
-        this.hasDownloads == that.hasDownloads &&
-        this.hasWiki == that.hasWiki &&
-        this.hasPages == that.hasPages &&
         Objects.equals(this.name, that.name) &&
         Objects.equals(this.fullName, that.fullName) &&
         Objects.equals(this.owner, that.owner) &&
@@ -388,7 +435,6 @@ public class Repository extends AbstractTimestampedBrowserAccessibleResource {
         Objects.equals(this.mirrorUrl, that.mirrorUrl) &&
         Objects.equals(this.homepageUrl, that.homepageUrl) &&
         Objects.equals(this.defaultBranch, that.defaultBranch) &&
-        Objects.equals(this.pushedAt, that.pushedAt) &&
         Objects.equals(this.primaryLanguage, that.primaryLanguage);
   }
 
@@ -399,14 +445,11 @@ public class Repository extends AbstractTimestampedBrowserAccessibleResource {
   public int hashCode() {
     return Objects
         .hash(super.hashCode(), this.name, this.fullName, this.owner, this.description,
-            this.privateAccess, this.fork,
+            this.flags,
             this.gitUrl,
             this.sshUrl, this.cloneUrl, this.svnUrl, this.mirrorUrl, this.homepageUrl,
             this.defaultBranch, this.pushedAt, this.size,
             this.primaryLanguage,
-            this.stargazersCount, this.watchersCount, this.forksCount, this.openIssuesCount,
-            this.hasIssues,
-            this.hasDownloads,
-            this.hasWiki, this.hasPages);
+            this.stargazersCount, this.watchersCount, this.forksCount, this.openIssuesCount);
   }
 }
@@ -32,6 +32,8 @@ import org.basinmc.stormdrain.utility.ValueUtility;
  */
 public class ResourceOwner extends AbstractBrowserAccessibleResource {
 
+  private static final String BASE_URL = "https://github.com/";
+
   private final String login;
   private final Type type;
   private final boolean siteAdmin;
@@ -46,9 +48,8 @@ public class ResourceOwner extends AbstractBrowserAccessibleResource {
       @Nullable @JsonProperty("gravatarId") String gravatarId,
       @NonNull @JsonProperty(value = "avatar_url", required = true) URL avatarUrl)
       throws MalformedURLException {
-    // This sucks a bit but resource owners don't come with an HTML url by default
-    this(id, login, type, siteAdmin, new URL("https://github.com/" + login),
-        ValueUtility.toOptionalString(gravatarId), avatarUrl);
+    // resource owners don't come with an HTML url by default so we'll derive it on demand
+    this(id, login, type, siteAdmin, null, ValueUtility.toOptionalString(gravatarId), avatarUrl);
   }
 
   protected ResourceOwner(
@@ -56,10 +57,10 @@ public class ResourceOwner extends AbstractBrowserAccessibleResource {
       @NonNull String login,
       @NonNull Type type,
       boolean siteAdmin,
-      @NonNull URL browserUrl,
+      @Nullable URL browserUrl,
       @Nullable String gravatarId,
       @NonNull URL avatarUrl) {
-    super(id, browserUrl);
+    super(id, ValueUtility.toOptionalDerivedValue(browserUrl, BASE_URL + login));
     this.login = login;
     this.type = type;
     this.siteAdmin = siteAdmin;
@@ -67,6 +68,15 @@ public class ResourceOwner extends AbstractBrowserAccessibleResource {
     this.avatarUrl = avatarUrl;
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Nullable
+  @Override
+  protected URL deriveBrowserUrl() {
+    return this.login == null ? null : ValueUtility.toUrl(BASE_URL + this.login);
+  }
+
   /**
    * Retrieves the login name (e.g. the url friendly name) of this owner.
    *
@@ -74,7 +84,7 @@ public class ResourceOwner extends AbstractBrowserAccessibleResource {
    */
   @NonNull
   public String getLogin() {
-    return this.login;
+    return ValueUtility.requireLoaded(this, "login", this.login);
   }
 
   /**
@@ -84,7 +94,7 @@ public class ResourceOwner extends AbstractBrowserAccessibleResource {
    */
   @NonNull
   public Type getType() {
-    return this.type;
+    return ValueUtility.requireLoaded(this, "type", this.type);
   }
 
   /**
@@ -114,7 +124,7 @@ public class ResourceOwner extends AbstractBrowserAccessibleResource {
    */
   @NonNull
   public URL getAvatarUrl() {
-    return this.avatarUrl;
+    return ValueUtility.requireLoaded(this, "avatar_url", this.avatarUrl);
   }
 
   /**
@@ -22,6 +22,7 @@ import edu.umd.cs.findbugs.annotations.NonNull;
 import java.net.URL;
 import java.time.Instant;
 import java.util.Objects;
+import org.basinmc.stormdrain.utility.ValueUtility;
 
 /**
  * Represents a pull request review.
@@ -57,7 +58,7 @@ public class Review extends AbstractBrowserAccessibleResource {
    */
   @NonNull
   public String getBody() {
-    return this.body;
+    return ValueUtility.requireLoaded(this, "body", this.body);
   }
 
   /**
@@ -67,7 +68,7 @@ public class Review extends AbstractBrowserAccessibleResource {
    */
   @NonNull
   public Instant getSubmissionTimestamp() {
-    return this.submissionTimestamp;
+    return ValueUtility.requireLoaded(this, "submitted_at", this.submissionTimestamp);
   }
 
   /**
@@ -77,7 +78,7 @@ public class Review extends AbstractBrowserAccessibleResource {
    */
   @NonNull
   public State getState() {
-    return this.state;
+    return ValueUtility.requireLoaded(this, "state", this.state);
   }
 
   /**
@@ -87,7 +88,7 @@ public class Review extends AbstractBrowserAccessibleResource {
    */
   @NonNull
   public User getUser() {
-    return this.user;
+    return ValueUtility.requireLoaded(this, "user", this.user);
   }
 
   /**
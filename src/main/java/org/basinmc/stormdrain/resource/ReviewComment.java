@@ -23,6 +23,7 @@ import edu.umd.cs.findbugs.annotations.Nullable;
 import java.net.URL;
 import java.time.Instant;
 import java.util.Objects;
+import org.basinmc.stormdrain.utility.ValueUtility;
 
 /**
  * Represents a review comment.
@@ -35,8 +36,8 @@ public class ReviewComment extends Comment {
   private final String diffHunk;
   private final int position;
   private final int originalPosition;
-  private final String commitId;
-  private final String originalCommitId;
+  private final ObjectId commitId;
+  private final ObjectId originalCommitId;
 
   @JsonCreator
   public ReviewComment(
@@ -46,8 +47,8 @@ public class ReviewComment extends Comment {
       @NonNull @JsonProperty(value = "diff_hunk", required = true) String diffHunk,
       @JsonProperty("position") int position,
       @JsonProperty("original_position") int originalPosition,
-      @NonNull @JsonProperty(value = "commit_id", required = true) String commitId,
-      @NonNull @JsonProperty(value = "original_commit_id", required = true) String originalCommitId,
+      @NonNull @JsonProperty(value = "commit_id", required = true) ObjectId commitId,
+      @NonNull @JsonProperty(value = "original_commit_id", required = true) ObjectId originalCommitId,
       @NonNull @JsonProperty(value = "user", required = true) User user,
       @NonNull @JsonProperty(value = "html_url", required = true) URL browserUrl,
       @NonNull @JsonProperty(value = "created_at", required = true) Instant createdAt,
@@ -61,6 +62,28 @@ public class ReviewComment extends Comment {
     this.originalCommitId = originalCommitId;
   }
 
+  /**
+   * @deprecated Commit hashes are retained as {@link ObjectId} - use the {@link ObjectId} based
+   * constructor instead.
+   */
+  @Deprecated
+  public ReviewComment(
+      @NonNull String id,
+      @Nullable String body,
+      @NonNull String path,
+      @NonNull String diffHunk,
+      int position,
+      int originalPosition,
+      @NonNull String commitId,
+      @NonNull String originalCommitId,
+      @NonNull User user,
+      @NonNull URL browserUrl,
+      @NonNull Instant createdAt,
+      @NonNull Instant updatedAt) {
+    this(id, body, path, diffHunk, position, originalPosition, ObjectId.parse(commitId),
+        ObjectId.parse(originalCommitId), user, browserUrl, createdAt, updatedAt);
+  }
+
   /**
    * Retrieves the relative file path on which this comment was placed.
    *
@@ -68,7 +91,7 @@ public class ReviewComment extends Comment {
    */
   @NonNull
   public String getPath() {
-    return this.path;
+    return ValueUtility.requireLoaded(this, "path", this.path);
   }
 
   /**
@@ -78,7 +101,7 @@ public class ReviewComment extends Comment {
    */
   @NonNull
   public String getDiffHunk() {
-    return this.diffHunk;
+    return ValueUtility.requireLoaded(this, "diff_hunk", this.diffHunk);
   }
 
   /**
@@ -105,13 +128,28 @@ public class ReviewComment extends Comment {
    */
   @NonNull
   public String getCommitId() {
-    return this.commitId;
+    return this.getCommitObjectId().toString();
+  }
+
+  /**
+   * Retrieves the commit identifier on which this review was placed.
+   * @return a commit hash.
+   */
+  @NonNull
+  public ObjectId getCommitObjectId() {
+    return ValueUtility.requireLoaded(this, "commit_id", this.commitId);
   }
 
   // TODO: Document
   @NonNull
   public String getOriginalCommitId() {
-    return this.originalCommitId;
+    return this.getOriginalCommitObjectId().toString();
+  }
+
+  // TODO: Document
+  @NonNull
+  public ObjectId getOriginalCommitObjectId() {
+    return ValueUtility.requireLoaded(this, "original_commit_id", this.originalCommitId);
   }
 
   /**
@@ -20,6 +20,7 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import java.util.Objects;
+import org.basinmc.stormdrain.utility.ValueUtility;
 
 /**
  * Represents a team within an organization.
@@ -51,7 +52,7 @@ public class Team extends AbstractResource {
    */
   @NonNull
   public String getName() {
-    return this.name;
+    return ValueUtility.requireLoaded(this, "name", this.name);
   }
 
   /**
@@ -61,7 +62,7 @@ public class Team extends AbstractResource {
    */
   @NonNull
   public String getSlug() {
-    return this.slug;
+    return ValueUtility.requireLoaded(this, "slug", this.slug);
   }
 
   /**
@@ -71,7 +72,7 @@ public class Team extends AbstractResource {
    */
   @NonNull
   public Permission getPermission() {
-    return this.permission;
+    return ValueUtility.requireLoaded(this, "permission", this.permission);
   }
 
   /**
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.review;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Represents the review and merge latencies of a single pull request which has been closed.
+ */
+public final class PullRequestLatency {
+
+  private final long repositoryId;
+  private final String repositoryName;
+  private final long number;
+  private final Instant openedAt;
+  private final Instant firstReviewAt;
+  private final int reviewCount;
+  private final Instant closedAt;
+  private final Instant mergedAt;
+
+  public PullRequestLatency(long repositoryId, @NonNull String repositoryName, long number,
+      @NonNull Instant openedAt, @Nullable Instant firstReviewAt, int reviewCount,
+      @NonNull Instant closedAt, @Nullable Instant mergedAt) {
+    this.repositoryId = repositoryId;
+    this.repositoryName = repositoryName;
+    this.number = number;
+    this.openedAt = openedAt;
+    this.firstReviewAt = firstReviewAt;
+    this.reviewCount = reviewCount;
+    this.closedAt = closedAt;
+    this.mergedAt = mergedAt;
+  }
+
+  /**
+   * Retrieves the numeric identifier of the repository to which the pull request belongs.
+   *
+   * @return a repository identifier.
+   */
+  public long getRepositoryId() {
+    return this.repositoryId;
+  }
+
+  /**
+   * Retrieves the full name of the repository to which the pull request belongs.
+   *
+   * @return a repository name.
+   */
+  @NonNull
+  public String getRepositoryName() {
+    return this.repositoryName;
+  }
+
+  /**
+   * Retrieves the number of the pull request within its repository.
+   *
+   * @return a pull request number.
+   */
+  public long getNumber() {
+    return this.number;
+  }
+
+  /**
+   * Retrieves the time at which the pull request has been opened.
+   *
+   * @return a timestamp.
+   */
+  @NonNull
+  public Instant getOpenedAt() {
+    return this.openedAt;
+  }
+
+  /**
+   * Retrieves the time at which the first review (or review comment) has been submitted by a user
+   * other than the author of the pull request.
+   *
+   * @return a timestamp or an empty optional if no review has been observed.
+   */
+  @NonNull
+  public Optional<Instant> getFirstReviewAt() {
+    return Optional.ofNullable(this.firstReviewAt);
+  }
+
+  /**
+   * Retrieves the amount of reviews and review comments which have been observed while the pull
+   * request was open.
+   *
+   * @return an amount of reviews.
+   */
+  public int getReviewCount() {
+    return this.reviewCount;
+  }
+
+  /**
+   * Retrieves the time at which the pull request has been closed.
+   *
+   * @return a timestamp.
+   */
+  @NonNull
+  public Instant getClosedAt() {
+    return this.closedAt;
+  }
+
+  /**
+   * Retrieves the time at which the pull request has been merged.
+   *
+   * @return a timestamp or an empty optional if the pull request has been closed without merging.
+   */
+  @NonNull
+  public Optional<Instant> getMergedAt() {
+    return Optional.ofNullable(this.mergedAt);
+  }
+
+  /**
+   * Evaluates whether the pull request has been merged.
+   *
+   * @return true if merged, false otherwise.
+   */
+  public boolean isMerged() {
+    return this.mergedAt != null;
+  }
+
+  /**
+   * Retrieves the time between opening the pull request and its first review.
+   *
+   * @return a duration or an empty optional if no review has been observed.
+   */
+  @NonNull
+  public Optional<Duration> getTimeToFirstReview() {
+    return this.getFirstReviewAt().map((at) -> Duration.between(this.openedAt, at));
+  }
+
+  /**
+   * Retrieves the time between opening and merging the pull request.
+   *
+   * @return a duration or an empty optional if the pull request has not been merged.
+   */
+  @NonNull
+  public Optional<Duration> getTimeToMerge() {
+    return this.getMergedAt().map((at) -> Duration.between(this.openedAt, at));
+  }
+
+  /**
+   * Retrieves the time between opening and closing the pull request.
+   *
+   * @return a duration.
+   */
+  @NonNull
+  public Duration getTimeToClose() {
+    return Duration.between(this.openedAt, this.closedAt);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof PullRequestLatency)) {
+      return false;
+    }
+    PullRequestLatency that = (PullRequestLatency) o;
+    return this.repositoryId == that.repositoryId &&
+        this.number == that.number &&
+        this.reviewCount == that.reviewCount &&
+        Objects.equals(this.repositoryName, that.repositoryName) &&
+        Objects.equals(this.openedAt, that.openedAt) &&
+        Objects.equals(this.firstReviewAt, that.firstReviewAt) &&
+        Objects.equals(this.closedAt, that.closedAt) &&
+        Objects.equals(this.mergedAt, that.mergedAt);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int hashCode() {
+    return Objects.hash(this.repositoryId, this.repositoryName, this.number, this.openedAt,
+        this.firstReviewAt, this.reviewCount, this.closedAt, this.mergedAt);
+  }
+}
@@ -0,0 +1,451 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.review;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import org.basinmc.stormdrain.event.PullRequestEvent;
+import org.basinmc.stormdrain.event.PullRequestEvent.Action;
+import org.basinmc.stormdrain.event.PullRequestReviewCommentEvent;
+import org.basinmc.stormdrain.event.PullRequestReviewEvent;
+import org.basinmc.stormdrain.metrics.LatencyHistogram;
+import org.basinmc.stormdrain.metrics.MetricSource;
+import org.basinmc.stormdrain.metrics.MetricsReporter;
+import org.basinmc.stormdrain.resource.Issue;
+import org.basinmc.stormdrain.resource.PullRequest;
+import org.basinmc.stormdrain.resource.Review;
+import org.basinmc.stormdrain.resource.User;
+import org.basinmc.stormdrain.utility.SnapshotFile;
+
+/**
+ * <p>Incrementally computes the time to first review and the time to merge of pull requests.</p>
+ *
+ * <p>State is only retained for pull requests which are currently open: It is created when a pull
+ * request is first observed in its open state and discarded as soon as the pull request is
+ * closed, at which point its {@link PullRequestLatency latencies} are passed to the consumer and
+ * recorded within a {@link LatencyHistogram histogram} per {@link Measure measure}. Pull requests
+ * which have been opened before the tracker started are picked up by any later event which
+ * carries them.</p>
+ *
+ * <p>Each pull request is recorded within the histograms upon its first observed close only.
+ * Redelivered closes are ignored entirely while pull requests which are closed again after being
+ * reopened are passed to the consumer without being recorded a second time. Closed pull requests
+ * are remembered within the same bound as open pull requests.</p>
+ *
+ * <p>Reviews count once submitted while review comments count once created. Reviews and comments
+ * by the author of a pull request are ignored. All times are derived from the timestamps reported
+ * by GitHub rather than the time of delivery.</p>
+ *
+ * <p>The amount of open pull requests is bounded in order to protect against pull requests whose
+ * closing is never observed (for instance due to a lost delivery). Once the bound is reached, the
+ * longest tracked pull request is evicted. The state may be written to and restored from a
+ * snapshot file in order to survive restarts.</p>
+ */
+public class ReviewLatencyTracker implements MetricSource {
+
+  /**
+   * Defines the name of the gauge which tracks the amount of open pull requests.
+   */
+  public static final String OPEN_METRIC = "stormdrain.reviews.open";
+
+  /**
+   * Defines the name of the counter which tracks the amount of closed pull requests.
+   */
+  public static final String CLOSED_METRIC = "stormdrain.reviews.closed";
+
+  /**
+   * Defines the name of the counter which tracks the amount of open pull requests which have
+   * been evicted in order to stay within the configured bound.
+   */
+  public static final String EVICTION_METRIC = "stormdrain.reviews.evictions";
+
+  /**
+   * Defines the name of the gauge which tracks the quantiles of each measure (in milliseconds).
+   */
+  public static final String LATENCY_METRIC = "stormdrain.reviews.latency";
+
+  private static final int MAGIC = 0x53445256;
+  private static final int VERSION = 2;
+  private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+
+  private final int maximumOpenPullRequests;
+  private final Consumer<PullRequestLatency> consumer;
+  private final Map<Long, OpenPullRequest> open;
+  private final Map<Long, Instant> closed;
+  private final Map<Measure, LatencyHistogram> histograms = new EnumMap<>(Measure.class);
+
+  private long mergedPullRequests;
+  private long abandonedPullRequests;
+  private long evictedPullRequests;
+
+  public ReviewLatencyTracker(int maximumOpenPullRequests,
+      @NonNull Consumer<PullRequestLatency> consumer) {
+    if (maximumOpenPullRequests < 1) {
+      throw new IllegalArgumentException("Illegal bound: Must track at least one pull request");
+    }
+
+    this.maximumOpenPullRequests = maximumOpenPullRequests;
+    this.consumer = consumer;
+    this.open = new LinkedHashMap<Long, OpenPullRequest>() {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Long, OpenPullRequest> eldest) {
+        if (this.size() <= ReviewLatencyTracker.this.maximumOpenPullRequests) {
+          return false;
+        }
+
+        ReviewLatencyTracker.this.evictedPullRequests++;
+        return true;
+      }
+    };
+    this.closed = new LinkedHashMap<Long, Instant>() {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Long, Instant> eldest) {
+        return this.size() > ReviewLatencyTracker.this.maximumOpenPullRequests;
+      }
+    };
+
+    for (Measure measure : Measure.values()) {
+      this.histograms.put(measure, new LatencyHistogram());
+    }
+  }
+
+  /**
+   * Records a change to a pull request. Closed pull requests are passed to the consumer unless
+   * their close has already been observed.
+   *
+   * @param event a pull request event.
+   */
+  public void record(@NonNull PullRequestEvent event) {
+    PullRequest pullRequest = event.getPullRequest();
+    PullRequestLatency latency;
+
+    synchronized (this) {
+      if (event.getAction() != Action.CLOSED) {
+        this.track(pullRequest);
+        return;
+      }
+
+      long id = pullRequest.getNumericId();
+      OpenPullRequest state = this.open.remove(id);
+      Instant closedAt = pullRequest.getClosedAt()
+          .orElseGet(() -> pullRequest.getMergedAt()
+              .orElseGet(() -> pullRequest.getModificationTimestamp()
+                  .orElseGet(pullRequest::getCreationTimestamp)));
+
+      Instant previousClosedAt = this.closed.put(id, closedAt);
+      if (closedAt.equals(previousClosedAt)) {
+        // redelivered close
+        return;
+      }
+
+      latency = new PullRequestLatency(event.getRepository().getNumericId(),
+          event.getRepository().getFullName(), pullRequest.getNumber(),
+          pullRequest.getCreationTimestamp(), state == null ? null : state.firstReviewAt,
+          state == null ? 0 : state.reviewCount, closedAt, pullRequest.getMergedAt().orElse(null));
+
+      // pull requests which are closed again after being reopened have already been recorded
+      if (previousClosedAt == null) {
+        latency.getTimeToFirstReview().ifPresent(
+            (duration) -> this.histograms.get(Measure.FIRST_REVIEW).record(duration.toMillis()));
+
+        if (latency.isMerged()) {
+          this.mergedPullRequests++;
+          latency.getTimeToMerge().ifPresent(
+              (duration) -> this.histograms.get(Measure.MERGE).record(duration.toMillis()));
+        } else {
+          this.abandonedPullRequests++;
+          this.histograms.get(Measure.ABANDON).record(latency.getTimeToClose().toMillis());
+        }
+      }
+    }
+
+    this.consumer.accept(latency);
+  }
+
+  /**
+   * Records a review of a pull request.
+   *
+   * @param event a review event.
+   */
+  public synchronized void record(@NonNull PullRequestReviewEvent event) {
+    Review review = event.getReview();
+    if (event.getAction() != PullRequestReviewEvent.Action.SUBMITTED
+        || review.getState() == Review.State.PENDING) {
+      return;
+    }
+
+    this.review(event.getPullRequest(), review.getUser(), review.getSubmissionTimestamp());
+  }
+
+  /**
+   * Records a review comment on a pull request.
+   *
+   * @param event a review comment event.
+   */
+  public synchronized void record(@NonNull PullRequestReviewCommentEvent event) {
+    if (event.getAction() != PullRequestReviewCommentEvent.Action.CREATED) {
+      return;
+    }
+
+    this.review(event.getPullRequest(), event.getComment().getUser(),
+        event.getComment().getCreationTimestamp());
+  }
+
+  /**
+   * Records a review or review comment by the specified user.
+   *
+   * @param pullRequest a pull request.
+   * @param reviewer the user who submitted the review.
+   * @param timestamp the time at which the review has been submitted.
+   */
+  private void review(@NonNull PullRequest pullRequest, @NonNull User reviewer,
+      @NonNull Instant timestamp) {
+    OpenPullRequest state = this.track(pullRequest);
+    if (state == null || state.authorId == reviewer.getNumericId()) {
+      return;
+    }
+
+    state.reviewCount++;
+    if (state.firstReviewAt == null || timestamp.isBefore(state.firstReviewAt)) {
+      state.firstReviewAt = timestamp;
+    }
+  }
+
+  /**
+   * Retrieves the state of an open pull request or starts tracking it if it is not known yet.
+   *
+   * @param pullRequest a pull request.
+   * @return a state or null if the pull request is not open.
+   */
+  @Nullable
+  private OpenPullRequest track(@NonNull PullRequest pullRequest) {
+    long id = pullRequest.getNumericId();
+
+    OpenPullRequest state = this.open.get(id);
+    if (state == null && pullRequest.getState() == Issue.State.OPEN) {
+      state = new OpenPullRequest(id, pullRequest.getUser().getNumericId(),
+          pullRequest.getCreationTimestamp());
+      this.open.put(id, state);
+    }
+
+    return state;
+  }
+
+  /**
+   * Retrieves a copy of the latencies which have been recorded for the specified measure.
+   *
+   * @param measure a measure.
+   * @return a histogram (in milliseconds).
+   */
+  @NonNull
+  public synchronized LatencyHistogram getLatency(@NonNull Measure measure) {
+    LatencyHistogram copy = new LatencyHistogram();
+    copy.add(this.histograms.get(measure));
+    return copy;
+  }
+
+  /**
+   * Retrieves the time at which the first review of an open pull request has been submitted.
+   *
+   * @param pullRequestId the numeric identifier of a pull request.
+   * @return a timestamp or an empty optional if the pull request is not tracked or has not been
+   * reviewed yet.
+   */
+  @NonNull
+  public synchronized Optional<Instant> getFirstReviewAt(long pullRequestId) {
+    OpenPullRequest state = this.open.get(pullRequestId);
+    return Optional.ofNullable(state == null ? null : state.firstReviewAt);
+  }
+
+  /**
+   * Retrieves the amount of tracked open pull requests.
+   *
+   * @return an amount of pull requests.
+   */
+  public synchronized int getOpenPullRequestCount() {
+    return this.open.size();
+  }
+
+  /**
+   * Writes the state of all open and recently closed pull requests as well as all histograms to
+   * the specified file.
+   *
+   * @param path a file.
+   * @throws IOException when writing fails.
+   */
+  public void writeSnapshot(@NonNull Path path) throws IOException {
+    SnapshotFile.write(path, MAGIC, VERSION, (out) -> {
+      synchronized (this) {
+        out.writeInt(this.open.size());
+        for (OpenPullRequest state : this.open.values()) {
+          state.writeTo(out);
+        }
+
+        out.writeInt(this.closed.size());
+        for (Map.Entry<Long, Instant> entry : this.closed.entrySet()) {
+          out.writeLong(entry.getKey());
+          SnapshotFile.writeInstant(out, entry.getValue());
+        }
+
+        for (Measure measure : Measure.values()) {
+          this.histograms.get(measure).writeTo(out);
+        }
+      }
+    });
+  }
+
+  /**
+   * Replaces the state of this tracker with a snapshot which has previously been written via
+   * {@link #writeSnapshot(Path)}.
+   *
+   * @param path a file.
+   * @throws IOException when reading fails or the file is not a valid snapshot.
+   */
+  public void readSnapshot(@NonNull Path path) throws IOException {
+    SnapshotFile.read(path, MAGIC, VERSION, (in) -> {
+      List<OpenPullRequest> states = new ArrayList<>();
+      for (int i = in.readInt(); i > 0; --i) {
+        states.add(OpenPullRequest.readFrom(in));
+      }
+
+      Map<Long, Instant> closed = new LinkedHashMap<>();
+      for (int i = in.readInt(); i > 0; --i) {
+        closed.put(in.readLong(), SnapshotFile.readInstant(in));
+      }
+
+      Map<Measure, LatencyHistogram> histograms = new EnumMap<>(Measure.class);
+      for (Measure measure : Measure.values()) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.readFrom(in);
+        histograms.put(measure, histogram);
+      }
+
+      synchronized (this) {
+        this.open.clear();
+        for (OpenPullRequest state : states) {
+          this.open.put(state.id, state);
+        }
+
+        this.closed.clear();
+        this.closed.putAll(closed);
+
+        this.histograms.putAll(histograms);
+      }
+    });
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public synchronized void report(@NonNull MetricsReporter reporter) {
+    reporter.gauge(OPEN_METRIC, Collections.emptyMap(), this.open.size());
+    reporter.counter(CLOSED_METRIC, Collections.singletonMap("merged", "true"),
+        this.mergedPullRequests);
+    reporter.counter(CLOSED_METRIC, Collections.singletonMap("merged", "false"),
+        this.abandonedPullRequests);
+    reporter.counter(EVICTION_METRIC, Collections.emptyMap(), this.evictedPullRequests);
+
+    for (Measure measure : Measure.values()) {
+      LatencyHistogram histogram = this.histograms.get(measure);
+      if (histogram.getCount() == 0) {
+        continue;
+      }
+
+      for (double quantile : QUANTILES) {
+        Map<String, String> tags = new HashMap<>();
+        tags.put("measure", measure.name().toLowerCase(Locale.ROOT));
+        tags.put("quantile", String.valueOf(quantile));
+        reporter.gauge(LATENCY_METRIC, tags, histogram.getValueAt(quantile));
+      }
+    }
+  }
+
+  /**
+   * Provides a list of measures which are recorded for closed pull requests.
+   */
+  public enum Measure {
+
+    /**
+     * Time between opening a pull request and its first review.
+     */
+    FIRST_REVIEW,
+
+    /**
+     * Time between opening and merging a pull request.
+     */
+    MERGE,
+
+    /**
+     * Time between opening and closing a pull request which has not been merged.
+     */
+    ABANDON
+  }
+
+  /**
+   * Represents the state of a single open pull request.
+   */
+  private static final class OpenPullRequest {
+
+    private final long id;
+    private final long authorId;
+    private final Instant openedAt;
+    private Instant firstReviewAt;
+    private int reviewCount;
+
+    private OpenPullRequest(long id, long authorId, @NonNull Instant openedAt) {
+      this.id = id;
+      this.authorId = authorId;
+      this.openedAt = openedAt;
+    }
+
+    private void writeTo(@NonNull DataOutputStream out) throws IOException {
+      out.writeLong(this.id);
+      out.writeLong(this.authorId);
+      SnapshotFile.writeInstant(out, this.openedAt);
+      out.writeBoolean(this.firstReviewAt != null);
+      if (this.firstReviewAt != null) {
+        SnapshotFile.writeInstant(out, this.firstReviewAt);
+      }
+      out.writeInt(this.reviewCount);
+    }
+
+    @NonNull
+    private static OpenPullRequest readFrom(@NonNull DataInputStream in) throws IOException {
+      OpenPullRequest state = new OpenPullRequest(in.readLong(), in.readLong(),
+          SnapshotFile.readInstant(in));
+      state.firstReviewAt = in.readBoolean() ? SnapshotFile.readInstant(in) : null;
+      state.reviewCount = in.readInt();
+      return state;
+    }
+  }
+}
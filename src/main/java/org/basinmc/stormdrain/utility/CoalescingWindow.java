@@ -0,0 +1,284 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.utility;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * <p>Provides the scaffolding for holding back bursts of updates to the same repository scoped
+ * resource and passing them on as a single element once they have settled.</p>
+ *
+ * <p>Each burst is held back for a window which is restarted with every update. In order to bound
+ * the latency of busy resources, a burst is passed on once the maximum delay since its first
+ * update has passed, regardless of whether further updates are still arriving (a maximum delay
+ * equal to the window thus starts the window with the first update only).</p>
+ *
+ * <p>Each burst is passed to the consumer at most once. When the consumer fails while a burst is
+ * passed on by the timer, the failure is counted (see {@link #getFailedCount()}) and the element
+ * is dropped. Failures during {@link #flush()} or {@link #close()} are propagated to the caller
+ * instead.</p>
+ *
+ * @param <P> a pending burst type.
+ * @param <E> an element type.
+ */
+public abstract class CoalescingWindow<P, E> implements AutoCloseable {
+
+  private final long window;
+  private final long maximumDelay;
+  private final ScheduledExecutorService executor;
+  private final Consumer<E> consumer;
+  private final Map<Key, Slot<P>> pending = new HashMap<>();
+  private final LongAdder failures = new LongAdder();
+
+  protected CoalescingWindow(@NonNull String threadName, @NonNull Consumer<E> consumer,
+      long window, long maximumDelay) {
+    this.window = window;
+    this.maximumDelay = maximumDelay;
+    this.consumer = consumer;
+
+    ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, (runnable) -> {
+      Thread thread = new Thread(runnable, threadName);
+      thread.setDaemon(true);
+      return thread;
+    });
+    executor.setRemoveOnCancelPolicy(true);
+    this.executor = executor;
+  }
+
+  /**
+   * Converts a burst which is no longer held back into the element which is passed on. This
+   * method is invoked while holding the lock of the window.
+   *
+   * @param key a repository scoped resource.
+   * @param pending a burst.
+   * @return an element or null if the burst is to be discarded.
+   */
+  @Nullable
+  protected abstract E complete(@NonNull Key key, @NonNull P pending);
+
+  /**
+   * Holds back an update or merges it with the pending burst of the same resource.
+   *
+   * @param key a repository scoped resource.
+   * @param factory a factory which creates a new burst from the update.
+   * @param merger a function which merges the update into an existing burst.
+   */
+  protected void hold(@NonNull Key key, @NonNull Supplier<P> factory,
+      @NonNull Consumer<P> merger) {
+    long now = System.nanoTime();
+
+    Slot<P> slot;
+    synchronized (this.pending) {
+      slot = this.pending.get(key);
+
+      if (slot != null) {
+        merger.accept(slot.value);
+        slot.lastArrival = now;
+        return;
+      }
+
+      slot = new Slot<>(factory.get(), now);
+      this.pending.put(key, slot);
+    }
+
+    this.schedule(key, slot, this.window);
+  }
+
+  /**
+   * Passes on all pending bursts immediately.
+   */
+  public void flush() {
+    List<E> elements;
+
+    synchronized (this.pending) {
+      elements = new ArrayList<>(this.pending.size());
+      for (Map.Entry<Key, Slot<P>> entry : this.pending.entrySet()) {
+        E element = this.complete(entry.getKey(), entry.getValue().value);
+
+        if (element != null) {
+          elements.add(element);
+        }
+      }
+
+      this.pending.clear();
+    }
+
+    elements.forEach(this.consumer);
+  }
+
+  /**
+   * Retrieves the amount of bursts which are currently held back.
+   *
+   * @return an amount of bursts.
+   */
+  public int getPendingCount() {
+    synchronized (this.pending) {
+      return this.pending.size();
+    }
+  }
+
+  /**
+   * Retrieves the amount of elements which have been dropped as the consumer failed while they
+   * were passed on by the timer.
+   *
+   * @return an amount of elements.
+   */
+  public long getFailedCount() {
+    return this.failures.sum();
+  }
+
+  /**
+   * Evaluates whether a pending burst is due and passes it on or re-schedules the evaluation for
+   * its current deadline.
+   *
+   * @param key a repository scoped resource.
+   * @param slot a pending burst.
+   */
+  private void expire(@NonNull Key key, @NonNull Slot<P> slot) {
+    long now = System.nanoTime();
+    E element;
+
+    synchronized (this.pending) {
+      if (this.pending.get(key) != slot) {
+        return;
+      }
+
+      long deadline = Math.min(slot.lastArrival + this.window,
+          slot.firstArrival + this.maximumDelay);
+      if (deadline - now > 0) {
+        this.schedule(key, slot, deadline - now);
+        return;
+      }
+
+      this.pending.remove(key);
+      element = this.complete(key, slot.value);
+    }
+
+    if (element == null) {
+      return;
+    }
+
+    // exceptions thrown here would be silently retained by the scheduled future
+    try {
+      this.consumer.accept(element);
+    } catch (RuntimeException ex) {
+      this.failures.increment();
+    }
+  }
+
+  private void schedule(@NonNull Key key, @NonNull Slot<P> slot, long delay) {
+    if (!this.executor.isShutdown()) {
+      this.executor.schedule(() -> this.expire(key, slot), delay, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  /**
+   * Stops the timer and passes on all pending bursts immediately.
+   */
+  @Override
+  public void close() {
+    this.executor.shutdownNow();
+    this.flush();
+  }
+
+  /**
+   * Identifies a named resource (such as a reference or wiki page) within a repository.
+   */
+  public static final class Key {
+
+    private final long repositoryId;
+    private final String name;
+
+    public Key(long repositoryId, @NonNull String name) {
+      this.repositoryId = repositoryId;
+      this.name = name;
+    }
+
+    /**
+     * Retrieves the numeric identifier of the repository.
+     *
+     * @return a repository identifier.
+     */
+    public long getRepositoryId() {
+      return this.repositoryId;
+    }
+
+    /**
+     * Retrieves the name of the resource.
+     *
+     * @return a name.
+     */
+    @NonNull
+    public String getName() {
+      return this.name;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || this.getClass() != o.getClass()) {
+        return false;
+      }
+      Key key = (Key) o;
+      return this.repositoryId == key.repositoryId &&
+          Objects.equals(this.name, key.name);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+      return Objects.hash(this.repositoryId, this.name);
+    }
+  }
+
+  /**
+   * Represents a burst which is currently held back along with its arrival times.
+   *
+   * @param <P> a pending burst type.
+   */
+  private static final class Slot<P> {
+
+    private final P value;
+    private final long firstArrival;
+    private long lastArrival;
+
+    private Slot(@NonNull P value, long arrival) {
+      this.value = value;
+      this.firstArrival = arrival;
+      this.lastArrival = arrival;
+    }
+  }
+}
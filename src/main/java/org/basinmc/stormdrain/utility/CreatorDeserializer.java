@@ -0,0 +1,341 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.utility;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.deser.BeanDeserializer;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerModifier;
+import com.fasterxml.jackson.databind.deser.CreatorProperty;
+import com.fasterxml.jackson.databind.deser.ResolvableDeserializer;
+import com.fasterxml.jackson.databind.deser.SettableBeanProperty;
+import com.fasterxml.jackson.databind.deser.ValueInstantiator;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.introspect.AnnotatedWithParams;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * <p>Decodes model types through their property based creator without the general purpose
+ * machinery of Jackson's bean deserializer.</p>
+ *
+ * <p>Jackson's bean deserializer buffers creator properties within a property value buffer which
+ * tracks assignments, looks up properties through a general purpose property map and finally
+ * invokes the creator reflectively. As all models within this library consist of nothing but a
+ * single creator, this implementation reads values directly into the argument array (in creator
+ * order) and passes it to a method handle which has been specialized for the respective creator
+ * when the deserializer was built.</p>
+ *
+ * <p>Property names, types and required markers are taken from the value instantiator which
+ * Jackson built for the type and thus honor the configuration of the respective mapper (such as
+ * the relaxed required markers of projections).</p>
+ */
+public class CreatorDeserializer<T> extends StdDeserializer<T> implements ResolvableDeserializer {
+
+  private final MethodHandle creator;
+  private final int creatorPropertyCount;
+  private final SettableBeanProperty[] properties;
+  private final JsonDeserializer<Object>[] deserializers;
+  private final String[] table;
+  private final int[] indices;
+  private final int mask;
+  private final long requiredProperties;
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  CreatorDeserializer(@NonNull Class<T> type, @NonNull MethodHandle creator,
+      int creatorPropertyCount, @NonNull SettableBeanProperty[] properties) {
+    super(type);
+    this.creator = creator;
+    this.creatorPropertyCount = creatorPropertyCount;
+    this.properties = properties;
+    this.deserializers = new JsonDeserializer[properties.length];
+
+    int capacity = Integer.highestOneBit(Math.max(4, properties.length * 4 - 1));
+    this.table = new String[capacity];
+    this.indices = new int[capacity];
+    this.mask = capacity - 1;
+
+    long requiredProperties = 0;
+    for (int i = 0; i < properties.length; ++i) {
+      String name = properties[i].getName();
+      int slot = name.hashCode() & this.mask;
+      while (this.table[slot] != null) {
+        slot = (slot + 1) & this.mask;
+      }
+
+      this.table[slot] = name;
+      this.indices[slot] = i;
+
+      if (properties[i].isRequired()) {
+        requiredProperties |= 1L << i;
+      }
+    }
+    this.requiredProperties = requiredProperties;
+  }
+
+  /**
+   * Creates a specialized deserializer for the creator of the specified instantiator.
+   *
+   * @param config a deserialization configuration.
+   * @param type a model type.
+   * @param instantiator a value instantiator.
+   * @param properties the remaining (non-creator) properties of the type.
+   * @param <T> a model type.
+   * @return a deserializer or null if the type does not rely on a property based creator.
+   */
+  @Nullable
+  static <T> CreatorDeserializer<T> create(@NonNull DeserializationConfig config,
+      @NonNull Class<T> type, @NonNull ValueInstantiator instantiator,
+      @NonNull List<SettableBeanProperty> properties) {
+    if (!instantiator.canCreateFromObjectWith() || instantiator.canCreateUsingDefault()) {
+      return null;
+    }
+
+    AnnotatedWithParams creator = instantiator.getWithArgsCreator();
+    SettableBeanProperty[] creatorProperties = instantiator.getFromObjectArguments(config);
+    if (creator == null || creatorProperties == null
+        || creatorProperties.length != creator.getParameterCount()
+        || creatorProperties.length + properties.size() > Long.SIZE) {
+      return null;
+    }
+
+    SettableBeanProperty[] combined = new SettableBeanProperty[creatorProperties.length
+        + properties.size()];
+    System.arraycopy(creatorProperties, 0, combined, 0, creatorProperties.length);
+    for (int i = 0; i < properties.size(); ++i) {
+      combined[creatorProperties.length + i] = properties.get(i);
+    }
+
+    for (int i = 0; i < combined.length; ++i) {
+      SettableBeanProperty property = combined[i];
+
+      if (property == null || property.getValueTypeDeserializer() != null
+          || property.getInjectableValueId() != null || property.getObjectIdInfo() != null
+          || (i < creatorProperties.length && property.getCreatorIndex() != i)) {
+        return null;
+      }
+    }
+
+    MethodHandle handle;
+    try {
+      Member member = creator.getMember();
+      MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+      if (member instanceof Constructor) {
+        handle = lookup.unreflectConstructor((Constructor<?>) member);
+      } else if (member instanceof Method && Modifier.isStatic(member.getModifiers())) {
+        handle = lookup.unreflect((Method) member);
+      } else {
+        return null;
+      }
+    } catch (IllegalAccessException ex) {
+      return null;
+    }
+
+    handle = handle.asSpreader(Object[].class, creatorProperties.length)
+        .asType(MethodType.methodType(Object.class, Object[].class));
+    return new CreatorDeserializer<>(type, handle, creatorProperties.length, combined);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void resolve(@NonNull DeserializationContext ctxt) throws JsonMappingException {
+    for (int i = 0; i < this.properties.length; ++i) {
+      SettableBeanProperty property = this.properties[i];
+
+      this.deserializers[i] = property.hasValueDeserializer() ? property.getValueDeserializer()
+          : ctxt.findContextualValueDeserializer(property.getType(), property);
+    }
+  }
+
+  /**
+   * Looks up the creator index of a property.
+   *
+   * @param name a property name.
+   * @return an index or -1 if the property is unknown.
+   */
+  private int indexOf(@NonNull String name) {
+    int slot = name.hashCode() & this.mask;
+    String candidate;
+
+    while ((candidate = this.table[slot]) != null) {
+      // parsers intern property names by default so the identity check typically suffices
+      if (candidate == name || candidate.equals(name)) {
+        return this.indices[slot];
+      }
+
+      slot = (slot + 1) & this.mask;
+    }
+
+    return -1;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public T deserialize(@NonNull JsonParser p, @NonNull DeserializationContext ctxt)
+      throws IOException {
+    String name;
+    if (p.isExpectedStartObjectToken()) {
+      name = p.nextFieldName();
+    } else if (p.hasToken(JsonToken.FIELD_NAME)) {
+      name = p.getCurrentName();
+    } else if (p.hasToken(JsonToken.END_OBJECT)) {
+      name = null;
+    } else {
+      return (T) ctxt.handleUnexpectedToken(this.handledType(), p);
+    }
+
+    Object[] arguments = new Object[this.creatorPropertyCount];
+    Object[] deferred = null;
+    long assigned = 0;
+
+    for (; name != null; name = p.nextFieldName()) {
+      JsonToken token = p.nextToken();
+      int index = this.indexOf(name);
+
+      if (index == -1) {
+        this.handleUnknownProperty(p, ctxt, this.handledType(), name);
+        continue;
+      }
+
+      JsonDeserializer<Object> deserializer = this.deserializers[index];
+      Object value = token == JsonToken.VALUE_NULL ? deserializer.getNullValue(ctxt)
+          : deserializer.deserialize(p, ctxt);
+
+      if (index < this.creatorPropertyCount) {
+        arguments[index] = value;
+      } else {
+        // values for properties outside of the creator are rare and thus allocated on demand
+        if (deferred == null) {
+          deferred = new Object[this.properties.length - this.creatorPropertyCount];
+        }
+
+        deferred[index - this.creatorPropertyCount] = value;
+      }
+
+      assigned |= 1L << index;
+    }
+
+    long creatorMask = this.creatorPropertyCount == Long.SIZE ? -1L
+        : (1L << this.creatorPropertyCount) - 1;
+    if ((assigned & creatorMask) != creatorMask) {
+      this.fillMissing(ctxt, arguments, assigned);
+    }
+
+    T instance;
+    try {
+      instance = (T) (Object) this.creator.invokeExact(arguments);
+    } catch (Error ex) {
+      throw ex;
+    } catch (Throwable ex) {
+      return (T) ctxt.handleInstantiationProblem(this.handledType(), null, ex);
+    }
+
+    if (deferred != null) {
+      for (int i = 0; i < deferred.length; ++i) {
+        if ((assigned & (1L << (this.creatorPropertyCount + i))) != 0) {
+          this.properties[this.creatorPropertyCount + i].set(instance, deferred[i]);
+        }
+      }
+    }
+
+    return instance;
+  }
+
+  /**
+   * Rejects missing required properties and substitutes default values for all other missing
+   * properties (e.g. zero or false for primitives and null for references).
+   *
+   * @param ctxt a deserialization context.
+   * @param arguments an array of creator arguments.
+   * @param assigned a bit mask of assigned arguments.
+   * @throws IOException when a required property is missing.
+   */
+  private void fillMissing(@NonNull DeserializationContext ctxt, @NonNull Object[] arguments,
+      long assigned) throws IOException {
+    for (int i = 0; i < this.creatorPropertyCount; ++i) {
+      if ((assigned & (1L << i)) != 0) {
+        continue;
+      }
+
+      if ((this.requiredProperties & (1L << i)) != 0) {
+        ctxt.reportInputMismatch(this, "Missing required creator property '%s' (index %d)",
+            this.properties[i].getName(), i);
+      }
+
+      arguments[i] = this.deserializers[i].getNullValue(ctxt);
+    }
+  }
+
+  /**
+   * Replaces the bean deserializers of all models within this library with specialized creator
+   * deserializers.
+   */
+  public static class Specializer extends BeanDeserializerModifier {
+
+    private static final String MODEL_PACKAGE_PREFIX = "org.basinmc.stormdrain.";
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public JsonDeserializer<?> modifyDeserializer(DeserializationConfig config,
+        BeanDescription beanDesc, JsonDeserializer<?> deserializer) {
+      Class<?> type = beanDesc.getBeanClass();
+      if (deserializer.getClass() != BeanDeserializer.class
+          || !type.getName().startsWith(MODEL_PACKAGE_PREFIX)) {
+        return deserializer;
+      }
+
+      BeanDeserializer bean = (BeanDeserializer) deserializer;
+      List<SettableBeanProperty> properties = new ArrayList<>();
+      Iterator<SettableBeanProperty> it = bean.properties();
+      while (it.hasNext()) {
+        SettableBeanProperty property = it.next();
+
+        if (!(property instanceof CreatorProperty)) {
+          properties.add(property);
+        }
+      }
+
+      CreatorDeserializer<?> replacement = create(config, type, bean.getValueInstantiator(),
+          properties);
+      return replacement != null ? replacement : deserializer;
+    }
+  }
+}
@@ -0,0 +1,313 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.utility;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.util.Arrays;
+import java.util.function.LongFunction;
+
+/**
+ * <p>Provides a hash map which is keyed by primitive longs (such as the numeric identifiers of
+ * resources) and thus spares the boxed key and entry object which are retained per mapping by
+ * regular maps.</p>
+ *
+ * <p>Mappings are stored within two parallel arrays using open addressing with linear probing.
+ * Null values are not permitted as they are used to mark unused slots.</p>
+ *
+ * <p>This implementation is not thread safe.</p>
+ *
+ * @param <V> a value type.
+ */
+public class Long2ObjectHashMap<V> {
+
+  /**
+   * Defines the maximum fraction of slots which may be occupied before the table is resized.
+   */
+  private static final float LOAD_FACTOR = 0.6f;
+
+  private long[] keys;
+  private Object[] values;
+  private int mask;
+  private int size;
+  private int resizeThreshold;
+
+  public Long2ObjectHashMap() {
+    this(16);
+  }
+
+  public Long2ObjectHashMap(int expectedSize) {
+    if (expectedSize < 0) {
+      throw new IllegalArgumentException("Illegal expected size: Must be positive or zero");
+    }
+
+    this.allocate(tableSize(expectedSize));
+  }
+
+  /**
+   * Computes the smallest table size which holds the specified amount of mappings without
+   * resizing.
+   *
+   * @param expectedSize an amount of mappings.
+   * @return a power of two.
+   */
+  private static int tableSize(int expectedSize) {
+    long minimum = Math.max(4, (long) Math.ceil(expectedSize / (double) LOAD_FACTOR));
+    if (minimum > 1 << 30) {
+      throw new IllegalArgumentException("Illegal expected size: Exceeds maximum capacity");
+    }
+
+    return Integer.highestOneBit((int) minimum - 1) << 1;
+  }
+
+  /**
+   * Spreads the bits of a key in order to avoid clustering of sequential keys.
+   *
+   * @param key a key.
+   * @return a hash.
+   */
+  private static int hash(long key) {
+    long hash = key * 0x9E3779B97F4A7C15L;
+    return (int) (hash ^ (hash >>> 32));
+  }
+
+  private void allocate(int capacity) {
+    this.keys = new long[capacity];
+    this.values = new Object[capacity];
+    this.mask = capacity - 1;
+    this.resizeThreshold = (int) (capacity * LOAD_FACTOR);
+  }
+
+  /**
+   * Locates the slot which holds the specified key.
+   *
+   * @param key a key.
+   * @return a slot index or -1 if the key is not mapped.
+   */
+  private int indexOf(long key) {
+    int index = hash(key) & this.mask;
+
+    while (this.values[index] != null) {
+      if (this.keys[index] == key) {
+        return index;
+      }
+
+      index = (index + 1) & this.mask;
+    }
+
+    return -1;
+  }
+
+  /**
+   * Retrieves the value which is mapped to the specified key.
+   *
+   * @param key a key.
+   * @return a value or null if the key is not mapped.
+   */
+  @Nullable
+  @SuppressWarnings("unchecked")
+  public V get(long key) {
+    int index = this.indexOf(key);
+    return index == -1 ? null : (V) this.values[index];
+  }
+
+  /**
+   * Evaluates whether the specified key is mapped to a value.
+   *
+   * @param key a key.
+   * @return true if mapped, false otherwise.
+   */
+  public boolean containsKey(long key) {
+    return this.indexOf(key) != -1;
+  }
+
+  /**
+   * Maps a key to the specified value.
+   *
+   * @param key a key.
+   * @param value a value.
+   * @return the previously mapped value or null if the key was not mapped.
+   */
+  @Nullable
+  @SuppressWarnings("unchecked")
+  public V put(long key, @NonNull V value) {
+    if (value == null) {
+      throw new IllegalArgumentException("Illegal value: Must not be null");
+    }
+
+    int index = hash(key) & this.mask;
+    while (this.values[index] != null) {
+      if (this.keys[index] == key) {
+        V previous = (V) this.values[index];
+        this.values[index] = value;
+        return previous;
+      }
+
+      index = (index + 1) & this.mask;
+    }
+
+    this.keys[index] = key;
+    this.values[index] = value;
+
+    if (++this.size > this.resizeThreshold) {
+      this.resize();
+    }
+
+    return null;
+  }
+
+  /**
+   * Retrieves the value which is mapped to the specified key or computes and maps a new value if
+   * the key is not mapped yet.
+   *
+   * @param key a key.
+   * @param function a function which computes new values.
+   * @return a value.
+   */
+  @NonNull
+  public V computeIfAbsent(long key, @NonNull LongFunction<? extends V> function) {
+    V value = this.get(key);
+    if (value == null) {
+      value = function.apply(key);
+      this.put(key, value);
+    }
+
+    return value;
+  }
+
+  /**
+   * Removes the mapping for the specified key.
+   *
+   * @param key a key.
+   * @return the previously mapped value or null if the key was not mapped.
+   */
+  @Nullable
+  @SuppressWarnings("unchecked")
+  public V remove(long key) {
+    int index = this.indexOf(key);
+    if (index == -1) {
+      return null;
+    }
+
+    V previous = (V) this.values[index];
+    this.values[index] = null;
+    --this.size;
+
+    // shift all subsequent entries of the probe sequence which would otherwise become unreachable
+    int next = (index + 1) & this.mask;
+    while (this.values[next] != null) {
+      int home = hash(this.keys[next]) & this.mask;
+
+      if (((next - home) & this.mask) >= ((next - index) & this.mask)) {
+        this.keys[index] = this.keys[next];
+        this.values[index] = this.values[next];
+        this.values[next] = null;
+        index = next;
+      }
+
+      next = (next + 1) & this.mask;
+    }
+
+    return previous;
+  }
+
+  /**
+   * Removes all mappings from this map while retaining its capacity.
+   */
+  public void clear() {
+    Arrays.fill(this.values, null);
+    this.size = 0;
+  }
+
+  /**
+   * Retrieves the amount of mappings within this map.
+   *
+   * @return an amount of mappings.
+   */
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * Evaluates whether this map is empty.
+   *
+   * @return true if empty, false otherwise.
+   */
+  public boolean isEmpty() {
+    return this.size == 0;
+  }
+
+  /**
+   * Passes every mapping within this map to the specified consumer (in no particular order). The
+   * map must not be modified while it is being iterated.
+   *
+   * @param consumer a consumer.
+   */
+  @SuppressWarnings("unchecked")
+  public void forEach(@NonNull EntryConsumer<? super V> consumer) {
+    for (int i = 0; i < this.values.length; ++i) {
+      if (this.values[i] != null) {
+        consumer.accept(this.keys[i], (V) this.values[i]);
+      }
+    }
+  }
+
+  /**
+   * Doubles the capacity of this map and re-inserts all of its mappings.
+   */
+  private void resize() {
+    long[] oldKeys = this.keys;
+    Object[] oldValues = this.values;
+
+    if (oldKeys.length == 1 << 30) {
+      throw new IllegalStateException("Illegal map size: Exceeds maximum capacity");
+    }
+
+    this.allocate(oldKeys.length * 2);
+
+    for (int i = 0; i < oldKeys.length; ++i) {
+      if (oldValues[i] == null) {
+        continue;
+      }
+
+      int index = hash(oldKeys[i]) & this.mask;
+      while (this.values[index] != null) {
+        index = (index + 1) & this.mask;
+      }
+
+      this.keys[index] = oldKeys[i];
+      this.values[index] = oldValues[i];
+    }
+  }
+
+  /**
+   * Consumes a single mapping of a map.
+   *
+   * @param <V> a value type.
+   */
+  @FunctionalInterface
+  public interface EntryConsumer<V> {
+
+    /**
+     * Consumes a mapping.
+     *
+     * @param key a key.
+     * @param value a value.
+     */
+    void accept(long key, @NonNull V value);
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.utility;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import java.io.IOException;
+import org.basinmc.stormdrain.resource.ObjectId;
+
+/**
+ * <p>Decodes git object identifiers directly from the parser's character buffer without creating
+ * an intermediate string.</p>
+ *
+ * <p>Identifiers must consist of exactly {@value ObjectId#HEX_LENGTH} hexadecimal digits. Empty
+ * values decode to null while any other value (such as an abbreviated hash) is reported as a
+ * {@link com.fasterxml.jackson.databind.exc.InvalidFormatException} and thus rejects the entire
+ * payload.</p>
+ */
+public class ObjectIdDeserializer extends StdScalarDeserializer<ObjectId> {
+
+  public ObjectIdDeserializer() {
+    super(ObjectId.class);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public ObjectId deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+    if (!p.hasToken(JsonToken.VALUE_STRING)) {
+      return (ObjectId) ctxt.handleUnexpectedToken(ObjectId.class, p);
+    }
+
+    ObjectId id = ObjectId.tryParse(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+    if (id != null) {
+      return id;
+    }
+
+    String text = p.getText().trim();
+    if (text.isEmpty()) {
+      return null;
+    }
+
+    return (ObjectId) ctxt.handleWeirdStringValue(ObjectId.class, text,
+        "Expected %d digit hexadecimal hash", ObjectId.HEX_LENGTH);
+  }
+}
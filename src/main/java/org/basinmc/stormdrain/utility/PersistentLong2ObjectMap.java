@@ -0,0 +1,318 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.utility;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.util.Objects;
+
+/**
+ * <p>Provides an immutable map which is keyed by primitive longs.</p>
+ *
+ * <p>Mappings are stored within a hash array mapped trie of 32-way nodes. Modifications return a
+ * new map which shares all nodes apart from the path to the modified mapping with its source.
+ * Updates are thus bounded by the depth of the trie (which does not exceed 13 levels) rather than
+ * the size of the map while previous versions remain valid and unchanged.</p>
+ *
+ * <p>Keys are spread using a bijective mixing function. Distinct keys thus never share a hash
+ * and the trie does not require collision nodes. Null values are not permitted.</p>
+ *
+ * @param <V> a value type.
+ */
+public final class PersistentLong2ObjectMap<V> {
+
+  private static final int BITS = 5;
+  private static final int MASK = (1 << BITS) - 1;
+  private static final PersistentLong2ObjectMap<?> EMPTY = new PersistentLong2ObjectMap<>(null, 0);
+
+  private final Node root;
+  private final int size;
+
+  private PersistentLong2ObjectMap(@Nullable Node root, int size) {
+    this.root = root;
+    this.size = size;
+  }
+
+  /**
+   * Retrieves an empty map.
+   *
+   * @param <V> a value type.
+   * @return an empty map.
+   */
+  @NonNull
+  @SuppressWarnings("unchecked")
+  public static <V> PersistentLong2ObjectMap<V> empty() {
+    return (PersistentLong2ObjectMap<V>) EMPTY;
+  }
+
+  /**
+   * Spreads a key across all bits of its hash. This function is a bijection and thus never maps
+   * two distinct keys to the same hash.
+   *
+   * @param key a key.
+   * @return a hash.
+   */
+  private static long hash(long key) {
+    key ^= key >>> 33;
+    key *= 0xFF51AFD7ED558CCDL;
+    key ^= key >>> 33;
+    key *= 0xC4CEB9FE1A85EC53L;
+    return key ^ (key >>> 33);
+  }
+
+  /**
+   * Retrieves the value which has been mapped to a key.
+   *
+   * @param key a key.
+   * @return a value or null if no value has been mapped to the key.
+   */
+  @Nullable
+  @SuppressWarnings("unchecked")
+  public V get(long key) {
+    long hash = hash(key);
+    Node node = this.root;
+    int shift = 0;
+
+    while (node != null) {
+      int bit = 1 << ((int) (hash >>> shift) & MASK);
+      if ((node.bitmap & bit) == 0) {
+        return null;
+      }
+
+      Object child = node.children[Integer.bitCount(node.bitmap & (bit - 1))];
+      if (child instanceof Leaf) {
+        Leaf leaf = (Leaf) child;
+        return leaf.key == key ? (V) leaf.value : null;
+      }
+
+      node = (Node) child;
+      shift += BITS;
+    }
+
+    return null;
+  }
+
+  /**
+   * Creates a copy of this map in which the specified key is mapped to the specified value.
+   *
+   * @param key a key.
+   * @param value a value.
+   * @return a map.
+   */
+  @NonNull
+  public PersistentLong2ObjectMap<V> put(long key, @NonNull V value) {
+    Objects.requireNonNull(value, "value");
+
+    long hash = hash(key);
+    Leaf leaf = new Leaf(key, value);
+    if (this.root == null) {
+      return new PersistentLong2ObjectMap<>(Node.of(hash, 0, leaf), 1);
+    }
+
+    int size = this.get(key) == null ? this.size + 1 : this.size;
+    return new PersistentLong2ObjectMap<>(put(this.root, hash, 0, leaf), size);
+  }
+
+  @NonNull
+  private static Node put(@NonNull Node node, long hash, int shift, @NonNull Leaf leaf) {
+    int bit = 1 << ((int) (hash >>> shift) & MASK);
+    int index = Integer.bitCount(node.bitmap & (bit - 1));
+
+    if ((node.bitmap & bit) == 0) {
+      Object[] children = new Object[node.children.length + 1];
+      System.arraycopy(node.children, 0, children, 0, index);
+      children[index] = leaf;
+      System.arraycopy(node.children, index, children, index + 1, node.children.length - index);
+      return new Node(node.bitmap | bit, children);
+    }
+
+    Object child = node.children[index];
+    Object replacement;
+    if (child instanceof Node) {
+      replacement = put((Node) child, hash, shift + BITS, leaf);
+    } else if (((Leaf) child).key == leaf.key) {
+      replacement = leaf;
+    } else {
+      Leaf existing = (Leaf) child;
+      replacement = merge(existing, hash(existing.key), leaf, hash, shift + BITS);
+    }
+
+    return node.replace(index, replacement);
+  }
+
+  /**
+   * Creates a node which holds two leaves whose hashes share all bits below the specified shift.
+   *
+   * @param a a leaf.
+   * @param hashA the hash of the first leaf.
+   * @param b a leaf.
+   * @param hashB the hash of the second leaf.
+   * @param shift the position of the first bit which selects a child within the new node.
+   * @return a node.
+   */
+  @NonNull
+  private static Node merge(@NonNull Leaf a, long hashA, @NonNull Leaf b, long hashB,
+      int shift) {
+    int indexA = (int) (hashA >>> shift) & MASK;
+    int indexB = (int) (hashB >>> shift) & MASK;
+
+    if (indexA == indexB) {
+      return new Node(1 << indexA, new Object[]{merge(a, hashA, b, hashB, shift + BITS)});
+    }
+
+    return new Node((1 << indexA) | (1 << indexB),
+        indexA < indexB ? new Object[]{a, b} : new Object[]{b, a});
+  }
+
+  /**
+   * Creates a copy of this map which does not contain the specified key.
+   *
+   * @param key a key.
+   * @return a map (or this map if the key is not present).
+   */
+  @NonNull
+  public PersistentLong2ObjectMap<V> remove(long key) {
+    if (this.root == null) {
+      return this;
+    }
+
+    Object root = remove(this.root, hash(key), 0, key);
+    if (root == this.root) {
+      return this;
+    }
+    if (root == null) {
+      return empty();
+    }
+
+    return new PersistentLong2ObjectMap<>((Node) root, this.size - 1);
+  }
+
+  /**
+   * Removes a key from a node.
+   *
+   * @param node a node.
+   * @param hash the hash of the key.
+   * @param shift the position of the first bit which selects a child within the node.
+   * @param key a key.
+   * @return the same node if the key is absent, null if the node is empty, a single leaf if the
+   * node has been reduced to a single leaf (below the root) or a new node.
+   */
+  @Nullable
+  private static Object remove(@NonNull Node node, long hash, int shift, long key) {
+    int bit = 1 << ((int) (hash >>> shift) & MASK);
+    if ((node.bitmap & bit) == 0) {
+      return node;
+    }
+
+    int index = Integer.bitCount(node.bitmap & (bit - 1));
+    Object child = node.children[index];
+    Object replacement;
+    if (child instanceof Leaf) {
+      if (((Leaf) child).key != key) {
+        return node;
+      }
+
+      replacement = null;
+    } else {
+      replacement = remove((Node) child, hash, shift + BITS, key);
+      if (replacement == child) {
+        return node;
+      }
+    }
+
+    if (replacement != null) {
+      if (shift != 0 && node.children.length == 1 && replacement instanceof Leaf) {
+        return replacement;
+      }
+
+      return node.replace(index, replacement);
+    }
+
+    if (node.bitmap == bit) {
+      return null;
+    }
+
+    Object[] children = new Object[node.children.length - 1];
+    System.arraycopy(node.children, 0, children, 0, index);
+    System.arraycopy(node.children, index + 1, children, index, children.length - index);
+
+    if (shift != 0 && children.length == 1 && children[0] instanceof Leaf) {
+      return children[0];
+    }
+
+    return new Node(node.bitmap ^ bit, children);
+  }
+
+  /**
+   * Retrieves the amount of mappings within this map.
+   *
+   * @return an amount of mappings.
+   */
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * Evaluates whether this map is empty.
+   *
+   * @return true if empty, false otherwise.
+   */
+  public boolean isEmpty() {
+    return this.size == 0;
+  }
+
+  /**
+   * Represents a branch within the trie. Children are either nodes or leaves and are stored in
+   * the order of their bit within the bitmap.
+   */
+  private static final class Node {
+
+    private final int bitmap;
+    private final Object[] children;
+
+    private Node(int bitmap, @NonNull Object[] children) {
+      this.bitmap = bitmap;
+      this.children = children;
+    }
+
+    @NonNull
+    private static Node of(long hash, int shift, @NonNull Leaf leaf) {
+      return new Node(1 << ((int) (hash >>> shift) & MASK), new Object[]{leaf});
+    }
+
+    @NonNull
+    private Node replace(int index, @NonNull Object child) {
+      Object[] children = this.children.clone();
+      children[index] = child;
+      return new Node(this.bitmap, children);
+    }
+  }
+
+  /**
+   * Represents a single mapping.
+   */
+  private static final class Leaf {
+
+    private final long key;
+    private final Object value;
+
+    private Leaf(long key, @NonNull Object value) {
+      this.key = key;
+      this.value = value;
+    }
+  }
+}
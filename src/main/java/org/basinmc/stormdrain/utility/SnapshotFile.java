@@ -0,0 +1,155 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.utility;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+
+/**
+ * <p>Provides utility methods for writing and reading binary snapshots of in-memory state.</p>
+ *
+ * <p>Every snapshot starts with a magic number which identifies its format followed by a format
+ * version. Snapshots are written to a temporary file first which is flushed to the storage device
+ * before it is moved into place atomically. A snapshot file thus never contains a partially
+ * written snapshot.</p>
+ */
+public final class SnapshotFile {
+
+  private SnapshotFile() {
+  }
+
+  /**
+   * Writes a snapshot to the specified file.
+   *
+   * @param path a file.
+   * @param magic a magic number which identifies the snapshot format.
+   * @param version a format version.
+   * @param encoder an encoder which writes the snapshot contents.
+   * @throws IOException when writing fails (in which case the previous snapshot remains in
+   * place).
+   */
+  public static void write(@NonNull Path path, int magic, int version, @NonNull Encoder encoder)
+      throws IOException {
+    Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+
+    try {
+      try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+          StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+        DataOutputStream out = new DataOutputStream(
+            new BufferedOutputStream(Channels.newOutputStream(channel)));
+        out.writeInt(magic);
+        out.writeInt(version);
+        encoder.encode(out);
+        out.flush();
+
+        channel.force(true);
+      }
+
+      Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException | RuntimeException ex) {
+      try {
+        Files.deleteIfExists(temporary);
+      } catch (IOException suppressed) {
+        ex.addSuppressed(suppressed);
+      }
+
+      throw ex;
+    }
+  }
+
+  /**
+   * Reads a snapshot from the specified file.
+   *
+   * @param path a file.
+   * @param magic the expected magic number.
+   * @param version the expected format version.
+   * @param decoder a decoder which reads the snapshot contents.
+   * @throws IOException when reading fails or the file is not a snapshot of the expected format.
+   */
+  public static void read(@NonNull Path path, int magic, int version, @NonNull Decoder decoder)
+      throws IOException {
+    try (DataInputStream in = new DataInputStream(
+        new BufferedInputStream(Files.newInputStream(path)))) {
+      if (in.readInt() != magic) {
+        throw new IOException("Illegal snapshot: " + path + " is not of the expected format");
+      }
+
+      int actual = in.readInt();
+      if (actual != version) {
+        throw new IOException("Illegal snapshot: Unsupported version " + actual);
+      }
+
+      decoder.decode(in);
+    }
+  }
+
+  /**
+   * Writes a timestamp without loss of precision.
+   *
+   * @param out an output stream.
+   * @param instant a timestamp.
+   * @throws IOException when writing fails.
+   */
+  public static void writeInstant(@NonNull DataOutputStream out, @NonNull Instant instant)
+      throws IOException {
+    out.writeLong(instant.getEpochSecond());
+    out.writeInt(instant.getNano());
+  }
+
+  /**
+   * Reads a timestamp which has previously been written via
+   * {@link #writeInstant(DataOutputStream, Instant)}.
+   *
+   * @param in an input stream.
+   * @return a timestamp.
+   * @throws IOException when reading fails.
+   */
+  @NonNull
+  public static Instant readInstant(@NonNull DataInputStream in) throws IOException {
+    return Instant.ofEpochSecond(in.readLong(), in.readInt());
+  }
+
+  /**
+   * Writes the contents of a snapshot.
+   */
+  @FunctionalInterface
+  public interface Encoder {
+
+    void encode(@NonNull DataOutputStream out) throws IOException;
+  }
+
+  /**
+   * Reads the contents of a snapshot.
+   */
+  @FunctionalInterface
+  public interface Decoder {
+
+    void decode(@NonNull DataInputStream in) throws IOException;
+  }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.utility;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonTokenId;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * <p>Decodes timestamps in the shapes which are used by GitHub (e.g. {@code
+ * yyyy-MM-ddTHH:mm:ssZ} strings and epoch seconds).</p>
+ *
+ * <p>Strings of the fixed UTC shape (or with an explicit {@code +hh:mm} offset) are parsed
+ * directly from the parser's character buffer without creating intermediate strings or temporal
+ * objects. All other ISO-8601 shapes (such as timestamps with fractional seconds) are passed on to
+ * the regular formatter.</p>
+ */
+public class TimestampDeserializer extends StdScalarDeserializer<Instant> {
+
+  /**
+   * Identifies values which do not match any of the supported fixed shapes.
+   */
+  private static final long INVALID = Long.MIN_VALUE;
+
+  public TimestampDeserializer() {
+    super(Instant.class);
+  }
+
+  /**
+   * <p>Parses a timestamp of the shape {@code yyyy-MM-ddTHH:mm:ssZ} or {@code
+   * yyyy-MM-ddTHH:mm:ss+hh:mm}.</p>
+   *
+   * @param buffer a character buffer.
+   * @param offset an offset within the buffer.
+   * @param length the length of the timestamp.
+   * @return an amount of seconds since the epoch or {@link #INVALID} if the value does not match.
+   */
+  static long parse(@NonNull char[] buffer, int offset, int length) {
+    int zone;
+    if (length == 20 && buffer[offset + 19] == 'Z') {
+      zone = 0;
+    } else if (length == 25 && buffer[offset + 22] == ':') {
+      int hours = digits(buffer, offset + 20);
+      int minutes = digits(buffer, offset + 23);
+      char sign = buffer[offset + 19];
+
+      if (hours < 0 || hours > 18 || minutes < 0 || minutes > 59 || (sign != '+' && sign != '-')) {
+        return INVALID;
+      }
+
+      zone = (hours * 3600 + minutes * 60) * (sign == '-' ? -1 : 1);
+    } else {
+      return INVALID;
+    }
+
+    if (buffer[offset + 4] != '-' || buffer[offset + 7] != '-' || buffer[offset + 10] != 'T'
+        || buffer[offset + 13] != ':' || buffer[offset + 16] != ':') {
+      return INVALID;
+    }
+
+    int century = digits(buffer, offset);
+    int year = digits(buffer, offset + 2);
+    int month = digits(buffer, offset + 5);
+    int day = digits(buffer, offset + 8);
+    int hour = digits(buffer, offset + 11);
+    int minute = digits(buffer, offset + 14);
+    int second = digits(buffer, offset + 17);
+
+    if (century < 0 || year < 0 || month < 1 || month > 12 || day < 1 || hour < 0 || hour > 23
+        || minute < 0 || minute > 59 || second < 0 || second > 59) {
+      return INVALID;
+    }
+
+    year += century * 100;
+    if (day > lengthOfMonth(year, month)) {
+      return INVALID;
+    }
+
+    return epochDay(year, month, day) * 86400 + hour * 3600 + minute * 60 + second - zone;
+  }
+
+  /**
+   * Parses a pair of decimal digits.
+   *
+   * @param buffer a character buffer.
+   * @param offset the offset of the first digit.
+   * @return a value within [0, 99] or a negative value if either character is not a digit.
+   */
+  private static int digits(@NonNull char[] buffer, int offset) {
+    int high = buffer[offset] - '0';
+    int low = buffer[offset + 1] - '0';
+
+    if (high < 0 || high > 9 || low < 0 || low > 9) {
+      return -1;
+    }
+
+    return high * 10 + low;
+  }
+
+  private static int lengthOfMonth(int year, int month) {
+    switch (month) {
+      case 2:
+        return (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+      case 4:
+      case 6:
+      case 9:
+      case 11:
+        return 30;
+      default:
+        return 31;
+    }
+  }
+
+  /**
+   * Computes the amount of days between the epoch and the specified date (within the proleptic
+   * Gregorian calendar).
+   *
+   * @param year a year (positive).
+   * @param month a month within [1, 12].
+   * @param day a day of month.
+   * @return an amount of days.
+   */
+  private static long epochDay(int year, int month, int day) {
+    // shift the year to begin in March so that leap days fall onto the end of each year
+    int y = month <= 2 ? year - 1 : year;
+    int era = Math.floorDiv(y, 400);
+    int yearOfEra = y - era * 400;
+    int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+    int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+
+    return era * 146097L + dayOfEra - 719468;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Instant deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+    switch (p.getCurrentTokenId()) {
+      case JsonTokenId.ID_STRING:
+        long seconds = parse(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+        if (seconds != INVALID) {
+          return Instant.ofEpochSecond(seconds);
+        }
+
+        String text = p.getText().trim();
+        if (text.isEmpty()) {
+          return null;
+        }
+
+        try {
+          return DateTimeFormatter.ISO_OFFSET_DATE_TIME.parse(text, Instant::from);
+        } catch (DateTimeException ex) {
+          return (Instant) ctxt.handleWeirdStringValue(Instant.class, text,
+              "Expected ISO-8601 date and time: %s", ex.getMessage());
+        }
+      case JsonTokenId.ID_NUMBER_INT:
+        if (ctxt.isEnabled(DeserializationFeature.READ_DATE_TIMESTAMPS_AS_NANOSECONDS)) {
+          return Instant.ofEpochSecond(p.getLongValue());
+        }
+
+        return Instant.ofEpochMilli(p.getLongValue());
+      case JsonTokenId.ID_NUMBER_FLOAT:
+        BigDecimal value = p.getDecimalValue();
+        long integer = value.longValue();
+
+        return Instant.ofEpochSecond(integer,
+            value.subtract(BigDecimal.valueOf(integer)).movePointRight(9).intValue());
+      default:
+        return (Instant) ctxt.handleUnexpectedToken(Instant.class, p);
+    }
+  }
+}
@@ -18,7 +18,10 @@ package org.basinmc.stormdrain.utility;
 
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.Nullable;
+import java.net.MalformedURLException;
+import java.net.URL;
 import java.time.Instant;
+import org.basinmc.stormdrain.UnloadedPropertyException;
 
 /**
  * Provides utility methods which simplify the interaction with various different value types.
@@ -27,6 +30,12 @@ import java.time.Instant;
  */
 public final class ValueUtility {
 
+  /**
+   * Identifies timestamps which are either unset or have not been loaded when stored as epoch
+   * seconds.
+   */
+  public static final long ABSENT_TIMESTAMP = Long.MIN_VALUE;
+
   private ValueUtility() {
   }
 
@@ -55,12 +64,131 @@ public final class ValueUtility {
    * @return a modification timestamp or null if unset.
    */
   @Nullable
-  public static Instant toOptionalModificationTimestamp(@NonNull Instant creationTimestamp,
+  public static Instant toOptionalModificationTimestamp(@Nullable Instant creationTimestamp,
       @Nullable Instant modificationTimestamp) {
-    if (modificationTimestamp == null || creationTimestamp.equals(modificationTimestamp)) {
+    if (modificationTimestamp == null || modificationTimestamp.equals(creationTimestamp)) {
       return null;
     }
 
     return modificationTimestamp;
   }
+
+  /**
+   * <p>Ensures that a mandatory property has been loaded.</p>
+   *
+   * <p>Mandatory properties are only ever unset within models which have been decoded through a
+   * projection which excludes them.</p>
+   *
+   * @param model a model.
+   * @param property a property name.
+   * @param value a property value.
+   * @param <T> a value type.
+   * @return the value.
+   * @throws UnloadedPropertyException when the value has not been loaded.
+   */
+  @NonNull
+  public static <T> T requireLoaded(@NonNull Object model, @NonNull String property,
+      @Nullable T value) {
+    if (value == null) {
+      throw new UnloadedPropertyException(model.getClass(), property);
+    }
+
+    return value;
+  }
+
+  /**
+   * <p>Converts a timestamp into its compact representation (e.g. the amount of seconds since the
+   * epoch).</p>
+   *
+   * <p>GitHub reports all timestamps with a precision of one second. Fractions of a second are
+   * discarded.</p>
+   *
+   * @param value a timestamp.
+   * @return an amount of epoch seconds or {@link #ABSENT_TIMESTAMP} when unset.
+   */
+  public static long toEpochSecond(@Nullable Instant value) {
+    if (value == null) {
+      return ABSENT_TIMESTAMP;
+    }
+
+    return value.getEpochSecond();
+  }
+
+  /**
+   * Converts a compact timestamp back into its regular representation.
+   *
+   * @param epochSecond an amount of epoch seconds or {@link #ABSENT_TIMESTAMP}.
+   * @return a timestamp or null when unset.
+   */
+  @Nullable
+  public static Instant toInstant(long epochSecond) {
+    if (epochSecond == ABSENT_TIMESTAMP) {
+      return null;
+    }
+
+    return Instant.ofEpochSecond(epochSecond);
+  }
+
+  /**
+   * Reduces values which can be derived from other properties of their resource to null in order
+   * to spare their retained memory.
+   *
+   * @param value a value (typically a URL).
+   * @param derivedValue the value which is derived from other properties.
+   * @param <T> a value type.
+   * @return the value or null when it matches the derived value.
+   */
+  @Nullable
+  public static <T> T toOptionalDerivedValue(@Nullable T value, @NonNull String derivedValue) {
+    if (value == null || derivedValue.equals(value.toString())) {
+      return null;
+    }
+
+    return value;
+  }
+
+  /**
+   * Converts a URL which has been derived from other properties of a resource.
+   *
+   * @param value a URL.
+   * @return a URL.
+   * @throws IllegalStateException when the derived URL is malformed.
+   */
+  @NonNull
+  public static URL toUrl(@NonNull String value) {
+    try {
+      return new URL(value);
+    } catch (MalformedURLException ex) {
+      throw new IllegalStateException("Illegal derived URL: " + value, ex);
+    }
+  }
+
+  /**
+   * <p>Converts an identifier into its numeric representation.</p>
+   *
+   * <p>Only identifiers which consist of up to 18 decimal digits (without leading zeros) are
+   * converted in order to guarantee that the numeric representation can be converted back into
+   * the exact same string.</p>
+   *
+   * @param id an identifier.
+   * @return a non-negative numeric identifier or -1 if the identifier is not numeric.
+   */
+  public static long toNumericId(@Nullable String id) {
+    if (id == null || id.isEmpty() || id.length() > 18
+        || (id.charAt(0) == '0' && id.length() != 1)) {
+      return -1;
+    }
+
+    long value = 0;
+    for (int i = 0; i < id.length(); ++i) {
+      char c = id.charAt(i);
+      if (c < '0' || c > '9') {
+        return -1;
+      }
+
+      value = value * 10 + (c - '0');
+    }
+
+    return value;
+  }
 }
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.wiki;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import org.basinmc.stormdrain.resource.ObjectId;
+
+/**
+ * <p>Maps wiki pages (identified by their repository and page name) to the commit identifier of
+ * their most recent version.</p>
+ *
+ * <p>Mappings are stored within parallel arrays using open addressing with linear probing while
+ * commit identifiers are stored inline within a single byte array. Apart from the page names
+ * themselves, no objects are retained per page.</p>
+ *
+ * <p>This implementation is not thread safe.</p>
+ */
+final class PageVersionTable {
+
+  /**
+   * Defines the maximum fraction of slots which may be occupied before the table is resized.
+   */
+  private static final float LOAD_FACTOR = 0.6f;
+
+  private long[] repositories;
+  private String[] pages;
+  private byte[] commits;
+  private int mask;
+  private int size;
+  private int resizeThreshold;
+
+  PageVersionTable(int expectedSize) {
+    long minimum = Math.max(4, (long) Math.ceil(expectedSize / (double) LOAD_FACTOR));
+    if (minimum > 1 << 28) {
+      throw new IllegalArgumentException("Illegal expected size: Exceeds maximum table size");
+    }
+
+    int capacity = Integer.highestOneBit((int) minimum);
+    this.allocate(capacity < minimum ? capacity << 1 : capacity);
+  }
+
+  private void allocate(int capacity) {
+    this.repositories = new long[capacity];
+    this.pages = new String[capacity];
+    this.commits = new byte[capacity * ObjectId.LENGTH];
+    this.mask = capacity - 1;
+    this.resizeThreshold = (int) (capacity * LOAD_FACTOR);
+  }
+
+  /**
+   * Selects the preferred slot of a page.
+   *
+   * @param repositoryId a repository identifier.
+   * @param page a page name.
+   * @return a slot index.
+   */
+  private int slot(long repositoryId, @NonNull String page) {
+    long hash = (repositoryId * 0x9E3779B97F4A7C15L) ^ page.hashCode();
+    hash ^= hash >>> 29;
+    hash *= 0xBF58476D1CE4E5B9L;
+    return (int) (hash ^ (hash >>> 32)) & this.mask;
+  }
+
+  /**
+   * Locates the slot which holds a page.
+   *
+   * @param repositoryId a repository identifier.
+   * @param page a page name.
+   * @return a slot index or the complement of the free slot at which the page would be stored.
+   */
+  private int find(long repositoryId, @NonNull String page) {
+    int index = this.slot(repositoryId, page);
+
+    while (this.pages[index] != null) {
+      if (this.repositories[index] == repositoryId && this.pages[index].equals(page)) {
+        return index;
+      }
+
+      index = (index + 1) & this.mask;
+    }
+
+    return ~index;
+  }
+
+  /**
+   * Retrieves the most recent version of a page.
+   *
+   * @param repositoryId a repository identifier.
+   * @param page a page name.
+   * @return a commit identifier or null if the page is unknown.
+   */
+  @Nullable
+  ObjectId get(long repositoryId, @NonNull String page) {
+    int index = this.find(repositoryId, page);
+    return index < 0 ? null : ObjectId.fromBytes(this.commits, index * ObjectId.LENGTH);
+  }
+
+  /**
+   * Stores the most recent version of a page.
+   *
+   * @param repositoryId a repository identifier.
+   * @param page a page name.
+   * @param commitId a commit identifier.
+   */
+  void put(long repositoryId, @NonNull String page, @NonNull ObjectId commitId) {
+    int index = this.find(repositoryId, page);
+
+    if (index < 0) {
+      if (this.size >= this.resizeThreshold) {
+        this.resize();
+        index = this.find(repositoryId, page);
+      }
+
+      index = ~index;
+      this.repositories[index] = repositoryId;
+      this.pages[index] = page;
+      this.size++;
+    }
+
+    commitId.copyTo(this.commits, index * ObjectId.LENGTH);
+  }
+
+  /**
+   * Retrieves the amount of pages within this table.
+   *
+   * @return an amount of pages.
+   */
+  int size() {
+    return this.size;
+  }
+
+  private void resize() {
+    long[] repositories = this.repositories;
+    String[] pages = this.pages;
+    byte[] commits = this.commits;
+
+    if (pages.length >= 1 << 28) {
+      throw new IllegalStateException("Cannot grow table beyond " + pages.length + " slots");
+    }
+
+    this.allocate(pages.length << 1);
+    for (int i = 0; i < pages.length; ++i) {
+      if (pages[i] == null) {
+        continue;
+      }
+
+      int index = ~this.find(repositories[i], pages[i]);
+      this.repositories[index] = repositories[i];
+      this.pages[index] = pages[i];
+      System.arraycopy(commits, i * ObjectId.LENGTH, this.commits, index * ObjectId.LENGTH,
+          ObjectId.LENGTH);
+    }
+  }
+
+  /**
+   * Writes all pages to the specified stream.
+   *
+   * @param out an output stream.
+   * @throws IOException when writing fails.
+   */
+  void writeTo(@NonNull DataOutputStream out) throws IOException {
+    out.writeInt(this.size);
+
+    for (int i = 0; i < this.pages.length; ++i) {
+      if (this.pages[i] == null) {
+        continue;
+      }
+
+      out.writeLong(this.repositories[i]);
+      out.writeUTF(this.pages[i]);
+      out.write(this.commits, i * ObjectId.LENGTH, ObjectId.LENGTH);
+    }
+  }
+
+  /**
+   * Reads a table which has previously been written via {@link #writeTo(DataOutputStream)}.
+   *
+   * @param in an input stream.
+   * @return a table.
+   * @throws IOException when reading fails.
+   */
+  @NonNull
+  static PageVersionTable readFrom(@NonNull DataInputStream in) throws IOException {
+    int size = in.readInt();
+    if (size < 0) {
+      throw new IOException("Illegal snapshot: Negative page count");
+    }
+
+    PageVersionTable table = new PageVersionTable(size);
+    byte[] commitId = new byte[ObjectId.LENGTH];
+    for (int i = 0; i < size; ++i) {
+      long repositoryId = in.readLong();
+      String page = in.readUTF();
+      in.readFully(commitId);
+
+      table.put(repositoryId, page, ObjectId.fromBytes(commitId, 0));
+    }
+
+    return table;
+  }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.wiki;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.util.Objects;
+import java.util.Optional;
+import org.basinmc.stormdrain.resource.ObjectId;
+
+/**
+ * Represents the change of a single wiki page which may summarize multiple consecutive edits.
+ */
+public final class WikiChange {
+
+  private final long repositoryId;
+  private final String repositoryName;
+  private final String pageName;
+  private final String title;
+  private final ObjectId previousCommitId;
+  private final ObjectId commitId;
+  private final int edits;
+
+  WikiChange(long repositoryId, @NonNull String repositoryName, @NonNull String pageName,
+      @NonNull String title, @Nullable ObjectId previousCommitId, @NonNull ObjectId commitId,
+      int edits) {
+    this.repositoryId = repositoryId;
+    this.repositoryName = repositoryName;
+    this.pageName = pageName;
+    this.title = title;
+    this.previousCommitId = previousCommitId;
+    this.commitId = commitId;
+    this.edits = edits;
+  }
+
+  /**
+   * Retrieves the identifier of the repository to which the wiki belongs.
+   *
+   * @return a repository identifier.
+   */
+  public long getRepositoryId() {
+    return this.repositoryId;
+  }
+
+  /**
+   * Retrieves the full name of the repository to which the wiki belongs.
+   *
+   * @return a repository name.
+   */
+  @NonNull
+  public String getRepositoryName() {
+    return this.repositoryName;
+  }
+
+  /**
+   * Retrieves the name of the changed page.
+   *
+   * @return a page name.
+   */
+  @NonNull
+  public String getPageName() {
+    return this.pageName;
+  }
+
+  /**
+   * Retrieves the title of the page as of its most recent edit.
+   *
+   * @return a title.
+   */
+  @NonNull
+  public String getTitle() {
+    return this.title;
+  }
+
+  /**
+   * Retrieves the commit hash of the previously reported version of the page.
+   *
+   * @return a commit hash or an empty optional if the page has not been reported before.
+   */
+  @NonNull
+  public Optional<String> getPreviousCommitId() {
+    return this.getPreviousCommitObjectId().map(ObjectId::toString);
+  }
+
+  /**
+   * Retrieves the commit hash of the previously reported version of the page.
+   *
+   * @return a commit hash or an empty optional if the page has not been reported before.
+   */
+  @NonNull
+  public Optional<ObjectId> getPreviousCommitObjectId() {
+    return Optional.ofNullable(this.previousCommitId);
+  }
+
+  /**
+   * Retrieves the commit hash of the current version of the page.
+   *
+   * @return a commit hash.
+   */
+  @NonNull
+  public String getCommitId() {
+    return this.commitId.toString();
+  }
+
+  /**
+   * Retrieves the commit hash of the current version of the page.
+   *
+   * @return a commit hash.
+   */
+  @NonNull
+  public ObjectId getCommitObjectId() {
+    return this.commitId;
+  }
+
+  /**
+   * Retrieves the amount of edits which are summarized by this change.
+   *
+   * @return an amount of edits.
+   */
+  public int getEdits() {
+    return this.edits;
+  }
+
+  /**
+   * Evaluates whether the page has not been reported before (e.g. whether it has been created or
+   * is encountered for the first time).
+   *
+   * @return true if new, false otherwise.
+   */
+  public boolean isNew() {
+    return this.previousCommitId == null;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof WikiChange)) {
+      return false;
+    }
+    WikiChange that = (WikiChange) o;
+    return this.repositoryId == that.repositoryId &&
+        this.edits == that.edits &&
+        Objects.equals(this.repositoryName, that.repositoryName) &&
+        Objects.equals(this.pageName, that.pageName) &&
+        Objects.equals(this.title, that.title) &&
+        Objects.equals(this.previousCommitId, that.previousCommitId) &&
+        Objects.equals(this.commitId, that.commitId);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int hashCode() {
+    return Objects.hash(this.repositoryId, this.repositoryName, this.pageName, this.title,
+        this.previousCommitId, this.commitId, this.edits);
+  }
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.wiki;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import org.basinmc.stormdrain.event.GollumEvent;
+import org.basinmc.stormdrain.metrics.MetricSource;
+import org.basinmc.stormdrain.metrics.MetricsReporter;
+import org.basinmc.stormdrain.resource.GollumPage;
+import org.basinmc.stormdrain.resource.ObjectId;
+import org.basinmc.stormdrain.utility.CoalescingWindow;
+import org.basinmc.stormdrain.utility.SnapshotFile;
+
+/**
+ * <p>Derives an incremental feed of changed wiki pages from wiki events.</p>
+ *
+ * <p>Each page edit is held back for a configurable window which starts with the first edit of
+ * the page. Further edits of the same page within this window are collapsed into a single change.
+ * Once the window has passed, the most recent version of the page is compared to the version which
+ * has been reported last and a change is only passed on when the two differ (for instance, an
+ * event which is delivered twice or reverted edits are suppressed).</p>
+ *
+ * <p>The most recently reported version of every page is kept within a compact open addressed
+ * table which may optionally be persisted via {@link #writeSnapshot(Path)} in order to resume the
+ * feed after a restart.</p>
+ *
+ * <p>Each change is passed to the consumer at most once: When the consumer fails while a change
+ * is passed on by the timer, the failure is counted (see {@link #getFailedCount()}) while the
+ * page version is retained as reported (see {@link CoalescingWindow} for details).</p>
+ */
+public class WikiChangeFeed extends CoalescingWindow<WikiChangeFeed.Pending, WikiChange> implements
+    MetricSource {
+
+  /**
+   * Defines the name of the counter which tracks the amount of received page edits.
+   */
+  public static final String EDIT_METRIC = "stormdrain.wiki.edits";
+
+  /**
+   * Defines the name of the counter which tracks the amount of collapsed edits per result.
+   */
+  public static final String CHANGE_METRIC = "stormdrain.wiki.changes";
+
+  /**
+   * Defines the name of the gauge which tracks the amount of pages with a known version.
+   */
+  public static final String PAGE_METRIC = "stormdrain.wiki.pages";
+
+  /**
+   * Defines the name of the gauge which tracks the amount of changes which are currently held
+   * back.
+   */
+  public static final String PENDING_METRIC = "stormdrain.wiki.pending";
+
+  private static final int MAGIC = 0x53445749;
+  private static final int VERSION = 1;
+  private static final AtomicInteger FEED_COUNTER = new AtomicInteger();
+
+  private final Object lock = new Object();
+  private PageVersionTable versions = new PageVersionTable(64);
+
+  private final LongAdder edits = new LongAdder();
+  private final LongAdder emittedChanges = new LongAdder();
+  private final LongAdder unchangedPages = new LongAdder();
+
+  public WikiChangeFeed(@NonNull Duration window, @NonNull Consumer<WikiChange> consumer) {
+    super("stormdrain-wiki-" + FEED_COUNTER.incrementAndGet(), consumer, validate(window),
+        validate(window));
+  }
+
+  private static long validate(@NonNull Duration window) {
+    if (window.isNegative() || window.isZero()) {
+      throw new IllegalArgumentException("Illegal window: Must be positive");
+    }
+
+    return window.toNanos();
+  }
+
+  /**
+   * Holds back the page edits of a wiki event or collapses them with pending edits of the same
+   * pages.
+   *
+   * @param event a wiki event.
+   */
+  public void offer(@NonNull GollumEvent event) {
+    long repositoryId = event.getRepository().getNumericId();
+    String repositoryName = event.getRepository().getFullName();
+
+    for (GollumPage page : event.getPages()) {
+      this.edits.increment();
+      this.hold(new Key(repositoryId, page.getPageName()),
+          () -> new Pending(repositoryName, page), (pending) -> pending.add(page));
+    }
+  }
+
+  /**
+   * Compares a pending change to the most recently reported version of its page and records it
+   * as the new version if it differs.
+   *
+   * @param key a page.
+   * @param pending a pending change.
+   * @return a change or null if the page has not changed.
+   */
+  @Nullable
+  @Override
+  protected WikiChange complete(@NonNull Key key, @NonNull Pending pending) {
+    synchronized (this.lock) {
+      ObjectId previous = this.versions.get(key.getRepositoryId(), key.getName());
+
+      if (pending.commitId.equals(previous)) {
+        this.unchangedPages.increment();
+        return null;
+      }
+
+      this.versions.put(key.getRepositoryId(), key.getName(), pending.commitId);
+      this.emittedChanges.increment();
+      return new WikiChange(key.getRepositoryId(), pending.repositoryName, key.getName(),
+          pending.title, previous, pending.commitId, pending.edits);
+    }
+  }
+
+  /**
+   * Retrieves the most recently reported version of a page.
+   *
+   * @param repositoryId a repository identifier.
+   * @param pageName a page name.
+   * @return a commit hash or an empty optional if the page has not been reported yet.
+   */
+  @NonNull
+  public Optional<ObjectId> getCommitId(long repositoryId, @NonNull String pageName) {
+    synchronized (this.lock) {
+      return Optional.ofNullable(this.versions.get(repositoryId, pageName));
+    }
+  }
+
+  /**
+   * Retrieves the amount of pages with a known version.
+   *
+   * @return an amount of pages.
+   */
+  public int getPageCount() {
+    synchronized (this.lock) {
+      return this.versions.size();
+    }
+  }
+
+  /**
+   * Writes the most recently reported version of every page to the specified file. Pending
+   * changes are not included.
+   *
+   * @param path a file.
+   * @throws IOException when writing fails.
+   */
+  public void writeSnapshot(@NonNull Path path) throws IOException {
+    SnapshotFile.write(path, MAGIC, VERSION, (out) -> {
+      synchronized (this.lock) {
+        this.versions.writeTo(out);
+      }
+    });
+  }
+
+  /**
+   * Replaces the known page versions with a snapshot which has previously been written via
+   * {@link #writeSnapshot(Path)}.
+   *
+   * @param path a file.
+   * @throws IOException when reading fails or the file is not a valid snapshot.
+   */
+  public void readSnapshot(@NonNull Path path) throws IOException {
+    SnapshotFile.read(path, MAGIC, VERSION, (in) -> {
+      PageVersionTable versions = PageVersionTable.readFrom(in);
+
+      synchronized (this.lock) {
+        this.versions = versions;
+      }
+    });
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void report(@NonNull MetricsReporter reporter) {
+    reporter.counter(EDIT_METRIC, Collections.emptyMap(), this.edits.sum());
+    reporter.counter(CHANGE_METRIC, Collections.singletonMap("result", "emitted"),
+        this.emittedChanges.sum());
+    reporter.counter(CHANGE_METRIC, Collections.singletonMap("result", "unchanged"),
+        this.unchangedPages.sum());
+    reporter.counter(CHANGE_METRIC, Collections.singletonMap("result", "failed"),
+        this.getFailedCount());
+    reporter.gauge(PAGE_METRIC, Collections.emptyMap(), this.getPageCount());
+    reporter.gauge(PENDING_METRIC, Collections.emptyMap(), this.getPendingCount());
+  }
+
+  /**
+   * Represents the edits of a page which are currently held back.
+   */
+  static final class Pending {
+
+    private final String repositoryName;
+    private String title;
+    private ObjectId commitId;
+    private int edits;
+
+    private Pending(@NonNull String repositoryName, @NonNull GollumPage page) {
+      this.repositoryName = repositoryName;
+      this.add(page);
+    }
+
+    /**
+     * Appends an edit to this change.
+     *
+     * @param page a page edit.
+     */
+    private void add(@NonNull GollumPage page) {
+      this.title = page.getTitle();
+      this.commitId = page.getCommitObjectId();
+      this.edits++;
+    }
+  }
+}
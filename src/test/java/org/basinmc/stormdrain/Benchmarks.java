@@ -0,0 +1,135 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain;
+
+import com.sun.management.ThreadMXBean;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.lang.management.ManagementFactory;
+
+/**
+ * <p>Provides a minimal harness for the micro benchmarks within the test sources.</p>
+ *
+ * <p>Benchmarks are named {@code *Benchmark} and are thus skipped by the regular test run. They
+ * may be executed explicitly via {@code mvn test -Dtest=<name>Benchmark}. Iteration counts may be
+ * adjusted through the {@code stormdrain.benchmark.iterations} system property.</p>
+ */
+public final class Benchmarks {
+
+  private static final ThreadMXBean THREAD_BEAN = (ThreadMXBean) ManagementFactory
+      .getThreadMXBean();
+
+  private Benchmarks() {
+  }
+
+  /**
+   * Retrieves the amount of measured iterations per benchmark.
+   *
+   * @return an amount of iterations.
+   */
+  public static int getIterations() {
+    return Integer.getInteger("stormdrain.benchmark.iterations", 20_000);
+  }
+
+  /**
+   * Measures the average amount of heap memory allocated by a single invocation of the specified
+   * operation on the calling thread.
+   *
+   * @param operation an operation.
+   * @return an amount of bytes per operation.
+   * @throws Exception when the operation fails.
+   */
+  public static double measureAllocation(@NonNull Operation operation) throws Exception {
+    int iterations = getIterations();
+    warmup(operation, iterations);
+
+    long threadId = Thread.currentThread().getId();
+    long start = THREAD_BEAN.getThreadAllocatedBytes(threadId);
+    for (int i = 0; i < iterations; ++i) {
+      operation.run();
+    }
+
+    return (THREAD_BEAN.getThreadAllocatedBytes(threadId) - start) / (double) iterations;
+  }
+
+  /**
+   * Measures the average wall clock time of a single invocation of the specified operation.
+   *
+   * @param operation an operation.
+   * @return an amount of nanoseconds per operation.
+   * @throws Exception when the operation fails.
+   */
+  public static double measureTime(@NonNull Operation operation) throws Exception {
+    int iterations = getIterations();
+    warmup(operation, iterations);
+
+    long start = System.nanoTime();
+    for (int i = 0; i < iterations; ++i) {
+      operation.run();
+    }
+
+    return (System.nanoTime() - start) / (double) iterations;
+  }
+
+  /**
+   * Measures the amount of heap memory which is currently in use by live objects (after forcing
+   * garbage collection).
+   *
+   * @return an amount of bytes.
+   */
+  public static long measureUsedHeap() {
+    Runtime runtime = Runtime.getRuntime();
+    long used = Long.MAX_VALUE;
+
+    // collect repeatedly until the result settles as a single request may be ignored
+    for (int i = 0; i < 10; ++i) {
+      System.gc();
+
+      long current = runtime.totalMemory() - runtime.freeMemory();
+      if (current >= used) {
+        return current;
+      }
+      used = current;
+    }
+
+    return used;
+  }
+
+  /**
+   * Prints a single result line.
+   *
+   * @param format a format string.
+   * @param arguments an arbitrary number of format arguments.
+   */
+  public static void report(@NonNull String format, @NonNull Object... arguments) {
+    System.out.println(String.format(format, arguments));
+  }
+
+  private static void warmup(@NonNull Operation operation, int iterations) throws Exception {
+    for (int i = 0; i < iterations; ++i) {
+      operation.run();
+    }
+  }
+
+  /**
+   * Represents a measured operation.
+   */
+  @FunctionalInterface
+  public interface Operation {
+
+    void run() throws Exception;
+  }
+}
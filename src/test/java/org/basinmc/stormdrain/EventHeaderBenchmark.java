@@ -0,0 +1,52 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import org.junit.Test;
+
+/**
+ * Compares the resolution of raw header values against decoding them and looking up the payload
+ * type by its name.
+ */
+public class EventHeaderBenchmark {
+
+  @Test
+  public void benchmark() throws Exception {
+    byte[][] values = new byte[PayloadType.values().length][];
+    for (int i = 0; i < values.length; ++i) {
+      values[i] = PayloadType.values()[i].name().toLowerCase(Locale.ROOT)
+          .getBytes(StandardCharsets.US_ASCII);
+    }
+
+    int[] index = new int[1];
+    Benchmarks.Operation valueOf = () -> {
+      byte[] value = values[index[0]++ % values.length];
+      PayloadType.valueOf(new String(value, StandardCharsets.US_ASCII).toUpperCase(Locale.ROOT));
+    };
+    Benchmarks.Operation resolve = () -> {
+      byte[] value = values[index[0]++ % values.length];
+      EventHeader.resolve(value).getPayloadType();
+    };
+
+    Benchmarks.report("%-10s %8.1f ns/op %8.1f B/op", "valueOf",
+        Benchmarks.measureTime(valueOf), Benchmarks.measureAllocation(valueOf));
+    Benchmarks.report("%-10s %8.1f ns/op %8.1f B/op", "resolve",
+        Benchmarks.measureTime(resolve), Benchmarks.measureAllocation(resolve));
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Evaluates whether event headers are correctly resolved from their raw values.
+ */
+public class EventHeaderTest {
+
+  /**
+   * Evaluates whether every supported payload type is resolved from its header value regardless
+   * of the representation of the value.
+   */
+  @Test
+  public void testSupported() {
+    for (PayloadType type : PayloadType.values()) {
+      String value = type.name().toLowerCase(Locale.ROOT);
+      byte[] encoded = value.getBytes(StandardCharsets.US_ASCII);
+
+      ByteBuffer direct = ByteBuffer.allocateDirect(encoded.length + 2);
+      direct.put((byte) 'x').put(encoded).put((byte) 'x').flip().position(1).limit(
+          encoded.length + 1);
+
+      EventHeader header = EventHeader.resolve(encoded);
+      Assert.assertNotNull(value, header);
+      Assert.assertEquals(value, header.getValue());
+      Assert.assertEquals(type, header.getPayloadType());
+      Assert.assertTrue(header.isSupported());
+
+      Assert.assertSame(value, header, EventHeader.resolve(value));
+      Assert.assertSame(value, header, EventHeader.resolve(ByteBuffer.wrap(encoded)));
+      Assert.assertSame(value, header, EventHeader.resolve(direct));
+      Assert.assertEquals(1, direct.position());
+    }
+  }
+
+  /**
+   * Evaluates whether known events without a payload type are reported as unsupported.
+   */
+  @Test
+  public void testUnsupported() {
+    for (String value : new String[]{"installation", "installation_repositories",
+        "marketplace_purchase", "ping", "project", "project_card", "project_column", "status"}) {
+      EventHeader header = EventHeader.resolve(value);
+
+      Assert.assertNotNull(value, header);
+      Assert.assertEquals(value, header.getValue());
+      Assert.assertNull(value, header.getPayloadType());
+      Assert.assertFalse(value, header.isSupported());
+    }
+  }
+
+  /**
+   * Evaluates whether the case of a value and surrounding whitespace are ignored while unknown
+   * values are rejected.
+   */
+  @Test
+  public void testMalformed() {
+    Assert.assertEquals(EventHeader.PULL_REQUEST_REVIEW_COMMENT,
+        EventHeader.resolve(" Pull_Request_Review_COMMENT\t"));
+    Assert.assertEquals(EventHeader.PUSH,
+        EventHeader.resolve(" PUSH ".getBytes(StandardCharsets.US_ASCII)));
+
+    Assert.assertNull(EventHeader.resolve(""));
+    Assert.assertNull(EventHeader.resolve("   "));
+    Assert.assertNull(EventHeader.resolve("pushes"));
+    Assert.assertNull(EventHeader.resolve("pull-request"));
+    Assert.assertNull(EventHeader.resolve("pull_request_review_comments"));
+    Assert.assertNull(EventHeader.resolve("püsh"));
+    Assert.assertNull(EventHeader.resolve(new byte[]{'p', 'u', 's', (byte) 0xC8}));
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+import org.basinmc.stormdrain.event.Event;
+
+/**
+ * Provides access to the sample payloads which are shipped with the test resources.
+ */
+public final class Fixtures {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private Fixtures() {
+  }
+
+  /**
+   * Retrieves the file name of the sample event for the specified payload type.
+   *
+   * @param type a payload type.
+   * @return a resource path.
+   */
+  @NonNull
+  public static String getEventPath(@NonNull PayloadType type) {
+    return "/event/" + type.name().toLowerCase() + ".json";
+  }
+
+  /**
+   * Reads the sample event for the specified payload type.
+   *
+   * @param type a payload type.
+   * @return an array of UTF-8 encoded bytes.
+   * @throws IOException when reading the sample fails.
+   */
+  @NonNull
+  public static byte[] readEvent(@NonNull PayloadType type) throws IOException {
+    return read(getEventPath(type));
+  }
+
+  /**
+   * Reads the sample event for the specified payload type as a JSON tree.
+   *
+   * @param type a payload type.
+   * @return a tree.
+   * @throws IOException when reading the sample fails.
+   */
+  @NonNull
+  public static ObjectNode readTree(@NonNull PayloadType type) throws IOException {
+    return (ObjectNode) MAPPER.readTree(readEvent(type));
+  }
+
+  /**
+   * Reads the sample event for the specified payload type and applies a modification to it.
+   *
+   * @param type a payload type.
+   * @param modifier a modifier which alters the JSON tree of the sample.
+   * @return an array of UTF-8 encoded bytes.
+   * @throws IOException when reading the sample fails.
+   */
+  @NonNull
+  public static byte[] readEvent(@NonNull PayloadType type, @NonNull Consumer<ObjectNode> modifier)
+      throws IOException {
+    ObjectNode node = readTree(type);
+    modifier.accept(node);
+    return MAPPER.writeValueAsBytes(node);
+  }
+
+  /**
+   * Reads the sample event for the specified payload type, applies a modification to it and
+   * decodes the result.
+   *
+   * @param type a payload type.
+   * @param modifier a modifier which alters the JSON tree of the sample.
+   * @param <E> an event type.
+   * @return an event.
+   * @throws IOException when reading or decoding the sample fails.
+   */
+  @NonNull
+  public static <E extends Event> E decodeEvent(@NonNull PayloadType type,
+      @NonNull Consumer<ObjectNode> modifier) throws IOException {
+    return type.read(readEvent(type, modifier));
+  }
+
+  /**
+   * Reads an arbitrary test resource.
+   *
+   * @param path a resource path.
+   * @return an array of bytes.
+   * @throws IOException when reading the resource fails.
+   */
+  @NonNull
+  public static byte[] read(@NonNull String path) throws IOException {
+    try (InputStream inputStream = Fixtures.class.getResourceAsStream(path)) {
+      if (inputStream == null) {
+        throw new IOException("No such test resource: " + path);
+      }
+
+      ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+      byte[] buffer = new byte[4096];
+      int length;
+
+      while ((length = inputStream.read(buffer)) != -1) {
+        outputStream.write(buffer, 0, length);
+      }
+
+      return outputStream.toByteArray();
+    }
+  }
+}
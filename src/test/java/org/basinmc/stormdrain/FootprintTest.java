@@ -0,0 +1,86 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+import org.basinmc.stormdrain.event.Event;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.openjdk.jol.info.GraphLayout;
+import org.openjdk.jol.vm.VM;
+import org.openjdk.jol.vm.VirtualMachine;
+
+/**
+ * <p>Evaluates whether the retained size of the decoded sample payloads stays within the recorded
+ * thresholds.</p>
+ *
+ * <p>Thresholds are recorded within {@code footprint.properties} for the reference layout (64-bit
+ * VM with compressed references, 12 byte object headers and compact strings) and are skipped on
+ * other layouts. When a model change intentionally grows (or shrinks) a model, the thresholds
+ * should be updated to the sizes reported by this test.</p>
+ */
+public class FootprintTest {
+
+  /**
+   * Defines the fraction by which a payload may exceed its recorded threshold.
+   */
+  private static final double TOLERANCE = 0.05;
+
+  private static final Properties THRESHOLDS = new Properties();
+
+  @BeforeClass
+  public static void loadThresholds() throws IOException {
+    try (InputStream inputStream = FootprintTest.class
+        .getResourceAsStream("/footprint.properties")) {
+      THRESHOLDS.load(inputStream);
+    }
+  }
+
+  /**
+   * Evaluates whether the retained size of each sample payload is within its threshold and
+   * reports the retained size of every payload type.
+   */
+  @Test
+  public void testRetainedSize() throws IOException {
+    VirtualMachine vm = VM.current();
+    Assume.assumeTrue("Reference layout required", vm.objectHeaderSize() == 12
+        && vm.sizeOfField("oop") == 4
+        && vm.objectAlignment() == 8
+        && GraphLayout.parseInstance(new String("compacted")).totalSize() == 56);
+
+    StringBuilder regressions = new StringBuilder();
+    for (PayloadType type : PayloadType.values()) {
+      Event event = type.read(Fixtures.readEvent(type));
+      GraphLayout layout = GraphLayout.parseInstance(event);
+      long threshold = Long.parseLong(THRESHOLDS.getProperty(type.name()));
+      System.out.printf("%-32s %8d bytes (threshold %8d bytes)%n", type, layout.totalSize(),
+          threshold);
+
+      if (layout.totalSize() > threshold * (1 + TOLERANCE)) {
+        regressions.append(String.format("%s: %d bytes (threshold %d bytes)%n%s", type,
+            layout.totalSize(), threshold, layout.toFootprint()));
+      }
+    }
+
+    Assert.assertTrue("Retained size exceeds threshold:\n" + regressions,
+        regressions.length() == 0);
+  }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+/**
+ * Compares pointer lookups over retained bodies against decoding the body into a tree.
+ */
+public class RawBodyBenchmark {
+
+  @Test
+  public void benchmark() throws Exception {
+    ObjectMapper mapper = new ObjectMapper();
+    JsonPointer pointer = JsonPointer.compile("/repository/owner/login");
+
+    for (PayloadType type : new PayloadType[]{PayloadType.PUSH, PayloadType.PULL_REQUEST}) {
+      byte[] payload = Fixtures.readEvent(type);
+      RawBody body = RawBody.wrap(payload);
+
+      Benchmarks.Operation tree = () -> mapper.readTree(payload).at(pointer).asText();
+      Benchmarks.Operation find = () -> body.find(pointer, String.class);
+
+      Benchmarks.report("%-14s %-6s %10.1f ns/op %10.1f B/op", type, "tree",
+          Benchmarks.measureTime(tree), Benchmarks.measureAllocation(tree));
+      Benchmarks.report("%-14s %-6s %10.1f ns/op %10.1f B/op", type, "find",
+          Benchmarks.measureTime(find), Benchmarks.measureAllocation(find));
+    }
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.JsonNode;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.basinmc.stormdrain.event.PushEvent;
+import org.basinmc.stormdrain.resource.Repository;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Evaluates whether raw bodies correctly expose their contents and track their references.
+ */
+public class RawBodyTest {
+
+  /**
+   * Evaluates whether values are correctly located within heap and direct bodies.
+   */
+  @Test
+  public void testFind() throws IOException {
+    byte[] payload = Fixtures.readEvent(PayloadType.PUSH);
+    PushEvent event = PayloadType.PUSH.read(payload);
+
+    ByteBuffer direct = ByteBuffer.allocateDirect(payload.length);
+    direct.put(payload).flip();
+
+    for (RawBody body : new RawBody[]{RawBody.wrap(payload), new RawBody(direct, null)}) {
+      Assert.assertEquals(payload.length, body.getSize());
+      Assert.assertTrue(body.getBuffer().isReadOnly());
+
+      Assert.assertEquals("refs/heads/changes",
+          body.find(JsonPointer.compile("/ref")).map(JsonNode::asText).orElse(null));
+      Assert.assertEquals("0d1a26e67d8f5eaf1f6ba5c57fc3c7d91ac0fd1c",
+          body.find(JsonPointer.compile("/commits/0/id")).map(JsonNode::asText).orElse(null));
+      Assert.assertEquals("baxterthehacker", body.find(JsonPointer.compile(
+          "/repository/owner/login"), String.class));
+      Assert.assertEquals(event.getRepository(),
+          body.find(JsonPointer.compile("/repository"), Repository.class));
+      Assert.assertTrue(body.find(JsonPointer.compile("")).get().isObject());
+
+      Assert.assertFalse(body.find(JsonPointer.compile("/missing")).isPresent());
+      Assert.assertFalse(body.find(JsonPointer.compile("/commits/42/id")).isPresent());
+    }
+  }
+
+  /**
+   * Evaluates whether the release action is invoked once the last reference has been released.
+   */
+  @Test
+  public void testReferenceCounting() {
+    AtomicInteger released = new AtomicInteger();
+    RawBody body = new RawBody(ByteBuffer.wrap(new byte[]{'{', '}'}), released::incrementAndGet);
+
+    Assert.assertEquals(1, body.getReferenceCount());
+    Assert.assertSame(body, body.retain());
+    Assert.assertEquals(2, body.getReferenceCount());
+
+    Assert.assertFalse(body.release());
+    Assert.assertEquals(0, released.get());
+    Assert.assertTrue(body.release());
+    Assert.assertEquals(1, released.get());
+
+    try {
+      body.getBuffer();
+      Assert.fail("Expected released body to be inaccessible");
+    } catch (IllegalStateException ignore) {
+    }
+
+    try {
+      body.retain();
+      Assert.fail("Expected released body to reject new references");
+    } catch (IllegalStateException ignore) {
+    }
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.basinmc.stormdrain.metrics.MetricSource;
+import org.basinmc.stormdrain.metrics.MetricsReporter;
+
+/**
+ * Records all counters and gauges which are reported by a metric source for later inspection.
+ */
+public final class RecordingReporter implements MetricsReporter {
+
+  private final List<Sample> samples = new ArrayList<>();
+
+  /**
+   * Records all values which are currently reported by the specified source.
+   *
+   * @param source a metric source.
+   * @return a reporter which holds the reported values.
+   */
+  @NonNull
+  public static RecordingReporter report(@NonNull MetricSource source) {
+    RecordingReporter reporter = new RecordingReporter();
+    source.report(reporter);
+    return reporter;
+  }
+
+  /**
+   * Retrieves the tags of all series which have been reported with the specified name.
+   *
+   * @param name a metric name.
+   * @return a list of tags (in order of reporting).
+   */
+  @NonNull
+  public List<Map<String, String>> getSeries(@NonNull String name) {
+    List<Map<String, String>> series = new ArrayList<>();
+
+    for (Sample sample : this.samples) {
+      if (sample.name.equals(name)) {
+        series.add(sample.tags);
+      }
+    }
+
+    return series;
+  }
+
+  /**
+   * Evaluates whether a series with the specified name and tags has been reported.
+   *
+   * @param name a metric name.
+   * @param tags an alternating list of tag keys and values (further tags of the series are
+   * ignored).
+   * @return true if such a series has been reported, false otherwise.
+   */
+  public boolean contains(@NonNull String name, @NonNull String... tags) {
+    return this.find(name, tags) != null;
+  }
+
+  /**
+   * Retrieves the value of the first series with the specified name and tags.
+   *
+   * @param name a metric name.
+   * @param tags an alternating list of tag keys and values (further tags of the series are
+   * ignored).
+   * @return a value.
+   * @throws AssertionError when no such series has been reported.
+   */
+  public double getValue(@NonNull String name, @NonNull String... tags) {
+    Sample sample = this.find(name, tags);
+    if (sample == null) {
+      throw new AssertionError("No such series: " + name + " " + String.join(",", tags));
+    }
+
+    return sample.value;
+  }
+
+  private Sample find(@NonNull String name, @NonNull String... tags) {
+    if (tags.length % 2 != 0) {
+      throw new IllegalArgumentException("Illegal tags: Expected pairs of keys and values");
+    }
+
+    search:
+    for (Sample sample : this.samples) {
+      if (!sample.name.equals(name)) {
+        continue;
+      }
+
+      for (int i = 0; i < tags.length; i += 2) {
+        if (!tags[i + 1].equals(sample.tags.get(tags[i]))) {
+          continue search;
+        }
+      }
+
+      return sample;
+    }
+
+    return null;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void counter(@NonNull String name, @NonNull Map<String, String> tags, long value) {
+    this.samples.add(new Sample(name, tags, value));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void gauge(@NonNull String name, @NonNull Map<String, String> tags, double value) {
+    this.samples.add(new Sample(name, tags, value));
+  }
+
+  /**
+   * Represents a single reported value.
+   */
+  private static final class Sample {
+
+    private final String name;
+    private final Map<String, String> tags;
+    private final double value;
+
+    private Sample(@NonNull String name, @NonNull Map<String, String> tags, double value) {
+      this.name = name;
+      this.tags = tags;
+      this.value = value;
+    }
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.cluster;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.basinmc.stormdrain.Fixtures;
+import org.basinmc.stormdrain.PayloadType;
+import org.basinmc.stormdrain.event.PushEvent;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Evaluates whether deliveries are routed to the member which owns their repository.
+ */
+public class ClusterDispatcherTest {
+
+  /**
+   * Evaluates whether deliveries reach their owner in order regardless of the receiving member.
+   */
+  @Test
+  public void testRouting() throws IOException {
+    InProcessTransport.Network network = new InProcessTransport.Network();
+    List<String> members = Arrays.asList("a", "b", "c");
+    Map<String, List<Delivery>> processed = new HashMap<>();
+    List<ClusterDispatcher> dispatchers = new ArrayList<>();
+
+    for (String member : members) {
+      List<Delivery> deliveries = Collections.synchronizedList(new ArrayList<>());
+      processed.put(member, deliveries);
+
+      ClusterDispatcher dispatcher = new ClusterDispatcher(member, 64, network.connect(member),
+          deliveries::add);
+      dispatcher.setMembers(members);
+      dispatcher.start();
+      dispatchers.add(dispatcher);
+    }
+
+    String push = new String(Fixtures.readEvent(PayloadType.PUSH), StandardCharsets.UTF_8);
+    Map<Long, List<UUID>> expected = new HashMap<>();
+
+    for (int i = 0; i < 300; ++i) {
+      long repositoryId = 1000 + i % 30;
+      byte[] body = push.replace("35129377", Long.toString(repositoryId))
+          .getBytes(StandardCharsets.UTF_8);
+      UUID deliveryId = UUID.randomUUID();
+
+      String owner = dispatchers.get(i % dispatchers.size())
+          .dispatch(deliveryId, PayloadType.PUSH, body);
+      Assert.assertEquals(dispatchers.get(0).getRing().getOwner(repositoryId), owner);
+      expected.computeIfAbsent(repositoryId, (k) -> new ArrayList<>()).add(deliveryId);
+    }
+
+    Map<Long, List<UUID>> actual = new HashMap<>();
+    for (String member : members) {
+      for (Delivery delivery : processed.get(member)) {
+        PushEvent event = delivery.getType().read(delivery.getBody());
+        long repositoryId = event.getRepository().getNumericId();
+
+        Assert.assertEquals(member, dispatchers.get(0).getRing().getOwner(repositoryId));
+        actual.computeIfAbsent(repositoryId, (k) -> new ArrayList<>())
+            .add(delivery.getDeliveryId());
+      }
+
+      Assert.assertFalse(processed.get(member).isEmpty());
+    }
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  /**
+   * Evaluates whether deliveries without a repository or organization are processed locally and
+   * whether repositories move to a member once it joins.
+   */
+  @Test
+  public void testMembership() throws IOException {
+    InProcessTransport.Network network = new InProcessTransport.Network();
+    List<Delivery> local = new ArrayList<>();
+    List<Delivery> remote = new ArrayList<>();
+
+    ClusterDispatcher dispatcher = new ClusterDispatcher("a", 64, network.connect("a"), local::add);
+    dispatcher.start();
+    network.connect("b").start(remote::add);
+
+    byte[] body = "{\"zen\": \"Keep it logically awesome.\", \"repository\": {\"id\": 1}}"
+        .getBytes(StandardCharsets.UTF_8);
+    Assert.assertEquals("a", dispatcher.dispatch(UUID.randomUUID(), PayloadType.PUSH, body));
+
+    dispatcher.addMember("b");
+    int forwarded = 0;
+    for (int i = 0; i < 100; ++i) {
+      body = ("{\"repository\": {\"name\": \"x\", \"id\": " + i + "}}")
+          .getBytes(StandardCharsets.UTF_8);
+
+      if ("b".equals(dispatcher.dispatch(UUID.randomUUID(), PayloadType.PUSH, body))) {
+        ++forwarded;
+      }
+    }
+
+    Assert.assertEquals(forwarded, remote.size());
+    Assert.assertTrue(forwarded > 0 && forwarded < 100);
+
+    Assert.assertEquals("a", dispatcher.dispatch(UUID.randomUUID(), PayloadType.PUSH,
+        "{\"sender\": {\"id\": 5}}".getBytes(StandardCharsets.UTF_8)));
+
+    dispatcher.removeMember("b");
+    Assert.assertEquals(Collections.singleton("a"), dispatcher.getRing().getMembers());
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.cluster;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Evaluates whether the hash ring spreads keys evenly and only moves the keys of affected members
+ * when the membership changes.
+ */
+public class HashRingTest {
+
+  private static final int KEYS = 100_000;
+
+  /**
+   * Evaluates whether keys are spread evenly across all members.
+   */
+  @Test
+  public void testDistribution() {
+    HashRing ring = new HashRing(128, Arrays.asList("a", "b", "c", "d"));
+    Map<String, Integer> counts = new HashMap<>();
+
+    for (long key = 0; key < KEYS; ++key) {
+      counts.merge(ring.getOwner(key), 1, Integer::sum);
+    }
+
+    Assert.assertEquals(4, counts.size());
+    for (int count : counts.values()) {
+      Assert.assertTrue("Uneven distribution: " + counts,
+          Math.abs(count - KEYS / 4) < KEYS / 4 * 0.2);
+    }
+  }
+
+  /**
+   * Evaluates whether only the keys of joining and leaving members move.
+   */
+  @Test
+  public void testRebalance() {
+    HashRing ring = new HashRing(128, Arrays.asList("a", "b", "c"));
+    HashRing joined = ring.with("d");
+    HashRing left = ring.without("b");
+    int moved = 0;
+
+    for (long key = 0; key < KEYS; ++key) {
+      String owner = ring.getOwner(key);
+
+      if (!owner.equals(joined.getOwner(key))) {
+        Assert.assertEquals("d", joined.getOwner(key));
+        ++moved;
+      }
+      if (!owner.equals("b")) {
+        Assert.assertEquals(owner, left.getOwner(key));
+      }
+    }
+
+    Assert.assertTrue("Too many keys moved: " + moved, moved < KEYS / 4 * 1.2);
+    Assert.assertSame(ring, ring.with("a"));
+    Assert.assertEquals(ring, joined.without("d"));
+  }
+
+  /**
+   * Evaluates whether empty rings reject lookups.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testEmpty() {
+    new HashRing(16, Arrays.asList("a")).without("a").getOwner(1);
+  }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.cluster;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.basinmc.stormdrain.Fixtures;
+import org.basinmc.stormdrain.PayloadType;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Evaluates whether deliveries are exchanged correctly via loopback TCP.
+ */
+public class TcpTransportTest {
+
+  /**
+   * Evaluates whether deliveries arrive in order and whether failures are reported back to the
+   * sending member.
+   */
+  @Test
+  public void testExchange() throws IOException {
+    InetSocketAddress loopback = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+    List<Delivery> received = Collections.synchronizedList(new ArrayList<>());
+
+    try (TcpTransport a = new TcpTransport(loopback); TcpTransport b = new TcpTransport(loopback)) {
+      a.start((delivery) -> {
+        throw new IOException("Expected failure");
+      });
+      b.start(received::add);
+      a.setPeer("b", b.getLocalAddress());
+      b.setPeer("a", a.getLocalAddress());
+
+      byte[] body = Fixtures.readEvent(PayloadType.PULL_REQUEST);
+      List<Delivery> sent = new ArrayList<>();
+      for (int i = 0; i < 50; ++i) {
+        Delivery delivery = new Delivery(UUID.randomUUID(), PayloadType.PULL_REQUEST, body);
+        a.send("b", delivery);
+        sent.add(delivery);
+      }
+
+      Assert.assertEquals(sent, received);
+
+      try {
+        b.send("a", sent.get(0));
+        Assert.fail("Expected failure to be reported");
+      } catch (IOException expected) {
+        // the connection remains usable after the failure has been reported
+      }
+
+      try {
+        a.send("c", sent.get(0));
+        Assert.fail("Expected unknown member to be rejected");
+      } catch (IOException expected) {
+      }
+    }
+  }
+
+  /**
+   * Evaluates whether a peer which never acknowledges its deliveries times out without delaying
+   * deliveries to other peers.
+   */
+  @Test
+  public void testUnresponsivePeer() throws Exception {
+    InetSocketAddress loopback = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+    List<Delivery> received = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch accepted = new CountDownLatch(1);
+
+    try (ServerSocket unresponsive = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        TcpTransport a = new TcpTransport(loopback, Duration.ofSeconds(1),
+            Duration.ofMillis(500));
+        TcpTransport b = new TcpTransport(loopback)) {
+      b.start(received::add);
+      a.setPeer("b", b.getLocalAddress());
+      a.setPeer("unresponsive", (InetSocketAddress) unresponsive.getLocalSocketAddress());
+
+      Thread acceptor = new Thread(() -> {
+        try (Socket ignore = unresponsive.accept()) {
+          accepted.countDown();
+          Thread.sleep(5000);
+        } catch (IOException | InterruptedException ignore) {
+        }
+      });
+      acceptor.setDaemon(true);
+      acceptor.start();
+
+      Delivery delivery = new Delivery(UUID.randomUUID(), PayloadType.WATCH,
+          Fixtures.readEvent(PayloadType.WATCH));
+      CompletableFuture<Void> pending = CompletableFuture.runAsync(() -> {
+        try {
+          a.send("unresponsive", delivery);
+        } catch (IOException ex) {
+          throw new UncheckedIOException(ex);
+        }
+      });
+
+      Assert.assertTrue(accepted.await(5, TimeUnit.SECONDS));
+      a.send("b", delivery);
+      Assert.assertEquals(Collections.singletonList(delivery), received);
+      Assert.assertFalse(pending.isDone());
+
+      try {
+        pending.get(5, TimeUnit.SECONDS);
+        Assert.fail("Expected unresponsive peer to time out");
+      } catch (ExecutionException ex) {
+        Assert.assertTrue(ex.getCause().getCause() instanceof SocketTimeoutException);
+      }
+
+      acceptor.interrupt();
+    }
+  }
+}
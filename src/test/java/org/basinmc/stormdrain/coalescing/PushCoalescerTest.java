@@ -0,0 +1,241 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.coalescing;
+
+import java.io.IOException;
+import java.net.URL;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import org.basinmc.stormdrain.Fixtures;
+import org.basinmc.stormdrain.PayloadType;
+import org.basinmc.stormdrain.event.PushEvent;
+import org.basinmc.stormdrain.resource.Commit;
+import org.basinmc.stormdrain.resource.ObjectId;
+import org.basinmc.stormdrain.resource.Repository;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Evaluates whether bursts of pushes are merged correctly and passed on within their bounds.
+ */
+public class PushCoalescerTest {
+
+  private PushEvent template;
+
+  @Before
+  public void setUp() throws IOException {
+    this.template = PayloadType.PUSH.read(Fixtures.readEvent(PayloadType.PUSH));
+  }
+
+  /**
+   * Evaluates whether the merged push spans the entire burst.
+   */
+  @Test
+  public void testMerge() {
+    PushEvent first = this.createPush(this.template.getRepository(), "refs/heads/a", 0, false);
+    PushEvent second = this.createPush(this.template.getRepository(), "refs/heads/a", 1, true);
+    PushEvent third = this.createPush(this.template.getRepository(), "refs/heads/a", 2, false);
+
+    PushEvent merged = PushCoalescer.merge(PushCoalescer.merge(first, second), third);
+    Assert.assertEquals("refs/heads/a", merged.getReference());
+    Assert.assertEquals(first.getPreviousCommitId(), merged.getPreviousCommitId());
+    Assert.assertEquals(third.getTargetCommitId(), merged.getTargetCommitId());
+    Assert.assertTrue(merged.isForced());
+    Assert.assertSame(third.getHeadCommit(), merged.getHeadCommit());
+    Assert.assertEquals(3 * this.template.getCommits().size(), merged.getCommits().size());
+    Assert.assertEquals(
+        "https://github.com/baxterthehacker/public-repo/compare/000000000000...000000030000",
+        merged.getCompareUrl().toExternalForm());
+
+    try {
+      PushCoalescer.merge(first,
+          this.createPush(this.template.getRepository(), "refs/heads/b", 1, false));
+      Assert.fail("Expected pushes to different references to be rejected");
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
+  /**
+   * Evaluates whether pushes within the window are merged while pushes to other references are
+   * passed on separately.
+   */
+  @Test
+  public void testWindow() throws InterruptedException {
+    List<PushEvent> emitted = new CopyOnWriteArrayList<>();
+
+    try (PushCoalescer coalescer = new PushCoalescer(Duration.ofMillis(50), Duration.ofSeconds(5),
+        emitted::add)) {
+      for (int i = 0; i < 5; ++i) {
+        coalescer.offer(this.createPush(this.template.getRepository(), "refs/heads/a", i, false));
+      }
+      coalescer.offer(this.createPush(this.template.getRepository(), "refs/heads/b", 0, false));
+
+      Assert.assertEquals(2, coalescer.getPendingCount());
+      Assert.assertTrue(emitted.isEmpty());
+
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while (emitted.size() < 2 && System.nanoTime() < deadline) {
+        Thread.sleep(5);
+      }
+
+      Assert.assertEquals(2, emitted.size());
+      Assert.assertEquals(0, coalescer.getPendingCount());
+
+      Map<String, PushEvent> byReference = new HashMap<>();
+      emitted.forEach((e) -> byReference.put(e.getReference(), e));
+      Assert.assertEquals(5 * this.template.getCommits().size(),
+          byReference.get("refs/heads/a").getCommits().size());
+      Assert.assertEquals(commitId(0), byReference.get("refs/heads/a").getPreviousCommitId());
+      Assert.assertEquals(commitId(5), byReference.get("refs/heads/a").getTargetCommitId());
+    }
+  }
+
+  /**
+   * Evaluates whether a reference which keeps receiving pushes is passed on once its maximum
+   * delay has passed and whether no push is lost in the process.
+   */
+  @Test
+  public void testLatencyBound() throws InterruptedException {
+    long maximumDelay = TimeUnit.MILLISECONDS.toNanos(100);
+    Map<String, Long> arrivals = new ConcurrentHashMap<>();
+    List<long[]> latencies = new CopyOnWriteArrayList<>();
+    List<PushEvent> emitted = new CopyOnWriteArrayList<>();
+
+    try (PushCoalescer coalescer = new PushCoalescer(Duration.ofMillis(30),
+        Duration.ofNanos(maximumDelay), (event) -> {
+      latencies.add(new long[]{System.nanoTime() - arrivals.get(event.getPreviousCommitId())});
+      emitted.add(event);
+    })) {
+      long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(500);
+      int pushes = 0;
+
+      while (System.nanoTime() < end) {
+        PushEvent push = this.createPush(this.template.getRepository(), "refs/heads/a", pushes++,
+            false);
+        arrivals.put(push.getPreviousCommitId(), System.nanoTime());
+        coalescer.offer(push);
+        Thread.sleep(5);
+      }
+
+      coalescer.flush();
+
+      Assert.assertTrue("Expected bursts to be split: " + emitted.size(), emitted.size() >= 3);
+      Assert.assertTrue("Expected pushes to be merged: " + emitted.size(),
+          emitted.size() < pushes);
+
+      int commits = 0;
+      String previous = commitId(0);
+      for (PushEvent event : emitted) {
+        Assert.assertEquals(previous, event.getPreviousCommitId());
+        previous = event.getTargetCommitId();
+        commits += event.getCommits().size();
+      }
+      Assert.assertEquals(pushes * this.template.getCommits().size(), commits);
+
+      // the last burst has been flushed explicitly and is thus excluded
+      for (long[] latency : latencies.subList(0, latencies.size() - 1)) {
+        Assert.assertTrue("Exceeded latency bound: " + latency[0],
+            latency[0] < maximumDelay + TimeUnit.MILLISECONDS.toNanos(50));
+      }
+    }
+  }
+
+  /**
+   * Evaluates whether consumer failures on the timer are counted without affecting other
+   * references.
+   */
+  @Test
+  public void testFailingConsumer() throws InterruptedException {
+    List<PushEvent> emitted = new CopyOnWriteArrayList<>();
+
+    try (PushCoalescer coalescer = new PushCoalescer(Duration.ofMillis(20), Duration.ofSeconds(5),
+        (e) -> {
+          if ("refs/heads/a".equals(e.getReference())) {
+            throw new IllegalStateException("Consumer failure");
+          }
+          emitted.add(e);
+        })) {
+      coalescer.offer(this.createPush(this.template.getRepository(), "refs/heads/a", 0, false));
+      coalescer.offer(this.createPush(this.template.getRepository(), "refs/heads/b", 0, false));
+
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while ((emitted.isEmpty() || coalescer.getFailedCount() == 0)
+          && System.nanoTime() < deadline) {
+        Thread.sleep(5);
+      }
+
+      Assert.assertEquals(1, coalescer.getFailedCount());
+      Assert.assertEquals(1, emitted.size());
+      Assert.assertEquals("refs/heads/b", emitted.get(0).getReference());
+      Assert.assertEquals(0, coalescer.getPendingCount());
+    }
+  }
+
+  /**
+   * Evaluates whether large bursts across many references are merged without quadratic overhead.
+   */
+  @Test
+  public void testThroughput() {
+    List<PushEvent> emitted = new ArrayList<>();
+    int references = 1000;
+    int pushes = 200_000;
+    List<PushEvent> events = new ArrayList<>(pushes);
+    for (int i = 0; i < pushes; ++i) {
+      events.add(this.createPush(this.template.getRepository(), "refs/heads/" + (i % references),
+          i / references, i % 7 == 0));
+    }
+
+    try (PushCoalescer coalescer = new PushCoalescer(Duration.ofMinutes(1), Duration.ofMinutes(1),
+        emitted::add)) {
+      long start = System.nanoTime();
+      events.forEach(coalescer::offer);
+      coalescer.flush();
+      long elapsed = System.nanoTime() - start;
+
+      Assert.assertTrue("Coalescing took " + elapsed / 1_000_000 + " ms",
+          elapsed < TimeUnit.SECONDS.toNanos(5));
+    }
+
+    Assert.assertEquals(references, emitted.size());
+    for (PushEvent event : emitted) {
+      Assert.assertEquals(pushes / references * this.template.getCommits().size(),
+          event.getCommits().size());
+      Assert.assertTrue(event.isForced());
+    }
+  }
+
+  private PushEvent createPush(Repository repository, String reference, int index,
+      boolean forced) {
+    List<Commit> commits = this.template.getCommits();
+
+    return new PushEvent(reference, ObjectId.parse(commitId(index)),
+        ObjectId.parse(commitId(index + 1)), this.template.getCompareUrl(), false, false, forced,
+        commits, commits.get(commits.size() - 1), repository, this.template.getSender());
+  }
+
+  private static String commitId(int index) {
+    return String.format("%08x%032d", index, 0);
+  }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.decoder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.basinmc.stormdrain.Fixtures;
+import org.basinmc.stormdrain.Payload;
+import org.basinmc.stormdrain.PayloadType;
+import org.basinmc.stormdrain.event.PullRequestEvent;
+import org.basinmc.stormdrain.event.WatchEvent;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Evaluates whether the asynchronous decoder correctly offloads, rejects and cancels payloads.
+ */
+public class AsyncPayloadDecoderTest {
+
+  /**
+   * Evaluates whether payloads are decoded on the calling thread when selected by the affinity.
+   */
+  @Test
+  public void testInline() throws IOException {
+    try (AsyncPayloadDecoder decoder = new AsyncPayloadDecoder(1, 1,
+        DecodeAffinity.inline(PayloadType.WATCH))) {
+      UUID deliveryId = UUID.randomUUID();
+      CompletableFuture<Payload<?>> future = decoder
+          .decodeAsync(deliveryId, PayloadType.WATCH, Fixtures.readEvent(PayloadType.WATCH));
+
+      Assert.assertTrue(future.isDone());
+
+      Payload<?> payload = future.join();
+      Assert.assertEquals(deliveryId, payload.getDeliveryId());
+      Assert.assertEquals(PayloadType.WATCH, payload.getType());
+      Assert.assertTrue(payload.getEvent() instanceof WatchEvent);
+    }
+  }
+
+  /**
+   * Evaluates whether large payloads are decoded on the decode pool.
+   */
+  @Test
+  public void testOffload() throws IOException, ExecutionException, InterruptedException {
+    try (AsyncPayloadDecoder decoder = new AsyncPayloadDecoder(2, 4,
+        DecodeAffinity.inlineBelow(1024))) {
+      byte[] body = Fixtures.readEvent(PayloadType.PULL_REQUEST);
+      ByteBuffer buffer = ByteBuffer.allocateDirect(body.length);
+      buffer.put(body).flip();
+
+      Payload<?> payload = decoder
+          .decodeAsync(UUID.randomUUID(), PayloadType.PULL_REQUEST, buffer)
+          .get();
+      Assert.assertTrue(payload.getEvent() instanceof PullRequestEvent);
+      Assert.assertEquals(0, buffer.position());
+    }
+  }
+
+  /**
+   * Evaluates whether malformed payloads fail the returned future.
+   */
+  @Test
+  public void testMalformed() throws InterruptedException {
+    try (AsyncPayloadDecoder decoder = new AsyncPayloadDecoder(1, 1, DecodeAffinity.offload())) {
+      decoder.decodeAsync(UUID.randomUUID(), PayloadType.PUSH,
+          "{\"ref\": ".getBytes(StandardCharsets.UTF_8)).get();
+      Assert.fail("Expected malformed payload to be rejected");
+    } catch (ExecutionException ex) {
+      Assert.assertTrue(ex.getCause() instanceof IOException);
+    }
+  }
+
+  /**
+   * Evaluates whether payloads are rejected once the queue is at capacity and whether queued
+   * payloads are dropped when cancelled.
+   */
+  @Test
+  public void testOverloadAndCancel() throws IOException, InterruptedException {
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(1));
+    CountDownLatch running = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+
+    executor.execute(() -> {
+      running.countDown();
+
+      try {
+        release.await();
+      } catch (InterruptedException ignore) {
+      }
+    });
+    running.await();
+
+    try (AsyncPayloadDecoder decoder = new AsyncPayloadDecoder(executor,
+        DecodeAffinity.offload())) {
+      byte[] body = Fixtures.readEvent(PayloadType.PUSH);
+      Assert.assertEquals(1, decoder.getQueueCapacity());
+
+      CompletableFuture<Payload<?>> queued = decoder
+          .decodeAsync(UUID.randomUUID(), PayloadType.PUSH, body);
+      CompletableFuture<Payload<?>> rejected = decoder
+          .decodeAsync(UUID.randomUUID(), PayloadType.PUSH, body);
+
+      Assert.assertFalse(queued.isDone());
+      Assert.assertTrue(rejected.isCompletedExceptionally());
+
+      try {
+        rejected.join();
+        Assert.fail("Expected payload to be rejected");
+      } catch (Exception ex) {
+        Assert.assertTrue(ex.getCause() instanceof DecoderOverloadException);
+        Assert.assertEquals(PayloadType.PUSH,
+            ((DecoderOverloadException) ex.getCause()).getType());
+      }
+
+      Assert.assertEquals(1, decoder.getQueuedPayloadCount());
+      queued.cancel(false);
+      Assert.assertEquals(0, decoder.getQueuedPayloadCount());
+
+      release.countDown();
+    }
+  }
+}
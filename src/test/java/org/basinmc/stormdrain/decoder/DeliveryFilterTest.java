@@ -0,0 +1,118 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.decoder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import org.basinmc.stormdrain.EventHeader;
+import org.basinmc.stormdrain.PayloadType;
+import org.basinmc.stormdrain.RecordingReporter;
+import org.basinmc.stormdrain.decoder.DeliveryFilter.Decision;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Evaluates whether deliveries are correctly filtered based on their headers.
+ */
+public class DeliveryFilterTest {
+
+  /**
+   * Evaluates whether deliveries are discarded or rejected for the expected reasons.
+   */
+  @Test
+  public void testAdmit() {
+    Set<PayloadType> subscriptions = EnumSet.of(PayloadType.PUSH, PayloadType.PULL_REQUEST);
+    Map<PayloadType, Long> maximumBodySizes = new EnumMap<>(PayloadType.class);
+    maximumBodySizes.put(PayloadType.PUSH, 4096L);
+
+    DeliveryFilter filter = new DeliveryFilter(subscriptions::contains, 1024, maximumBodySizes);
+    Assert.assertEquals(4096, filter.getMaximumBodySize(PayloadType.PUSH));
+    Assert.assertEquals(1024, filter.getMaximumBodySize(PayloadType.PULL_REQUEST));
+
+    Assert.assertEquals(Decision.ACCEPT, filter.admit(EventHeader.PUSH, 4096));
+    Assert.assertEquals(Decision.ACCEPT, filter.admit(EventHeader.PUSH, -1));
+    Assert.assertEquals(Decision.OVERSIZED, filter.admit(EventHeader.PUSH, 4097));
+    Assert.assertEquals(Decision.OVERSIZED, filter.admit(EventHeader.PULL_REQUEST, 1025));
+    Assert.assertEquals(Decision.UNSUBSCRIBED, filter.admit(EventHeader.WATCH, 100));
+    Assert.assertEquals(Decision.UNSUBSCRIBED, filter.admit(EventHeader.WATCH, 1 << 20));
+    Assert.assertEquals(Decision.UNSUPPORTED, filter.admit(EventHeader.STATUS, 100));
+    Assert.assertEquals(Decision.UNKNOWN, filter.admit(null, 100));
+
+    Assert.assertEquals(1,
+        filter.getSkippedDeliveryCount(EventHeader.PUSH, Decision.OVERSIZED));
+    Assert.assertEquals(4097, filter.getSkippedByteCount(EventHeader.PUSH, Decision.OVERSIZED));
+    Assert.assertEquals(2,
+        filter.getSkippedDeliveryCount(EventHeader.WATCH, Decision.UNSUBSCRIBED));
+    Assert.assertEquals(0, filter.getSkippedByteCount(EventHeader.WATCH, Decision.UNSUBSCRIBED));
+    Assert.assertEquals(1, filter.getSkippedDeliveryCount(null, Decision.UNKNOWN));
+
+    Assert.assertEquals(413, Decision.OVERSIZED.getStatusCode());
+    Assert.assertFalse(Decision.OVERSIZED.isDrainable());
+    Assert.assertTrue(Decision.UNSUBSCRIBED.isDrainable());
+  }
+
+  /**
+   * Evaluates whether discarded bodies are drained and recorded.
+   */
+  @Test
+  public void testDiscard() throws IOException {
+    DeliveryFilter filter = new DeliveryFilter((type) -> false, 1024);
+    ByteArrayInputStream inputStream = new ByteArrayInputStream(new byte[20_000]);
+
+    Assert.assertEquals(Decision.UNSUBSCRIBED, filter.admit(EventHeader.GOLLUM, 20_000));
+    Assert.assertEquals(20_000,
+        filter.discard(EventHeader.GOLLUM, Decision.UNSUBSCRIBED, inputStream));
+    Assert.assertEquals(0, inputStream.available());
+    Assert.assertEquals(20_000,
+        filter.getSkippedByteCount(EventHeader.GOLLUM, Decision.UNSUBSCRIBED));
+
+    RecordingReporter reporter = RecordingReporter.report(filter);
+    Assert.assertEquals(1, reporter.getSeries(DeliveryFilter.SKIPPED_BYTE_METRIC).size());
+    Assert.assertEquals(20_000, reporter.getValue(DeliveryFilter.SKIPPED_BYTE_METRIC, "type",
+        "GOLLUM", "reason", "unsubscribed"), 0);
+  }
+
+  /**
+   * Evaluates whether drained bodies of oversized deliveries are recorded under their decision
+   * without being counted twice.
+   */
+  @Test
+  public void testDiscardOversized() throws IOException {
+    DeliveryFilter filter = new DeliveryFilter((type) -> true, 1024);
+    ByteArrayInputStream inputStream = new ByteArrayInputStream(new byte[4096]);
+
+    Decision decision = filter.admit(EventHeader.PUSH, 4096);
+    Assert.assertEquals(Decision.OVERSIZED, decision);
+    Assert.assertEquals(4096, filter.discard(EventHeader.PUSH, decision, inputStream));
+
+    Assert.assertEquals(4096, filter.getSkippedByteCount(EventHeader.PUSH, Decision.OVERSIZED));
+    Assert.assertEquals(0, filter.getSkippedByteCount(EventHeader.PUSH, Decision.UNSUBSCRIBED));
+  }
+
+  /**
+   * Evaluates whether accepted deliveries cannot be discarded.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testDiscardAccepted() throws IOException {
+    new DeliveryFilter((type) -> true, 1024)
+        .discard(EventHeader.PUSH, Decision.ACCEPT, new ByteArrayInputStream(new byte[0]));
+  }
+}
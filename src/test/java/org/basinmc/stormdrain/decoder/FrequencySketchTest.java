@@ -0,0 +1,62 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.decoder;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Evaluates whether the frequency sketch estimates and ages access frequencies.
+ */
+public class FrequencySketchTest {
+
+  /**
+   * Evaluates whether estimates follow the recorded accesses and saturate at fifteen.
+   */
+  @Test
+  public void testFrequency() {
+    FrequencySketch sketch = new FrequencySketch(512);
+    Assert.assertEquals(0, sketch.frequency(42));
+
+    for (int i = 1; i <= 20; ++i) {
+      sketch.increment(42);
+      Assert.assertEquals(Math.min(15, i), sketch.frequency(42));
+    }
+  }
+
+  /**
+   * Evaluates whether counters are halved once the sample size has been reached.
+   */
+  @Test
+  public void testReset() {
+    FrequencySketch sketch = new FrequencySketch(64);
+    for (int i = 0; i < 10; ++i) {
+      sketch.increment(7);
+    }
+    Assert.assertEquals(10, sketch.frequency(7));
+
+    // the sample size is ten times the table width (e.g. 640 accesses)
+    for (int i = 0; i < 629; ++i) {
+      sketch.increment(1000 + i);
+    }
+    int frequency = sketch.frequency(7);
+    Assert.assertTrue(frequency >= 10);
+
+    sketch.increment(2000);
+    Assert.assertTrue(sketch.frequency(7) <= (frequency + 1) / 2);
+  }
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.decoder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.basinmc.stormdrain.Fixtures;
+import org.basinmc.stormdrain.Payload;
+import org.basinmc.stormdrain.PayloadType;
+import org.basinmc.stormdrain.RecordingReporter;
+import org.basinmc.stormdrain.event.PushEvent;
+import org.basinmc.stormdrain.event.WatchEvent;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Evaluates whether the payload cache retains, weighs and evicts payloads correctly.
+ */
+public class PayloadCacheTest {
+
+  private static PushEvent push;
+  private static WatchEvent watch;
+
+  @BeforeClass
+  public static void readEvents() throws IOException {
+    push = PayloadType.PUSH.read(Fixtures.readEvent(PayloadType.PUSH));
+    watch = PayloadType.WATCH.read(Fixtures.readEvent(PayloadType.WATCH));
+  }
+
+  /**
+   * Evaluates whether cached payloads are returned and lookups are tracked per type.
+   */
+  @Test
+  public void testLookup() throws IOException {
+    PayloadCache cache = new PayloadCache(1024 * 1024, 4, PayloadWeigher.fixed(1024));
+    UUID deliveryId = UUID.randomUUID();
+    AtomicInteger loads = new AtomicInteger();
+
+    Assert.assertFalse(cache.get(deliveryId, PayloadType.PUSH).isPresent());
+
+    for (int i = 0; i < 3; ++i) {
+      Payload<PushEvent> payload = cache.get(deliveryId, PayloadType.PUSH, () -> {
+        loads.incrementAndGet();
+        return push;
+      });
+
+      Assert.assertEquals(deliveryId, payload.getDeliveryId());
+      Assert.assertSame(push, payload.getEvent());
+    }
+
+    Assert.assertEquals(1, loads.get());
+    Assert.assertEquals(2, cache.getHitCount(PayloadType.PUSH));
+    Assert.assertEquals(2, cache.getMissCount(PayloadType.PUSH));
+    Assert.assertEquals(0.5, cache.getHitRatio(PayloadType.PUSH), 0.0001);
+
+    // lookups of a different type never return the cached payload
+    Assert.assertFalse(cache.get(deliveryId, PayloadType.WATCH).isPresent());
+    Assert.assertEquals(0, cache.getHitRatio(PayloadType.WATCH), 0.0001);
+
+    Assert.assertEquals(1, cache.getSize());
+    Assert.assertEquals(1024, cache.getWeight());
+    Assert.assertTrue(cache.invalidate(deliveryId));
+    Assert.assertFalse(cache.invalidate(deliveryId));
+    Assert.assertEquals(0, cache.getWeight());
+  }
+
+  /**
+   * Evaluates whether the cache remains within its maximum weight.
+   */
+  @Test
+  public void testWeightBound() {
+    PayloadCache cache = new PayloadCache(1000, 1, PayloadWeigher.fixed(100));
+
+    for (int i = 0; i < 50; ++i) {
+      cache.put(new Payload<>(UUID.randomUUID(), PayloadType.WATCH, watch));
+      Assert.assertTrue(cache.getWeight() <= 1000);
+    }
+
+    Assert.assertEquals(10, cache.getSize());
+    Assert.assertEquals(40, cache.getEvictionCount());
+  }
+
+  /**
+   * Evaluates whether frequently accessed payloads survive a scan of payloads which are accessed
+   * only once.
+   */
+  @Test
+  public void testAdmission() {
+    PayloadCache cache = new PayloadCache(1000, 1, PayloadWeigher.fixed(100));
+    List<UUID> popular = new ArrayList<>();
+
+    for (int i = 0; i < 5; ++i) {
+      UUID deliveryId = UUID.randomUUID();
+      popular.add(deliveryId);
+      cache.put(new Payload<>(deliveryId, PayloadType.WATCH, watch));
+    }
+    for (int i = 0; i < 4; ++i) {
+      for (UUID deliveryId : popular) {
+        Assert.assertTrue(cache.get(deliveryId, PayloadType.WATCH).isPresent());
+      }
+    }
+
+    for (int i = 0; i < 200; ++i) {
+      cache.put(new Payload<>(UUID.randomUUID(), PayloadType.WATCH, watch));
+    }
+
+    for (UUID deliveryId : popular) {
+      Assert.assertTrue(cache.get(deliveryId, PayloadType.WATCH).isPresent());
+    }
+    Assert.assertTrue(cache.getWeight() <= 1000);
+  }
+
+  /**
+   * Evaluates whether payloads are weighed according to their type and whether payloads which
+   * exceed the capacity of a stripe are rejected.
+   */
+  @Test
+  public void testWeigher() {
+    Map<PayloadType, PayloadWeigher> weighers = new EnumMap<>(PayloadType.class);
+    weighers.put(PayloadType.PUSH, PayloadWeigher.fixed(4096));
+
+    PayloadCache cache = new PayloadCache(2048, 1,
+        PayloadWeigher.byType(weighers, PayloadWeigher.fixed(256)));
+    UUID pushId = UUID.randomUUID();
+    UUID watchId = UUID.randomUUID();
+
+    cache.put(new Payload<>(pushId, PayloadType.PUSH, push));
+    cache.put(new Payload<>(watchId, PayloadType.WATCH, watch));
+
+    Assert.assertFalse(cache.get(pushId, PayloadType.PUSH).isPresent());
+    Assert.assertTrue(cache.get(watchId, PayloadType.WATCH).isPresent());
+    Assert.assertEquals(256, cache.getWeight());
+    Assert.assertEquals(1, cache.getEvictionCount());
+  }
+
+  /**
+   * Evaluates whether weights are derived from the recorded body sizes.
+   */
+  @Test
+  public void testStatisticsWeigher() {
+    PayloadBufferPool pool = new PayloadBufferPool(false, 1, 256, 1024 * 1024);
+    PayloadWeigher weigher = PayloadWeigher.fromStatistics(pool, 2);
+    Payload<WatchEvent> payload = new Payload<>(UUID.randomUUID(), PayloadType.WATCH, watch);
+
+    Assert.assertEquals(512, weigher.weigh(payload));
+
+    pool.getStatistics(PayloadType.WATCH).record(1000);
+    Assert.assertEquals(2000, weigher.weigh(payload));
+  }
+
+  /**
+   * Evaluates whether the cache remains consistent while it is accessed concurrently.
+   */
+  @Test
+  public void testConcurrentAccess() throws InterruptedException {
+    PayloadCache cache = new PayloadCache(64 * 1024, 8, PayloadWeigher.fixed(512));
+    List<UUID> deliveryIds = new ArrayList<>();
+    for (int i = 0; i < 512; ++i) {
+      deliveryIds.add(UUID.randomUUID());
+    }
+
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < 4; ++i) {
+      int seed = i;
+      threads.add(new Thread(() -> {
+        for (int j = 0; j < 10000; ++j) {
+          UUID deliveryId = deliveryIds.get((j * 31 + seed * 7) % deliveryIds.size());
+
+          if (!cache.get(deliveryId, PayloadType.WATCH).isPresent()) {
+            cache.put(new Payload<>(deliveryId, PayloadType.WATCH, watch));
+          }
+        }
+      }));
+    }
+
+    threads.forEach(Thread::start);
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    Assert.assertTrue(cache.getWeight() <= cache.getMaximumWeight());
+    Assert.assertEquals(cache.getSize() * 512L, cache.getWeight());
+    Assert.assertEquals(40000,
+        cache.getHitCount(PayloadType.WATCH) + cache.getMissCount(PayloadType.WATCH));
+  }
+
+  /**
+   * Evaluates whether lookups and hit ratios are reported per payload type.
+   */
+  @Test
+  public void testReport() {
+    PayloadCache cache = new PayloadCache(4096, 1, PayloadWeigher.fixed(1024));
+    UUID deliveryId = UUID.randomUUID();
+
+    cache.put(new Payload<>(deliveryId, PayloadType.WATCH, watch));
+    cache.get(deliveryId, PayloadType.WATCH);
+    cache.get(deliveryId, PayloadType.WATCH);
+    cache.get(UUID.randomUUID(), PayloadType.WATCH);
+    cache.get(UUID.randomUUID(), PayloadType.PUSH);
+
+    RecordingReporter reporter = RecordingReporter.report(cache);
+    Assert.assertEquals(2,
+        reporter.getValue(PayloadCache.REQUEST_METRIC, "type", "WATCH", "result", "hit"), 0);
+    Assert.assertEquals(1,
+        reporter.getValue(PayloadCache.REQUEST_METRIC, "type", "WATCH", "result", "miss"), 0);
+    Assert.assertEquals(2.0 / 3,
+        reporter.getValue(PayloadCache.HIT_RATIO_METRIC, "type", "WATCH"), 0.0001);
+    Assert.assertEquals(0, reporter.getValue(PayloadCache.HIT_RATIO_METRIC, "type", "PUSH"), 0);
+    Assert.assertFalse(reporter.contains(PayloadCache.HIT_RATIO_METRIC, "type", "RELEASE"));
+    Assert.assertEquals(1024, reporter.getValue(PayloadCache.WEIGHT_METRIC), 0);
+    Assert.assertEquals(0, reporter.getValue(PayloadCache.EVICTION_METRIC), 0);
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.decoder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import org.basinmc.stormdrain.Benchmarks;
+import org.basinmc.stormdrain.Fixtures;
+import org.basinmc.stormdrain.PayloadType;
+import org.junit.Test;
+
+/**
+ * Compares the bytes allocated per delivery between the regular decode path (body read into an
+ * array first) and the pooled decode path for every sample payload.
+ */
+public class PooledPayloadDecoderBenchmark {
+
+  @Test
+  public void benchmarkAllocation() throws Exception {
+    PooledPayloadDecoder decoder = new PooledPayloadDecoder(
+        new PayloadBufferPool(false, 4, 1024, 16 * 1024 * 1024));
+
+    Benchmarks.report("%-28s %10s %14s %14s", "fixture", "size", "regular B/op", "pooled B/op");
+    for (PayloadType type : PayloadType.values()) {
+      byte[] body = Fixtures.readEvent(type);
+
+      double regular = Benchmarks.measureAllocation(() -> {
+        try (InputStream inputStream = new ByteArrayInputStream(body)) {
+          type.read(readFully(inputStream));
+        }
+      });
+      double pooled = Benchmarks.measureAllocation(() -> {
+        try (InputStream inputStream = new ByteArrayInputStream(body)) {
+          decoder.read(type, inputStream);
+        }
+      });
+
+      Benchmarks.report("%-28s %10d %14.0f %14.0f", type, body.length, regular, pooled);
+    }
+  }
+
+  private static byte[] readFully(InputStream inputStream) throws Exception {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    byte[] buffer = new byte[4096];
+    int length;
+
+    while ((length = inputStream.read(buffer)) != -1) {
+      outputStream.write(buffer, 0, length);
+    }
+
+    return outputStream.toByteArray();
+  }
+}
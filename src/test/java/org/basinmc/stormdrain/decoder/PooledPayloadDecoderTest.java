@@ -0,0 +1,177 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.decoder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.basinmc.stormdrain.Fixtures;
+import org.basinmc.stormdrain.Payload;
+import org.basinmc.stormdrain.PayloadType;
+import org.basinmc.stormdrain.RawBody;
+import org.basinmc.stormdrain.event.Event;
+import org.basinmc.stormdrain.event.PushEvent;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Evaluates whether the pooled decoder produces the same results as the regular decode path and
+ * correctly recycles its buffers.
+ */
+public class PooledPayloadDecoderTest {
+
+  /**
+   * Evaluates whether all sample payloads decode to the same events as the regular decode path.
+   */
+  @Test
+  public void testEquivalence() throws IOException {
+    for (boolean direct : new boolean[]{false, true}) {
+      PooledPayloadDecoder decoder = new PooledPayloadDecoder(
+          new PayloadBufferPool(direct, 2, 256, 1024 * 1024));
+
+      for (PayloadType type : PayloadType.values()) {
+        byte[] body = Fixtures.readEvent(type);
+        Event expected = type.read(body);
+
+        Assert.assertEquals(type.name(), expected,
+            decoder.read(type, new ByteArrayInputStream(body)));
+        Assert.assertEquals(type.name(), expected,
+            decoder.read(type, new ByteArrayInputStream(body), body.length));
+      }
+    }
+  }
+
+  /**
+   * Evaluates whether buffers are reused and follow the recorded body sizes.
+   */
+  @Test
+  public void testRecycling() throws IOException {
+    PayloadBufferPool pool = new PayloadBufferPool(false, 1, 256, 1024 * 1024);
+    PooledPayloadDecoder decoder = new PooledPayloadDecoder(pool);
+    byte[] body = Fixtures.readEvent(PayloadType.PUSH);
+
+    PushEvent event = decoder.read(PayloadType.PUSH, new ByteArrayInputStream(body));
+    Assert.assertEquals("refs/heads/changes", event.getReference());
+
+    PayloadSizeStatistics statistics = pool.getStatistics(PayloadType.PUSH);
+    Assert.assertEquals(1, statistics.getCount());
+    Assert.assertEquals(body.length, statistics.getMaximum());
+    Assert.assertTrue(statistics.getRecommendedBufferSize() >= body.length);
+
+    ByteBuffer first = pool.acquire(PayloadType.PUSH);
+    Assert.assertTrue(first.capacity() >= body.length);
+    pool.release(PayloadType.PUSH, first);
+    Assert.assertSame(first, pool.acquire(PayloadType.PUSH));
+
+    Assert.assertEquals(256, pool.getStatistics(PayloadType.WATCH).getRecommendedBufferSize());
+  }
+
+  /**
+   * Evaluates whether retained bodies expose the original bytes and return their buffer to the
+   * pool once released.
+   */
+  @Test
+  public void testRetained() throws IOException {
+    // outgrown buffers occupy a slot of their own until they are discarded by acquire
+    PayloadBufferPool pool = new PayloadBufferPool(false, 2, 256, 1024 * 1024);
+    PooledPayloadDecoder decoder = new PooledPayloadDecoder(pool);
+    byte[] body = Fixtures.readEvent(PayloadType.PUSH);
+
+    Payload<PushEvent> payload = decoder
+        .readRetained(UUID.randomUUID(), PayloadType.PUSH, new ByteArrayInputStream(body), -1);
+    Assert.assertEquals(PayloadType.PUSH.read(body), payload.getEvent());
+
+    RawBody raw = payload.getRawBody().orElseThrow(AssertionError::new);
+    byte[] retained = new byte[raw.getSize()];
+    raw.getBuffer().get(retained);
+    Assert.assertArrayEquals(body, retained);
+
+    Assert.assertTrue(raw.release());
+
+    // the recycled buffer still holds the previous body as buffers are not cleared
+    ByteBuffer recycled = pool.acquire(PayloadType.PUSH);
+    byte[] previous = new byte[body.length];
+    recycled.get(previous);
+    Assert.assertArrayEquals(body, previous);
+  }
+
+  /**
+   * Evaluates whether the pooled buffer is returned to the pool once it has been outgrown while
+   * reading a body.
+   */
+  @Test
+  public void testGrowth() throws IOException {
+    List<ByteBuffer> acquired = new ArrayList<>();
+    List<ByteBuffer> released = new ArrayList<>();
+    PayloadBufferPool pool = new PayloadBufferPool(false, 2, 256, 1024 * 1024) {
+      @Override
+      public ByteBuffer acquire(PayloadType type, int minimumCapacity) {
+        ByteBuffer buffer = super.acquire(type, minimumCapacity);
+        acquired.add(buffer);
+        return buffer;
+      }
+
+      @Override
+      public void release(PayloadType type, ByteBuffer buffer) {
+        released.add(buffer);
+        super.release(type, buffer);
+      }
+    };
+    PooledPayloadDecoder decoder = new PooledPayloadDecoder(pool);
+    byte[] body = Fixtures.readEvent(PayloadType.PUSH);
+    Assert.assertTrue(body.length > 256);
+
+    decoder.read(PayloadType.PUSH, new ByteArrayInputStream(body));
+
+    Assert.assertEquals(1, acquired.size());
+    Assert.assertEquals(2, released.size());
+    Assert.assertSame(acquired.get(0), released.get(0));
+    Assert.assertTrue(released.get(1).capacity() >= body.length);
+
+    // failed reads return both the outgrown and the current buffer exactly once
+    released.clear();
+    try {
+      new PooledPayloadDecoder(new PayloadBufferPool(false, 2, 256, 1024) {
+        @Override
+        public void release(PayloadType type, ByteBuffer buffer) {
+          released.add(buffer);
+          super.release(type, buffer);
+        }
+      }).read(PayloadType.PUSH, new ByteArrayInputStream(body));
+      Assert.fail("Expected oversized payload to be rejected");
+    } catch (IOException expected) {
+    }
+
+    Assert.assertEquals(2, released.size());
+    Assert.assertEquals(256, released.get(0).capacity());
+    Assert.assertEquals(1024, released.get(1).capacity());
+  }
+
+  /**
+   * Evaluates whether bodies which exceed the maximum buffer size are rejected.
+   */
+  @Test(expected = IOException.class)
+  public void testMaximumSize() throws IOException {
+    PooledPayloadDecoder decoder = new PooledPayloadDecoder(
+        new PayloadBufferPool(false, 1, 256, 1024));
+
+    decoder.read(PayloadType.PUSH, new ByteArrayInputStream(Fixtures.readEvent(PayloadType.PUSH)));
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.decoder;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.basinmc.stormdrain.Benchmarks;
+import org.basinmc.stormdrain.Fixtures;
+import org.basinmc.stormdrain.PayloadType;
+import org.junit.Test;
+
+/**
+ * Compares the time and bytes allocated per delivery between a full decode and a projected decode
+ * of a large push (20 commits).
+ */
+public class ProjectionBenchmark {
+
+  @Test
+  public void benchmarkPush() throws Exception {
+    byte[] body = createLargePush(20);
+    Projection projection = Projection.parse(PayloadType.PUSH,
+        "ref, after, sender.login, commits[].id, commits[].modified");
+
+    double fullTime = Benchmarks.measureTime(() -> PayloadType.PUSH.read(body));
+    double projectedTime = Benchmarks.measureTime(() -> projection.read(body));
+    double fullAllocation = Benchmarks.measureAllocation(() -> PayloadType.PUSH.read(body));
+    double projectedAllocation = Benchmarks.measureAllocation(() -> projection.read(body));
+
+    Benchmarks.report("%-10s %10s %12s %14s", "decode", "size", "ns/op", "B/op");
+    Benchmarks.report("%-10s %10d %12.0f %14.0f", "full", body.length, fullTime, fullAllocation);
+    Benchmarks.report("%-10s %10d %12.0f %14.0f", "projected", body.length, projectedTime,
+        projectedAllocation);
+  }
+
+  /**
+   * Creates a push payload which contains the specified amount of copies of the sample commit.
+   *
+   * @param commits an amount of commits.
+   * @return a payload.
+   */
+  static byte[] createLargePush(int commits) throws Exception {
+    return Fixtures.readEvent(PayloadType.PUSH, (node) -> {
+      ArrayNode array = (ArrayNode) node.get("commits");
+      ObjectNode commit = (ObjectNode) array.get(0);
+
+      array.removeAll();
+      for (int i = 0; i < commits; ++i) {
+        ObjectNode copy = commit.deepCopy();
+        copy.put("id", String.format("%040x", i));
+        array.add(copy);
+      }
+    });
+  }
+}
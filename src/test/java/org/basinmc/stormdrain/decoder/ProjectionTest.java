@@ -0,0 +1,125 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.decoder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.basinmc.stormdrain.Fixtures;
+import org.basinmc.stormdrain.PayloadType;
+import org.basinmc.stormdrain.UnloadedPropertyException;
+import org.basinmc.stormdrain.event.Event;
+import org.basinmc.stormdrain.event.PushEvent;
+import org.basinmc.stormdrain.resource.Commit;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Evaluates whether projections decode the selected properties and correctly mark all other
+ * properties as unloaded.
+ */
+public class ProjectionTest {
+
+  /**
+   * Evaluates whether a typical push projection decodes its selected properties.
+   */
+  @Test
+  public void testPush() throws IOException {
+    Projection projection = Projection.parse(PayloadType.PUSH,
+        "ref, after, sender.login, commits[].id, commits[].modified");
+    PushEvent event = projection.read(Fixtures.readEvent(PayloadType.PUSH));
+
+    Assert.assertEquals("refs/heads/changes", event.getReference());
+    Assert.assertEquals("0d1a26e67d8f5eaf1f6ba5c57fc3c7d91ac0fd1c", event.getTargetCommitId());
+    Assert.assertEquals("baxterthehacker", event.getSender().getLogin());
+    Assert.assertEquals(1, event.getCommits().size());
+
+    Commit commit = event.getCommits().get(0);
+    Assert.assertEquals("0d1a26e67d8f5eaf1f6ba5c57fc3c7d91ac0fd1c", commit.getId());
+    Assert.assertTrue(commit.getModifiedFiles().contains("README.md"));
+    Assert.assertFalse(commit.getCommitter().isPresent());
+
+    this.assertUnloaded(event::getRepository);
+    this.assertUnloaded(event::getCompareUrl);
+    this.assertUnloaded(event::getPreviousCommitId);
+    this.assertUnloaded(commit::getMessage);
+    this.assertUnloaded(commit::getAddedFiles);
+    this.assertUnloaded(event.getSender()::getAvatarUrl);
+    Assert.assertNull(event.getHeadCommit());
+  }
+
+  /**
+   * Evaluates whether projections handle empty arrays, nested objects and streams.
+   */
+  @Test
+  public void testStream() throws IOException {
+    Projection projection = new Projection(PayloadType.PUSH, "commits", "repository.owner.login");
+    PushEvent event = projection.read(new ByteArrayInputStream(
+        ("{\"ref\": \"refs/heads/master\", \"commits\": [], \"repository\": {\"id\": 1, "
+            + "\"owner\": {\"login\": \"octocat\", \"id\": 2}, \"name\": \"x\"}}")
+            .getBytes(StandardCharsets.UTF_8)));
+
+    Assert.assertTrue(event.getCommits().isEmpty());
+    Assert.assertEquals("octocat", event.getRepository().getOwner().getLogin());
+    this.assertUnloaded(event::getReference);
+    this.assertUnloaded(event.getRepository()::getName);
+    this.assertUnloaded(event.getRepository()::getId);
+  }
+
+  /**
+   * Evaluates whether every sample payload can be decoded through a minimal projection.
+   */
+  @Test
+  public void testMinimal() throws IOException {
+    for (PayloadType type : PayloadType.values()) {
+      Event event = new Projection(type, "sender.login").read(Fixtures.readEvent(type));
+      Assert.assertEquals(type.name(), type.getType(), event.getClass());
+    }
+  }
+
+  /**
+   * Evaluates whether paths are matched correctly.
+   */
+  @Test
+  public void testIncludes() {
+    Projection projection = new Projection(PayloadType.PUSH, "sender.login", "commits[].id",
+        "repository");
+
+    Assert.assertTrue(projection.includes("sender"));
+    Assert.assertTrue(projection.includes("sender.login"));
+    Assert.assertFalse(projection.includes("sender.id"));
+    Assert.assertTrue(projection.includes("commits.id"));
+    Assert.assertTrue(projection.includes("repository.owner.login"));
+    Assert.assertFalse(projection.includes("compare"));
+  }
+
+  /**
+   * Evaluates whether malformed paths are rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testIllegalPath() {
+    new Projection(PayloadType.PUSH, "sender..login");
+  }
+
+  private void assertUnloaded(Runnable getter) {
+    try {
+      getter.run();
+      Assert.fail("Expected property to be unloaded");
+    } catch (UnloadedPropertyException ignore) {
+    }
+  }
+}
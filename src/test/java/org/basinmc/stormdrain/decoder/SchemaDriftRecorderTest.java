@@ -0,0 +1,84 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.decoder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import org.basinmc.stormdrain.Fixtures;
+import org.basinmc.stormdrain.PayloadType;
+import org.basinmc.stormdrain.RecordingReporter;
+import org.basinmc.stormdrain.decoder.SchemaDriftRecorder.UnknownProperty;
+import org.basinmc.stormdrain.event.PushEvent;
+import org.basinmc.stormdrain.resource.Repository;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Evaluates whether unknown properties are recorded for sampled deliveries.
+ */
+public class SchemaDriftRecorderTest {
+
+  /**
+   * Evaluates whether unknown properties are attributed to their respective models.
+   */
+  @Test
+  public void testRecord() throws IOException {
+    SchemaDriftRecorder recorder = new SchemaDriftRecorder(1, 4, 1024);
+    byte[] body = Fixtures.readEvent(PayloadType.PUSH);
+
+    PushEvent event = recorder.read(PayloadType.PUSH, body);
+    Assert.assertEquals(PayloadType.PUSH.read(body), event);
+    recorder.read(PayloadType.PUSH, body);
+
+    Map<UnknownProperty, Long> properties = recorder.getUnknownProperties();
+    Assert.assertEquals(2, recorder.getSampledDeliveryCount(PayloadType.PUSH));
+    Assert.assertEquals(Long.valueOf(2), properties
+        .get(new UnknownProperty(PayloadType.PUSH, Repository.class, "stargazers_url")));
+    Assert.assertEquals(Long.valueOf(2), properties
+        .get(new UnknownProperty(PayloadType.PUSH, PushEvent.class, "base_ref")));
+  }
+
+  /**
+   * Evaluates whether deliveries are left untouched when sampling is disabled.
+   */
+  @Test
+  public void testDisabled() throws IOException {
+    SchemaDriftRecorder recorder = new SchemaDriftRecorder(0, 4, 1024);
+    recorder.read(PayloadType.PUSH, Fixtures.readEvent(PayloadType.PUSH));
+
+    Assert.assertEquals(0, recorder.getSampledDeliveryCount(PayloadType.PUSH));
+    Assert.assertTrue(recorder.getUnknownProperties().isEmpty());
+  }
+
+  /**
+   * Evaluates whether recorded properties are exposed through the metrics SPI.
+   */
+  @Test
+  public void testReport() throws IOException {
+    SchemaDriftRecorder recorder = new SchemaDriftRecorder(1, 4, 1024);
+    recorder.read(PayloadType.WATCH, Fixtures.readEvent(PayloadType.WATCH));
+
+    List<Map<String, String>> series = RecordingReporter.report(recorder)
+        .getSeries(SchemaDriftRecorder.UNKNOWN_PROPERTY_METRIC);
+    Assert.assertFalse(series.isEmpty());
+    Assert.assertTrue(series.stream().allMatch((tags) -> "WATCH".equals(tags.get("type"))));
+    Assert.assertTrue(series.stream().anyMatch(
+        (tags) -> "Repository".equals(tags.get("model")) && "forks_url"
+            .equals(tags.get("property"))));
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.decoder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import org.basinmc.stormdrain.Fixtures;
+import org.basinmc.stormdrain.PayloadType;
+import org.basinmc.stormdrain.UnloadedPropertyException;
+import org.basinmc.stormdrain.event.PushEvent;
+import org.basinmc.stormdrain.resource.Commit;
+import org.basinmc.stormdrain.resource.ObjectId;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Evaluates whether push events are decoded correctly while their commits are streamed.
+ */
+public class StreamingPushDecoderTest {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private final StreamingPushDecoder decoder = new StreamingPushDecoder();
+
+  /**
+   * Evaluates whether the streamed event and commits match the regular decode path.
+   */
+  @Test
+  public void testEquivalence() throws IOException {
+    byte[] body = Fixtures.readEvent(PayloadType.PUSH);
+    PushEvent expected = PayloadType.PUSH.read(body);
+
+    try (PushCommitIterator iterator = this.decoder.open(body)) {
+      PushEvent event = iterator.getEvent();
+      Assert.assertEquals(expected.getReference(), event.getReference());
+      Assert.assertEquals(expected.getHeadCommit(), event.getHeadCommit());
+      Assert.assertEquals(expected.getRepository(), event.getRepository());
+      Assert.assertEquals(expected.getSender(), event.getSender());
+
+      List<Commit> commits = new ArrayList<>();
+      iterator.forEachRemaining(commits::add);
+      Assert.assertEquals(expected.getCommits(), commits);
+      Assert.assertEquals(commits.size(), iterator.getCount());
+      Assert.assertFalse(iterator.hasNext());
+    }
+  }
+
+  /**
+   * Evaluates whether streamed events do not expose a list of commits.
+   */
+  @Test(expected = UnloadedPropertyException.class)
+  public void testUnloadedCommits() throws IOException {
+    try (PushCommitIterator iterator = this.decoder
+        .open(Fixtures.readEvent(PayloadType.PUSH))) {
+      iterator.getEvent().getCommits();
+    }
+  }
+
+  /**
+   * Evaluates whether events which lack a mandatory property other than their commits are
+   * rejected.
+   */
+  @Test(expected = IOException.class)
+  public void testMissingReference() throws IOException {
+    this.decoder.open(Fixtures.readEvent(PayloadType.PUSH, (node) -> node.remove("ref"))).close();
+  }
+
+  /**
+   * Evaluates whether large commit arrays are passed to the consumer in order.
+   */
+  @Test
+  public void testLargePush() throws IOException {
+    byte[] body = createPush(5000);
+    List<String> messages = new ArrayList<>();
+
+    PushEvent event = this.decoder.read(body, (e, commit) -> {
+      Assert.assertEquals("refs/heads/changes", e.getReference());
+      messages.add(commit.getMessage());
+    });
+
+    Assert.assertEquals(5000, messages.size());
+    Assert.assertEquals("commit 0", messages.get(0));
+    Assert.assertEquals("commit 4999", messages.get(4999));
+    Assert.assertEquals(ObjectId.parse("0d1a26e67d8f5eaf1f6ba5c57fc3c7d91ac0fd1c"),
+        event.getHeadCommit().getObjectId());
+  }
+
+  /**
+   * Evaluates whether direct buffers are decoded without modifying their position.
+   */
+  @Test
+  public void testDirectBuffer() throws IOException {
+    byte[] body = createPush(3);
+    ByteBuffer buffer = ByteBuffer.allocateDirect(body.length);
+    buffer.put(body).flip();
+
+    List<Commit> commits = new ArrayList<>();
+    this.decoder.read(buffer, (event, commit) -> commits.add(commit));
+
+    Assert.assertEquals(3, commits.size());
+    Assert.assertEquals(0, buffer.position());
+  }
+
+  /**
+   * Evaluates whether malformed commits are reported once they are reached.
+   */
+  @Test
+  public void testMalformedCommit() throws IOException {
+    ObjectNode root = (ObjectNode) MAPPER.readTree(createPush(2));
+    ((ArrayNode) root.get("commits")).add("not a commit");
+
+    try (PushCommitIterator iterator = this.decoder.open(MAPPER.writeValueAsBytes(root))) {
+      Assert.assertNotNull(iterator.next());
+      Assert.assertNotNull(iterator.next());
+      iterator.next();
+      Assert.fail("Expected malformed commit to be rejected");
+    } catch (UncheckedIOException ex) {
+      Assert.assertTrue(ex.getMessage().contains("Expected commit object"));
+    }
+  }
+
+  private static byte[] createPush(int commits) throws IOException {
+    return Fixtures.readEvent(PayloadType.PUSH, (node) -> {
+      JsonNode template = node.get("commits").get(0);
+      ArrayNode array = node.putArray("commits");
+
+      for (int i = 0; i < commits; ++i) {
+        ObjectNode commit = template.deepCopy();
+        commit.put("message", "commit " + i);
+        array.add(commit);
+      }
+    });
+  }
+}
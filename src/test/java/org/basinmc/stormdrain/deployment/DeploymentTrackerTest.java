@@ -0,0 +1,239 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.deployment;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import org.basinmc.stormdrain.Fixtures;
+import org.basinmc.stormdrain.PayloadType;
+import org.basinmc.stormdrain.RecordingReporter;
+import org.basinmc.stormdrain.event.DeploymentEvent;
+import org.basinmc.stormdrain.event.DeploymentStatusEvent;
+import org.basinmc.stormdrain.resource.Deployment;
+import org.basinmc.stormdrain.resource.DeploymentStatus;
+import org.basinmc.stormdrain.resource.DeploymentStatus.State;
+import org.basinmc.stormdrain.resource.ObjectId;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Evaluates whether deployment events are folded into the correct environment state.
+ */
+public class DeploymentTrackerTest {
+
+  private static final Instant START = Instant.parse("2018-03-01T00:00:00Z");
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private DeploymentStatusEvent template;
+
+  @Before
+  public void setUp() throws IOException {
+    this.template = PayloadType.DEPLOYMENT_STATUS
+        .read(Fixtures.readEvent(PayloadType.DEPLOYMENT_STATUS));
+  }
+
+  /**
+   * Evaluates whether the sample payloads are tracked.
+   */
+  @Test
+  public void testFixtures() throws IOException {
+    DeploymentTracker tracker = new DeploymentTracker(16, 16);
+    tracker.record(
+        (DeploymentEvent) PayloadType.DEPLOYMENT.read(Fixtures.readEvent(PayloadType.DEPLOYMENT)));
+    tracker.record(this.template);
+
+    EnvironmentState state = tracker.getEnvironment(35129377, "production")
+        .orElseThrow(AssertionError::new);
+    TrackedDeployment active = state.getActiveDeployment().orElseThrow(AssertionError::new);
+
+    Assert.assertEquals(710692, active.getId());
+    Assert.assertEquals("baxterthehacker/public-repo", active.getRepositoryName());
+    Assert.assertEquals(ObjectId.parse("9049f1265b7d61be4a8904a9a27120d2064dab3b"),
+        active.getCommitId().orElse(null));
+    Assert.assertEquals(State.SUCCESS, active.getState().orElse(null));
+    Assert.assertEquals(active, state.getLatestDeployment());
+    Assert.assertEquals(1, tracker.getEnvironments(35129377).size());
+  }
+
+  /**
+   * Evaluates whether the live deployment follows successful deployments and whether latencies
+   * are recorded for each transition.
+   */
+  @Test
+  public void testTransitions() {
+    DeploymentTracker tracker = new DeploymentTracker(16, 16);
+
+    tracker.record(this.createEvent(1, 0));
+    tracker.record(this.createStatus(1, State.PENDING, 5));
+    tracker.record(this.createStatus(1, State.SUCCESS, 65));
+
+    tracker.record(this.createEvent(2, 100));
+    tracker.record(this.createStatus(2, State.PENDING, 110));
+
+    EnvironmentState state = tracker.getEnvironment(35129377, "production")
+        .orElseThrow(AssertionError::new);
+    Assert.assertEquals(1, state.getActiveDeployment().map(TrackedDeployment::getId).orElse(-1L)
+        .longValue());
+    Assert.assertEquals(2, state.getLatestDeployment().getId());
+
+    // stale and duplicate statuses are ignored
+    tracker.record(this.createStatus(2, State.PENDING, 115));
+    tracker.record(this.createStatus(1, State.PENDING, 30));
+
+    tracker.record(this.createStatus(2, State.FAILURE, 400));
+    state = tracker.getEnvironment(35129377, "production").orElseThrow(AssertionError::new);
+    Assert.assertEquals(1, state.getActiveDeployment().map(TrackedDeployment::getId).orElse(-1L)
+        .longValue());
+
+    TrackedDeployment failed = tracker.getDeployment(2).orElseThrow(AssertionError::new);
+    Assert.assertEquals(Duration.ofSeconds(290), failed.getDuration().orElse(null));
+    Assert.assertEquals(START.plusSeconds(110), failed.getPendingAt().orElse(null));
+
+    Assert.assertEquals(2, tracker.getTransitionLatency(null, State.PENDING).getCount());
+    Assert.assertEquals(60_000,
+        tracker.getTransitionLatency(State.PENDING, State.SUCCESS).getValueAt(1));
+    Assert.assertEquals(1, tracker.getDuration(State.SUCCESS).getCount());
+    Assert.assertEquals(290_000, tracker.getDuration(State.FAILURE).getMaximum());
+    Assert.assertEquals(0, tracker.getDuration(State.ERROR).getCount());
+
+    tracker.record(this.createStatus(1, State.INACTIVE, 500));
+    state = tracker.getEnvironment(35129377, "production").orElseThrow(AssertionError::new);
+    Assert.assertFalse(state.getActiveDeployment().isPresent());
+  }
+
+  /**
+   * Evaluates whether the least recently updated deployments and environments are evicted once
+   * the tracker reaches its bounds.
+   */
+  @Test
+  public void testEviction() {
+    DeploymentTracker tracker = new DeploymentTracker(2, 2);
+
+    tracker.record(this.createEvent(1, "a", 0));
+    tracker.record(this.createEvent(2, "b", 1));
+    tracker.record(this.createStatus(1, "a", State.PENDING, 2));
+    tracker.record(this.createEvent(3, "c", 3));
+
+    Assert.assertEquals(2, tracker.getDeploymentCount());
+    Assert.assertEquals(2, tracker.getEnvironmentCount());
+    Assert.assertTrue(tracker.getDeployment(1).isPresent());
+    Assert.assertFalse(tracker.getDeployment(2).isPresent());
+    Assert.assertFalse(tracker.getEnvironment(35129377, "b").isPresent());
+
+    RecordingReporter reporter = RecordingReporter.report(tracker);
+    Assert.assertEquals(1,
+        reporter.getValue(DeploymentTracker.EVICTION_METRIC, "type", "deployment"), 0);
+    Assert.assertEquals(1,
+        reporter.getValue(DeploymentTracker.EVICTION_METRIC, "type", "environment"), 0);
+  }
+
+  /**
+   * Evaluates whether deployments which are tracked again after being evicted update their
+   * environment without recording latencies for their unobserved states.
+   */
+  @Test
+  public void testEvicted() {
+    DeploymentTracker tracker = new DeploymentTracker(1, 16);
+
+    tracker.record(this.createEvent(1, 0));
+    tracker.record(this.createStatus(1, State.PENDING, 5));
+    tracker.record(this.createEvent(2, "staging", 10));
+    Assert.assertFalse(tracker.getDeployment(1).isPresent());
+
+    tracker.record(this.createStatus(1, State.SUCCESS, 105));
+
+    EnvironmentState state = tracker.getEnvironment(35129377, "production")
+        .orElseThrow(AssertionError::new);
+    Assert.assertEquals(1, state.getActiveDeployment().map(TrackedDeployment::getId).orElse(-1L)
+        .longValue());
+    Assert.assertEquals(1, tracker.getTransitionLatency(null, State.PENDING).getCount());
+    Assert.assertEquals(0, tracker.getTransitionLatency(null, State.SUCCESS).getCount());
+    Assert.assertEquals(0, tracker.getTransitionLatency(State.PENDING, State.SUCCESS).getCount());
+    Assert.assertEquals(0, tracker.getDuration(State.SUCCESS).getCount());
+
+    tracker.record(this.createStatus(1, State.INACTIVE, 160));
+    Assert.assertEquals(55_000,
+        tracker.getTransitionLatency(State.SUCCESS, State.INACTIVE).getMaximum());
+  }
+
+  /**
+   * Evaluates whether the state is restored from a snapshot.
+   */
+  @Test
+  public void testSnapshot() throws IOException {
+    DeploymentTracker tracker = new DeploymentTracker(16, 16);
+    tracker.record(this.createEvent(1, 0));
+    tracker.record(this.createStatus(1, State.PENDING, 5));
+    tracker.record(this.createStatus(1, State.SUCCESS, 65));
+    tracker.record(this.createEvent(2, "staging", 70));
+
+    Path snapshot = this.folder.getRoot().toPath().resolve("deployments.snapshot");
+    tracker.writeSnapshot(snapshot);
+    tracker.writeSnapshot(snapshot);
+
+    DeploymentTracker restored = new DeploymentTracker(16, 16);
+    restored.readSnapshot(snapshot);
+
+    Assert.assertEquals(tracker.getDeployment(1), restored.getDeployment(1));
+    Assert.assertEquals(tracker.getDeployment(2), restored.getDeployment(2));
+    Assert.assertEquals(tracker.getEnvironment(35129377, "production"),
+        restored.getEnvironment(35129377, "production"));
+    Assert.assertEquals(tracker.getEnvironment(35129377, "staging"),
+        restored.getEnvironment(35129377, "staging"));
+    Assert.assertEquals(1, restored.getDuration(State.SUCCESS).getCount());
+    Assert.assertEquals(60_000,
+        restored.getTransitionLatency(State.PENDING, State.SUCCESS).getMaximum());
+  }
+
+  private DeploymentEvent createEvent(long id, long offset) {
+    return this.createEvent(id, "production", offset);
+  }
+
+  private DeploymentEvent createEvent(long id, String environment, long offset) {
+    return new DeploymentEvent(this.createDeployment(id, environment, offset),
+        this.template.getRepository(), this.template.getSender());
+  }
+
+  private DeploymentStatusEvent createStatus(long id, State state, long offset) {
+    return this.createStatus(id, "production", state, offset);
+  }
+
+  private DeploymentStatusEvent createStatus(long id, String environment, State state,
+      long offset) {
+    Instant timestamp = START.plusSeconds(offset);
+    DeploymentStatus status = new DeploymentStatus(String.valueOf(id * 100 + offset), state, null,
+        null, timestamp, timestamp);
+
+    return new DeploymentStatusEvent(status, this.createDeployment(id, environment, id * 100),
+        this.template.getRepository(), this.template.getSender());
+  }
+
+  private Deployment createDeployment(long id, String environment, long offset) {
+    Deployment template = this.template.getDeployment();
+    Instant createdAt = START.plusSeconds(offset);
+
+    return new Deployment(String.valueOf(id), template.getCommitObjectId().orElse(null),
+        environment, null, template.getCreator(), createdAt, createdAt);
+  }
+}
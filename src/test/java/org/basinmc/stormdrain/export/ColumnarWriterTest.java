@@ -0,0 +1,252 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.export;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import org.basinmc.stormdrain.Fixtures;
+import org.basinmc.stormdrain.Payload;
+import org.basinmc.stormdrain.PayloadType;
+import org.basinmc.stormdrain.UnloadedPropertyException;
+import org.basinmc.stormdrain.decoder.Projection;
+import org.basinmc.stormdrain.event.Event;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Evaluates whether payloads survive a round trip through the columnar file format.
+ */
+public class ColumnarWriterTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  /**
+   * Evaluates whether every sample payload can be exported and all of its columns read back.
+   */
+  @Test
+  public void testAllTypes() throws IOException {
+    for (PayloadType type : PayloadType.values()) {
+      Path path = this.folder.newFile(type.name()).toPath();
+      UUID deliveryId = UUID.randomUUID();
+
+      try (ColumnarWriter writer = new ColumnarWriter(path, type)) {
+        writer.write(new Payload<>(deliveryId, type, type.read(Fixtures.readEvent(type))));
+      }
+
+      try (ColumnarReader reader = new ColumnarReader(path)) {
+        Assert.assertEquals(type, reader.getSchema().getType());
+        Assert.assertEquals(1, reader.getRowCount());
+        Assert.assertEquals(1, reader.getRowGroupCount());
+        Assert.assertEquals(deliveryId.toString(), scanStrings(reader, "delivery_id").get(0));
+
+        for (Column column : reader.getSchema().getColumns()) {
+          reader.scan(column.getName(), new ColumnVisitor() {
+          });
+        }
+      }
+    }
+  }
+
+  /**
+   * Evaluates whether push specific columns are flattened from the event.
+   */
+  @Test
+  public void testPush() throws IOException {
+    Path path = this.folder.newFile().toPath();
+
+    try (ColumnarWriter writer = new ColumnarWriter(path, PayloadType.PUSH)) {
+      writer.write(this.createPayload(PayloadType.PUSH, "baxterthehacker"));
+    }
+
+    try (ColumnarReader reader = new ColumnarReader(path)) {
+      Assert.assertEquals(Arrays.asList("baxterthehacker/public-repo"),
+          scanStrings(reader, "repository"));
+      Assert.assertEquals(Arrays.asList("refs/heads/changes"), scanStrings(reader, "ref"));
+      Assert.assertEquals(Arrays.asList("baxterthehacker"), scanStrings(reader, "sender"));
+      Assert.assertEquals(Arrays.asList(35129377L), scanLongs(reader, "repository_id"));
+      Assert.assertEquals(Arrays.asList(1L), scanLongs(reader, "commits"));
+      Assert.assertFalse(reader.getSchema().getColumn("action").isPresent());
+    }
+  }
+
+  /**
+   * Evaluates whether payloads which fail to extract are rejected without affecting subsequent
+   * rows.
+   */
+  @Test
+  public void testFailedExtraction() throws IOException {
+    Path path = this.folder.newFile().toPath();
+    Payload<?> payload = this.createPayload(PayloadType.PUSH, "octocat");
+
+    try (ColumnarWriter writer = new ColumnarWriter(path, PayloadType.PUSH)) {
+      Event projected = new Projection(PayloadType.PUSH, "ref", "repository.id")
+          .read(Fixtures.readEvent(PayloadType.PUSH));
+
+      try {
+        writer.write(new Payload<>(UUID.randomUUID(), PayloadType.PUSH, projected));
+        Assert.fail("Expected projected payload to be rejected");
+      } catch (UnloadedPropertyException expected) {
+      }
+
+      Assert.assertEquals(0, writer.getRowCount());
+      writer.write(payload);
+    }
+
+    try (ColumnarReader reader = new ColumnarReader(path)) {
+      Assert.assertEquals(1, reader.getRowCount());
+      Assert.assertEquals(Arrays.asList(payload.getDeliveryId().toString()),
+          scanStrings(reader, "delivery_id"));
+      Assert.assertEquals(Arrays.asList("octocat"), scanStrings(reader, "sender"));
+      Assert.assertEquals(Arrays.asList("refs/heads/changes"), scanStrings(reader, "ref"));
+    }
+  }
+
+  /**
+   * Evaluates whether rows are split into row groups and whether repeated strings and absent
+   * values are restored correctly.
+   */
+  @Test
+  public void testRowGroups() throws IOException {
+    Path path = this.folder.newFile().toPath();
+    List<String> senders = new ArrayList<>();
+
+    try (ColumnarWriter writer = new ColumnarWriter(path, PayloadType.PULL_REQUEST, 4)) {
+      for (int i = 0; i < 10; ++i) {
+        String sender = "user" + (i % 3);
+        senders.add(sender);
+        writer.write(this.createPayload(PayloadType.PULL_REQUEST, sender));
+      }
+
+      Assert.assertEquals(10, writer.getRowCount());
+    }
+
+    try (ColumnarReader reader = new ColumnarReader(path)) {
+      Assert.assertEquals(10, reader.getRowCount());
+      Assert.assertEquals(3, reader.getRowGroupCount());
+      Assert.assertEquals(senders, scanStrings(reader, "sender"));
+      Assert.assertEquals(10, scanStrings(reader, "action").size());
+      Assert.assertEquals("opened", scanStrings(reader, "action").get(9));
+
+      List<Long> closedAt = scanLongs(reader, "closed_at");
+      Assert.assertEquals(10, closedAt.size());
+      for (Long value : closedAt) {
+        Assert.assertNull(value);
+      }
+    }
+  }
+
+  /**
+   * Evaluates whether dictionaries which exceed a single byte per code are encoded correctly.
+   */
+  @Test
+  public void testWideDictionary() throws IOException {
+    Path path = this.folder.newFile().toPath();
+    Payload<?> payload = this.createPayload(PayloadType.WATCH, "baxterthehacker");
+    List<String> deliveryIds = new ArrayList<>();
+
+    try (ColumnarWriter writer = new ColumnarWriter(path, PayloadType.WATCH)) {
+      for (int i = 0; i < 300; ++i) {
+        UUID deliveryId = UUID.randomUUID();
+        deliveryIds.add(deliveryId.toString());
+        writer.write(new Payload<>(deliveryId, PayloadType.WATCH, payload.getEvent()));
+      }
+    }
+
+    try (ColumnarReader reader = new ColumnarReader(path)) {
+      Assert.assertEquals(deliveryIds, scanStrings(reader, "delivery_id"));
+    }
+
+    Assert.assertEquals(1, ColumnarWriter.codeWidth(254));
+    Assert.assertEquals(2, ColumnarWriter.codeWidth(255));
+    Assert.assertEquals(4, ColumnarWriter.codeWidth(65535));
+  }
+
+  /**
+   * Evaluates whether payloads of a different type are rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testMismatchedType() throws IOException {
+    try (ColumnarWriter writer = new ColumnarWriter(this.folder.newFile().toPath(),
+        PayloadType.PUSH)) {
+      writer.write(this.createPayload(PayloadType.WATCH, "baxterthehacker"));
+    }
+  }
+
+  /**
+   * Evaluates whether files which lack their footer are rejected.
+   */
+  @Test(expected = IOException.class)
+  public void testTruncated() throws IOException {
+    Path path = this.folder.newFile().toPath();
+
+    try (ColumnarWriter writer = new ColumnarWriter(path, PayloadType.PUSH)) {
+      writer.write(this.createPayload(PayloadType.PUSH, "baxterthehacker"));
+    }
+
+    byte[] data = Files.readAllBytes(path);
+    Files.write(path, Arrays.copyOf(data, data.length - 4));
+    new ColumnarReader(path).close();
+  }
+
+  private Payload<?> createPayload(PayloadType type, String sender) throws IOException {
+    Event event = Fixtures.decodeEvent(type, (node) -> node.with("sender").put("login", sender));
+    return new Payload<>(UUID.randomUUID(), type, event);
+  }
+
+  private static List<String> scanStrings(ColumnarReader reader, String column)
+      throws IOException {
+    List<String> values = new ArrayList<>();
+    reader.scan(column, new ColumnVisitor() {
+      @Override
+      public void visitNull(long row) {
+        values.add(null);
+      }
+
+      @Override
+      public void visitString(long row, String value) {
+        Assert.assertEquals(values.size(), row);
+        values.add(value);
+      }
+    });
+    return values;
+  }
+
+  private static List<Long> scanLongs(ColumnarReader reader, String column) throws IOException {
+    List<Long> values = new ArrayList<>();
+    reader.scan(column, new ColumnVisitor() {
+      @Override
+      public void visitNull(long row) {
+        values.add(null);
+      }
+
+      @Override
+      public void visitLong(long row, long value) {
+        Assert.assertEquals(values.size(), row);
+        values.add(value);
+      }
+    });
+    return values;
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.index;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import org.basinmc.stormdrain.Benchmarks;
+import org.basinmc.stormdrain.Fixtures;
+import org.basinmc.stormdrain.PayloadType;
+import org.basinmc.stormdrain.event.PushEvent;
+import org.basinmc.stormdrain.resource.Commit;
+import org.basinmc.stormdrain.resource.ObjectId;
+import org.junit.Test;
+
+/**
+ * Measures the footprint of indexed commits as well as the cost of commit and path lookups.
+ */
+public class CommitIndexBenchmark {
+
+  @Test
+  public void benchmark() throws Exception {
+    PushEvent template = PayloadType.PUSH.read(Fixtures.readEvent(PayloadType.PUSH));
+    Commit commitTemplate = template.getCommits().get(0);
+    Instant start = Instant.parse("2018-03-01T00:00:00Z");
+    int pushes = 100_000;
+
+    List<PushEvent> events = new ArrayList<>(pushes);
+    List<UUID> deliveryIds = new ArrayList<>(pushes);
+    for (int i = 0; i < pushes; ++i) {
+      ObjectId id = ObjectId.parse(String.format("%08x%032x", i * 0x9E3779B1, i));
+      Commit commit = new Commit(id, id, true, "", commitTemplate.getAuthor(),
+          commitTemplate.getAuthor(), OffsetDateTime.ofInstant(start, ZoneOffset.UTC),
+          Collections.emptySet(), Collections.emptySet(),
+          new HashSet<>(Collections.singleton("src/" + (i % 1000) + ".java")),
+          commitTemplate.getBrowserUrl());
+
+      events.add(new PushEvent("refs/heads/master", id, id, template.getCompareUrl(), false,
+          false, false, Collections.singletonList(commit), commit, template.getRepository(),
+          template.getSender()));
+      deliveryIds.add(UUID.randomUUID());
+    }
+
+    long before = Benchmarks.measureUsedHeap();
+    CommitIndex index = new CommitIndex(Duration.ofHours(1), 48);
+    long addStart = System.nanoTime();
+    for (int i = 0; i < pushes; ++i) {
+      index.add(deliveryIds.get(i), events.get(i), start.plusSeconds(i));
+    }
+    long addTime = System.nanoTime() - addStart;
+    long after = Benchmarks.measureUsedHeap();
+
+    Benchmarks.report("add              %8.1f ns/commit", addTime / (double) pushes);
+    Benchmarks.report("retained         %8.1f B/commit (including push records)",
+        (after - before) / (double) pushes);
+
+    int[] cursor = new int[1];
+    Benchmarks.Operation findCommit = () -> index
+        .findCommit(events.get(cursor[0]++ % pushes).getTargetCommitId());
+    Benchmarks.Operation findCommits = () -> index
+        .findCommits("src/" + (cursor[0]++ % 1000) + ".java", start.plusSeconds(pushes - 3600));
+
+    Benchmarks.report("findCommit       %8.1f ns/op", Benchmarks.measureTime(findCommit));
+    Benchmarks.report("findCommits (1h) %8.1f ns/op", Benchmarks.measureTime(findCommits));
+  }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.index;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.basinmc.stormdrain.Fixtures;
+import org.basinmc.stormdrain.PayloadType;
+import org.basinmc.stormdrain.event.PushEvent;
+import org.basinmc.stormdrain.resource.Commit;
+import org.basinmc.stormdrain.resource.ObjectId;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Evaluates whether commits are correctly indexed, located and evicted.
+ */
+public class CommitIndexTest {
+
+  private static final Instant START = Instant.parse("2018-03-01T00:00:00Z");
+
+  private PushEvent template;
+
+  @Before
+  public void setUp() throws IOException {
+    this.template = PayloadType.PUSH.read(Fixtures.readEvent(PayloadType.PUSH));
+  }
+
+  /**
+   * Evaluates whether commits are attributed to the first push which introduced them.
+   */
+  @Test
+  public void testFindCommit() throws IOException {
+    CommitIndex index = new CommitIndex(Duration.ofHours(1), 24);
+    UUID first = UUID.randomUUID();
+    UUID second = UUID.randomUUID();
+
+    index.add(first, this.template, START);
+    index.add(second, this.createPush("refs/heads/other", this.createCommit(1, "README.md")),
+        START.plusSeconds(60));
+    index.add(UUID.randomUUID(), this.template, START.plusSeconds(120));
+
+    Commit expected = this.template.getCommits().get(0);
+    IndexedCommit commit = index.findCommit(expected.getId()).orElseThrow(AssertionError::new);
+    Assert.assertEquals(expected.getId(), commit.getId());
+    Assert.assertEquals(expected.getTreeId(), commit.getTreeId());
+    Assert.assertEquals(expected.getAuthor(), commit.getAuthor());
+    Assert.assertEquals(expected.getTimestamp().toInstant(), commit.getTimestamp());
+    Assert.assertEquals(first, commit.getPush().getDeliveryId());
+    Assert.assertEquals("refs/heads/changes", commit.getPush().getReference());
+    Assert.assertEquals("baxterthehacker/public-repo", commit.getPush().getRepositoryName());
+    Assert.assertEquals(START, commit.getPush().getReceivedAt());
+
+    IndexedCommit other = index.findCommit(commitId(1).toUpperCase())
+        .orElseThrow(AssertionError::new);
+    Assert.assertEquals(second, other.getPush().getDeliveryId());
+
+    Assert.assertFalse(index.findCommit(commitId(2)).isPresent());
+    Assert.assertFalse(index.findCommit("not-a-hash").isPresent());
+    Assert.assertEquals(this.template.getCommits().size() + 1, index.getCommitCount());
+  }
+
+  /**
+   * Evaluates whether path lookups return the commits in the order they have been received and
+   * honor the lower time bound.
+   */
+  @Test
+  public void testFindCommits() {
+    CommitIndex index = new CommitIndex(Duration.ofHours(1), 48);
+
+    for (int i = 0; i < 2000; ++i) {
+      String path = i % 2 == 0 ? "src/Main.java" : "docs/" + i + ".md";
+      index.add(UUID.randomUUID(), this.createPush("refs/heads/master", this.createCommit(i, path)),
+          START.plus(Duration.ofMinutes(i)));
+    }
+
+    List<IndexedCommit> commits = index
+        .findCommits("src/Main.java", START.plus(Duration.ofMinutes(1000)));
+    Assert.assertEquals(500, commits.size());
+    Assert.assertEquals(commitId(1000), commits.get(0).getId());
+    Assert.assertEquals(commitId(1998), commits.get(commits.size() - 1).getId());
+
+    for (int i = 1; i < commits.size(); ++i) {
+      Assert.assertTrue(commits.get(i - 1).getPush().getReceivedAt()
+          .isBefore(commits.get(i).getPush().getReceivedAt()));
+    }
+
+    Assert.assertEquals(Collections.singletonList(commitId(1999)),
+        index.findCommits("docs/1999.md", START).stream().map(IndexedCommit::getId)
+            .collect(Collectors.toList()));
+    Assert.assertTrue(index.findCommits("docs/1999.md", START.plus(Duration.ofDays(2))).isEmpty());
+    Assert.assertEquals(2000, index.getCommitCount());
+  }
+
+  /**
+   * Evaluates whether segments are evicted on request and once the maximum is exceeded.
+   */
+  @Test
+  public void testEviction() {
+    CommitIndex index = new CommitIndex(Duration.ofHours(1), 4);
+
+    for (int i = 0; i < 6; ++i) {
+      index.add(UUID.randomUUID(), this.createPush("refs/heads/master",
+          this.createCommit(i, "README.md")), START.plus(Duration.ofHours(i)));
+    }
+
+    Assert.assertEquals(4, index.getSegmentCount());
+    Assert.assertFalse(index.findCommit(commitId(1)).isPresent());
+    Assert.assertTrue(index.findCommit(commitId(2)).isPresent());
+
+    // pushes which predate all retained segments are dropped right away
+    index.add(UUID.randomUUID(), this.createPush("refs/heads/master",
+        this.createCommit(42, "README.md")), START);
+    Assert.assertFalse(index.findCommit(commitId(42)).isPresent());
+
+    Assert.assertEquals(2, index.evictBefore(START.plus(Duration.ofMinutes(270))));
+    Assert.assertEquals(2, index.getSegmentCount());
+    Assert.assertEquals(Arrays.asList(commitId(4), commitId(5)),
+        index.findCommits("README.md", START).stream().map(IndexedCommit::getId)
+            .collect(Collectors.toList()));
+  }
+
+  private PushEvent createPush(String reference, Commit commit) {
+    List<Commit> commits = Collections.singletonList(commit);
+
+    return new PushEvent(reference, this.template.getPreviousCommitObjectId(),
+        commit.getObjectId(),
+        this.template.getCompareUrl(), false, false, false, commits, commit,
+        this.template.getRepository(), this.template.getSender());
+  }
+
+  private Commit createCommit(int index, String path) {
+    Commit template = this.template.getCommits().get(0);
+
+    return new Commit(ObjectId.parse(commitId(index)),
+        ObjectId.parse(commitId(index + 1_000_000)), true, "Change " + index,
+        template.getAuthor(), template.getAuthor(),
+        OffsetDateTime.ofInstant(START.plusSeconds(index), ZoneOffset.UTC),
+        Collections.emptySet(), Collections.emptySet(), new HashSet<>(Collections.singleton(path)),
+        template.getBrowserUrl());
+  }
+
+  private static String commitId(int index) {
+    return String.format("%08x%032d", index, 0);
+  }
+}
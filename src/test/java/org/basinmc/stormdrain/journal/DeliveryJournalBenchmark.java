@@ -0,0 +1,95 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.journal;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.basinmc.stormdrain.Benchmarks;
+import org.basinmc.stormdrain.Fixtures;
+import org.basinmc.stormdrain.PayloadType;
+import org.basinmc.stormdrain.RecordingReporter;
+import org.basinmc.stormdrain.cluster.Delivery;
+import org.junit.Test;
+
+/**
+ * Measures the latency of durable appends for varying amounts of concurrently receiving threads.
+ */
+public class DeliveryJournalBenchmark {
+
+  @Test
+  public void benchmarkAppend() throws Exception {
+    Delivery delivery = new Delivery(UUID.randomUUID(), PayloadType.PUSH,
+        Fixtures.readEvent(PayloadType.PUSH));
+    int iterations = Math.max(1000, Benchmarks.getIterations() / 10);
+
+    Benchmarks.report("%-12s %12s %12s %12s %12s", "threads", "p50 us", "p99 us",
+        "appends/s", "appends/sync");
+    for (int threads : new int[]{1, 4, 16}) {
+      Path directory = Files.createTempDirectory("stormdrain-journal");
+
+      try (DeliveryJournal journal = new DeliveryJournal(directory)) {
+        for (int i = 0; i < iterations; ++i) {
+          journal.append(delivery);
+        }
+        long warmupSyncs = count(journal);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<long[]>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+
+        for (int i = 0; i < threads; ++i) {
+          futures.add(executor.submit(() -> {
+            long[] latencies = new long[iterations];
+            for (int j = 0; j < iterations; ++j) {
+              long begin = System.nanoTime();
+              journal.append(delivery);
+              latencies[j] = System.nanoTime() - begin;
+            }
+            return latencies;
+          }));
+        }
+
+        long[] latencies = new long[threads * iterations];
+        for (int i = 0; i < threads; ++i) {
+          System.arraycopy(futures.get(i).get(), 0, latencies, i * iterations, iterations);
+        }
+        long elapsed = System.nanoTime() - start;
+        executor.shutdown();
+
+        long syncs = count(journal) - warmupSyncs;
+
+        Arrays.sort(latencies);
+        Benchmarks.report("%-12d %12.1f %12.1f %12.0f %12.1f", threads,
+            latencies[latencies.length / 2] / 1000.0,
+            latencies[(int) (latencies.length * 0.99)] / 1000.0,
+            latencies.length / (elapsed / 1_000_000_000.0),
+            latencies.length / (double) syncs);
+      }
+    }
+  }
+
+  private static long count(DeliveryJournal journal) {
+    return (long) RecordingReporter.report(journal).getValue(DeliveryJournal.SYNC_METRIC);
+  }
+}
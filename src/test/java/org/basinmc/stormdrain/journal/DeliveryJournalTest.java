@@ -0,0 +1,255 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.basinmc.stormdrain.Fixtures;
+import org.basinmc.stormdrain.PayloadType;
+import org.basinmc.stormdrain.RecordingReporter;
+import org.basinmc.stormdrain.cluster.Delivery;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Evaluates whether deliveries are persisted, recovered and shared between flushes correctly.
+ */
+public class DeliveryJournalTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  /**
+   * Evaluates whether deliveries are read back in order across segments and after reopening the
+   * journal.
+   */
+  @Test
+  public void testRoundTrip() throws IOException {
+    Path directory = this.folder.getRoot().toPath();
+    List<Delivery> deliveries = new ArrayList<>();
+    List<Long> offsets = new ArrayList<>();
+
+    try (DeliveryJournal journal = new DeliveryJournal(directory, 16 * 1024)) {
+      for (PayloadType type : PayloadType.values()) {
+        Delivery delivery = new Delivery(UUID.randomUUID(), type, Fixtures.readEvent(type));
+        deliveries.add(delivery);
+        offsets.add(journal.append(delivery));
+      }
+
+      Assert.assertEquals(offsets.size(), journal.read(0, Integer.MAX_VALUE).size());
+    }
+
+    Assert.assertTrue(Files.list(directory).filter((p) -> p.toString().endsWith(".log")).count()
+        > 1);
+
+    try (DeliveryJournal journal = new DeliveryJournal(directory, 16 * 1024)) {
+      List<JournalEntry> entries = new ArrayList<>();
+      long offset = journal.getStartOffset();
+      List<JournalEntry> batch;
+
+      while (!(batch = journal.read(offset, 5)).isEmpty()) {
+        entries.addAll(batch);
+        offset = batch.get(batch.size() - 1).getNextOffset();
+      }
+
+      Assert.assertEquals(journal.getEndOffset(), offset);
+      Assert.assertEquals(deliveries.size(), entries.size());
+      for (int i = 0; i < entries.size(); ++i) {
+        Assert.assertEquals(deliveries.get(i), entries.get(i).getDelivery());
+        Assert.assertEquals((long) offsets.get(i), entries.get(i).getOffset());
+      }
+
+      Assert.assertEquals(entries.get(3), journal.read(offsets.get(3), 1).get(0));
+
+      int deleted = journal.deleteBefore(offsets.get(offsets.size() - 1));
+      Assert.assertTrue(deleted > 0);
+      Assert.assertTrue(journal.getStartOffset() > 0);
+      Assert.assertEquals(deliveries.get(deliveries.size() - 1),
+          journal.read(offsets.get(offsets.size() - 1), 1).get(0).getDelivery());
+    }
+  }
+
+  /**
+   * Evaluates whether segments remain readable while they are deleted concurrently.
+   */
+  @Test
+  public void testConcurrentDelete() throws Exception {
+    Delivery delivery = new Delivery(UUID.randomUUID(), PayloadType.WATCH, new byte[600]);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    try (DeliveryJournal journal = new DeliveryJournal(this.folder.getRoot().toPath(), 1024)) {
+      List<Long> offsets = new ArrayList<>();
+      for (int i = 0; i < 200; ++i) {
+        offsets.add(journal.append(delivery));
+      }
+
+      Future<Integer> reads = executor.submit(() -> {
+        int read = 0;
+
+        while (journal.getStartOffset() < offsets.get(offsets.size() - 1)) {
+          try {
+            for (JournalEntry entry : journal.read(journal.getStartOffset(), 4)) {
+              Assert.assertEquals(delivery, entry.getDelivery());
+              ++read;
+            }
+          } catch (IllegalArgumentException ignore) {
+            // the segment has been deleted before it could be retained
+          }
+        }
+
+        return read;
+      });
+
+      for (long offset : offsets) {
+        journal.deleteBefore(offset);
+        Thread.yield();
+      }
+
+      Assert.assertTrue(reads.get() > 0);
+      Assert.assertEquals(1, Files.list(this.folder.getRoot().toPath())
+          .filter((p) -> p.toString().endsWith(".log")).count());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * Evaluates whether partially written entries are discarded when the journal is reopened.
+   */
+  @Test
+  public void testRecovery() throws IOException {
+    Path directory = this.folder.getRoot().toPath();
+    Delivery delivery = new Delivery(UUID.randomUUID(), PayloadType.WATCH,
+        "{\"action\": \"started\"}".getBytes(StandardCharsets.UTF_8));
+    long end;
+
+    try (DeliveryJournal journal = new DeliveryJournal(directory)) {
+      journal.append(delivery);
+      journal.append(delivery);
+      end = journal.getEndOffset();
+    }
+
+    Path segment = directory.resolve(String.format("%020d.log", 0));
+    try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+      // simulate a crash in the middle of the third append
+      channel.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 50, 1, 2, 3}), end);
+      // corrupt the body of the second entry
+      channel.write(ByteBuffer.wrap(new byte[]{'x'}), end - 3);
+    }
+
+    try (DeliveryJournal journal = new DeliveryJournal(directory)) {
+      List<JournalEntry> entries = journal.read(0, 10);
+
+      Assert.assertEquals(1, entries.size());
+      Assert.assertEquals(delivery, entries.get(0).getDelivery());
+      Assert.assertEquals(entries.get(0).getNextOffset(), journal.getEndOffset());
+      Assert.assertEquals(journal.getEndOffset(), Files.size(segment));
+
+      long offset = journal.append(delivery);
+      Assert.assertEquals(delivery, journal.read(offset, 1).get(0).getDelivery());
+    }
+  }
+
+  /**
+   * Evaluates whether entries with a corrupted length within a sealed segment are rejected
+   * instead of being allocated.
+   */
+  @Test
+  public void testCorruptedLength() throws IOException {
+    Path directory = this.folder.getRoot().toPath();
+    Delivery delivery = new Delivery(UUID.randomUUID(), PayloadType.WATCH, new byte[600]);
+
+    try (DeliveryJournal journal = new DeliveryJournal(directory, 1024)) {
+      for (int i = 0; i < 4; ++i) {
+        journal.append(delivery);
+      }
+    }
+
+    Path segment = directory.resolve(String.format("%020d.log", 0));
+    for (int length : new int[]{-5, Integer.MAX_VALUE, 10_000}) {
+      try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+        channel.write((ByteBuffer) ByteBuffer.allocate(4).putInt(length).flip(), 0);
+      }
+
+      try (DeliveryJournal journal = new DeliveryJournal(directory, 1024)) {
+        journal.read(0, 1);
+        Assert.fail("Expected corrupted length " + length + " to be rejected");
+      } catch (IOException expected) {
+      }
+    }
+  }
+
+  /**
+   * Evaluates whether concurrent appends share flushes.
+   */
+  @Test
+  public void testGroupCommit() throws Exception {
+    int threads = 8;
+    int appends = 200;
+    byte[] body = Fixtures.readEvent(PayloadType.PUSH);
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+    try (DeliveryJournal journal = new DeliveryJournal(this.folder.getRoot().toPath())) {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < threads; ++i) {
+        futures.add(executor.submit(() -> {
+          for (int j = 0; j < appends; ++j) {
+            journal.append(new Delivery(UUID.randomUUID(), PayloadType.PUSH, body));
+          }
+          return null;
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+
+      RecordingReporter reporter = RecordingReporter.report(journal);
+
+      Assert.assertEquals(threads * appends,
+          journal.read(0, Integer.MAX_VALUE).size());
+      Assert.assertEquals(1, reporter.getSeries(DeliveryJournal.SYNC_METRIC).size());
+      Assert.assertTrue("No flushes were shared",
+          reporter.getValue(DeliveryJournal.SYNC_METRIC) < threads * appends);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * Evaluates whether appends are rejected once the journal has been closed.
+   */
+  @Test(expected = IOException.class)
+  public void testClosed() throws IOException {
+    DeliveryJournal journal = new DeliveryJournal(this.folder.getRoot().toPath());
+    journal.close();
+
+    journal.append(new Delivery(UUID.randomUUID(), PayloadType.WATCH, new byte[0]));
+  }
+}
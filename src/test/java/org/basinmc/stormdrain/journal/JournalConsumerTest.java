@@ -0,0 +1,146 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.journal;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.basinmc.stormdrain.PayloadType;
+import org.basinmc.stormdrain.cluster.Delivery;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Evaluates whether consumer groups track their offsets and retry or dead letter failing
+ * deliveries.
+ */
+public class JournalConsumerTest {
+
+  private static final RetryPolicy RETRY_POLICY = new RetryPolicy(3, Duration.ofMillis(1),
+      Duration.ofMillis(2));
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  /**
+   * Evaluates whether groups consume independently and resume from their checkpoint.
+   */
+  @Test
+  public void testCheckpoint() throws IOException {
+    Path directory = this.folder.getRoot().toPath();
+    List<Delivery> first = new ArrayList<>();
+    List<Delivery> second = new ArrayList<>();
+    List<Delivery> deliveries = new ArrayList<>();
+
+    try (DeliveryJournal journal = new DeliveryJournal(directory.resolve("journal"));
+        DeliveryJournal deadLetters = new DeliveryJournal(directory.resolve("dead-letters"))) {
+      for (int i = 0; i < 10; ++i) {
+        deliveries.add(createDelivery(i));
+        journal.append(deliveries.get(i));
+      }
+
+      JournalConsumer consumer = new JournalConsumer(journal, "first", first::add, RETRY_POLICY,
+          deadLetters);
+      Assert.assertEquals(4, consumer.poll(4));
+      Assert.assertEquals(6, new JournalConsumer(journal, "second", second::add, RETRY_POLICY,
+          deadLetters).poll(6));
+      Assert.assertEquals(journal.getEndOffset() - consumer.getOffset(), consumer.getLag());
+    }
+
+    try (DeliveryJournal journal = new DeliveryJournal(directory.resolve("journal"));
+        DeliveryJournal deadLetters = new DeliveryJournal(directory.resolve("dead-letters"))) {
+      JournalConsumer consumer = new JournalConsumer(journal, "first", first::add, RETRY_POLICY,
+          deadLetters);
+
+      Assert.assertEquals(6, consumer.poll(100));
+      Assert.assertEquals(0, consumer.poll(100));
+      Assert.assertEquals(0, consumer.getLag());
+      Assert.assertEquals(deliveries, first);
+      Assert.assertEquals(deliveries.subList(0, 6), second);
+    }
+  }
+
+  /**
+   * Evaluates whether failing deliveries are retried with a delay and eventually moved to the dead
+   * letter journal without blocking the remaining deliveries.
+   */
+  @Test
+  public void testRetry() throws IOException, InterruptedException {
+    Path directory = this.folder.getRoot().toPath();
+    List<Delivery> processed = new ArrayList<>();
+    int[] attempts = new int[3];
+
+    try (DeliveryJournal journal = new DeliveryJournal(directory.resolve("journal"));
+        DeliveryJournal deadLetters = new DeliveryJournal(directory.resolve("dead-letters"))) {
+      for (int i = 0; i < 3; ++i) {
+        journal.append(createDelivery(i));
+      }
+
+      JournalConsumer consumer = new JournalConsumer(journal, "handler", (delivery) -> {
+        int index = delivery.getBody()[0] - '0';
+
+        // the first delivery succeeds on its second attempt while the second is poisoned
+        if (++attempts[index] < 2 || index == 1) {
+          throw new IOException("Expected failure");
+        }
+
+        processed.add(delivery);
+      }, RETRY_POLICY, deadLetters);
+
+      int completed = 0;
+      long deadline = System.currentTimeMillis() + 5000;
+      while (completed < 3 && System.currentTimeMillis() < deadline) {
+        completed += consumer.poll(10);
+        Thread.sleep(1);
+      }
+
+      Assert.assertEquals(3, completed);
+      Assert.assertArrayEquals(new int[]{2, 3, 2}, attempts);
+      Assert.assertEquals(2, processed.size());
+
+      List<JournalEntry> poisoned = deadLetters.read(0, 10);
+      Assert.assertEquals(1, poisoned.size());
+      Assert.assertEquals(createDelivery(1).getType(), poisoned.get(0).getDelivery().getType());
+      Assert.assertEquals('1', poisoned.get(0).getDelivery().getBody()[0]);
+    }
+  }
+
+  /**
+   * Evaluates whether the retry delay grows exponentially up to its maximum.
+   */
+  @Test
+  public void testRetryPolicy() {
+    RetryPolicy policy = new RetryPolicy(10, Duration.ofMillis(100), Duration.ofSeconds(1));
+
+    Assert.assertEquals(Duration.ofMillis(100), policy.getDelay(1));
+    Assert.assertEquals(Duration.ofMillis(200), policy.getDelay(2));
+    Assert.assertEquals(Duration.ofMillis(800), policy.getDelay(4));
+    Assert.assertEquals(Duration.ofSeconds(1), policy.getDelay(5));
+    Assert.assertEquals(Duration.ofSeconds(1), policy.getDelay(Integer.MAX_VALUE));
+  }
+
+  private static Delivery createDelivery(int index) {
+    return new Delivery(new UUID(0, index), PayloadType.WATCH,
+        (index + "{\"action\": \"started\"}").getBytes(StandardCharsets.UTF_8));
+  }
+}
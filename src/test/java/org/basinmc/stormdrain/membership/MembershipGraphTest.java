@@ -0,0 +1,193 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.membership;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import org.basinmc.stormdrain.Fixtures;
+import org.basinmc.stormdrain.PayloadType;
+import org.basinmc.stormdrain.RecordingReporter;
+import org.basinmc.stormdrain.event.MemberEvent;
+import org.basinmc.stormdrain.event.MembershipEvent;
+import org.basinmc.stormdrain.event.OrganizationBlockEvent;
+import org.basinmc.stormdrain.event.OrganizationEvent;
+import org.basinmc.stormdrain.event.TeamAddEvent;
+import org.basinmc.stormdrain.event.TeamEvent;
+import org.basinmc.stormdrain.membership.MembershipGraph.Snapshot;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Evaluates whether the membership graph follows membership related events.
+ */
+public class MembershipGraphTest {
+
+  private static final long[] NONE = new long[0];
+
+  /**
+   * Evaluates whether team memberships imply organization memberships and grant access to the
+   * repositories of the team.
+   */
+  @Test
+  public void testTeamMembership() throws IOException {
+    MembershipGraph graph = new MembershipGraph();
+    graph.record((MembershipEvent) Fixtures.decodeEvent(PayloadType.MEMBERSHIP, (node) -> {}));
+    graph.record((TeamAddEvent) Fixtures.decodeEvent(PayloadType.TEAM_ADD, (node) -> {
+      node.with("team").put("id", 123456);
+    }));
+    graph.record((MemberEvent) Fixtures.decodeEvent(PayloadType.MEMBER, (node) -> {
+      node.with("member").put("id", 2501);
+    }));
+
+    Snapshot snapshot = graph.getSnapshot();
+    Assert.assertArrayEquals(new long[]{123456}, snapshot.getOrganizationTeams(7649605));
+    Assert.assertArrayEquals(new long[]{2501}, snapshot.getOrganizationMembers(7649605));
+    Assert.assertArrayEquals(new long[]{7649605}, snapshot.getOrganizations(2501));
+    Assert.assertArrayEquals(new long[]{2501}, snapshot.getTeamMembers(123456));
+    Assert.assertArrayEquals(new long[]{123456}, snapshot.getTeams(2501));
+    Assert.assertArrayEquals(new long[]{35129393}, snapshot.getTeamRepositories(123456));
+    Assert.assertArrayEquals(new long[]{123456}, snapshot.getRepositoryTeams(35129393));
+    Assert.assertArrayEquals(new long[]{2501}, snapshot.getCollaborators(35129377));
+    Assert.assertArrayEquals(new long[]{35129377, 35129393},
+        snapshot.getReachableRepositories(2501));
+    Assert.assertEquals(3, snapshot.getVersion());
+
+    graph.record((MembershipEvent) Fixtures.decodeEvent(PayloadType.MEMBERSHIP, (node) -> {
+      node.put("action", "removed");
+    }));
+
+    Assert.assertArrayEquals(new long[]{35129377}, graph.getSnapshot()
+        .getReachableRepositories(2501));
+    Assert.assertArrayEquals(new long[]{2501}, graph.getSnapshot()
+        .getOrganizationMembers(7649605));
+
+    // previously retrieved snapshots are unaffected by later updates
+    Assert.assertArrayEquals(new long[]{35129377, 35129393},
+        snapshot.getReachableRepositories(2501));
+  }
+
+  /**
+   * Evaluates whether members which leave an organization are removed from its teams.
+   */
+  @Test
+  public void testOrganizationMembership() throws IOException {
+    MembershipGraph graph = new MembershipGraph();
+    graph.record((OrganizationEvent) Fixtures.decodeEvent(PayloadType.ORGANIZATION, (node) -> {}));
+    Assert.assertArrayEquals(NONE, graph.getSnapshot().getOrganizationMembers(4312013));
+    Assert.assertEquals(0, graph.getSnapshot().getVersion());
+
+    graph.record((OrganizationEvent) Fixtures.decodeEvent(PayloadType.ORGANIZATION, (node) -> {
+      node.put("action", "member_added");
+    }));
+    graph.record((MembershipEvent) Fixtures.decodeEvent(PayloadType.MEMBERSHIP, (node) -> {
+      node.with("member").put("id", 7649605);
+      node.with("organization").put("id", 4312013);
+    }));
+
+    Assert.assertArrayEquals(new long[]{7649605},
+        graph.getSnapshot().getOrganizationMembers(4312013));
+    Assert.assertArrayEquals(new long[]{7649605}, graph.getSnapshot().getTeamMembers(123456));
+
+    graph.record((OrganizationEvent) Fixtures.decodeEvent(PayloadType.ORGANIZATION, (node) -> {
+      node.put("action", "member_removed");
+    }));
+
+    Assert.assertArrayEquals(NONE, graph.getSnapshot().getOrganizationMembers(4312013));
+    Assert.assertArrayEquals(NONE, graph.getSnapshot().getTeamMembers(123456));
+    Assert.assertArrayEquals(NONE, graph.getSnapshot().getOrganizations(7649605));
+    Assert.assertArrayEquals(new long[]{123456},
+        graph.getSnapshot().getOrganizationTeams(4312013));
+  }
+
+  /**
+   * Evaluates whether team events maintain the teams of an organization and their repositories.
+   */
+  @Test
+  public void testTeams() throws IOException {
+    MembershipGraph graph = new MembershipGraph();
+    graph.record((TeamEvent) Fixtures.decodeEvent(PayloadType.TEAM, (node) -> {}));
+    Assert.assertArrayEquals(new long[]{2175394},
+        graph.getSnapshot().getOrganizationTeams(4312013));
+
+    ObjectNode repository = (ObjectNode) Fixtures.readTree(PayloadType.MEMBER).get("repository");
+    graph.record((TeamEvent) Fixtures.decodeEvent(PayloadType.TEAM, (node) -> {
+      node.put("action", "added_to_repository");
+      node.set("repository", repository);
+    }));
+    graph.record((MembershipEvent) Fixtures.decodeEvent(PayloadType.MEMBERSHIP, (node) -> {
+      node.with("team").put("id", 2175394);
+      node.with("organization").put("id", 4312013);
+    }));
+
+    Assert.assertArrayEquals(new long[]{35129377},
+        graph.getSnapshot().getTeamRepositories(2175394));
+    Assert.assertArrayEquals(new long[]{35129377},
+        graph.getSnapshot().getReachableRepositories(2501));
+
+    graph.record((TeamEvent) Fixtures.decodeEvent(PayloadType.TEAM, (node) -> {
+      node.put("action", "deleted");
+    }));
+
+    Snapshot snapshot = graph.getSnapshot();
+    Assert.assertArrayEquals(NONE, snapshot.getOrganizationTeams(4312013));
+    Assert.assertArrayEquals(NONE, snapshot.getTeamMembers(2175394));
+    Assert.assertArrayEquals(NONE, snapshot.getTeams(2501));
+    Assert.assertArrayEquals(NONE, snapshot.getRepositoryTeams(35129377));
+    Assert.assertArrayEquals(NONE, snapshot.getReachableRepositories(2501));
+    Assert.assertArrayEquals(new long[]{2501}, snapshot.getOrganizationMembers(4312013));
+  }
+
+  /**
+   * Evaluates whether blocked users are tracked per organization.
+   */
+  @Test
+  public void testBlocked() throws IOException {
+    MembershipGraph graph = new MembershipGraph();
+    graph.record(
+        (OrganizationBlockEvent) Fixtures.decodeEvent(PayloadType.ORG_BLOCK, (node) -> {}));
+
+    Assert.assertTrue(graph.getSnapshot().isBlocked(4366038, 583231));
+    Assert.assertFalse(graph.getSnapshot().isBlocked(4366038, 1));
+
+    graph.record((OrganizationBlockEvent) Fixtures.decodeEvent(PayloadType.ORG_BLOCK, (node) -> {
+      node.put("action", "unblocked");
+    }));
+    Assert.assertFalse(graph.getSnapshot().isBlocked(4366038, 583231));
+  }
+
+  /**
+   * Evaluates whether edges and updates are reported.
+   */
+  @Test
+  public void testReport() throws IOException {
+    MembershipGraph graph = new MembershipGraph();
+    graph.record((MembershipEvent) Fixtures.decodeEvent(PayloadType.MEMBERSHIP, (node) -> {}));
+    graph.record(
+        (OrganizationBlockEvent) Fixtures.decodeEvent(PayloadType.ORG_BLOCK, (node) -> {}));
+
+    RecordingReporter reporter = RecordingReporter.report(graph);
+    Assert.assertEquals(2, reporter.getValue(MembershipGraph.UPDATE_METRIC), 0);
+    Assert.assertEquals(1,
+        reporter.getValue(MembershipGraph.EDGE_METRIC, "relation", "team_member"), 0);
+    Assert.assertEquals(1,
+        reporter.getValue(MembershipGraph.EDGE_METRIC, "relation", "organization_member"), 0);
+    Assert.assertEquals(1,
+        reporter.getValue(MembershipGraph.EDGE_METRIC, "relation", "blocked_user"), 0);
+    Assert.assertEquals(0,
+        reporter.getValue(MembershipGraph.EDGE_METRIC, "relation", "collaborator"), 0);
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.metrics;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Evaluates whether histograms place values in the correct buckets and report accurate
+ * quantiles.
+ */
+public class LatencyHistogramTest {
+
+  /**
+   * Evaluates whether buckets cover the entire value range without gaps.
+   */
+  @Test
+  public void testBuckets() {
+    for (long value : new long[]{0, 1, 7, 8, 9, 15, 16, 17, 1000, 123_456_789L,
+        Long.MAX_VALUE}) {
+      int bucket = LatencyHistogram.bucketOf(value);
+
+      Assert.assertTrue(String.valueOf(value), LatencyHistogram.upperBoundOf(bucket) >= value);
+      if (bucket > 0) {
+        Assert.assertTrue(String.valueOf(value),
+            LatencyHistogram.upperBoundOf(bucket - 1) < value);
+      }
+    }
+
+    Assert.assertEquals(Long.MAX_VALUE,
+        LatencyHistogram.upperBoundOf(LatencyHistogram.bucketOf(Long.MAX_VALUE)));
+  }
+
+  /**
+   * Evaluates whether quantiles stay within the relative error of the histogram.
+   */
+  @Test
+  public void testQuantiles() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    Assert.assertEquals(0, histogram.getValueAt(0.5));
+
+    for (int i = 1; i <= 10_000; ++i) {
+      histogram.record(i);
+    }
+    histogram.record(-5);
+
+    Assert.assertEquals(10_001, histogram.getCount());
+    Assert.assertEquals(0, histogram.getMinimum());
+    Assert.assertEquals(10_000, histogram.getMaximum());
+    Assert.assertEquals(5000, histogram.getMean(), 1);
+
+    for (double quantile : new double[]{0.5, 0.9, 0.99}) {
+      long expected = (long) (quantile * 10_000);
+      long actual = histogram.getValueAt(quantile);
+
+      Assert.assertTrue(quantile + ": " + actual, actual >= expected - 1);
+      Assert.assertTrue(quantile + ": " + actual, actual <= expected * 1.125);
+    }
+
+    Assert.assertEquals(10_000, histogram.getValueAt(1));
+  }
+
+  /**
+   * Evaluates whether histograms survive a round trip through their binary representation and
+   * may be merged.
+   */
+  @Test
+  public void testSerialization() throws IOException {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(10);
+    histogram.record(2000);
+    histogram.record(3_600_000);
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    histogram.writeTo(new DataOutputStream(out));
+
+    LatencyHistogram restored = new LatencyHistogram();
+    restored.record(42);
+    restored.readFrom(new DataInputStream(new ByteArrayInputStream(out.toByteArray())));
+
+    Assert.assertEquals(3, restored.getCount());
+    Assert.assertEquals(10, restored.getMinimum());
+    Assert.assertEquals(3_600_000, restored.getMaximum());
+    Assert.assertEquals(histogram.getValueAt(0.5), restored.getValueAt(0.5));
+
+    restored.add(histogram);
+    Assert.assertEquals(6, restored.getCount());
+    Assert.assertEquals(histogram.getValueAt(0.5), restored.getValueAt(0.5));
+  }
+}
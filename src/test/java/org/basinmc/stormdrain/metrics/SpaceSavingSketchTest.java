@@ -0,0 +1,91 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.metrics;
+
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Evaluates whether the sketch retains frequent keys and honors its error bounds.
+ */
+public class SpaceSavingSketchTest {
+
+  /**
+   * Evaluates whether weights are exact as long as the sketch is not at capacity.
+   */
+  @Test
+  public void testExact() {
+    SpaceSavingSketch sketch = new SpaceSavingSketch(16);
+
+    for (int key = 0; key < 16; ++key) {
+      for (int i = 0; i <= key; ++i) {
+        sketch.add(key, "key-" + key, 2);
+      }
+    }
+
+    Assert.assertEquals(16, sketch.getSize());
+    Assert.assertEquals(2, sketch.getMinimum());
+    Assert.assertEquals(272, sketch.getTotal());
+
+    List<HeavyHitter> top = sketch.getTop(3);
+    Assert.assertEquals(3, top.size());
+    Assert.assertEquals(new HeavyHitter(15, "key-15", 32, 0), top.get(0));
+    Assert.assertEquals(new HeavyHitter(14, "key-14", 30, 0), top.get(1));
+    Assert.assertEquals(new HeavyHitter(13, "key-13", 28, 0), top.get(2));
+
+    sketch.clear();
+    Assert.assertEquals(0, sketch.getSize());
+    Assert.assertEquals(0, sketch.getTotal());
+    Assert.assertTrue(sketch.getTop(3).isEmpty());
+  }
+
+  /**
+   * Evaluates whether frequent keys are retained within a skewed stream of keys which greatly
+   * exceeds the capacity of the sketch and whether their estimates are bounded correctly.
+   */
+  @Test
+  public void testSkewed() {
+    SpaceSavingSketch sketch = new SpaceSavingSketch(64);
+    long[] actual = new long[100_000];
+    Random random = new Random(42);
+
+    for (int i = 0; i < 500_000; ++i) {
+      // roughly half of all updates target one of eight hot keys
+      int key = random.nextBoolean() ? random.nextInt(8) : 8 + random.nextInt(actual.length - 8);
+      int weight = 1 + random.nextInt(4);
+
+      actual[key] += weight;
+      sketch.add(key, null, weight);
+    }
+
+    List<HeavyHitter> top = sketch.getTop(8);
+    for (int i = 0; i < 8; ++i) {
+      HeavyHitter hitter = top.get(i);
+      Assert.assertTrue("Unexpected hitter: " + hitter, hitter.getKey() < 8);
+      Assert.assertTrue(hitter.getEstimate() >= actual[(int) hitter.getKey()]);
+      Assert.assertTrue(hitter.getGuaranteedWeight() <= actual[(int) hitter.getKey()]);
+    }
+
+    for (HeavyHitter hitter : sketch.getTop(64)) {
+      Assert.assertTrue(hitter.getEstimate() >= actual[(int) hitter.getKey()]);
+      Assert.assertTrue(hitter.getGuaranteedWeight() <= actual[(int) hitter.getKey()]);
+      Assert.assertTrue(hitter.getError() <= sketch.getTotal() / 64);
+    }
+  }
+}
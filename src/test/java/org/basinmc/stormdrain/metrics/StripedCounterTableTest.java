@@ -0,0 +1,70 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Evaluates whether the striped counter table correctly counts concurrent increments and
+ * respects its bounds.
+ */
+public class StripedCounterTableTest {
+
+  /**
+   * Evaluates whether concurrent increments are never lost.
+   */
+  @Test
+  public void testConcurrentIncrements() throws InterruptedException {
+    StripedCounterTable<String> table = new StripedCounterTable<>(8, 64);
+    List<Thread> threads = new ArrayList<>();
+
+    for (int i = 0; i < 4; ++i) {
+      Thread thread = new Thread(() -> {
+        for (int j = 0; j < 10_000; ++j) {
+          table.increment("key-" + (j % 16));
+        }
+      });
+      threads.add(thread);
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    Assert.assertEquals(16, table.snapshot().size());
+    Assert.assertEquals(2_500, table.get("key-0"));
+    Assert.assertEquals(0, table.getOverflowCount());
+  }
+
+  /**
+   * Evaluates whether increments beyond the maximum key count are tracked as overflow.
+   */
+  @Test
+  public void testOverflow() {
+    StripedCounterTable<Integer> table = new StripedCounterTable<>(1, 2);
+    table.add(1, 5);
+    table.add(2, 5);
+    table.add(3, 7);
+
+    Assert.assertEquals(2, table.snapshot().size());
+    Assert.assertEquals(0, table.get(3));
+    Assert.assertEquals(7, table.getOverflowCount());
+  }
+}
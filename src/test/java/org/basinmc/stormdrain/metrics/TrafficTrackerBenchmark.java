@@ -0,0 +1,109 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.metrics;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.basinmc.stormdrain.Benchmarks;
+import org.basinmc.stormdrain.Fixtures;
+import org.basinmc.stormdrain.PayloadType;
+import org.basinmc.stormdrain.event.Event;
+import org.junit.Test;
+
+/**
+ * Measures the cost of updating the heavy hitter sketches.
+ */
+public class TrafficTrackerBenchmark {
+
+  @Test
+  public void benchmark() throws Exception {
+    long[] keys = new long[1 << 16];
+    Random random = new Random(42);
+    for (int i = 0; i < keys.length; ++i) {
+      // approximate a long tailed distribution over a million distinct repositories
+      keys[i] = (long) Math.pow(random.nextDouble(), 4) * 1_000_000L;
+    }
+
+    SpaceSavingSketch sketch = new SpaceSavingSketch(256);
+    int[] index = new int[1];
+    Benchmarks.Operation add = () -> sketch
+        .add(keys[index[0]++ & (keys.length - 1)], null, 1 + (index[0] & 0xFFF));
+
+    Benchmarks.report("%-20s %8.1f ns/op %8.1f B/op", "sketch",
+        Benchmarks.measureTime(add), Benchmarks.measureAllocation(add));
+
+    TrafficTracker tracker = new TrafficTracker(256, 10, Duration.ofMinutes(5), 5);
+    Event event = PayloadType.PUSH.read(Fixtures.readEvent(PayloadType.PUSH));
+    Benchmarks.Operation record = () -> tracker.record(event, 4096);
+
+    Benchmarks.report("%-20s %8.1f ns/op %8.1f B/op", "tracker (6 sketches)",
+        Benchmarks.measureTime(record), Benchmarks.measureAllocation(record));
+  }
+
+  /**
+   * Measures the throughput of concurrently recording threads for varying amounts of stripes.
+   */
+  @Test
+  public void benchmarkConcurrent() throws Exception {
+    Event[] events = new Event[256];
+    for (int i = 0; i < events.length; ++i) {
+      int index = i;
+      events[i] = Fixtures.decodeEvent(PayloadType.PUSH, (node) -> {
+        node.with("repository").put("id", 1_000_000 + index);
+        node.with("sender").put("id", 2_000_000 + index % 64);
+      });
+    }
+    int iterations = Benchmarks.getIterations() * 10;
+
+    Benchmarks.report("%-12s %12s %12s", "threads", "stripes", "records/s");
+    for (int threads : new int[]{1, 4, 16}) {
+      for (int stripes : new int[]{1, 16}) {
+        TrafficTracker tracker = new TrafficTracker(256, 10, Duration.ofMinutes(5), 5, stripes);
+        for (int i = 0; i < iterations; ++i) {
+          tracker.record(events[i & (events.length - 1)], 4096);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+
+        for (int i = 0; i < threads; ++i) {
+          int offset = i * 31;
+          futures.add(executor.submit(() -> {
+            for (int j = 0; j < iterations; ++j) {
+              tracker.record(events[(offset + j) & (events.length - 1)], 4096);
+            }
+          }));
+        }
+
+        for (Future<?> future : futures) {
+          future.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        executor.shutdown();
+
+        Benchmarks.report("%-12d %12d %12.0f", threads, stripes,
+            threads * (double) iterations / (elapsed / 1_000_000_000.0));
+      }
+    }
+  }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.metrics;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import org.basinmc.stormdrain.Fixtures;
+import org.basinmc.stormdrain.PayloadType;
+import org.basinmc.stormdrain.RecordingReporter;
+import org.basinmc.stormdrain.decoder.Projection;
+import org.basinmc.stormdrain.event.Event;
+import org.basinmc.stormdrain.metrics.TrafficTracker.Dimension;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Evaluates whether traffic is attributed to the correct keys and expires with the window.
+ */
+public class TrafficTrackerTest {
+
+  /**
+   * Evaluates whether deliveries are attributed to their repository, organization and sender.
+   */
+  @Test
+  public void testRecord() throws IOException {
+    TrafficTracker tracker = new TrafficTracker(16, 4, Duration.ofMinutes(1), 6);
+    Event push = PayloadType.PUSH.read(Fixtures.readEvent(PayloadType.PUSH));
+    Event organization = PayloadType.ORGANIZATION
+        .read(Fixtures.readEvent(PayloadType.ORGANIZATION));
+
+    tracker.record(push, 1000);
+    tracker.record(push, 3000);
+    tracker.record(organization, 500);
+
+    Assert.assertEquals(1, tracker.getTopByDeliveries(Dimension.REPOSITORY, 4).size());
+    Assert.assertEquals(new HeavyHitter(35129377, "baxterthehacker/public-repo", 2, 0),
+        tracker.getTopByDeliveries(Dimension.REPOSITORY, 4).get(0));
+    Assert.assertEquals(new HeavyHitter(35129377, "baxterthehacker/public-repo", 4000, 0),
+        tracker.getTopByBytes(Dimension.REPOSITORY, 4).get(0));
+
+    List<HeavyHitter> organizations = tracker.getTopByBytes(Dimension.ORGANIZATION, 4);
+    Assert.assertEquals(1, organizations.size());
+    Assert.assertEquals(new HeavyHitter(4312013, "baxterandthehackers", 500, 0),
+        organizations.get(0));
+
+    List<HeavyHitter> senders = tracker.getTopByDeliveries(Dimension.SENDER, 4);
+    Assert.assertEquals(2, senders.size());
+    Assert.assertEquals(new HeavyHitter(6752317, "baxterthehacker", 2, 0), senders.get(0));
+    Assert.assertEquals(new HeavyHitter(7649605, "baxterthehacker", 1, 0), senders.get(1));
+
+    RecordingReporter reporter = RecordingReporter.report(tracker);
+    Assert.assertEquals(4, reporter.getSeries(TrafficTracker.BYTE_METRIC).size());
+    Assert.assertTrue(reporter.contains(TrafficTracker.BYTE_METRIC, "dimension", "repository",
+        "name", "baxterthehacker/public-repo", "rank", "1"));
+  }
+
+  /**
+   * Evaluates whether resources which have been omitted by a projection are skipped.
+   */
+  @Test
+  public void testProjected() throws IOException {
+    TrafficTracker tracker = new TrafficTracker(16, 4, Duration.ofMinutes(1), 6);
+    Event push = new Projection(PayloadType.PUSH, "ref", "repository.id")
+        .read(Fixtures.readEvent(PayloadType.PUSH));
+    Event organization = new Projection(PayloadType.ORGANIZATION, "action")
+        .read(Fixtures.readEvent(PayloadType.ORGANIZATION));
+
+    tracker.record(push, 1000);
+    tracker.record(organization, 500);
+
+    Assert.assertEquals(Collections.singletonList(new HeavyHitter(35129377, null, 1, 0)),
+        tracker.getTopByDeliveries(Dimension.REPOSITORY, 4));
+    Assert.assertTrue(tracker.getTopByDeliveries(Dimension.ORGANIZATION, 4).isEmpty());
+    Assert.assertTrue(tracker.getTopByDeliveries(Dimension.SENDER, 4).isEmpty());
+  }
+
+  /**
+   * Evaluates whether striped trackers attribute concurrently recorded deliveries without losing
+   * updates.
+   */
+  @Test
+  public void testConcurrent() throws Exception {
+    TrafficTracker tracker = new TrafficTracker(16, 4, Duration.ofMinutes(1), 6, 4);
+    Event push = PayloadType.PUSH.read(Fixtures.readEvent(PayloadType.PUSH));
+    int threads = 4;
+    int iterations = 10_000;
+
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < threads; ++i) {
+        futures.add(executor.submit(() -> {
+          for (int j = 0; j < iterations; ++j) {
+            tracker.record(push, 10);
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    Assert.assertEquals(
+        new HeavyHitter(35129377, "baxterthehacker/public-repo", threads * iterations, 0),
+        tracker.getTopByDeliveries(Dimension.REPOSITORY, 4).get(0));
+    Assert.assertEquals(
+        new HeavyHitter(35129377, "baxterthehacker/public-repo", threads * iterations * 10L, 0),
+        tracker.getTopByBytes(Dimension.REPOSITORY, 4).get(0));
+    Assert.assertEquals(threads * iterations,
+        tracker.getTopByDeliveries(Dimension.SENDER, 4).get(0).getEstimate());
+  }
+
+  /**
+   * Evaluates whether traffic is merged across panes and expires once it leaves the window.
+   */
+  @Test
+  public void testWindow() throws IOException {
+    AtomicLong clock = new AtomicLong();
+    TrafficTracker tracker = new TrafficTracker(16, 4, Duration.ofSeconds(60), 6, 1, clock::get);
+    Event push = PayloadType.PUSH.read(Fixtures.readEvent(PayloadType.PUSH));
+
+    tracker.record(push, 100);
+    clock.addAndGet(Duration.ofSeconds(30).toNanos());
+    tracker.record(push, 100);
+    Assert.assertEquals(2,
+        tracker.getTopByDeliveries(Dimension.REPOSITORY, 1).get(0).getEstimate());
+
+    clock.addAndGet(Duration.ofSeconds(30).toNanos());
+    Assert.assertEquals(1,
+        tracker.getTopByDeliveries(Dimension.REPOSITORY, 1).get(0).getEstimate());
+
+    clock.addAndGet(Duration.ofMinutes(10).toNanos());
+    Assert.assertTrue(tracker.getTopByDeliveries(Dimension.REPOSITORY, 1).isEmpty());
+  }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.release;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Evaluates whether asset catalogs are queried, compared and persisted correctly.
+ */
+public class AssetCatalogTest {
+
+  @Rule
+  public final TemporaryFolder folder = new TemporaryFolder();
+
+  /**
+   * Evaluates whether assets are retrieved by repository, release and name.
+   */
+  @Test
+  public void testLookup() {
+    AssetCatalog catalog = AssetCatalog.of(Arrays.asList(
+        new CatalogedAsset(2, "1.0.0", "b.jar", 20, 5),
+        new CatalogedAsset(1, "1.1.0", "a.jar", 10, 7),
+        new CatalogedAsset(1, "1.0.0", "b.jar", 20, 3),
+        new CatalogedAsset(1, "1.0.0", "a.jar", 10, 9)));
+
+    Assert.assertEquals(4, catalog.getAssetCount());
+    Assert.assertEquals(Arrays.asList("1.0.0/a.jar", "1.0.0/b.jar", "1.1.0/a.jar"),
+        names(catalog.getAssets(1)));
+    Assert.assertEquals(Arrays.asList("1.0.0/a.jar", "1.0.0/b.jar"),
+        names(catalog.getAssets(1, "1.0.0")));
+    Assert.assertTrue(catalog.getAssets(1, "2.0.0").isEmpty());
+    Assert.assertTrue(catalog.getAssets(3).isEmpty());
+
+    CatalogedAsset asset = catalog.getAsset(1, "1.0.0", "b.jar")
+        .orElseThrow(AssertionError::new);
+    Assert.assertEquals(20, asset.getSize());
+    Assert.assertEquals(3, asset.getDownloadCount());
+    Assert.assertFalse(catalog.getAsset(2, "1.0.0", "a.jar").isPresent());
+  }
+
+  /**
+   * Evaluates whether the most downloaded assets are retrieved in order.
+   */
+  @Test
+  public void testTopAssets() {
+    List<CatalogedAsset> assets = new ArrayList<>();
+    for (int i = 0; i < 100; ++i) {
+      assets.add(new CatalogedAsset(i % 3, "1.0." + i, "asset.jar", 1, (i * 37) % 101));
+    }
+    AssetCatalog catalog = AssetCatalog.of(assets);
+
+    List<Long> expected = assets.stream()
+        .map(CatalogedAsset::getDownloadCount)
+        .sorted((a, b) -> Long.compare(b, a))
+        .limit(10)
+        .collect(Collectors.toList());
+    Assert.assertEquals(expected, catalog.getTopAssets(10).stream()
+        .map(CatalogedAsset::getDownloadCount)
+        .collect(Collectors.toList()));
+    Assert.assertEquals(100, catalog.getTopAssets(1000).size());
+
+    List<CatalogedAsset> repository = catalog.getTopAssets(1, 5);
+    Assert.assertEquals(5, repository.size());
+    for (int i = 0; i < repository.size(); ++i) {
+      Assert.assertEquals(1, repository.get(i).getRepositoryId());
+      if (i > 0) {
+        Assert.assertTrue(repository.get(i - 1).getDownloadCount()
+            >= repository.get(i).getDownloadCount());
+      }
+    }
+  }
+
+  /**
+   * Evaluates whether added assets and changed download counts are reported.
+   */
+  @Test
+  public void testDiff() {
+    AssetCatalog previous = AssetCatalog.of(Arrays.asList(
+        new CatalogedAsset(1, "1.0.0", "a.jar", 10, 5),
+        new CatalogedAsset(1, "1.0.0", "b.jar", 10, 5),
+        new CatalogedAsset(1, "0.9.0", "a.jar", 10, 5)));
+    AssetCatalog current = AssetCatalog.of(Arrays.asList(
+        new CatalogedAsset(1, "1.0.0", "a.jar", 10, 8),
+        new CatalogedAsset(1, "1.0.0", "b.jar", 10, 5),
+        new CatalogedAsset(1, "1.1.0", "a.jar", 10, 2)));
+
+    List<AssetDelta> deltas = current.diff(previous);
+    Assert.assertEquals(2, deltas.size());
+
+    Assert.assertEquals("a.jar", deltas.get(0).getAsset().getName());
+    Assert.assertEquals("1.0.0", deltas.get(0).getAsset().getTagName());
+    Assert.assertEquals(5, deltas.get(0).getPreviousDownloadCount());
+    Assert.assertEquals(3, deltas.get(0).getDownloadDelta());
+    Assert.assertFalse(deltas.get(0).isAdded());
+
+    Assert.assertEquals("1.1.0", deltas.get(1).getAsset().getTagName());
+    Assert.assertEquals(2, deltas.get(1).getDownloadDelta());
+    Assert.assertTrue(deltas.get(1).isAdded());
+
+    Assert.assertTrue(current.diff(current).isEmpty());
+  }
+
+  /**
+   * Evaluates whether mapped catalogs are equivalent to the catalog they have been written
+   * from.
+   */
+  @Test
+  public void testMap() throws IOException {
+    Path path = this.folder.getRoot().toPath().resolve("assets.catalog");
+    AssetCatalog catalog = AssetCatalog.of(Arrays.asList(
+        new CatalogedAsset(1, "1.0.0", "stormdrain-1.0.0.jar", 4096, 12),
+        new CatalogedAsset(1, "1.0.0", "stormdrain-1.0.0-sources.jar", 2048, 3),
+        new CatalogedAsset(2, "v2", "über.zip", 100, 40)));
+    catalog.write(path);
+
+    AssetCatalog mapped = AssetCatalog.map(path);
+    Assert.assertEquals(3, mapped.getAssetCount());
+    Assert.assertEquals(catalog.getAssets(1), mapped.getAssets(1));
+    Assert.assertEquals(catalog.getTopAssets(3), mapped.getTopAssets(3));
+    Assert.assertEquals("über.zip", mapped.getTopAssets(1).get(0).getName());
+    Assert.assertTrue(mapped.diff(catalog).isEmpty());
+
+    // previously mapped catalogs remain valid when the file is replaced
+    AssetCatalog.of(new ArrayList<>()).write(path);
+    Assert.assertEquals(0, AssetCatalog.map(path).getAssetCount());
+    Assert.assertEquals(3, mapped.getAssetCount());
+    Assert.assertEquals(catalog.getAssets(2), mapped.getAssets(2));
+  }
+
+  /**
+   * Evaluates whether malformed files are rejected when mapped.
+   */
+  @Test
+  public void testMalformed() throws IOException {
+    Path path = this.folder.getRoot().toPath().resolve("assets.catalog");
+    AssetCatalog.of(Arrays.asList(new CatalogedAsset(1, "1.0.0", "a.jar", 1, 1))).write(path);
+
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+      channel.write(ByteBuffer.allocate(4).putInt(0, 1 << 20), 16 + 8);
+    }
+
+    try {
+      AssetCatalog.map(path);
+      Assert.fail("Expected malformed string offset to be rejected");
+    } catch (IOException expected) {
+    }
+
+    AssetCatalog.of(Arrays.asList(new CatalogedAsset(1, "1.0.0", "a.jar", 1, 1))).write(path);
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+      channel.write(ByteBuffer.allocate(4).putInt(0, -1), 16 + 32 + 4);
+    }
+
+    try {
+      AssetCatalog.map(path);
+      Assert.fail("Expected negative string length to be rejected");
+    } catch (IOException expected) {
+    }
+
+    Files.write(path, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16});
+    try {
+      AssetCatalog.map(path);
+      Assert.fail("Expected unknown format to be rejected");
+    } catch (IOException expected) {
+    }
+  }
+
+  /**
+   * Evaluates whether the temporary file is removed when a catalog cannot be moved into place.
+   */
+  @Test
+  public void testFailedWrite() throws IOException {
+    Path path = this.folder.getRoot().toPath().resolve("assets.catalog");
+    Files.createDirectories(path.resolve("occupied"));
+
+    try {
+      AssetCatalog.of(new ArrayList<>()).write(path);
+      Assert.fail("Expected move to fail");
+    } catch (IOException expected) {
+    }
+
+    Assert.assertFalse(Files.exists(path.resolveSibling("assets.catalog.tmp")));
+    Assert.assertTrue(Files.isDirectory(path));
+  }
+
+  private static List<String> names(List<CatalogedAsset> assets) {
+    return assets.stream()
+        .map((a) -> a.getTagName() + "/" + a.getName())
+        .collect(Collectors.toList());
+  }
+}
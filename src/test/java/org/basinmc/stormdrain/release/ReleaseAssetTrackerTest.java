@@ -0,0 +1,93 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.release;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.util.List;
+import org.basinmc.stormdrain.Fixtures;
+import org.basinmc.stormdrain.PayloadType;
+import org.basinmc.stormdrain.RecordingReporter;
+import org.basinmc.stormdrain.event.ReleaseEvent;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Evaluates whether release events are folded into catalogs correctly.
+ */
+public class ReleaseAssetTrackerTest {
+
+  private static final long REPOSITORY_ID = 35129377;
+
+  /**
+   * Evaluates whether recorded releases replace the previously recorded assets of their tag.
+   */
+  @Test
+  public void testRecord() throws IOException {
+    ReleaseAssetTracker tracker = new ReleaseAssetTracker();
+    tracker.record(createEvent("0.0.1", new long[]{10, 20}, "uploaded", "uploaded"));
+    tracker.record(createEvent("0.0.2", new long[]{5, 0}, "uploaded", "new"));
+
+    Assert.assertEquals(2, tracker.getReleaseCount());
+    Assert.assertEquals(3, tracker.getAssetCount());
+
+    AssetCatalog previous = tracker.snapshot();
+    Assert.assertEquals(2, previous.getAssets(REPOSITORY_ID, "0.0.1").size());
+    Assert.assertEquals(1, previous.getAssets(REPOSITORY_ID, "0.0.2").size());
+    Assert.assertEquals(20, previous.getTopAssets(1).get(0).getDownloadCount());
+
+    tracker.record(createEvent("0.0.2", new long[]{8, 1}, "uploaded", "uploaded"));
+    Assert.assertEquals(2, tracker.getReleaseCount());
+    Assert.assertEquals(4, tracker.getAssetCount());
+
+    List<AssetDelta> deltas = tracker.snapshot().diff(previous);
+    Assert.assertEquals(2, deltas.size());
+    Assert.assertEquals("asset-0.zip", deltas.get(0).getAsset().getName());
+    Assert.assertEquals(3, deltas.get(0).getDownloadDelta());
+    Assert.assertTrue(deltas.get(1).isAdded());
+
+    RecordingReporter reporter = RecordingReporter.report(tracker);
+    Assert.assertEquals(4, reporter.getValue(ReleaseAssetTracker.ASSET_METRIC), 0);
+    Assert.assertEquals(2, reporter.getValue(ReleaseAssetTracker.RELEASE_METRIC), 0);
+    Assert.assertEquals(3, reporter.getValue(ReleaseAssetTracker.UPDATE_METRIC), 0);
+  }
+
+  private static ReleaseEvent createEvent(String tagName, long[] downloadCounts,
+      String... states) throws IOException {
+    return Fixtures.decodeEvent(PayloadType.RELEASE, (node) -> {
+      ObjectNode release = node.with("release");
+      release.put("tag_name", tagName);
+
+      ArrayNode assets = release.putArray("assets");
+      for (int i = 0; i < states.length; ++i) {
+        ObjectNode asset = assets.addObject();
+        asset.put("id", Integer.toString(i + 1));
+        asset.put("state", states[i]);
+        asset.put("content_type", "application/zip");
+        asset.put("name", "asset-" + i + ".zip");
+        asset.set("uploader", release.get("author"));
+        asset.put("size", 1024 * (i + 1));
+        asset.put("download_count", downloadCounts[i]);
+        asset.put("browser_download_url", "https://github.com/baxterthehacker/public-repo/"
+            + "releases/download/" + tagName + "/asset-" + i + ".zip");
+        asset.put("created_at", "2015-05-05T23:40:38Z");
+        asset.put("updated_at", "2015-05-05T23:40:38Z");
+      }
+    });
+  }
+}
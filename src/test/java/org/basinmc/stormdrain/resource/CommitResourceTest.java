@@ -34,6 +34,7 @@ public class CommitResourceTest extends AbstractResourceParserTest<Commit> {
   @Override
   protected void doTest(@NonNull Commit model) {
     Assert.assertEquals("0d1a26e67d8f5eaf1f6ba5c57fc3c7d91ac0fd1c", model.getId());
+    Assert.assertFalse(model.hasNumericId());
     Assert.assertEquals("f9d2a07e9488b91af2641b26b9407fe22a451433", model.getTreeId());
     Assert.assertTrue(model.isDistinct());
     Assert.assertEquals("Update README.md", model.getMessage());
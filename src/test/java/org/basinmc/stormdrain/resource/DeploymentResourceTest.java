@@ -34,6 +34,8 @@ public class DeploymentResourceTest extends AbstractResourceParserTest<Deploymen
   @Override
   protected void doTest(@NonNull Deployment model) {
     Assert.assertEquals("710692", model.getId());
+    Assert.assertEquals(ObjectId.parse("9049f1265b7d61be4a8904a9a27120d2064dab3b"),
+        model.getCommitObjectId().orElse(null));
     Assert.assertEquals("production", model.getEnvironment());
     Assert.assertFalse(model.getDescription().isPresent());
     Assert.assertNotNull(model.getCreator());
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.resource;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.basinmc.stormdrain.Benchmarks;
+import org.basinmc.stormdrain.Fixtures;
+import org.basinmc.stormdrain.PayloadType;
+import org.basinmc.stormdrain.event.Event;
+import org.basinmc.stormdrain.utility.Long2ObjectHashMap;
+import org.junit.Test;
+
+/**
+ * Measures the heap retained by an in-memory window of 100k events (cycling through all sample
+ * payloads) as well as by an index over such a window which is keyed by resource identifiers.
+ */
+public class NumericIdentifierBenchmark {
+
+  private static final int WINDOW_SIZE = 100_000;
+
+  @Test
+  public void benchmarkWindow() throws Exception {
+    PayloadType[] types = PayloadType.values();
+    byte[][] bodies = new byte[types.length][];
+    for (int i = 0; i < types.length; ++i) {
+      bodies[i] = Fixtures.readEvent(types[i]);
+    }
+
+    long start = Benchmarks.measureUsedHeap();
+    List<Event> window = new ArrayList<>(WINDOW_SIZE);
+    for (int i = 0; i < WINDOW_SIZE; ++i) {
+      window.add(types[i % types.length].read(bodies[i % types.length]));
+    }
+    long retained = Benchmarks.measureUsedHeap() - start;
+
+    Benchmarks.report("%-24s %14s %12s", "window", "retained B", "B/event");
+    Benchmarks.report("%-24s %14d %12.0f", window.size() + " events", retained,
+        retained / (double) window.size());
+  }
+
+  @Test
+  public void benchmarkIndex() throws Exception {
+    Object value = new Object();
+
+    long start = Benchmarks.measureUsedHeap();
+    Map<String, Object> stringIndex = new HashMap<>();
+    for (int i = 0; i < WINDOW_SIZE; ++i) {
+      stringIndex.put(Long.toString(27496774L + i), value);
+    }
+    long stringRetained = Benchmarks.measureUsedHeap() - start;
+
+    start = Benchmarks.measureUsedHeap();
+    Long2ObjectHashMap<Object> numericIndex = new Long2ObjectHashMap<>();
+    for (int i = 0; i < WINDOW_SIZE; ++i) {
+      numericIndex.put(27496774L + i, value);
+    }
+    long numericRetained = Benchmarks.measureUsedHeap() - start;
+
+    Benchmarks.report("%-24s %14s %12s", "index", "retained B", "B/entry");
+    Benchmarks.report("%-24s %14d %12.1f", "HashMap<String, V>", stringRetained,
+        stringRetained / (double) stringIndex.size());
+    Benchmarks.report("%-24s %14d %12.1f", "Long2ObjectHashMap<V>", numericRetained,
+        numericRetained / (double) numericIndex.size());
+  }
+}
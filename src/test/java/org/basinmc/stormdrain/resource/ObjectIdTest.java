@@ -0,0 +1,101 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.resource;
+
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import org.basinmc.stormdrain.Fixtures;
+import org.basinmc.stormdrain.PayloadType;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Evaluates whether object identifiers are correctly decoded, encoded and compared.
+ */
+public class ObjectIdTest {
+
+  private static final String HASH = "9049f1265b7d61be4a8904a9a27120d2064dab3b";
+
+  /**
+   * Evaluates whether identifiers survive a round trip through their textual and binary
+   * representations.
+   */
+  @Test
+  public void testRoundTrip() {
+    ObjectId id = ObjectId.parse(HASH);
+    Assert.assertEquals(HASH, id.toString());
+    Assert.assertEquals(id, ObjectId.parse(HASH.toUpperCase()));
+    Assert.assertEquals(id.hashCode(), ObjectId.parse(HASH).hashCode());
+
+    byte[] binary = new byte[ObjectId.LENGTH + 2];
+    id.copyTo(binary, 2);
+    Assert.assertEquals((byte) 0x90, binary[2]);
+    Assert.assertEquals((byte) 0x3b, binary[binary.length - 1]);
+    Assert.assertEquals(id, ObjectId.fromBytes(binary, 2));
+
+    char[] buffer = ("\"" + HASH + "\"").toCharArray();
+    Assert.assertEquals(id, ObjectId.tryParse(buffer, 1, ObjectId.HEX_LENGTH));
+  }
+
+  /**
+   * Evaluates whether malformed identifiers are rejected.
+   */
+  @Test
+  public void testMalformed() {
+    Assert.assertNull(ObjectId.tryParse(HASH.substring(1)));
+    Assert.assertNull(ObjectId.tryParse(HASH.substring(1) + "g"));
+    Assert.assertNull(ObjectId.tryParse("-" + HASH.substring(1)));
+
+    try {
+      ObjectId.parse("refs/heads/master");
+      Assert.fail("Expected malformed identifier to be rejected");
+    } catch (IllegalArgumentException ignore) {
+    }
+  }
+
+  /**
+   * Evaluates whether payloads which carry abbreviated or otherwise malformed hashes are rejected
+   * as a whole.
+   */
+  @Test
+  public void testMalformedPayload() throws IOException {
+    try {
+      Fixtures.decodeEvent(PayloadType.GOLLUM,
+          (node) -> ((ObjectNode) node.withArray("pages").get(0)).put("sha", HASH.substring(0, 7)));
+      Assert.fail("Expected abbreviated hash to be rejected");
+    } catch (InvalidFormatException ex) {
+      Assert.assertEquals(ObjectId.class, ex.getTargetType());
+    }
+  }
+
+  /**
+   * Evaluates whether identifiers are ordered by their unsigned binary representation.
+   */
+  @Test
+  public void testOrdering() {
+    ObjectId zero = ObjectId.parse("0000000000000000000000000000000000000000");
+    ObjectId max = ObjectId.parse("ffffffffffffffffffffffffffffffffffffffff");
+
+    Assert.assertEquals(ObjectId.ZERO, zero);
+    Assert.assertTrue(zero.isZero());
+    Assert.assertFalse(max.isZero());
+    Assert.assertTrue(zero.compareTo(ObjectId.parse(HASH)) < 0);
+    Assert.assertTrue(max.compareTo(ObjectId.parse(HASH)) > 0);
+    Assert.assertEquals(0, ObjectId.parse(HASH).compareTo(ObjectId.parse(HASH)));
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.resource;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import org.junit.Assert;
+
+/**
+ * Evaluates whether repositories are decoded correctly (including the properties which are
+ * derived from their full name).
+ */
+public class RepositoryResourceTest extends AbstractResourceParserTest<Repository> {
+
+  public RepositoryResourceTest() {
+    super("repository", Repository.class);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected void doTest(@NonNull Repository model) {
+    Assert.assertEquals("27496774", model.getId());
+    Assert.assertTrue(model.hasNumericId());
+    Assert.assertEquals(27496774, model.getNumericId());
+    Assert.assertEquals("new-repository", model.getName());
+    Assert.assertEquals("baxterandthehackers/new-repository", model.getFullName());
+    Assert.assertFalse(model.getDescription().isPresent());
+    Assert.assertFalse(model.isFork());
+    Assert.assertEquals("https://github.com/baxterandthehackers/new-repository",
+        model.getBrowserUrl().toExternalForm());
+    Assert.assertEquals("git://github.com/baxterandthehackers/new-repository.git",
+        model.getGitUrl());
+    Assert.assertEquals("git@github.com:baxterandthehackers/new-repository.git",
+        model.getSshUrl());
+    Assert.assertEquals("https://github.com/baxterandthehackers/new-repository.git",
+        model.getCloneUrl());
+    Assert.assertEquals("https://github.com/baxterandthehackers/new-repository",
+        model.getSvnUrl());
+    Assert.assertTrue(model.hasIssues());
+    Assert.assertTrue(model.hasDownloads());
+    Assert.assertTrue(model.hasWiki());
+    Assert.assertFalse(model.hasPages());
+    Assert.assertEquals(1417624765, model.getCreationTimestamp().getEpochSecond());
+    Assert.assertFalse(model.getModificationTimestamp().isPresent());
+    Assert.assertEquals(1417624765, model.getPushedAt().get().getEpochSecond());
+  }
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.review;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.basinmc.stormdrain.Fixtures;
+import org.basinmc.stormdrain.PayloadType;
+import org.basinmc.stormdrain.event.PullRequestEvent;
+import org.basinmc.stormdrain.event.PullRequestReviewCommentEvent;
+import org.basinmc.stormdrain.event.PullRequestReviewEvent;
+import org.basinmc.stormdrain.review.ReviewLatencyTracker.Measure;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Evaluates whether review and merge latencies are derived correctly from pull request events.
+ */
+public class ReviewLatencyTrackerTest {
+
+  private static final Instant OPENED_AT = Instant.parse("2015-05-05T23:40:27Z");
+  private static final long AUTHOR = 6752317;
+  private static final long REVIEWER = 1;
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private final List<PullRequestLatency> closed = new ArrayList<>();
+
+  /**
+   * Evaluates whether reviews are attributed to open pull requests and emitted once the pull
+   * request is merged.
+   */
+  @Test
+  public void testMerged() throws IOException {
+    ReviewLatencyTracker tracker = new ReviewLatencyTracker(16, this.closed::add);
+
+    tracker.record(this.createPullRequest(1, "opened", null, null));
+    tracker.record(this.createReview(1, AUTHOR, OPENED_AT.plusSeconds(60)));
+    Assert.assertFalse(tracker.getFirstReviewAt(1).isPresent());
+
+    tracker.record(this.createReviewComment(1, REVIEWER, OPENED_AT.plusSeconds(7200)));
+    tracker.record(this.createReview(1, REVIEWER, OPENED_AT.plusSeconds(3600)));
+    Assert.assertEquals(OPENED_AT.plusSeconds(3600), tracker.getFirstReviewAt(1).orElse(null));
+    Assert.assertEquals(1, tracker.getOpenPullRequestCount());
+    Assert.assertTrue(this.closed.isEmpty());
+
+    Instant mergedAt = OPENED_AT.plus(Duration.ofDays(1));
+    tracker.record(this.createPullRequest(1, "closed", mergedAt, mergedAt));
+
+    Assert.assertEquals(0, tracker.getOpenPullRequestCount());
+    Assert.assertEquals(1, this.closed.size());
+
+    PullRequestLatency latency = this.closed.get(0);
+    Assert.assertEquals("baxterthehacker/public-repo", latency.getRepositoryName());
+    Assert.assertEquals(2, latency.getReviewCount());
+    Assert.assertTrue(latency.isMerged());
+    Assert.assertEquals(Duration.ofHours(1), latency.getTimeToFirstReview().orElse(null));
+    Assert.assertEquals(Duration.ofDays(1), latency.getTimeToMerge().orElse(null));
+
+    Assert.assertEquals(3_600_000, tracker.getLatency(Measure.FIRST_REVIEW).getMaximum());
+    Assert.assertEquals(86_400_000, tracker.getLatency(Measure.MERGE).getMaximum());
+    Assert.assertEquals(0, tracker.getLatency(Measure.ABANDON).getCount());
+  }
+
+  /**
+   * Evaluates whether pull requests which are closed without merging or have not been observed
+   * while open are emitted without review information.
+   */
+  @Test
+  public void testAbandoned() throws IOException {
+    ReviewLatencyTracker tracker = new ReviewLatencyTracker(16, this.closed::add);
+    Instant closedAt = OPENED_AT.plusSeconds(600);
+
+    tracker.record(this.createPullRequest(2, "closed", closedAt, null));
+
+    Assert.assertEquals(0, tracker.getOpenPullRequestCount());
+    Assert.assertEquals(1, this.closed.size());
+    Assert.assertFalse(this.closed.get(0).isMerged());
+    Assert.assertFalse(this.closed.get(0).getFirstReviewAt().isPresent());
+    Assert.assertEquals(Duration.ofMinutes(10), this.closed.get(0).getTimeToClose());
+    Assert.assertEquals(600_000, tracker.getLatency(Measure.ABANDON).getMaximum());
+  }
+
+  /**
+   * Evaluates whether redelivered closes are ignored.
+   */
+  @Test
+  public void testRedelivered() throws IOException {
+    ReviewLatencyTracker tracker = new ReviewLatencyTracker(16, this.closed::add);
+    Instant closedAt = OPENED_AT.plusSeconds(600);
+
+    tracker.record(this.createPullRequest(2, "closed", closedAt, null));
+    tracker.record(this.createPullRequest(2, "closed", closedAt, null));
+
+    Assert.assertEquals(1, this.closed.size());
+    Assert.assertEquals(1, tracker.getLatency(Measure.ABANDON).getCount());
+  }
+
+  /**
+   * Evaluates whether pull requests which are closed again after being reopened are passed to the
+   * consumer without being recorded a second time.
+   */
+  @Test
+  public void testReopened() throws IOException {
+    ReviewLatencyTracker tracker = new ReviewLatencyTracker(16, this.closed::add);
+
+    tracker.record(this.createPullRequest(2, "closed", OPENED_AT.plusSeconds(600), null));
+    tracker.record(this.createPullRequest(2, "reopened", null, null));
+    Assert.assertEquals(1, tracker.getOpenPullRequestCount());
+
+    Instant mergedAt = OPENED_AT.plusSeconds(1200);
+    tracker.record(this.createPullRequest(2, "closed", mergedAt, mergedAt));
+
+    Assert.assertEquals(2, this.closed.size());
+    Assert.assertTrue(this.closed.get(1).isMerged());
+    Assert.assertEquals(1, tracker.getLatency(Measure.ABANDON).getCount());
+    Assert.assertEquals(0, tracker.getLatency(Measure.MERGE).getCount());
+  }
+
+  /**
+   * Evaluates whether the longest tracked pull request is evicted once the bound is reached.
+   */
+  @Test
+  public void testEviction() throws IOException {
+    ReviewLatencyTracker tracker = new ReviewLatencyTracker(2, this.closed::add);
+
+    tracker.record(this.createReview(1, REVIEWER, OPENED_AT.plusSeconds(60)));
+    tracker.record(this.createPullRequest(2, "opened", null, null));
+    tracker.record(this.createPullRequest(3, "opened", null, null));
+
+    Assert.assertEquals(2, tracker.getOpenPullRequestCount());
+    Assert.assertFalse(tracker.getFirstReviewAt(1).isPresent());
+
+    tracker.record(this.createPullRequest(1, "closed", OPENED_AT.plusSeconds(120), null));
+    Assert.assertFalse(this.closed.get(0).getFirstReviewAt().isPresent());
+  }
+
+  /**
+   * Evaluates whether the state of open pull requests survives a snapshot.
+   */
+  @Test
+  public void testSnapshot() throws IOException {
+    ReviewLatencyTracker tracker = new ReviewLatencyTracker(16, this.closed::add);
+    tracker.record(this.createPullRequest(1, "opened", null, null));
+    tracker.record(this.createReview(1, REVIEWER, OPENED_AT.plusSeconds(3600)));
+    tracker.record(this.createPullRequest(2, "opened", null, null));
+    tracker.record(this.createPullRequest(2, "closed", OPENED_AT.plusSeconds(60),
+        OPENED_AT.plusSeconds(60)));
+
+    Path snapshot = this.folder.getRoot().toPath().resolve("reviews.snapshot");
+    tracker.writeSnapshot(snapshot);
+
+    ReviewLatencyTracker restored = new ReviewLatencyTracker(16, this.closed::add);
+    restored.readSnapshot(snapshot);
+    Assert.assertEquals(1, restored.getOpenPullRequestCount());
+    Assert.assertEquals(1, restored.getLatency(Measure.MERGE).getCount());
+
+    restored.record(this.createPullRequest(1, "closed", OPENED_AT.plusSeconds(7200), null));
+    Assert.assertEquals(Duration.ofHours(1),
+        this.closed.get(1).getTimeToFirstReview().orElse(null));
+
+    restored.record(this.createPullRequest(2, "closed", OPENED_AT.plusSeconds(60),
+        OPENED_AT.plusSeconds(60)));
+    Assert.assertEquals(2, this.closed.size());
+    Assert.assertEquals(1, restored.getLatency(Measure.MERGE).getCount());
+  }
+
+  private PullRequestEvent createPullRequest(long id, String action, Instant closedAt,
+      Instant mergedAt) throws IOException {
+    return Fixtures.decodeEvent(PayloadType.PULL_REQUEST, (node) -> {
+      node.put("action", action);
+
+      ObjectNode pullRequest = node.with("pull_request");
+      pullRequest.put("id", id);
+      pullRequest.put("state", closedAt == null ? "open" : "closed");
+      pullRequest.put("closed_at", closedAt == null ? null : closedAt.toString());
+      pullRequest.put("merged_at", mergedAt == null ? null : mergedAt.toString());
+    });
+  }
+
+  private PullRequestReviewEvent createReview(long id, long userId, Instant submittedAt)
+      throws IOException {
+    return Fixtures.decodeEvent(PayloadType.PULL_REQUEST_REVIEW, (node) -> {
+      node.with("review").put("submitted_at", submittedAt.toString());
+      node.with("review").with("user").put("id", userId);
+      node.with("pull_request").put("id", id);
+      node.with("pull_request").put("created_at", OPENED_AT.toString());
+    });
+  }
+
+  private PullRequestReviewCommentEvent createReviewComment(long id, long userId,
+      Instant createdAt) throws IOException {
+    return Fixtures.decodeEvent(PayloadType.PULL_REQUEST_REVIEW_COMMENT, (node) -> {
+      node.with("comment").put("created_at", createdAt.toString());
+      node.with("comment").with("user").put("id", userId);
+      node.with("pull_request").put("id", id);
+    });
+  }
+}
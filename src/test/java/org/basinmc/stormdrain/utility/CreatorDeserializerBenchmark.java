@@ -0,0 +1,49 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.utility;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.basinmc.stormdrain.Benchmarks;
+import org.basinmc.stormdrain.Fixtures;
+import org.basinmc.stormdrain.PayloadType;
+import org.junit.Test;
+
+/**
+ * Compares the specialized creator deserializers with Jackson's bean deserializer.
+ */
+public class CreatorDeserializerBenchmark {
+
+  @Test
+  public void benchmark() throws Exception {
+    Benchmarks.report("%-28s %12s %12s %12s %12s", "payload", "bean ns/op", "bean B/op",
+        "creator ns/op", "creator B/op");
+
+    for (PayloadType type : new PayloadType[]{PayloadType.PULL_REQUEST, PayloadType.PUSH,
+        PayloadType.ISSUES, PayloadType.WATCH}) {
+      byte[] body = Fixtures.readEvent(type);
+      ObjectReader bean = CreatorDeserializerTest.createReferenceMapper()
+          .readerFor(type.getType());
+      ObjectReader creator = type.getReader();
+
+      Benchmarks.report("%-28s %12.0f %12.0f %12.0f %12.0f", type.name(),
+          Benchmarks.measureTime(() -> bean.readValue(body)),
+          Benchmarks.measureAllocation(() -> bean.readValue(body)),
+          Benchmarks.measureTime(() -> creator.readValue(body)),
+          Benchmarks.measureAllocation(() -> creator.readValue(body)));
+    }
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.utility;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.deser.DefaultDeserializationContext;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import org.basinmc.stormdrain.Fixtures;
+import org.basinmc.stormdrain.PayloadType;
+import org.basinmc.stormdrain.event.Event;
+import org.basinmc.stormdrain.resource.Repository;
+import org.basinmc.stormdrain.resource.ResourceOwner;
+import org.basinmc.stormdrain.resource.User;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Evaluates whether the specialized creator deserializers produce the same models as Jackson's
+ * bean deserializer.
+ */
+public class CreatorDeserializerTest {
+
+  /**
+   * Creates a mapper which is configured like the regular payload mapper but relies on Jackson's
+   * bean deserializer.
+   *
+   * @return a mapper.
+   */
+  static ObjectMapper createReferenceMapper() {
+    ObjectMapper mapper = new ObjectMapper();
+    mapper.enable(MapperFeature.ACCEPT_CASE_INSENSITIVE_ENUMS);
+    mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    mapper.findAndRegisterModules();
+    mapper.registerModule(
+        new SimpleModule("stormdrain").addDeserializer(Instant.class, new TimestampDeserializer()));
+    return mapper;
+  }
+
+  /**
+   * Evaluates whether all sample payloads decode to the same events.
+   */
+  @Test
+  public void testEquivalence() throws IOException {
+    ObjectMapper reference = createReferenceMapper();
+
+    for (PayloadType type : PayloadType.values()) {
+      byte[] body = Fixtures.readEvent(type);
+      Event expected = reference.readerFor(type.getType()).readValue(body);
+
+      Assert.assertEquals(type.name(), expected, type.read(body));
+    }
+  }
+
+  /**
+   * Evaluates whether the models are actually decoded through specialized deserializers.
+   */
+  @Test
+  public void testSpecialization() throws IOException {
+    ObjectMapper mapper = PayloadType.createMapper();
+
+    for (Class<?> type : new Class<?>[]{Repository.class, ResourceOwner.class, User.class,
+        PayloadType.PUSH.getType()}) {
+      JsonDeserializer<?> deserializer = ((DefaultDeserializationContext) mapper
+          .getDeserializationContext())
+          .createInstance(mapper.getDeserializationConfig(), null, null)
+          .findRootValueDeserializer(mapper.constructType(type));
+
+      Assert.assertTrue(type.getName(), deserializer instanceof CreatorDeserializer);
+    }
+  }
+
+  /**
+   * Evaluates whether required properties are enforced while optional properties fall back to
+   * their defaults.
+   */
+  @Test
+  public void testMissingProperties() throws IOException {
+    ObjectMapper mapper = PayloadType.createMapper();
+    String owner = "{\"id\": 42, \"login\": \"octocat\", \"type\": \"User\", "
+        + "\"avatar_url\": \"https://example.org/avatar.png\", \"unknown\": [1, {\"a\": 2}]}";
+
+    ResourceOwner decoded = mapper.readValue(owner.getBytes(StandardCharsets.UTF_8),
+        ResourceOwner.class);
+    Assert.assertEquals(42, decoded.getNumericId());
+    Assert.assertEquals("octocat", decoded.getLogin());
+    Assert.assertFalse(decoded.isSiteAdmin());
+
+    try {
+      mapper.readValue("{\"id\": 42, \"type\": \"User\"}", ResourceOwner.class);
+      Assert.fail("Expected missing required property to be rejected");
+    } catch (JsonMappingException ex) {
+      Assert.assertTrue(ex.getMessage(), ex.getMessage().contains("'login'"));
+    }
+  }
+}
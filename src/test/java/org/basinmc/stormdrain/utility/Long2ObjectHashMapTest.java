@@ -0,0 +1,89 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.utility;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Evaluates whether the primitive map behaves like a regular map.
+ */
+public class Long2ObjectHashMapTest {
+
+  /**
+   * Evaluates whether a random sequence of operations produces the same results as a regular map.
+   */
+  @Test
+  public void testEquivalence() {
+    Random random = new Random(42);
+    Long2ObjectHashMap<String> map = new Long2ObjectHashMap<>(4);
+    Map<Long, String> expected = new HashMap<>();
+
+    for (int i = 0; i < 100_000; ++i) {
+      // keep the key space small in order to provoke collisions and removals within clusters
+      long key = random.nextInt(2048) * (random.nextBoolean() ? 1L : 1L << 32);
+
+      switch (random.nextInt(3)) {
+        case 0:
+          Assert.assertEquals(expected.put(key, "v" + i), map.put(key, "v" + i));
+          break;
+        case 1:
+          Assert.assertEquals(expected.remove(key), map.remove(key));
+          break;
+        default:
+          Assert.assertEquals(expected.get(key), map.get(key));
+          Assert.assertEquals(expected.containsKey(key), map.containsKey(key));
+          break;
+      }
+
+      Assert.assertEquals(expected.size(), map.size());
+    }
+
+    Map<Long, String> actual = new HashMap<>();
+    map.forEach(actual::put);
+    Assert.assertEquals(expected, actual);
+
+    map.clear();
+    Assert.assertTrue(map.isEmpty());
+    Assert.assertNull(map.get(expected.keySet().iterator().next()));
+  }
+
+  /**
+   * Evaluates whether values are computed only when absent.
+   */
+  @Test
+  public void testComputeIfAbsent() {
+    Long2ObjectHashMap<StringBuilder> map = new Long2ObjectHashMap<>();
+
+    map.computeIfAbsent(-1, (k) -> new StringBuilder()).append('a');
+    map.computeIfAbsent(-1, (k) -> new StringBuilder()).append('b');
+
+    Assert.assertEquals(1, map.size());
+    Assert.assertEquals("ab", map.get(-1).toString());
+  }
+
+  /**
+   * Evaluates whether null values are rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullValue() {
+    new Long2ObjectHashMap<>().put(1, null);
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.utility;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Evaluates whether the persistent map behaves like a regular map while leaving previous versions
+ * unchanged.
+ */
+public class PersistentLong2ObjectMapTest {
+
+  /**
+   * Evaluates whether random modifications produce the same mappings as a regular map.
+   */
+  @Test
+  public void testRandomized() {
+    Random random = new Random(42);
+    Map<Long, String> expected = new HashMap<>();
+    PersistentLong2ObjectMap<String> map = PersistentLong2ObjectMap.empty();
+
+    for (int i = 0; i < 50_000; ++i) {
+      // narrow key ranges produce frequent replacements and removals of existing keys
+      long key = i % 2 == 0 ? random.nextInt(2000) - 1000 : random.nextLong();
+
+      if (random.nextInt(3) == 0) {
+        expected.remove(key);
+        map = map.remove(key);
+      } else {
+        expected.put(key, "value" + i);
+        map = map.put(key, "value" + i);
+      }
+    }
+
+    Assert.assertEquals(expected.size(), map.size());
+    for (Map.Entry<Long, String> entry : expected.entrySet()) {
+      Assert.assertEquals(entry.getValue(), map.get(entry.getKey()));
+    }
+    for (long key = -1000; key < 1000; ++key) {
+      Assert.assertEquals(expected.get(key), map.get(key));
+    }
+
+    for (Long key : new ArrayList<>(expected.keySet())) {
+      map = map.remove(key);
+    }
+    Assert.assertTrue(map.isEmpty());
+    Assert.assertSame(PersistentLong2ObjectMap.empty(), map);
+  }
+
+  /**
+   * Evaluates whether previous versions remain unchanged when a map is modified.
+   */
+  @Test
+  public void testPersistence() {
+    List<PersistentLong2ObjectMap<String>> versions = new ArrayList<>();
+    PersistentLong2ObjectMap<String> map = PersistentLong2ObjectMap.empty();
+
+    for (long i = 0; i < 1000; ++i) {
+      versions.add(map);
+      map = map.put(i, "value" + i);
+    }
+    versions.add(map);
+    map = map.put(1, "changed").remove(2);
+
+    for (int i = 0; i < versions.size(); ++i) {
+      PersistentLong2ObjectMap<String> version = versions.get(i);
+
+      Assert.assertEquals(i, version.size());
+      for (long key = 0; key < 1000; ++key) {
+        Assert.assertEquals(key < i ? "value" + key : null, version.get(key));
+      }
+    }
+
+    Assert.assertEquals(999, map.size());
+    Assert.assertEquals("changed", map.get(1));
+    Assert.assertNull(map.get(2));
+    Assert.assertSame(map, map.remove(5000));
+  }
+
+  /**
+   * Evaluates whether null values are rejected.
+   */
+  @Test(expected = NullPointerException.class)
+  public void testNullValue() {
+    PersistentLong2ObjectMap.<String>empty().put(1, null);
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.utility;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Evaluates whether snapshots are written and replaced safely.
+ */
+public class SnapshotFileTest {
+
+  private static final int MAGIC = 0x53445453;
+
+  @Rule
+  public final TemporaryFolder folder = new TemporaryFolder();
+
+  /**
+   * Evaluates whether snapshots are read back correctly and rejected when their format differs.
+   */
+  @Test
+  public void testRoundTrip() throws IOException {
+    Path path = this.folder.getRoot().toPath().resolve("test.snapshot");
+    SnapshotFile.write(path, MAGIC, 1, (out) -> out.writeLong(42));
+
+    AtomicLong value = new AtomicLong();
+    SnapshotFile.read(path, MAGIC, 1, (in) -> value.set(in.readLong()));
+    Assert.assertEquals(42, value.get());
+
+    try {
+      SnapshotFile.read(path, MAGIC, 2, (in) -> Assert.fail("Expected version to be rejected"));
+      Assert.fail("Expected version to be rejected");
+    } catch (IOException expected) {
+    }
+  }
+
+  /**
+   * Evaluates whether a failing encoder leaves the previous snapshot in place and removes its
+   * temporary file.
+   */
+  @Test
+  public void testFailedWrite() throws IOException {
+    Path path = this.folder.getRoot().toPath().resolve("test.snapshot");
+    SnapshotFile.write(path, MAGIC, 1, (out) -> out.writeLong(42));
+
+    try {
+      SnapshotFile.write(path, MAGIC, 1, (out) -> {
+        out.writeLong(7);
+        throw new IOException("Expected failure");
+      });
+      Assert.fail("Expected failure to be propagated");
+    } catch (IOException expected) {
+      Assert.assertEquals("Expected failure", expected.getMessage());
+    }
+
+    Assert.assertFalse(Files.exists(path.resolveSibling("test.snapshot.tmp")));
+
+    AtomicLong value = new AtomicLong();
+    SnapshotFile.read(path, MAGIC, 1, (in) -> value.set(in.readLong()));
+    Assert.assertEquals(42, value.get());
+  }
+}
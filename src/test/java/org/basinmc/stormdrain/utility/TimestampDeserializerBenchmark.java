@@ -0,0 +1,72 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.utility;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import org.basinmc.stormdrain.Benchmarks;
+import org.basinmc.stormdrain.Fixtures;
+import org.basinmc.stormdrain.PayloadType;
+import org.junit.Test;
+
+/**
+ * Compares the specialized timestamp deserializer with the general purpose JSR-310 implementation
+ * for plain timestamps as well as for the decoding of an entire pull request payload.
+ */
+public class TimestampDeserializerBenchmark {
+
+  @Test
+  public void benchmarkTimestamps() throws Exception {
+    StringBuilder builder = new StringBuilder("[");
+    for (int i = 0; i < 100; ++i) {
+      builder.append(i == 0 ? "" : ",").append("\"2015-05-05T23:40:")
+          .append(10 + i % 50).append("Z\",").append(1430869212 + i);
+    }
+    byte[] body = builder.append(']').toString().getBytes(StandardCharsets.UTF_8);
+
+    ObjectReader general = new ObjectMapper().findAndRegisterModules().readerFor(Instant[].class);
+    ObjectReader specialized = PayloadType.createMapper().readerFor(Instant[].class);
+
+    Benchmarks.report("%-28s %12s %12s", "200 timestamps", "ns/op", "B/op");
+    this.report("jsr310", general, body);
+    this.report("specialized", specialized, body);
+  }
+
+  @Test
+  public void benchmarkPullRequest() throws Exception {
+    byte[] body = Fixtures.readEvent(PayloadType.PULL_REQUEST);
+    ObjectReader general = new ObjectMapper()
+        .enable(MapperFeature.ACCEPT_CASE_INSENSITIVE_ENUMS)
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+        .findAndRegisterModules()
+        .readerFor(PayloadType.PULL_REQUEST.getType());
+
+    Benchmarks.report("%-28s %12s %12s", "pull_request.json", "ns/op", "B/op");
+    this.report("jsr310", general, body);
+    this.report("specialized", PayloadType.PULL_REQUEST.getReader(), body);
+  }
+
+  private void report(String name, ObjectReader reader, byte[] body) throws Exception {
+    Benchmarks.report("%-28s %12.0f %12.0f", name,
+        Benchmarks.measureTime(() -> reader.readValue(body)),
+        Benchmarks.measureAllocation(() -> reader.readValue(body)));
+  }
+}
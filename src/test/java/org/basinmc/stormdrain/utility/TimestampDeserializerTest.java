@@ -0,0 +1,123 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.utility;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.Iterator;
+import org.basinmc.stormdrain.Fixtures;
+import org.basinmc.stormdrain.PayloadType;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Evaluates whether the specialized timestamp deserializer produces the same results as the
+ * general purpose JSR-310 implementation.
+ */
+public class TimestampDeserializerTest {
+
+  private final ObjectMapper reference = new ObjectMapper()
+      .enable(MapperFeature.ACCEPT_CASE_INSENSITIVE_ENUMS)
+      .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+      .findAndRegisterModules();
+  private final ObjectReader reader = PayloadType.createMapper().readerFor(Instant.class);
+
+  /**
+   * Evaluates whether all timestamps within the sample payloads decode to the same instants and
+   * whether the sample payloads decode to equal events.
+   */
+  @Test
+  public void testFixtures() throws IOException {
+    for (PayloadType type : PayloadType.values()) {
+      byte[] body = Fixtures.readEvent(type);
+      this.verify(this.reference.readTree(body));
+
+      Assert.assertEquals(type.name(), this.reference.readerFor(type.getType()).readValue(body),
+          type.read(body));
+    }
+  }
+
+  private void verify(JsonNode node) throws IOException {
+    if (node.isTextual() && node.asText().matches("\\d{4}-\\d{2}-\\d{2}T.*")) {
+      String json = this.reference.writeValueAsString(node);
+      Assert.assertEquals(json, this.reference.readValue(json, Instant.class),
+          this.reader.readValue(json));
+    }
+
+    Iterator<JsonNode> iterator = node.elements();
+    while (iterator.hasNext()) {
+      this.verify(iterator.next());
+    }
+  }
+
+  /**
+   * Evaluates whether the supported shapes are decoded correctly.
+   */
+  @Test
+  public void testShapes() throws IOException {
+    String[] values = {
+        "1970-01-01T00:00:00Z",
+        "2015-05-05T23:40:12Z",
+        "2016-02-29T12:00:59Z",
+        "1969-12-31T23:59:59Z",
+        "2000-03-01T00:00:00Z",
+        "2099-12-31T23:59:59Z",
+        "2015-05-05T19:40:15-04:00",
+        "2015-05-05T19:40:15+05:30",
+        "2015-05-05T19:40:15.123Z",
+        "2015-05-05T19:40:15.5+01:00"
+    };
+
+    for (String value : values) {
+      Assert.assertEquals(value, OffsetDateTime.parse(value).toInstant(),
+          this.reader.readValue('"' + value + '"'));
+    }
+  }
+
+  /**
+   * Evaluates whether epoch seconds are decoded correctly.
+   */
+  @Test
+  public void testEpochSeconds() throws IOException {
+    Assert.assertEquals(Instant.ofEpochSecond(1430869212), this.reader.readValue("1430869212"));
+    Assert.assertEquals(Instant.ofEpochSecond(1430869212, 500_000_000),
+        this.reader.readValue("1430869212.5"));
+    Assert.assertNull(this.reader.readValue("null"));
+  }
+
+  /**
+   * Evaluates whether invalid dates are rejected.
+   */
+  @Test
+  public void testInvalid() throws IOException {
+    for (String value : new String[]{"2015-02-29T00:00:00Z", "2015-13-01T00:00:00Z",
+        "2015-05-05T24:00:00Z", "2015-05-05 12:00:00Z", "yesterday"}) {
+      try {
+        this.reader.readValue('"' + value + '"');
+        Assert.fail("Expected " + value + " to be rejected");
+      } catch (JsonMappingException ignore) {
+      }
+    }
+  }
+}
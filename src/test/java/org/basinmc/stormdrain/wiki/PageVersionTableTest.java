@@ -0,0 +1,95 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.wiki;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import org.basinmc.stormdrain.resource.ObjectId;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Evaluates whether the page version table correctly stores, grows and serializes its pages.
+ */
+public class PageVersionTableTest {
+
+  /**
+   * Evaluates whether pages are stored and replaced correctly.
+   */
+  @Test
+  public void testPut() {
+    PageVersionTable table = new PageVersionTable(4);
+    Assert.assertNull(table.get(1, "Home"));
+
+    table.put(1, "Home", commitId(1));
+    table.put(2, "Home", commitId(2));
+    Assert.assertEquals(commitId(1), table.get(1, "Home"));
+    Assert.assertEquals(commitId(2), table.get(2, "Home"));
+    Assert.assertNull(table.get(1, "Setup"));
+
+    table.put(1, "Home", commitId(3));
+    Assert.assertEquals(commitId(3), table.get(1, "Home"));
+    Assert.assertEquals(2, table.size());
+  }
+
+  /**
+   * Evaluates whether all pages are retained when the table grows past its initial capacity.
+   */
+  @Test
+  public void testResize() {
+    PageVersionTable table = new PageVersionTable(1);
+
+    for (int i = 0; i < 10_000; ++i) {
+      table.put(i % 100, "Page " + i, commitId(i));
+    }
+
+    Assert.assertEquals(10_000, table.size());
+    for (int i = 0; i < 10_000; ++i) {
+      Assert.assertEquals(commitId(i), table.get(i % 100, "Page " + i));
+    }
+  }
+
+  /**
+   * Evaluates whether tables are restored correctly from their serialized form.
+   */
+  @Test
+  public void testSerialization() throws IOException {
+    PageVersionTable table = new PageVersionTable(16);
+    for (int i = 0; i < 100; ++i) {
+      table.put(i, "Page " + i, commitId(i));
+    }
+
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(buffer)) {
+      table.writeTo(out);
+    }
+
+    PageVersionTable restored = PageVersionTable.readFrom(
+        new DataInputStream(new ByteArrayInputStream(buffer.toByteArray())));
+    Assert.assertEquals(100, restored.size());
+    for (int i = 0; i < 100; ++i) {
+      Assert.assertEquals(commitId(i), restored.get(i, "Page " + i));
+    }
+  }
+
+  private static ObjectId commitId(int index) {
+    return ObjectId.parse(String.format("%040x", index + 1));
+  }
+}
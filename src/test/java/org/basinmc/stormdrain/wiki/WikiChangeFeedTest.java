@@ -0,0 +1,201 @@
+/*
+ * Copyright 2018 Johannes Donath <johannesd@torchmind.com>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.basinmc.stormdrain.wiki;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import org.basinmc.stormdrain.Fixtures;
+import org.basinmc.stormdrain.PayloadType;
+import org.basinmc.stormdrain.RecordingReporter;
+import org.basinmc.stormdrain.event.GollumEvent;
+import org.basinmc.stormdrain.resource.ObjectId;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Evaluates whether wiki edits are collapsed and filtered correctly.
+ */
+public class WikiChangeFeedTest {
+
+  private static final long REPOSITORY_ID = 35129377;
+
+  @Rule
+  public final TemporaryFolder folder = new TemporaryFolder();
+
+  /**
+   * Evaluates whether edits of the same page within the window are collapsed into a single
+   * change.
+   */
+  @Test
+  public void testCollapse() throws IOException, InterruptedException {
+    List<WikiChange> changes = new CopyOnWriteArrayList<>();
+
+    try (WikiChangeFeed feed = new WikiChangeFeed(Duration.ofMillis(50), changes::add)) {
+      for (int i = 1; i <= 3; ++i) {
+        feed.offer(createEvent("Home", i));
+      }
+      feed.offer(createEvent("Setup", 4));
+
+      Assert.assertEquals(2, feed.getPendingCount());
+      Assert.assertTrue(changes.isEmpty());
+
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while (changes.size() < 2 && System.nanoTime() < deadline) {
+        Thread.sleep(5);
+      }
+
+      Assert.assertEquals(2, changes.size());
+      Assert.assertEquals(0, feed.getPendingCount());
+      Assert.assertEquals(2, feed.getPageCount());
+
+      Map<String, WikiChange> byPage = new HashMap<>();
+      changes.forEach((c) -> byPage.put(c.getPageName(), c));
+
+      WikiChange home = byPage.get("Home");
+      Assert.assertEquals(REPOSITORY_ID, home.getRepositoryId());
+      Assert.assertEquals("baxterthehacker/public-repo", home.getRepositoryName());
+      Assert.assertEquals("Home 3", home.getTitle());
+      Assert.assertEquals(commitId(3), home.getCommitObjectId());
+      Assert.assertEquals(3, home.getEdits());
+      Assert.assertTrue(home.isNew());
+      Assert.assertEquals(1, byPage.get("Setup").getEdits());
+    }
+  }
+
+  /**
+   * Evaluates whether changes are only passed on when the page version differs from the most
+   * recently reported version.
+   */
+  @Test
+  public void testUnchanged() throws IOException {
+    List<WikiChange> changes = new ArrayList<>();
+
+    try (WikiChangeFeed feed = new WikiChangeFeed(Duration.ofMinutes(1), changes::add)) {
+      feed.offer(createEvent("Home", 1));
+      feed.flush();
+      Assert.assertEquals(1, changes.size());
+
+      // redelivered events and reverted edits are suppressed
+      feed.offer(createEvent("Home", 1));
+      feed.flush();
+      feed.offer(createEvent("Home", 2));
+      feed.offer(createEvent("Home", 1));
+      feed.flush();
+      Assert.assertEquals(1, changes.size());
+
+      feed.offer(createEvent("Home", 2));
+      feed.flush();
+      Assert.assertEquals(2, changes.size());
+
+      WikiChange change = changes.get(1);
+      Assert.assertFalse(change.isNew());
+      Assert.assertEquals(commitId(1), change.getPreviousCommitObjectId().orElse(null));
+      Assert.assertEquals(commitId(2), change.getCommitObjectId());
+      Assert.assertEquals(commitId(2), feed.getCommitId(REPOSITORY_ID, "Home").orElse(null));
+
+      RecordingReporter reporter = RecordingReporter.report(feed);
+      Assert.assertEquals(5, reporter.getValue(WikiChangeFeed.EDIT_METRIC), 0);
+      Assert.assertEquals(2,
+          reporter.getValue(WikiChangeFeed.CHANGE_METRIC, "result", "emitted"), 0);
+      Assert.assertEquals(2,
+          reporter.getValue(WikiChangeFeed.CHANGE_METRIC, "result", "unchanged"), 0);
+      Assert.assertEquals(1, reporter.getValue(WikiChangeFeed.PAGE_METRIC), 0);
+      Assert.assertEquals(0, reporter.getValue(WikiChangeFeed.PENDING_METRIC), 0);
+    }
+  }
+
+  /**
+   * Evaluates whether consumer failures on the timer are counted without affecting other pages.
+   */
+  @Test
+  public void testFailingConsumer() throws IOException, InterruptedException {
+    List<WikiChange> changes = new CopyOnWriteArrayList<>();
+
+    try (WikiChangeFeed feed = new WikiChangeFeed(Duration.ofMillis(20), (c) -> {
+      if ("Home".equals(c.getPageName())) {
+        throw new IllegalStateException("Consumer failure");
+      }
+      changes.add(c);
+    })) {
+      feed.offer(createEvent("Home", 1));
+      feed.offer(createEvent("Setup", 2));
+
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while ((changes.isEmpty() || feed.getFailedCount() == 0) && System.nanoTime() < deadline) {
+        Thread.sleep(5);
+      }
+
+      Assert.assertEquals(1, feed.getFailedCount());
+      Assert.assertEquals(1, changes.size());
+      Assert.assertEquals("Setup", changes.get(0).getPageName());
+      Assert.assertEquals(0, feed.getPendingCount());
+    }
+  }
+
+  /**
+   * Evaluates whether the known page versions are restored from a snapshot.
+   */
+  @Test
+  public void testSnapshot() throws IOException {
+    Path path = this.folder.getRoot().toPath().resolve("wiki.snapshot");
+    List<WikiChange> changes = new ArrayList<>();
+
+    try (WikiChangeFeed feed = new WikiChangeFeed(Duration.ofMinutes(1), changes::add)) {
+      feed.offer(createEvent("Home", 1));
+      feed.offer(createEvent("Setup", 2));
+      feed.flush();
+      feed.writeSnapshot(path);
+    }
+
+    changes.clear();
+    try (WikiChangeFeed feed = new WikiChangeFeed(Duration.ofMinutes(1), changes::add)) {
+      feed.readSnapshot(path);
+      Assert.assertEquals(2, feed.getPageCount());
+
+      feed.offer(createEvent("Home", 1));
+      feed.offer(createEvent("Setup", 3));
+      feed.flush();
+
+      Assert.assertEquals(1, changes.size());
+      Assert.assertEquals("Setup", changes.get(0).getPageName());
+      Assert.assertEquals(commitId(2), changes.get(0).getPreviousCommitObjectId().orElse(null));
+    }
+  }
+
+  private static GollumEvent createEvent(String pageName, int version) throws IOException {
+    return Fixtures.decodeEvent(PayloadType.GOLLUM, (node) -> {
+      ObjectNode page = (ObjectNode) node.withArray("pages").get(0);
+      page.put("page_name", pageName);
+      page.put("title", pageName + " " + version);
+      page.put("sha", commitId(version).toString());
+    });
+  }
+
+  private static ObjectId commitId(int version) {
+    return ObjectId.parse(String.format("%040x", version));
+  }
+}